@@ -73,11 +73,12 @@ public class HeartbeatResponse {
     }
 
     /**
-     * Get connectedManagers
+     * Interfaces of the connected manager nodes. It is absent in the response to a delta heartbeat.
      *
      * @return connectedManagers
      **/
-    @ApiModelProperty(required = true, value = "")
+    @ApiModelProperty(value = "Interfaces of the connected manager nodes. It is absent in the response to a delta "
+            + "heartbeat.")
     public List<InterfaceConfig> getConnectedManagers() {
         return connectedManagers;
     }
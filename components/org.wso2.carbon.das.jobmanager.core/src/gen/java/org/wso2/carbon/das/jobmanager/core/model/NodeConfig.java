@@ -39,6 +39,8 @@ public class NodeConfig {
     private StateEnum state = null;
     @JsonProperty("httpInterface")
     private InterfaceConfig httpInterface = null;
+    @JsonProperty("metrics")
+    private NodeMetrics metrics = null;
 
     public NodeConfig id(String id) {
         this.id = id;
@@ -84,11 +86,13 @@ public class NodeConfig {
     }
 
     /**
-     * Get httpInterface
+     * Interface of the resource node. It is absent on delta heartbeats of a resource node which has already joined
+     * the resource pool.
      *
      * @return httpInterface
      **/
-    @ApiModelProperty(required = true, value = "")
+    @ApiModelProperty(value = "Interface of the resource node. It is absent on delta heartbeats of a resource node "
+            + "which has already joined the resource pool.")
     public InterfaceConfig getHttpInterface() {
         return httpInterface;
     }
@@ -97,6 +101,25 @@ public class NodeConfig {
         this.httpInterface = httpInterface;
     }
 
+    public NodeConfig metrics(NodeMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Get metrics
+     *
+     * @return metrics
+     **/
+    @ApiModelProperty(value = "")
+    public NodeMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(NodeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @Override
     public boolean equals(java.lang.Object o) {
         if (this == o) {
@@ -108,12 +131,13 @@ public class NodeConfig {
         NodeConfig nodeConfig = (NodeConfig) o;
         return Objects.equals(this.id, nodeConfig.id) &&
                 Objects.equals(this.state, nodeConfig.state) &&
-                Objects.equals(this.httpInterface, nodeConfig.httpInterface);
+                Objects.equals(this.httpInterface, nodeConfig.httpInterface) &&
+                Objects.equals(this.metrics, nodeConfig.metrics);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, state, httpInterface);
+        return Objects.hash(id, state, httpInterface, metrics);
     }
 
     @Override
@@ -124,6 +148,7 @@ public class NodeConfig {
         sb.append("    id: ").append(toIndentedString(id)).append("\n");
         sb.append("    state: ").append(toIndentedString(state)).append("\n");
         sb.append("    httpInterface: ").append(toIndentedString(httpInterface)).append("\n");
+        sb.append("    metrics: ").append(toIndentedString(metrics)).append("\n");
         sb.append("}");
         return sb.toString();
     }
@@ -32,6 +32,7 @@ public class CoordinatorChangeListener extends MemberEventListener {
 
     @Override
     public void memberAdded(NodeDetail nodeDetail) {
+        ServiceDataHolder.setConnectedManagers(null);
         if (ServiceDataHolder.isLeader() && ServiceDataHolder.getResourcePool() != null) {
             ManagerNode member = (ManagerNode) nodeDetail.getPropertiesMap()
                     .get(ResourceManagerConstants.KEY_NODE_INFO);
@@ -41,6 +42,7 @@ public class CoordinatorChangeListener extends MemberEventListener {
 
     @Override
     public void memberRemoved(NodeDetail nodeDetail) {
+        ServiceDataHolder.setConnectedManagers(null);
         if (ServiceDataHolder.isLeader() && ServiceDataHolder.getResourcePool() != null) {
             ManagerNode member = (ManagerNode) nodeDetail.getPropertiesMap()
                     .get(ResourceManagerConstants.KEY_NODE_INFO);
@@ -50,10 +52,13 @@ public class CoordinatorChangeListener extends MemberEventListener {
 
     @Override
     public void coordinatorChanged(NodeDetail nodeDetail) {
+        ServiceDataHolder.setConnectedManagers(null);
         ManagerNode leader = (ManagerNode) nodeDetail.getPropertiesMap()
                 .get(ResourceManagerConstants.KEY_NODE_INFO);
         ServiceDataHolder.isLeader(ServiceDataHolder.getCoordinator().isLeaderNode());
         ServiceDataHolder.setLeaderNode(leader);
+        // Rows persisted by this node are stale once another node has been the leader
+        ServiceDataHolder.getRdbmsService().clearPersistedRows();
         if (ServiceDataHolder.isLeader()) {
             // Get last known state of the resource pool from database and restore it.
             String groupId = ServiceDataHolder.getClusterConfig().getGroupId();
@@ -61,6 +66,9 @@ public class CoordinatorChangeListener extends MemberEventListener {
             ServiceDataHolder.setResourcePool((existingResourcePool != null) ? existingResourcePool
                     : new ResourcePool(groupId));
             ServiceDataHolder.getResourcePool().init();
+            if (ServiceDataHolder.getQueryGroupScaler() != null) {
+                ServiceDataHolder.getQueryGroupScaler().register(ServiceDataHolder.getResourcePool());
+            }
             log.info(leader + " became the leader of the resource pool.");
         } else {
             log.info(ServiceDataHolder.getLeaderNode() + " became the leader of the resource pool.");
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core;
+
+import org.wso2.carbon.das.jobmanager.core.model.ResourceNode;
+import org.wso2.carbon.das.jobmanager.core.model.SiddhiAppHolder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Strategy which decides on which resource node a partial Siddhi app should be deployed. Custom strategies can be
+ * plugged in by configuring the fully qualified class name of the implementation, which should have a public
+ * no-argument constructor.
+ */
+public interface PlacementStrategy {
+    /**
+     * Select the resource node to deploy a partial Siddhi app.
+     *
+     * @param partialApp    partial Siddhi app to be deployed
+     * @param resourceNodes resource nodes on which the partial Siddhi app can be deployed
+     * @param placements    partial Siddhi apps which are deployed, or being deployed, on each resource node
+     * @return the selected resource node, or null if none of the resource nodes can be used
+     */
+    ResourceNode getNextResourceNode(SiddhiAppHolder partialApp, List<ResourceNode> resourceNodes,
+                                     Map<ResourceNode, List<SiddhiAppHolder>> placements);
+}
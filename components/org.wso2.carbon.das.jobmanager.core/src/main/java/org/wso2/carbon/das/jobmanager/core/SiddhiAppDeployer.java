@@ -19,14 +19,17 @@
 package org.wso2.carbon.das.jobmanager.core;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import org.apache.log4j.Logger;
 import org.wso2.carbon.das.jobmanager.core.appCreator.SiddhiQuery;
 import org.wso2.carbon.das.jobmanager.core.model.ResourceNode;
 import org.wso2.carbon.das.jobmanager.core.util.HTTPClientUtil;
 
 import java.io.IOException;
+import java.net.URLEncoder;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import okhttp3.Response;
 
@@ -76,6 +79,44 @@ public class SiddhiAppDeployer {
         }
     }
 
+    /**
+     * Deploy Siddhi app asynchronously, without holding a thread while waiting for the resource node.
+     *
+     * @param node        node to be deployed.
+     * @param siddhiQuery SiddhiQuery holder
+     * @return future Siddhi app name, which is null if the Siddhi app could not be deployed.
+     */
+    public static CompletableFuture<String> deployAsync(ResourceNode node, SiddhiQuery siddhiQuery) {
+        String url = String.format(SERVICE_ENDPOINT, node.getHttpInterface().getHost(),
+                node.getHttpInterface().getPort(), "");
+        return HTTPClientUtil.doPostRequestAsync(url, siddhiQuery.getApp()).thenCompose(response -> {
+            try {
+                if (response.code() == 201) {
+                    String locationHeader = response.header("Location", null);
+                    return CompletableFuture.completedFuture((locationHeader != null && !locationHeader.isEmpty())
+                            ? locationHeader.substring(locationHeader.lastIndexOf('/') + 1) : null);
+                } else if (response.code() == 409) {
+                    return HTTPClientUtil.doPutRequestAsync(url, siddhiQuery.getApp()).thenApply(putResponse -> {
+                        try {
+                            return (putResponse.code() == 200) ? siddhiQuery.getAppName() : null;
+                        } finally {
+                            putResponse.close();
+                        }
+                    });
+                } else {
+                    return CompletableFuture.completedFuture(null);
+                }
+            } finally {
+                response.close();
+            }
+        }).exceptionally(e -> {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Error occurred while deploying Siddhi app to " + node, e);
+            }
+            return null;
+        });
+    }
+
     /**
      * Un-deploy Siddhi app and return whether it successfully un-deployed or not.
      *
@@ -102,6 +143,66 @@ public class SiddhiAppDeployer {
         }
     }
 
+    /**
+     * Persist the current state of a Siddhi app and return the revision of the snapshot.
+     *
+     * @param node          node on which the Siddhi app is deployed.
+     * @param siddhiAppName name of the Siddhi app.
+     * @return revision of the snapshot, or null if the state could not be persisted.
+     */
+    public static String backup(ResourceNode node, String siddhiAppName) {
+        Response response = null;
+        try {
+            response = HTTPClientUtil.doPostRequest(String.format(SERVICE_ENDPOINT,
+                    node.getHttpInterface().getHost(), node.getHttpInterface().getPort(),
+                    "/" + siddhiAppName + "/backup"), "");
+            if (response.code() == 201) {
+                JsonObject siddhiAppRevision = new Gson().fromJson(response.body().string(), JsonObject.class);
+                return (siddhiAppRevision != null && siddhiAppRevision.has("revision"))
+                        ? siddhiAppRevision.get("revision").getAsString() : null;
+            }
+            return null;
+        } catch (Exception e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Error occurred while backing up the state of Siddhi app " + siddhiAppName + " in " + node,
+                        e);
+            }
+            return null;
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * Restore the state of a Siddhi app to a given revision and return whether it successfully restored or not.
+     *
+     * @param node          node on which the Siddhi app is deployed.
+     * @param siddhiAppName name of the Siddhi app.
+     * @param revision      revision of the snapshot to be restored.
+     * @return a boolean stating whether the state of the app get restored or not.
+     */
+    public static boolean restore(ResourceNode node, String siddhiAppName, String revision) {
+        Response response = null;
+        try {
+            response = HTTPClientUtil.doPostRequest(String.format(SERVICE_ENDPOINT,
+                    node.getHttpInterface().getHost(), node.getHttpInterface().getPort(),
+                    "/" + siddhiAppName + "/restore?revision=" + URLEncoder.encode(revision, "UTF-8")), "");
+            return response.code() == 200;
+        } catch (IOException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Error occurred while restoring the state of Siddhi app " + siddhiAppName + " in " + node,
+                        e);
+            }
+            return false;
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
     /**
      * Get list of deployed Siddhi app names in a given resource node.
      *
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.appCreator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Assigns the partitions of a partitioned stream to the instances of the consuming query group, such that the
+ * partitions stay with the same instance as far as possible when the number of instances changes. The assignment for
+ * n + 1 instances is derived from the assignment for n instances, by moving the fair share of partitions of the new
+ * instance from the most loaded instances, choosing the partitions by their hash. Hence, an instance only loses
+ * partitions as instances are added, and scaling a query group between any two numbers of instances only moves the
+ * partitions of the added or removed instances, along with the partition keys routed to them.
+ */
+public class ConsistentHashPartitionAssigner {
+
+    private ConsistentHashPartitionAssigner() {
+    }
+
+    /**
+     * Assign the partitions of a stream to the instances of a query group. Each instance is assigned either the floor
+     * or the ceiling of the average number of partitions per instance.
+     *
+     * @param groupName      name of the query group, which seeds the hash of the partitions
+     * @param partitionCount number of partitions
+     * @param instanceCount  number of instances of the query group
+     * @return partition numbers assigned to each instance in ascending order, by the index of the instance
+     */
+    public static List<List<Integer>> assign(String groupName, int partitionCount, int instanceCount) {
+        List<List<Integer>> assignments = new ArrayList<>(Math.max(instanceCount, 0));
+        if (instanceCount <= 0) {
+            return assignments;
+        }
+        List<Integer> partitions = new ArrayList<>(partitionCount);
+        for (int partition = 0; partition < partitionCount; partition++) {
+            partitions.add(partition);
+        }
+        assignments.add(partitions);
+        for (int instance = 1; instance < instanceCount; instance++) {
+            List<Integer> assignment = new ArrayList<>();
+            int share = partitionCount / (instance + 1);
+            while (assignment.size() < share) {
+                List<Integer> donor = assignments.get(0);
+                for (List<Integer> candidate : assignments) {
+                    if (candidate.size() > donor.size()) {
+                        donor = candidate;
+                    }
+                }
+                int movedIndex = 0;
+                long movedHash = Long.MIN_VALUE;
+                for (int i = 0; i < donor.size(); i++) {
+                    long partitionHash = hash(groupName + "#" + instance + ":" + donor.get(i));
+                    if (partitionHash > movedHash) {
+                        movedIndex = i;
+                        movedHash = partitionHash;
+                    }
+                }
+                assignment.add(donor.remove(movedIndex));
+            }
+            assignments.add(assignment);
+        }
+        for (List<Integer> assignment : assignments) {
+            Collections.sort(assignment);
+        }
+        return assignments;
+    }
+
+    /**
+     * Get the index of the instance to which a partition is assigned.
+     *
+     * @param groupName      name of the query group
+     * @param partitionCount number of partitions
+     * @param instanceCount  number of instances of the query group
+     * @param partition      partition number
+     * @return index of the instance, or -1 if the partition is not assigned
+     */
+    public static int getInstance(String groupName, int partitionCount, int instanceCount, int partition) {
+        List<List<Integer>> assignments = assign(groupName, partitionCount, instanceCount);
+        for (int i = 0; i < assignments.size(); i++) {
+            if (assignments.get(i).contains(partition)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 64-bit FNV-1a hash followed by the MurmurHash3 finalizer, which spreads similar keys over the whole range.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
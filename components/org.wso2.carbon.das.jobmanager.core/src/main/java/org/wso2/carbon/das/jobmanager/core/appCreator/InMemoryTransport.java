@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.appCreator;
+
+import org.apache.commons.text.StrSubstitutor;
+import org.wso2.carbon.das.jobmanager.core.topology.PublishingStrategyDataHolder;
+import org.wso2.carbon.das.jobmanager.core.topology.SubscriptionStrategyDataHolder;
+import org.wso2.carbon.das.jobmanager.core.util.ResourceManagerConstants;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link Transport} which passes the events between query groups deployed on the same resource node through the
+ * in-memory broker of the resource node, without serializing them. Hence, it can only connect single instance query
+ * groups which are deployed together.
+ */
+public class InMemoryTransport implements Transport {
+    private static final Pattern IN_MEMORY_TOPIC_PATTERN =
+            Pattern.compile("@(?:source|sink)\\(type='inMemory', topic='([^']*)'");
+
+    @Override
+    public String getSource(String topic, String groupName, SubscriptionStrategyDataHolder subscriptionStrategy,
+                            int instanceCount, int instanceIndex) {
+        return getAnnotation(ResourceManagerConstants.IN_MEMORY_SOURCE_TEMPLATE, topic);
+    }
+
+    @Override
+    public String getSink(String topic, PublishingStrategyDataHolder publishingStrategy) {
+        return getAnnotation(ResourceManagerConstants.IN_MEMORY_SINK_TEMPLATE, topic);
+    }
+
+    @Override
+    public void createTopics(Map<String, Integer> topicPartitions) {
+        // Topics of the in-memory broker are created as they are subscribed
+    }
+
+    /**
+     * Get the in-memory topics which a partial Siddhi app publishes to or consumes from. Partial Siddhi apps sharing
+     * an in-memory topic have to be deployed on the same resource node.
+     *
+     * @param siddhiApp partial Siddhi app
+     * @return the in-memory topics of the partial Siddhi app
+     */
+    public static Set<String> getTopics(String siddhiApp) {
+        Set<String> topics = new HashSet<>();
+        if (siddhiApp != null) {
+            Matcher matcher = IN_MEMORY_TOPIC_PATTERN.matcher(siddhiApp);
+            while (matcher.find()) {
+                topics.add(matcher.group(1));
+            }
+        }
+        return topics;
+    }
+
+    private String getAnnotation(String template, String topic) {
+        Map<String, String> valuesMap = new HashMap<>(1);
+        valuesMap.put(ResourceManagerConstants.TOPIC_LIST, topic);
+        return new StrSubstitutor(valuesMap).replace(template);
+    }
+}
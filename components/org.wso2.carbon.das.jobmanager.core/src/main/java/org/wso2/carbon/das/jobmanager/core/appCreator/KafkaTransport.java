@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.appCreator;
+
+import kafka.admin.AdminUtils;
+import kafka.utils.ZKStringSerializer$;
+import kafka.utils.ZkUtils;
+import org.I0Itec.zkclient.ZkClient;
+import org.I0Itec.zkclient.ZkConnection;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.StrSubstitutor;
+import org.wso2.carbon.das.jobmanager.core.internal.ServiceDataHolder;
+import org.wso2.carbon.das.jobmanager.core.topology.PublishingStrategyDataHolder;
+import org.wso2.carbon.das.jobmanager.core.topology.SubscriptionStrategyDataHolder;
+import org.wso2.carbon.das.jobmanager.core.util.ResourceManagerConstants;
+import org.wso2.carbon.das.jobmanager.core.util.TransportStrategy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * {@link Transport} which carries the events between query groups through Kafka topics. The partitions of a topic
+ * are shared by the instances of the consuming query group, using the query group name as the consumer group, and
+ * are assigned to the instances by the {@link ConsistentHashPartitionAssigner}.
+ */
+public class KafkaTransport implements Transport {
+
+    @Override
+    public String getSource(String topic, String groupName, SubscriptionStrategyDataHolder subscriptionStrategy,
+                            int instanceCount, int instanceIndex) {
+        Map<String, String> sourceValuesMap = new HashMap<>();
+        sourceValuesMap.put(ResourceManagerConstants.BOOTSTRAP_SERVER_URL,
+                ServiceDataHolder.getDeploymentConfig().getBootstrapURLs());
+        sourceValuesMap.put(ResourceManagerConstants.TOPIC_LIST, topic);
+        if (subscriptionStrategy.getStrategy() == TransportStrategy.FIELD_GROUPING) {
+            sourceValuesMap.put(ResourceManagerConstants.CONSUMER_GROUP_ID, groupName);
+            List<Integer> partitionNumbers = ConsistentHashPartitionAssigner.assign(groupName,
+                    subscriptionStrategy.getOfferedParallelism(), instanceCount).get(instanceIndex);
+            sourceValuesMap.put(ResourceManagerConstants.PARTITION_LIST, StringUtils.join(partitionNumbers, ","));
+            return getUpdatedQuery(ResourceManagerConstants.PARTITIONED_KAFKA_SOURCE_TEMPLATE, sourceValuesMap);
+        } else if (subscriptionStrategy.getStrategy() == TransportStrategy.ROUND_ROBIN) {
+            sourceValuesMap.put(ResourceManagerConstants.CONSUMER_GROUP_ID, groupName);
+            return getUpdatedQuery(ResourceManagerConstants.DEFAULT_KAFKA_SOURCE_TEMPLATE, sourceValuesMap);
+        } else {
+            sourceValuesMap.put(ResourceManagerConstants.CONSUMER_GROUP_ID, groupName + "-" + instanceIndex);
+            return getUpdatedQuery(ResourceManagerConstants.DEFAULT_KAFKA_SOURCE_TEMPLATE, sourceValuesMap);
+        }
+    }
+
+    @Override
+    public String getSink(String topic, PublishingStrategyDataHolder publishingStrategy) {
+        Map<String, String> sinkValuesMap = new HashMap<>();
+        sinkValuesMap.put(ResourceManagerConstants.BOOTSTRAP_SERVER_URL,
+                ServiceDataHolder.getDeploymentConfig().getBootstrapURLs());
+        sinkValuesMap.put(ResourceManagerConstants.TOPIC_LIST, topic);
+        if (publishingStrategy.getStrategy() == TransportStrategy.FIELD_GROUPING) {
+            sinkValuesMap.put(ResourceManagerConstants.PARTITION_KEY, publishingStrategy.getGroupingField());
+            List<String> destinations = new ArrayList<>(publishingStrategy.getParallelism());
+            for (int i = 0; i < publishingStrategy.getParallelism(); i++) {
+                Map<String, String> destinationMap = new HashMap<>(1);
+                destinationMap.put(ResourceManagerConstants.PARTITION_NO, String.valueOf(i));
+                destinations.add(getUpdatedQuery(ResourceManagerConstants.DESTINATION, destinationMap));
+            }
+            sinkValuesMap.put(ResourceManagerConstants.DESTINATIONS, StringUtils.join(destinations, ","));
+            return getUpdatedQuery(ResourceManagerConstants.PARTITIONED_KAFKA_SINK_TEMPLATE, sinkValuesMap);
+        } else {
+            //ATM we are handling both strategies in same manner. Later will improve to have multiple
+            // partitions for RR
+            return getUpdatedQuery(ResourceManagerConstants.DEFAULT_KAFKA_SINK_TEMPLATE, sinkValuesMap);
+        }
+    }
+
+    @Override
+    public void createTopics(Map<String, Integer> topicPartitions) {
+        String zooKeeperServerURL = ServiceDataHolder.getDeploymentConfig().getZooKeeperURLs();
+        ZkClient zkClient = new ZkClient(
+                zooKeeperServerURL,
+                10000,
+                8000,
+                ZKStringSerializer$.MODULE$);
+
+        boolean isSecureKafkaCluster = false;
+        ZkUtils zkUtils = new ZkUtils(zkClient, new ZkConnection(zooKeeperServerURL), isSecureKafkaCluster);
+        Properties topicConfig = new Properties();
+        //// TODO: 11/2/17 making replication factor one. research for dynamically setting this
+        for (Map.Entry<String, Integer> entry : topicPartitions.entrySet()) {
+            if (AdminUtils.topicExists(zkUtils, entry.getKey())) {
+                AdminUtils.addPartitions(zkUtils, entry.getKey(), entry.getValue(), "", true);
+            }
+            AdminUtils.createTopic(zkUtils, entry.getKey(), entry.getValue(), 1, topicConfig);
+        }
+        zkClient.close();
+    }
+
+    private String getUpdatedQuery(String query, Map<String, String> valuesMap) {
+        StrSubstitutor substitutor = new StrSubstitutor(valuesMap);
+        return substitutor.replace(query);
+    }
+}
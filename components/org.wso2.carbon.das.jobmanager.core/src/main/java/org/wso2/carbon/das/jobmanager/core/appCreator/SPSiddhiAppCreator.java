@@ -18,186 +18,250 @@
 
 package org.wso2.carbon.das.jobmanager.core.appCreator;
 
-import kafka.admin.AdminUtils;
-import kafka.utils.ZKStringSerializer$;
-import kafka.utils.ZkUtils;
-import org.I0Itec.zkclient.ZkClient;
-import org.I0Itec.zkclient.ZkConnection;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StrSubstitutor;
+import org.apache.log4j.Logger;
+import org.wso2.carbon.das.jobmanager.core.bean.DeploymentConfig;
 import org.wso2.carbon.das.jobmanager.core.internal.ServiceDataHolder;
 import org.wso2.carbon.das.jobmanager.core.topology.InputStreamDataHolder;
 import org.wso2.carbon.das.jobmanager.core.topology.OutputStreamDataHolder;
 import org.wso2.carbon.das.jobmanager.core.topology.PublishingStrategyDataHolder;
 import org.wso2.carbon.das.jobmanager.core.topology.SiddhiQueryGroup;
+import org.wso2.carbon.das.jobmanager.core.topology.SiddhiTopology;
 import org.wso2.carbon.das.jobmanager.core.topology.SubscriptionStrategyDataHolder;
 import org.wso2.carbon.das.jobmanager.core.util.ResourceManagerConstants;
 import org.wso2.carbon.das.jobmanager.core.util.TransportStrategy;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.Set;
 
 public class SPSiddhiAppCreator extends AbstractSiddhiAppCreator {
+    private static final Logger LOG = Logger.getLogger(SPSiddhiAppCreator.class);
+    private final Transport inMemoryTransport = new InMemoryTransport();
+    private Transport transport;
+
+    /**
+     * Create the partial Siddhi apps of all the query groups of a topology. When query groups are co-located, the
+     * streams between single instance query groups are carried in-memory, and the partial Siddhi apps connected
+     * in-memory are deployed on the same resource node.
+     *
+     * @param topology topology of the distributed Siddhi app
+     * @return partial Siddhi apps of each query group
+     */
+    @Override
+    public List<DeployableSiddhiQueryGroup> createApps(SiddhiTopology topology) {
+        Set<String> colocatedStreams = getColocatedStreams(topology);
+        List<DeployableSiddhiQueryGroup> deployableSiddhiQueryGroupList = new ArrayList<>(topology.getQueryGroupList
+                ().size());
+        for (SiddhiQueryGroup queryGroup : topology.getQueryGroupList()) {
+            DeployableSiddhiQueryGroup deployableQueryGroup = new DeployableSiddhiQueryGroup(queryGroup.getName());
+            deployableQueryGroup.setSiddhiQueries(createApps(topology.getName(), queryGroup,
+                    queryGroup.getParallelism(), true, colocatedStreams));
+            deployableSiddhiQueryGroupList.add(deployableQueryGroup);
+        }
+        return deployableSiddhiQueryGroupList;
+    }
 
     @Override
     protected List<SiddhiQuery> createApps(String siddhiAppName, SiddhiQueryGroup queryGroup) {
+        return createApps(siddhiAppName, queryGroup, queryGroup.getParallelism(), true, Collections.emptySet());
+    }
+
+    /**
+     * Create the partial Siddhi apps of a deployed query group with a different number of instances, which is used to
+     * scale the query group. Partitions of the input streams are reassigned among the instances, while the Kafka
+     * topics are left as they are, since their partitions are created for the parallelism of the query group.
+     *
+     * @param siddhiAppName name of the distributed Siddhi app
+     * @param queryGroup    query group to be scaled
+     * @param instanceCount number of instances, which should not exceed the parallelism of the query group
+     * @return partial Siddhi apps of the query group
+     */
+    public List<SiddhiQuery> createApps(String siddhiAppName, SiddhiQueryGroup queryGroup, int instanceCount) {
+        return createApps(siddhiAppName, queryGroup, instanceCount, false, Collections.emptySet());
+    }
+
+    /**
+     * Get the Kafka topics from which the instances of a query group share the events, using the query group name as
+     * the consumer group. The lag of the query group in consuming these topics reflects whether it has enough
+     * instances. Topics of round robin input streams have a single partition, which only one instance consumes, hence
+     * they are not counted as adding instances does not reduce their lag.
+     *
+     * @param siddhiAppName name of the distributed Siddhi app
+     * @param queryGroup    query group
+     * @return Kafka topics of the partitioned input streams of the query group
+     */
+    public List<String> getConsumedTopics(String siddhiAppName, SiddhiQueryGroup queryGroup) {
+        List<String> topics = new ArrayList<>();
+        for (InputStreamDataHolder inputStream : queryGroup.getInputStreams().values()) {
+            TransportStrategy strategy = inputStream.getSubscriptionStrategy().getStrategy();
+            if (!inputStream.isUserGiven() && strategy == TransportStrategy.FIELD_GROUPING) {
+                topics.add(getTopic(siddhiAppName, inputStream));
+            }
+        }
+        return topics;
+    }
+
+    /**
+     * Get the Kafka topics whose partitions are assigned to the instances of a query group by a partition key.
+     *
+     * @param siddhiAppName name of the distributed Siddhi app
+     * @param queryGroup    query group
+     * @return map of Kafka topic -> partition key, for the partitioned input streams of the query group
+     */
+    public Map<String, String> getPartitionedTopics(String siddhiAppName, SiddhiQueryGroup queryGroup) {
+        Map<String, String> partitionedTopics = new HashMap<>();
+        for (InputStreamDataHolder inputStream : queryGroup.getInputStreams().values()) {
+            SubscriptionStrategyDataHolder subscriptionStrategy = inputStream.getSubscriptionStrategy();
+            if (!inputStream.isUserGiven() && subscriptionStrategy.getStrategy() == TransportStrategy.FIELD_GROUPING) {
+                partitionedTopics.put(getTopic(siddhiAppName, inputStream), subscriptionStrategy.getPartitionKey());
+            }
+        }
+        return partitionedTopics;
+    }
+
+    private List<SiddhiQuery> createApps(String siddhiAppName, SiddhiQueryGroup queryGroup, int instanceCount,
+                                         boolean createTopics, Set<String> colocatedStreams) {
         String groupName = queryGroup.getName();
         String queryTemplate = queryGroup.getSiddhiApp();
-        List<SiddhiQuery> queryList = generateQueryList(queryTemplate, siddhiAppName, groupName, queryGroup
-                .getParallelism());
-        processInputStreams(siddhiAppName, groupName, queryList, queryGroup.getInputStreams().values());
-        processOutputStreams(siddhiAppName, groupName, queryList, queryGroup.getOutputStreams().values());
+        List<SiddhiQuery> queryList = generateQueryList(queryTemplate, siddhiAppName, groupName, instanceCount);
+        processInputStreams(siddhiAppName, groupName, queryList, queryGroup.getInputStreams().values(),
+                colocatedStreams);
+        processOutputStreams(siddhiAppName, groupName, queryList, queryGroup.getOutputStreams().values(),
+                createTopics, colocatedStreams);
         return queryList;
     }
 
+    /**
+     * Get the streams which are carried in-memory, identified by the stream and the consuming query group. A stream
+     * is carried in-memory to a single instance query group, only if all the query groups producing it are single
+     * instance query groups as well, so that the consuming query group uses a single transport for the stream.
+     *
+     * @param topology topology of the distributed Siddhi app
+     * @return the co-located streams
+     */
+    private Set<String> getColocatedStreams(SiddhiTopology topology) {
+        DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
+        if (deploymentConfig == null || !deploymentConfig.isColocateQueryGroups()) {
+            return Collections.emptySet();
+        }
+        Map<String, Boolean> singleInstanceProducers = new HashMap<>();
+        for (SiddhiQueryGroup queryGroup : topology.getQueryGroupList()) {
+            for (String streamName : queryGroup.getOutputStreams().keySet()) {
+                singleInstanceProducers.merge(streamName, queryGroup.getParallelism() == 1, Boolean::logicalAnd);
+            }
+        }
+        Set<String> colocatedStreams = new HashSet<>();
+        for (SiddhiQueryGroup queryGroup : topology.getQueryGroupList()) {
+            if (queryGroup.getParallelism() != 1) {
+                continue;
+            }
+            for (InputStreamDataHolder inputStream : queryGroup.getInputStreams().values()) {
+                if (!inputStream.isUserGiven()
+                        && singleInstanceProducers.getOrDefault(inputStream.getStreamName(), false)) {
+                    colocatedStreams.add(getColocatedStream(inputStream.getStreamName(), queryGroup.getName()));
+                }
+            }
+        }
+        return colocatedStreams;
+    }
+
+    private String getColocatedStream(String streamName, String groupName) {
+        return streamName + "/" + groupName;
+    }
+
+    /**
+     * Get the {@link Transport} which carries the streams between query groups which are not co-located.
+     *
+     * @return the {@link Transport}
+     */
+    private synchronized Transport getTransport() {
+        if (transport == null) {
+            DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
+            String transportName = (deploymentConfig != null) ? deploymentConfig.getTransport() : null;
+            if (transportName == null || ResourceManagerConstants.TRANSPORT_KAFKA.equalsIgnoreCase(transportName)) {
+                transport = new KafkaTransport();
+            } else {
+                try {
+                    transport = (Transport) Class.forName(transportName).newInstance();
+                } catch (ClassNotFoundException | InstantiationException | IllegalAccessException
+                        | ClassCastException e) {
+                    LOG.error(String.format("Could not load transport %s. Hence, using the %s transport.",
+                            transportName, ResourceManagerConstants.TRANSPORT_KAFKA), e);
+                    transport = new KafkaTransport();
+                }
+            }
+            LOG.info("Using transport " + transport.getClass().getName() + " between query groups.");
+        }
+        return transport;
+    }
+
+    private String getTopic(String siddhiAppName, InputStreamDataHolder inputStream) {
+        return siddhiAppName + "." + inputStream.getStreamName() + (inputStream.getSubscriptionStrategy()
+                .getPartitionKey() == null ? "" : ("." + inputStream.getSubscriptionStrategy().getPartitionKey()));
+    }
+
     private void processOutputStreams(String siddhiAppName, String groupName, List<SiddhiQuery> queryList,
-                                      Collection<OutputStreamDataHolder> outputStreams) {
-        Map<String, String> sinkValuesMap = new HashMap<>();
-        String bootstrapServerURL = ServiceDataHolder.getDeploymentConfig().getBootstrapURLs();
-        sinkValuesMap.put(ResourceManagerConstants.BOOTSTRAP_SERVER_URL, bootstrapServerURL);
+                                      Collection<OutputStreamDataHolder> outputStreams, boolean createTopics,
+                                      Set<String> colocatedStreams) {
         for (OutputStreamDataHolder outputStream : outputStreams) {
             Map<String, String> sinkList = new HashMap<>();
+            Map<String, String> inMemorySinkList = new HashMap<>();
             Map<String, Integer> partitionKeys = new HashMap<>();
             Map<String, Integer> topicParallelismMap = new HashMap<>();
             for (PublishingStrategyDataHolder holder : outputStream.getPublishingStrategyList()) {
-                sinkValuesMap.put(ResourceManagerConstants.TOPIC_LIST, siddhiAppName + "." +
-                        outputStream.getStreamName() + (holder.getGroupingField() == null ? "" : ("." + holder
-                        .getGroupingField())));
-                if (holder.getStrategy() == TransportStrategy.FIELD_GROUPING) {
+                String topic = siddhiAppName + "." + outputStream.getStreamName() + (holder.getGroupingField() ==
+                        null ? "" : ("." + holder.getGroupingField()));
+                if (colocatedStreams.contains(getColocatedStream(outputStream.getStreamName(),
+                        holder.getConsumerGroupName()))) {
+                    inMemorySinkList.put(topic, inMemoryTransport.getSink(topic, holder));
+                } else if (holder.getStrategy() == TransportStrategy.FIELD_GROUPING) {
                     if (partitionKeys.get(holder.getGroupingField()) != null &&
                             partitionKeys.get(holder.getGroupingField()) > holder.getParallelism()) {
                         continue;
                     }
-                    //Remove if there is any previous R/R or ALL publishing
-                    sinkValuesMap.remove(siddhiAppName + "." + outputStream.getStreamName());
                     partitionKeys.put(holder.getGroupingField(), holder.getParallelism());
-                    sinkValuesMap.put(ResourceManagerConstants.PARTITION_KEY, holder.getGroupingField());
-                    List<String> destinations = new ArrayList<>(holder.getParallelism());
-                    for (int i = 0; i < holder.getParallelism(); i++) {
-                        Map<String, String> destinationMap = new HashMap<>(holder.getParallelism());
-                        destinationMap.put(ResourceManagerConstants.PARTITION_NO, String.valueOf(i));
-                        destinations.add(getUpdatedQuery(ResourceManagerConstants.DESTINATION, destinationMap));
-                    }
-                    sinkValuesMap.put(ResourceManagerConstants.DESTINATIONS, StringUtils.join(destinations, ","));
-                    String sinkString = getUpdatedQuery(ResourceManagerConstants.PARTITIONED_KAFKA_SINK_TEMPLATE,
-                            sinkValuesMap);
-                    sinkList.put(sinkValuesMap.get(ResourceManagerConstants.TOPIC_LIST), sinkString);
-                    topicParallelismMap.put(sinkValuesMap.get(ResourceManagerConstants.TOPIC_LIST),
-                                            holder.getParallelism());
+                    sinkList.put(topic, getTransport().getSink(topic, holder));
+                    topicParallelismMap.put(topic, holder.getParallelism());
                 } else {
-                    //ATM we are handling both strategies in same manner. Later will improve to have multiple
-                    // partitions for RR
                     if (partitionKeys.isEmpty()) {
                         //Define a sink only if there are no partitioned sinks present
-                        String sinkString = getUpdatedQuery(ResourceManagerConstants.DEFAULT_KAFKA_SINK_TEMPLATE,
-                                sinkValuesMap);
-                        sinkList.put(sinkValuesMap.get(ResourceManagerConstants.TOPIC_LIST), sinkString);
+                        sinkList.put(topic, getTransport().getSink(topic, holder));
                     }
                 }
             }
+            List<String> sinks = new ArrayList<>(sinkList.values());
+            sinks.addAll(inMemorySinkList.values());
             Map<String, String> queryValuesMap = new HashMap<>(1);
-            queryValuesMap.put(outputStream.getStreamName(), StringUtils.join(sinkList.values(), "\n"));
+            queryValuesMap.put(outputStream.getStreamName(), StringUtils.join(sinks, "\n"));
             updateQueryList(queryList, queryValuesMap);
-            createTopicPartitions(topicParallelismMap);
-        }
-    }
-
-    private void createTopicPartitions(Map<String, Integer> topicParallelismMap) {
-        String zooKeeperServerURL = ServiceDataHolder.getDeploymentConfig().getZooKeeperURLs();
-        ZkClient zkClient = new ZkClient(
-                zooKeeperServerURL,
-                10000,
-                8000,
-                ZKStringSerializer$.MODULE$);
-
-        boolean isSecureKafkaCluster = false;
-        ZkUtils zkUtils = new ZkUtils(zkClient, new ZkConnection(zooKeeperServerURL), isSecureKafkaCluster);
-        Properties topicConfig = new Properties();
-        //// TODO: 11/2/17 making replication factor one. research for dynamically setting this
-        for (Map.Entry<String, Integer> entry : topicParallelismMap.entrySet()) {
-            if (AdminUtils.topicExists(zkUtils, entry.getKey())) {
-                AdminUtils.addPartitions(zkUtils, entry.getKey(), entry.getValue(), "", true);
+            if (createTopics && !topicParallelismMap.isEmpty()) {
+                getTransport().createTopics(topicParallelismMap);
             }
-            AdminUtils.createTopic(zkUtils, entry.getKey(), entry.getValue(), 1, topicConfig);
         }
-        zkClient.close();
-
-
     }
 
     private void processInputStreams(String siddhiAppName, String groupName, List<SiddhiQuery> queryList,
-                                     Collection<InputStreamDataHolder> inputStreams) {
-        Map<String, String> sourceValuesMap = new HashMap<>();
-        String bootstrapServerURL = ServiceDataHolder.getDeploymentConfig().getBootstrapURLs();
-        sourceValuesMap.put(ResourceManagerConstants.BOOTSTRAP_SERVER_URL, bootstrapServerURL);
+                                     Collection<InputStreamDataHolder> inputStreams, Set<String> colocatedStreams) {
         for (InputStreamDataHolder inputStream : inputStreams) {
-            SubscriptionStrategyDataHolder subscriptionStrategy = inputStream.getSubscriptionStrategy();
-            sourceValuesMap.put(ResourceManagerConstants.TOPIC_LIST, siddhiAppName + "." +
-                    inputStream.getStreamName() + (inputStream.getSubscriptionStrategy().getPartitionKey() ==
-                    null ? "" : ("." + inputStream.getSubscriptionStrategy().getPartitionKey())));
             if (!inputStream.isUserGiven()) {
-                if (subscriptionStrategy.getStrategy() == TransportStrategy.FIELD_GROUPING) {
-                    sourceValuesMap.put(ResourceManagerConstants.CONSUMER_GROUP_ID, groupName);
-                    for (int i = 0; i < queryList.size(); i++) {
-                        List<Integer> partitionNumbers = getPartitionNumbers(queryList.size(), subscriptionStrategy
-                                .getOfferedParallelism(), i);
-                        sourceValuesMap.put(ResourceManagerConstants.PARTITION_LIST, StringUtils.join(partitionNumbers,
-                                ","));
-                        String sourceString = getUpdatedQuery(ResourceManagerConstants.PARTITIONED_KAFKA_SOURCE_TEMPLATE,
-                                sourceValuesMap);
-                        Map<String, String> queryValuesMap = new HashMap<>(1);
-                        queryValuesMap.put(inputStream.getStreamName(), sourceString);
-                        String updatedQuery = getUpdatedQuery(queryList.get(i).getApp(), queryValuesMap);
-                        queryList.get(i).setApp(updatedQuery);
-                    }
-                } else if (subscriptionStrategy.getStrategy() == TransportStrategy.ROUND_ROBIN) {
-                    sourceValuesMap.put(ResourceManagerConstants.CONSUMER_GROUP_ID, groupName);
-                    String sourceString = getUpdatedQuery(ResourceManagerConstants.DEFAULT_KAFKA_SOURCE_TEMPLATE,
-                            sourceValuesMap);
+                String topic = getTopic(siddhiAppName, inputStream);
+                Transport streamTransport = colocatedStreams.contains(getColocatedStream(
+                        inputStream.getStreamName(), groupName)) ? inMemoryTransport : getTransport();
+                for (int i = 0; i < queryList.size(); i++) {
+                    String sourceString = streamTransport.getSource(topic, groupName,
+                            inputStream.getSubscriptionStrategy(), queryList.size(), i);
                     Map<String, String> queryValuesMap = new HashMap<>(1);
                     queryValuesMap.put(inputStream.getStreamName(), sourceString);
-                    updateQueryList(queryList, queryValuesMap);
-                } else {
-                    for (int i = 0; i < queryList.size(); i++) {
-                        sourceValuesMap.put(ResourceManagerConstants.CONSUMER_GROUP_ID, groupName + "-" +
-                                i);
-                        String sourceString = getUpdatedQuery(ResourceManagerConstants.DEFAULT_KAFKA_SOURCE_TEMPLATE,
-                                sourceValuesMap);
-                        Map<String, String> queryValuesMap = new HashMap<>(1);
-                        queryValuesMap.put(inputStream.getStreamName(), sourceString);
-                        String updatedQuery = getUpdatedQuery(queryList.get(i).getApp(), queryValuesMap);
-                        queryList.get(i).setApp(updatedQuery);
-                    }
-                }
-            }
-        }
-    }
-
-    private List<Integer> getPartitionNumbers(int appParallelism, int availablePartitionCount, int currentAppNum) {
-        List<Integer> partitionNumbers = new ArrayList<>();
-        if (availablePartitionCount == appParallelism) {
-            partitionNumbers.add(currentAppNum);
-            return partitionNumbers;
-        } else {
-            //availablePartitionCount < appParallelism scenario cannot occur according to design. Hence if
-            // availablePartitionCount > appParallelism
-            //// TODO: 10/19/17 improve logic
-            int partitionsPerNode = availablePartitionCount / appParallelism;
-            if (currentAppNum + 1 == appParallelism) { //if last app
-                int remainingPartitions = availablePartitionCount - ((appParallelism - 1) * partitionsPerNode);
-                for (int j = 0; j < remainingPartitions; j++) {
-                    partitionNumbers.add((currentAppNum * partitionsPerNode) + j);
-                }
-                return partitionNumbers;
-            } else {
-                for (int j = 0; j < partitionsPerNode; j++) {
-                    partitionNumbers.add((currentAppNum * partitionsPerNode) + j);
+                    String updatedQuery = getUpdatedQuery(queryList.get(i).getApp(), queryValuesMap);
+                    queryList.get(i).setApp(updatedQuery);
                 }
-                return partitionNumbers;
             }
         }
     }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.appCreator;
+
+import org.wso2.carbon.das.jobmanager.core.topology.PublishingStrategyDataHolder;
+import org.wso2.carbon.das.jobmanager.core.topology.SubscriptionStrategyDataHolder;
+
+import java.util.Map;
+
+/**
+ * Transport which carries the events of a stream from a query group to the query groups consuming it, by providing
+ * the sink and source of the stream in the partial Siddhi apps. Custom transports can be plugged in by configuring
+ * the fully qualified class name of the implementation, which should have a public no-argument constructor.
+ */
+public interface Transport {
+    /**
+     * Get the source through which an instance of a query group consumes a stream.
+     *
+     * @param topic                topic of the stream
+     * @param groupName            name of the consuming query group
+     * @param subscriptionStrategy how the instances of the query group share the events of the stream
+     * @param instanceCount        number of instances of the query group
+     * @param instanceIndex        index of the instance, starting from 0
+     * @return source annotation of the stream
+     */
+    String getSource(String topic, String groupName, SubscriptionStrategyDataHolder subscriptionStrategy,
+                     int instanceCount, int instanceIndex);
+
+    /**
+     * Get the sink through which a query group publishes a stream to a consuming query group.
+     *
+     * @param topic              topic of the stream
+     * @param publishingStrategy how the events of the stream are distributed among the instances of the consuming
+     *                           query group
+     * @return sink annotation of the stream
+     */
+    String getSink(String topic, PublishingStrategyDataHolder publishingStrategy);
+
+    /**
+     * Create the topics before the partial Siddhi apps publishing to them are deployed.
+     *
+     * @param topicPartitions number of partitions of each topic
+     */
+    void createTopics(Map<String, Integer> topicPartitions);
+}
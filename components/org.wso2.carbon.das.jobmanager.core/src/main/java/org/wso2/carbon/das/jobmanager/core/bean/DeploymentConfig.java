@@ -20,6 +20,7 @@ package org.wso2.carbon.das.jobmanager.core.bean;
 
 import org.wso2.carbon.config.annotation.Configuration;
 import org.wso2.carbon.config.annotation.Element;
+import org.wso2.carbon.das.jobmanager.core.util.ResourceManagerConstants;
 
 import java.io.Serializable;
 
@@ -36,6 +37,48 @@ public class DeploymentConfig implements Serializable {
     private int heartbeatInterval = 10000;
     private int heartbeatMaxRetry = 2;
     private int minResourceCount = 1;
+    @Element(description = "strategy to place partial Siddhi apps on resource nodes (load-aware/round-robin or the "
+            + "class name of a custom strategy)")
+    private String placementStrategy = ResourceManagerConstants.PLACEMENT_STRATEGY_LOAD_AWARE;
+    @Element(description = "number of threads deploying partial Siddhi apps concurrently")
+    private int deploymentPoolSize = 10;
+    @Element(description = "maximum number of concurrent deployments on a single resource node")
+    private int maxConcurrentDeploymentsPerNode = 4;
+    @Element(description = "connect timeout of requests to resource nodes in milliseconds")
+    private int httpConnectTimeout = 10000;
+    @Element(description = "read timeout of requests to resource nodes in milliseconds")
+    private int httpReadTimeout = 60000;
+    @Element(description = "number of times a request to a resource node is retried on connection failures")
+    private int httpMaxRetries = 2;
+    @Element(description = "interval in milliseconds at which partial Siddhi apps are rebalanced between resource "
+            + "nodes, 0 to disable rebalancing")
+    private long rebalanceInterval = 0;
+    @Element(description = "minimum difference between the loads of two resource nodes to migrate a partial Siddhi "
+            + "app between them")
+    private double rebalanceThreshold = 0.25;
+    @Element(description = "maximum number of partial Siddhi apps migrated in a single rebalance")
+    private int maxMigrationsPerRebalance = 2;
+    @Element(description = "interval in milliseconds at which the instances of query groups are scaled based on "
+            + "their Kafka consumer lag, 0 to disable auto scaling")
+    private long autoScaleInterval = 0;
+    @Element(description = "minimum number of instances of an auto scaled query group")
+    private int autoScaleMinInstances = 1;
+    @Element(description = "consumer lag per instance above which a query group is scaled up")
+    private long scaleUpLagPerInstance = 10000;
+    @Element(description = "consumer lag per instance below which a query group is scaled down")
+    private long scaleDownLagPerInstance = 100;
+    @Element(description = "ratio of the publishing rate of a partition to the average publishing rate of the "
+            + "partitions of its topic, above which the partition is reported as hot")
+    private double skewThreshold = 2.0;
+    @Element(description = "number of latest events of a hot partition sampled to report its hot partition keys, "
+            + "0 to disable sampling")
+    private int hotKeySampleSize = 1000;
+    @Element(description = "transport connecting the query groups on different resource nodes (kafka or the class "
+            + "name of a custom transport)")
+    private String transport = ResourceManagerConstants.TRANSPORT_KAFKA;
+    @Element(description = "whether connected single instance query groups are deployed on the same resource node "
+            + "and connected in-memory")
+    private boolean colocateQueryGroups = false;
     @Element(description = "datasource to persist resource mappings", required = true)
     private String datasource;
     @Element(description = "bootstrap urls for Kafka", required = true)
@@ -83,6 +126,142 @@ public class DeploymentConfig implements Serializable {
         this.minResourceCount = minResourceCount;
     }
 
+    public String getPlacementStrategy() {
+        return placementStrategy;
+    }
+
+    public void setPlacementStrategy(String placementStrategy) {
+        this.placementStrategy = placementStrategy;
+    }
+
+    public int getDeploymentPoolSize() {
+        return deploymentPoolSize;
+    }
+
+    public void setDeploymentPoolSize(int deploymentPoolSize) {
+        this.deploymentPoolSize = deploymentPoolSize;
+    }
+
+    public int getMaxConcurrentDeploymentsPerNode() {
+        return maxConcurrentDeploymentsPerNode;
+    }
+
+    public void setMaxConcurrentDeploymentsPerNode(int maxConcurrentDeploymentsPerNode) {
+        this.maxConcurrentDeploymentsPerNode = maxConcurrentDeploymentsPerNode;
+    }
+
+    public int getHttpConnectTimeout() {
+        return httpConnectTimeout;
+    }
+
+    public void setHttpConnectTimeout(int httpConnectTimeout) {
+        this.httpConnectTimeout = httpConnectTimeout;
+    }
+
+    public int getHttpReadTimeout() {
+        return httpReadTimeout;
+    }
+
+    public void setHttpReadTimeout(int httpReadTimeout) {
+        this.httpReadTimeout = httpReadTimeout;
+    }
+
+    public int getHttpMaxRetries() {
+        return httpMaxRetries;
+    }
+
+    public void setHttpMaxRetries(int httpMaxRetries) {
+        this.httpMaxRetries = httpMaxRetries;
+    }
+
+    public long getRebalanceInterval() {
+        return rebalanceInterval;
+    }
+
+    public void setRebalanceInterval(long rebalanceInterval) {
+        this.rebalanceInterval = rebalanceInterval;
+    }
+
+    public double getRebalanceThreshold() {
+        return rebalanceThreshold;
+    }
+
+    public void setRebalanceThreshold(double rebalanceThreshold) {
+        this.rebalanceThreshold = rebalanceThreshold;
+    }
+
+    public int getMaxMigrationsPerRebalance() {
+        return maxMigrationsPerRebalance;
+    }
+
+    public void setMaxMigrationsPerRebalance(int maxMigrationsPerRebalance) {
+        this.maxMigrationsPerRebalance = maxMigrationsPerRebalance;
+    }
+
+    public long getAutoScaleInterval() {
+        return autoScaleInterval;
+    }
+
+    public void setAutoScaleInterval(long autoScaleInterval) {
+        this.autoScaleInterval = autoScaleInterval;
+    }
+
+    public int getAutoScaleMinInstances() {
+        return autoScaleMinInstances;
+    }
+
+    public void setAutoScaleMinInstances(int autoScaleMinInstances) {
+        this.autoScaleMinInstances = autoScaleMinInstances;
+    }
+
+    public long getScaleUpLagPerInstance() {
+        return scaleUpLagPerInstance;
+    }
+
+    public void setScaleUpLagPerInstance(long scaleUpLagPerInstance) {
+        this.scaleUpLagPerInstance = scaleUpLagPerInstance;
+    }
+
+    public long getScaleDownLagPerInstance() {
+        return scaleDownLagPerInstance;
+    }
+
+    public void setScaleDownLagPerInstance(long scaleDownLagPerInstance) {
+        this.scaleDownLagPerInstance = scaleDownLagPerInstance;
+    }
+
+    public double getSkewThreshold() {
+        return skewThreshold;
+    }
+
+    public void setSkewThreshold(double skewThreshold) {
+        this.skewThreshold = skewThreshold;
+    }
+
+    public int getHotKeySampleSize() {
+        return hotKeySampleSize;
+    }
+
+    public void setHotKeySampleSize(int hotKeySampleSize) {
+        this.hotKeySampleSize = hotKeySampleSize;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public boolean isColocateQueryGroups() {
+        return colocateQueryGroups;
+    }
+
+    public void setColocateQueryGroups(boolean colocateQueryGroups) {
+        this.colocateQueryGroups = colocateQueryGroups;
+    }
+
     public String getDatasource() {
         return datasource;
     }
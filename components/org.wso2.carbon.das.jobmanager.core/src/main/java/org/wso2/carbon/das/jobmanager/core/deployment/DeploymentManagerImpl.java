@@ -21,15 +21,18 @@ package org.wso2.carbon.das.jobmanager.core.deployment;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.log4j.Logger;
 import org.wso2.carbon.das.jobmanager.core.DeploymentManager;
+import org.wso2.carbon.das.jobmanager.core.PlacementStrategy;
 import org.wso2.carbon.das.jobmanager.core.ResourcePoolChangeListener;
 import org.wso2.carbon.das.jobmanager.core.SiddhiAppDeployer;
 import org.wso2.carbon.das.jobmanager.core.appCreator.DistributedSiddhiQuery;
+import org.wso2.carbon.das.jobmanager.core.appCreator.InMemoryTransport;
 import org.wso2.carbon.das.jobmanager.core.appCreator.SiddhiQuery;
 import org.wso2.carbon.das.jobmanager.core.bean.DeploymentConfig;
 import org.wso2.carbon.das.jobmanager.core.internal.ServiceDataHolder;
 import org.wso2.carbon.das.jobmanager.core.model.ResourceNode;
 import org.wso2.carbon.das.jobmanager.core.model.ResourcePool;
 import org.wso2.carbon.das.jobmanager.core.model.SiddhiAppHolder;
+import org.wso2.carbon.das.jobmanager.core.util.ResourceManagerConstants;
 import org.wso2.carbon.stream.processor.core.distribution.DeploymentStatus;
 
 import java.util.ArrayList;
@@ -37,16 +40,63 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * Deploys the partial Siddhi apps of distributed Siddhi apps on the resource nodes. Partial Siddhi apps of a
+ * distributed Siddhi app are deployed concurrently, with a limited number of concurrent deployments per resource
+ * node, and are all rolled back if any of them cannot be deployed. Distributed Siddhi apps with different names are
+ * deployed independently, while changes to the resource pool wait for the ongoing deployments to complete. Deployed
+ * partial Siddhi apps can be migrated between resource nodes along with their state, which is used to rebalance the
+ * load of the resource nodes. Partial Siddhi apps connected in-memory are always deployed on the same resource node.
+ * When a deployed distributed Siddhi app is changed, only the partial Siddhi apps of its changed query groups are
+ * re-deployed, while the others keep running along with their state.
+ */
 public class DeploymentManagerImpl implements DeploymentManager, ResourcePoolChangeListener {
     private static final Logger LOG = Logger.getLogger(DeploymentManagerImpl.class);
-    private final Lock lock = new ReentrantLock();
-    private Iterator resourceIterator;
+    /**
+     * Number of times a placement is selected again when concurrent deployments change the placements while it is
+     * being selected, before it is reserved regardless.
+     */
+    private static final int MAX_PLACEMENT_ATTEMPTS = 3;
+    /**
+     * Lock which is held in read mode while deploying a distributed Siddhi app, and in write mode while handling
+     * resource pool changes.
+     */
+    private final ReadWriteLock poolLock = new ReentrantReadWriteLock();
+    /**
+     * Map of parentSiddhiAppName -> lock, which serializes deployments of the same distributed Siddhi app.
+     */
+    private final Map<String, Lock> appLocks = new ConcurrentHashMap<>();
+    /**
+     * Map of resource node id -> permits for concurrent deployments on the resource node.
+     */
+    private final Map<String, Semaphore> nodePermits = new ConcurrentHashMap<>();
+    private final DeploymentMetrics deploymentMetrics = new DeploymentMetrics();
+    /**
+     * Whether the partial Siddhi apps are being rebalanced, so that only a single rebalance runs at a time.
+     */
+    private final AtomicBoolean rebalancing = new AtomicBoolean(false);
+    private PlacementStrategy placementStrategy;
+    private LoadAwarePlacementStrategy loadEstimator;
+    private ExecutorService deploymentExecutor;
 
     @Override
     public DeploymentStatus deploy(DistributedSiddhiQuery distributedSiddhiQuery) {
@@ -54,9 +104,12 @@ public class DeploymentManagerImpl implements DeploymentManager, ResourcePoolCha
                 .getResourcePool().getSiddhiAppHoldersMap();
         List<SiddhiAppHolder> appsToDeploy = getSiddhiAppHolders(distributedSiddhiQuery);
         List<SiddhiAppHolder> deployedApps = new ArrayList<>();
+        List<SiddhiAppHolder> unchangedApps = Collections.emptyList();
         boolean shouldDeploy = true;
 
-        lock.lock();
+        Lock appLock = getAppLock(distributedSiddhiQuery.getAppName());
+        poolLock.readLock().lock();
+        appLock.lock();
         try {
             if (deployedSiddhiAppHoldersMap.containsKey(distributedSiddhiQuery.getAppName())) {
                 List<SiddhiAppHolder> existingApps = deployedSiddhiAppHoldersMap
@@ -79,33 +132,39 @@ public class DeploymentManagerImpl implements DeploymentManager, ResourcePoolCha
                         shouldDeploy = false;
                     }
                 } else {
-                    LOG.info("Different Siddhi app with name:" + distributedSiddhiQuery.getAppName() + " is already " +
-                            "deployed. Hence, un-deploying existing Siddhi app.");
-                    rollback(deployedSiddhiAppHoldersMap.get(distributedSiddhiQuery.getAppName()));
-                }
-            }
-            boolean isDeployed = true;
-            if (shouldDeploy) {
-                for (SiddhiAppHolder appHolder : appsToDeploy) {
-                    ResourceNode deployedNode = deploy(new SiddhiQuery(appHolder.getAppName(),
-                            appHolder.getSiddhiApp()), 0);
-                    if (deployedNode != null) {
-                        appHolder.setDeployedNode(deployedNode);
-                        deployedApps.add(appHolder);
-                        LOG.info(String.format("Siddhi app %s of %s successfully deployed in %s.",
-                                appHolder.getAppName(), appHolder.getParentAppName(), deployedNode));
+                    unchangedApps = getUnchangedAppHolders(existingApps, appsToDeploy);
+                    if (unchangedApps.isEmpty()) {
+                        LOG.info("Different Siddhi app with name:" + distributedSiddhiQuery.getAppName()
+                                + " is already deployed. Hence, un-deploying existing Siddhi app.");
                     } else {
-                        LOG.warn(String.format("Insufficient resources to deploy Siddhi app %s of %s. Hence, rolling " +
-                                "back.", appHolder.getAppName(), appHolder.getParentAppName()));
-                        isDeployed = false;
-                        break;
+                        LOG.info(String.format("Different Siddhi app with name: %s is already deployed. Hence, "
+                                        + "re-deploying its changed query groups, while %s of its partial Siddhi "
+                                        + "apps keep running.", distributedSiddhiQuery.getAppName(),
+                                unchangedApps.size()));
                     }
+                    List<SiddhiAppHolder> changedApps = new ArrayList<>(existingApps);
+                    changedApps.removeAll(unchangedApps);
+                    rollback(changedApps);
+                    changedApps.forEach(appHolder -> deploymentMetrics.removePartialApp(appHolder.getAppName()));
                 }
-                if (isDeployed) {
+            }
+            if (shouldDeploy) {
+                long startTime = System.currentTimeMillis();
+                Map<ResourceNode, List<SiddhiAppHolder>> placements = ServiceDataHolder.getResourcePool()
+                        .getNodeAppMapping();
+                List<SiddhiAppHolder> changedApps = new ArrayList<>(appsToDeploy);
+                changedApps.removeAll(unchangedApps);
+                List<SiddhiAppHolder> redeployedApps = deploy(changedApps, placements, true);
+                if (redeployedApps.size() == changedApps.size()) {
+                    deployedApps = new ArrayList<>(unchangedApps);
+                    deployedApps.addAll(redeployedApps);
                     deployedSiddhiAppHoldersMap.put(distributedSiddhiQuery.getAppName(), deployedApps);
-                    LOG.info("Siddhi app " + distributedSiddhiQuery.getAppName() + " successfully deployed.");
+                    LOG.info(String.format("Siddhi app %s successfully deployed in %s ms.",
+                            distributedSiddhiQuery.getAppName(), System.currentTimeMillis() - startTime));
+                    logDeploymentLatencies(distributedSiddhiQuery.getAppName(), redeployedApps);
                 } else {
-                    rollback(deployedApps);
+                    rollback(redeployedApps);
+                    rollback(unchangedApps);
                     deployedApps = Collections.emptyList();
                     deployedSiddhiAppHoldersMap.remove(distributedSiddhiQuery.getAppName());
                     ServiceDataHolder.getResourcePool().getAppsWaitingForDeploy()
@@ -117,12 +176,69 @@ public class DeploymentManagerImpl implements DeploymentManager, ResourcePoolCha
             }
             ServiceDataHolder.getResourcePool().persist();
         } finally {
-            lock.unlock();
+            appLock.unlock();
+            poolLock.readLock().unlock();
         }
         // Returning true as the deployment state, since we might put some apps on wait.
         return getDeploymentStatus(true, deployedApps);
     }
 
+    /**
+     * Get the partial Siddhi apps of a deployed distributed Siddhi app which can keep running when it is re-deployed
+     * with the given partial Siddhi apps. These are the partial Siddhi apps of the query groups whose partial Siddhi
+     * apps are all deployed and unchanged, except the query groups connected in-memory to a changed query group, as
+     * they have to be re-deployed together.
+     *
+     * @param existingApps deployed partial Siddhi apps
+     * @param appsToDeploy partial Siddhi apps to be deployed
+     * @return the deployed partial Siddhi apps which are not changed
+     */
+    private List<SiddhiAppHolder> getUnchangedAppHolders(List<SiddhiAppHolder> existingApps,
+                                                         List<SiddhiAppHolder> appsToDeploy) {
+        Map<String, List<SiddhiAppHolder>> existingGroups = new LinkedHashMap<>();
+        existingApps.forEach(appHolder -> existingGroups.computeIfAbsent(appHolder.getGroupName(),
+                groupName -> new ArrayList<>()).add(appHolder));
+        Map<String, List<SiddhiAppHolder>> groupsToDeploy = new HashMap<>();
+        appsToDeploy.forEach(appHolder -> groupsToDeploy.computeIfAbsent(appHolder.getGroupName(),
+                groupName -> new ArrayList<>()).add(appHolder));
+        Map<String, List<SiddhiAppHolder>> unchangedGroups = new LinkedHashMap<>();
+        Set<String> changedTopics = new HashSet<>();
+        for (Map.Entry<String, List<SiddhiAppHolder>> entry : existingGroups.entrySet()) {
+            List<SiddhiAppHolder> groupToDeploy = groupsToDeploy.get(entry.getKey());
+            if (groupToDeploy != null && CollectionUtils.isEqualCollection(entry.getValue(), groupToDeploy)
+                    && entry.getValue().stream().allMatch(appHolder -> appHolder.getDeployedNode() != null)) {
+                unchangedGroups.put(entry.getKey(), entry.getValue());
+            } else {
+                entry.getValue().forEach(appHolder -> changedTopics.addAll(
+                        InMemoryTransport.getTopics(appHolder.getSiddhiApp())));
+            }
+        }
+        for (Map.Entry<String, List<SiddhiAppHolder>> entry : groupsToDeploy.entrySet()) {
+            if (!unchangedGroups.containsKey(entry.getKey())) {
+                entry.getValue().forEach(appHolder -> changedTopics.addAll(
+                        InMemoryTransport.getTopics(appHolder.getSiddhiApp())));
+            }
+        }
+        boolean connectedGroupFound = true;
+        while (connectedGroupFound) {
+            connectedGroupFound = false;
+            Iterator<List<SiddhiAppHolder>> iterator = unchangedGroups.values().iterator();
+            while (iterator.hasNext()) {
+                Set<String> topics = new HashSet<>();
+                iterator.next().forEach(appHolder -> topics.addAll(
+                        InMemoryTransport.getTopics(appHolder.getSiddhiApp())));
+                if (!Collections.disjoint(topics, changedTopics)) {
+                    changedTopics.addAll(topics);
+                    iterator.remove();
+                    connectedGroupFound = true;
+                }
+            }
+        }
+        List<SiddhiAppHolder> unchangedApps = new ArrayList<>();
+        unchangedGroups.values().forEach(unchangedApps::addAll);
+        return unchangedApps;
+    }
+
     private DeploymentStatus getDeploymentStatus(boolean isDeployed, List<SiddhiAppHolder> siddhiAppHolders) {
         Map<String, List<String>> deploymentDataMap = new HashMap<>();
         for (SiddhiAppHolder appHolder : siddhiAppHolders) {
@@ -159,12 +275,17 @@ public class DeploymentManagerImpl implements DeploymentManager, ResourcePoolCha
         Map<String, List<SiddhiAppHolder>> waitingAppList = ServiceDataHolder
                 .getResourcePool().getAppsWaitingForDeploy();
 
-        lock.lock();
+        Lock appLock = getAppLock(siddhiAppName);
+        poolLock.readLock().lock();
+        appLock.lock();
         try {
             if (siddhiAppHoldersMap.containsKey(siddhiAppName) || waitingAppList.containsKey(siddhiAppName)) {
                 // remove from the deployed apps
                 rollback(siddhiAppHoldersMap.get(siddhiAppName));
-                siddhiAppHoldersMap.remove(siddhiAppName);
+                List<SiddhiAppHolder> removedApps = siddhiAppHoldersMap.remove(siddhiAppName);
+                if (removedApps != null) {
+                    removedApps.forEach(appHolder -> deploymentMetrics.removePartialApp(appHolder.getAppName()));
+                }
 
                 // remove from the waiting list
                 rollback(siddhiAppHoldersMap.get(siddhiAppName));
@@ -177,7 +298,8 @@ public class DeploymentManagerImpl implements DeploymentManager, ResourcePoolCha
             }
             ServiceDataHolder.getResourcePool().persist();
         } finally {
-            lock.unlock();
+            appLock.unlock();
+            poolLock.readLock().unlock();
         }
         return unDeployed;
     }
@@ -193,29 +315,102 @@ public class DeploymentManagerImpl implements DeploymentManager, ResourcePoolCha
     }
 
     /**
-     * Get an available {@link ResourceNode} in round robin manner.
+     * Get the {@link ResourceNode}s on which partial Siddhi apps can be deployed.
      *
-     * @return a {@link ResourceNode}
+     * @return list of {@link ResourceNode}s, which is empty if the resource pool does not have the minimum number
+     * of resource nodes yet
      */
-    private ResourceNode getNextResourceNode() {
+    private List<ResourceNode> getAvailableResourceNodes() {
         DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
         ResourcePool resourcePool = ServiceDataHolder.getResourcePool();
         if (deploymentConfig != null && resourcePool != null) {
             if (resourcePool.getResourceNodeMap().size() >= deploymentConfig.getMinResourceCount()) {
-                if (resourceIterator == null) {
-                    resourceIterator = resourcePool.getResourceNodeMap().values().iterator();
-                }
-                if (resourceIterator.hasNext()) {
-                    return (ResourceNode) resourceIterator.next();
-                } else {
-                    resourceIterator = resourcePool.getResourceNodeMap().values().iterator();
-                    if (resourceIterator.hasNext()) {
-                        return (ResourceNode) resourceIterator.next();
-                    }
+                return new ArrayList<>(resourcePool.getResourceNodeMap().values());
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Get the {@link PlacementStrategy} configured in the deployment configuration. The load aware strategy is used
+     * if the configured strategy cannot be loaded.
+     *
+     * @return the {@link PlacementStrategy}
+     */
+    private PlacementStrategy getPlacementStrategy() {
+        if (placementStrategy == null) {
+            DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
+            String strategyName = (deploymentConfig != null) ? deploymentConfig.getPlacementStrategy() : null;
+            if (strategyName == null
+                    || ResourceManagerConstants.PLACEMENT_STRATEGY_LOAD_AWARE.equalsIgnoreCase(strategyName)) {
+                placementStrategy = new LoadAwarePlacementStrategy();
+            } else if (ResourceManagerConstants.PLACEMENT_STRATEGY_ROUND_ROBIN.equalsIgnoreCase(strategyName)) {
+                placementStrategy = new RoundRobinPlacementStrategy();
+            } else {
+                try {
+                    placementStrategy = (PlacementStrategy) Class.forName(strategyName).newInstance();
+                } catch (ClassNotFoundException | InstantiationException | IllegalAccessException
+                        | ClassCastException e) {
+                    LOG.error(String.format("Could not load placement strategy %s. Hence, using the %s placement "
+                            + "strategy.", strategyName, ResourceManagerConstants.PLACEMENT_STRATEGY_LOAD_AWARE), e);
+                    placementStrategy = new LoadAwarePlacementStrategy();
                 }
             }
+            LOG.info("Using placement strategy " + placementStrategy.getClass().getName() + " to deploy Siddhi apps.");
+        }
+        return placementStrategy;
+    }
+
+    /**
+     * Get the executor which deploys and un-deploys partial Siddhi apps. The executor is created on first use, since
+     * the deployment configuration is not available when the deployment manager is created.
+     *
+     * @return the deployment executor
+     */
+    private synchronized ExecutorService getDeploymentExecutor() {
+        if (deploymentExecutor == null) {
+            DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
+            int poolSize = (deploymentConfig != null) ? Math.max(deploymentConfig.getDeploymentPoolSize(), 1) : 1;
+            AtomicInteger threadCount = new AtomicInteger();
+            deploymentExecutor = Executors.newFixedThreadPool(poolSize, runnable -> {
+                Thread thread = new Thread(runnable, "SiddhiAppDeployer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return deploymentExecutor;
+    }
+
+    private Lock getAppLock(String parentSiddhiAppName) {
+        return appLocks.computeIfAbsent(parentSiddhiAppName, name -> new ReentrantLock());
+    }
+
+    private Semaphore getNodePermits(ResourceNode resourceNode) {
+        return nodePermits.computeIfAbsent(resourceNode.getId(), id -> {
+            DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
+            return new Semaphore((deploymentConfig != null)
+                    ? Math.max(deploymentConfig.getMaxConcurrentDeploymentsPerNode(), 1) : 1);
+        });
+    }
+
+    /**
+     * Log the deployment latencies of the partial Siddhi apps of a distributed Siddhi app, along with the deployment
+     * latencies of the resource nodes they are deployed on.
+     *
+     * @param siddhiAppName name of the distributed Siddhi app
+     * @param appHolders    partial Siddhi apps which were deployed
+     */
+    private void logDeploymentLatencies(String siddhiAppName, List<SiddhiAppHolder> appHolders) {
+        Map<String, String> partialAppNodes = new HashMap<>();
+        for (SiddhiAppHolder appHolder : appHolders) {
+            if (appHolder.getDeployedNode() != null) {
+                partialAppNodes.put(appHolder.getAppName(), appHolder.getDeployedNode().getId());
+            }
+        }
+        if (!partialAppNodes.isEmpty()) {
+            LOG.info(String.format("Deployment latencies of Siddhi app %s per resource node: %s", siddhiAppName,
+                    deploymentMetrics.summarize(partialAppNodes)));
         }
-        return null;
     }
 
     @Override
@@ -226,30 +421,17 @@ public class DeploymentManagerImpl implements DeploymentManager, ResourcePoolCha
         List<SiddhiAppHolder> currentDeployedPartialApps;
         boolean deployedCompletely;
 
-        lock.lock();
+        poolLock.writeLock().lock();
         try {
-            // Refresh iterator after the pool change (since new node added).
-            resourceIterator = ServiceDataHolder.getResourcePool().getResourceNodeMap().values().iterator();
-
             for (String parentSiddhiAppName : waitingParentAppNames) {
                 partialAppHoldersOfSiddhiApp = waitingList.get(parentSiddhiAppName);
-                deployedCompletely = true;
-                currentDeployedPartialApps = new ArrayList<>();
-
-                for (SiddhiAppHolder partialAppHolder : partialAppHoldersOfSiddhiApp) {
-                    ResourceNode deployedNode = deploy(
-                            new SiddhiQuery(partialAppHolder.getAppName(), partialAppHolder.getSiddhiApp()), 0);
-
-                    if (deployedNode != null) {
-                        partialAppHolder.setDeployedNode(deployedNode);
-                        currentDeployedPartialApps.add(partialAppHolder);
-                        LOG.info(String.format("Siddhi app %s of %s successfully deployed in %s.",
-                                partialAppHolder.getAppName(), partialAppHolder.getParentAppName(), deployedNode));
-                    } else {
-                        deployedCompletely = false;
-                        break;
-                    }
+                if (partialAppHoldersOfSiddhiApp == null) {
+                    continue;
                 }
+                Map<ResourceNode, List<SiddhiAppHolder>> placements = ServiceDataHolder.getResourcePool()
+                        .getNodeAppMapping();
+                currentDeployedPartialApps = deploy(partialAppHoldersOfSiddhiApp, placements, true);
+                deployedCompletely = currentDeployedPartialApps.size() == partialAppHoldersOfSiddhiApp.size();
                 if (deployedCompletely) {
                     ServiceDataHolder.getResourcePool().getSiddhiAppHoldersMap()
                             .put(parentSiddhiAppName, partialAppHoldersOfSiddhiApp);
@@ -263,7 +445,12 @@ public class DeploymentManagerImpl implements DeploymentManager, ResourcePoolCha
             }
             ServiceDataHolder.getResourcePool().persist();
         } finally {
-            lock.unlock();
+            poolLock.writeLock().unlock();
+        }
+        DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
+        if (deploymentConfig != null && deploymentConfig.getRebalanceInterval() > 0) {
+            // Move partial Siddhi apps to the new resource node without waiting for the next periodic rebalance
+            ServiceDataHolder.getExecutorService().execute(this::rebalance);
         }
     }
 
@@ -272,24 +459,17 @@ public class DeploymentManagerImpl implements DeploymentManager, ResourcePoolCha
         ResourcePool resourcePool = ServiceDataHolder.getResourcePool();
         List<SiddhiAppHolder> affectedPartialApps = resourcePool.getNodeAppMapping().get(resourceNode);
 
-        lock.lock();
+        poolLock.writeLock().lock();
         try {
-            // Refresh iterator after the pool change (since node get removed).
-            resourceIterator = ServiceDataHolder.getResourcePool().getResourceNodeMap().values().iterator();
-
             if (affectedPartialApps != null) {
                 LOG.info(String.format("Siddhi apps %s were affected by the removal of node %s. Hence, re-deploying " +
                         "them in other resource nodes.", affectedPartialApps, resourceNode));
                 rollback(affectedPartialApps);
+                Map<ResourceNode, List<SiddhiAppHolder>> placements = resourcePool.getNodeAppMapping();
+                List<SiddhiAppHolder> redeployedApps = deploy(affectedPartialApps, placements, false);
 
                 affectedPartialApps.forEach(affectedPartialApp -> {
-                    ResourceNode deployedNode = deploy(
-                            new SiddhiQuery(affectedPartialApp.getAppName(), affectedPartialApp.getSiddhiApp()), 0);
-                    if (deployedNode != null) {
-                        affectedPartialApp.setDeployedNode(deployedNode);
-                        LOG.info(String.format("Siddhi app %s of %s successfully deployed in %s.",
-                                affectedPartialApp.getAppName(), affectedPartialApp.getParentAppName(), deployedNode));
-                    } else {
+                    if (!redeployedApps.contains(affectedPartialApp)) {
                         LOG.warn(String.format("Insufficient resources to deploy %s. Therefore, cannot re-balance " +
                                         "Siddhi app %s. Hence, rolling back the deployment and waiting for " +
                                         "additional resources.", affectedPartialApp.getAppName(),
@@ -308,88 +488,712 @@ public class DeploymentManagerImpl implements DeploymentManager, ResourcePoolCha
             }
             resourcePool.persist();
         } finally {
-            lock.unlock();
+            poolLock.writeLock().unlock();
         }
     }
 
     public void reDeployAppsInResourceNode(ResourceNode resourceNode) {
-        lock.lock();
+        poolLock.writeLock().lock();
         try {
             ResourcePool resourcePool = ServiceDataHolder.getResourcePool();
             List<SiddhiAppHolder> deployedAppHolders = resourcePool.getNodeAppMapping().get(resourceNode);
             if (resourceNode != null && deployedAppHolders != null) {
 
-                deployedAppHolders.forEach(appHolder -> {
-                    String appName = SiddhiAppDeployer.deploy(resourceNode, new SiddhiQuery(appHolder.getAppName(),
-                            appHolder.getSiddhiApp()));
+                // Re-deploy all the partial apps at once, over the shared connections to the resource node
+                Map<SiddhiAppHolder, CompletableFuture<String>> redeployments = new LinkedHashMap<>();
+                deployedAppHolders.forEach(appHolder -> redeployments.put(appHolder, SiddhiAppDeployer
+                        .deployAsync(resourceNode, new SiddhiQuery(appHolder.getAppName(), appHolder.getSiddhiApp()))));
+                boolean redeployed = true;
+                for (Map.Entry<SiddhiAppHolder, CompletableFuture<String>> redeployment : redeployments.entrySet()) {
+                    SiddhiAppHolder appHolder = redeployment.getKey();
+                    String appName = redeployment.getValue().join();
                     if (appName == null || appName.isEmpty()) {
                         LOG.warn(String.format("Couldn't re-deploy partial Siddhi app %s of %s in %s. Therefore, " +
                                         "assuming the %s has left the resource pool.", appHolder.getAppName(),
                                 appHolder.getParentAppName(), resourceNode, resourceNode));
-                        resourcePool.removeResourceNode(resourceNode.getId());
+                        redeployed = false;
                     } else {
                         if (LOG.isDebugEnabled()) {
                             LOG.debug(String.format("Partial Siddhi app %s of %s successfully re-deployed in %s.",
                                     appName, appHolder.getParentAppName(), resourceNode));
                         }
                     }
-                });
+                }
+                if (!redeployed) {
+                    resourcePool.removeResourceNode(resourceNode.getId());
+                }
             }
             resourcePool.persist();
         } finally {
-            lock.unlock();
+            poolLock.writeLock().unlock();
         }
     }
 
-    private ResourceNode deploy(SiddhiQuery siddhiQuery, int retry) {
-        ResourcePool resourcePool = ServiceDataHolder.getResourcePool();
-        ResourceNode resourceNode = getNextResourceNode();
-        ResourceNode deployedNode = null;
-        if (resourceNode != null) {
-            String appName = SiddhiAppDeployer.deploy(resourceNode, siddhiQuery);
+    /**
+     * Migrate a deployed partial Siddhi app to another resource node along with its state. The state of the partial
+     * Siddhi app is persisted on the source node, and the partial Siddhi app is deployed on the target node and
+     * restored to that state before it is un-deployed from the source node. Hence, the resource nodes should share
+     * the same persistence store. Events processed on the source node after the state is persisted might be
+     * processed again on the target node. The partial Siddhi app keeps running on the source node if it cannot be
+     * deployed and restored on the target node.
+     *
+     * @param appHolder  partial Siddhi app to be migrated
+     * @param targetNode resource node to migrate the partial Siddhi app to
+     * @return true if the partial Siddhi app is migrated
+     */
+    public boolean migrate(SiddhiAppHolder appHolder, ResourceNode targetNode) {
+        Lock appLock = getAppLock(appHolder.getParentAppName());
+        poolLock.readLock().lock();
+        appLock.lock();
+        try {
+            ResourcePool resourcePool = ServiceDataHolder.getResourcePool();
+            List<SiddhiAppHolder> deployedAppHolders = resourcePool.getSiddhiAppHoldersMap()
+                    .get(appHolder.getParentAppName());
+            ResourceNode sourceNode = appHolder.getDeployedNode();
+            if (deployedAppHolders == null || !deployedAppHolders.contains(appHolder) || sourceNode == null
+                    || sourceNode.equals(targetNode)
+                    || !resourcePool.getResourceNodeMap().containsKey(targetNode.getId())) {
+                LOG.warn(String.format("Cannot migrate partial Siddhi app %s of %s to %s, since it is not deployed "
+                                + "on another resource node of the resource pool.", appHolder.getAppName(),
+                        appHolder.getParentAppName(), targetNode));
+                return false;
+            }
+            if (isColocated(appHolder)) {
+                LOG.warn(String.format("Cannot migrate partial Siddhi app %s of %s, since it is connected in-memory "
+                        + "to other partial Siddhi apps in %s.", appHolder.getAppName(), appHolder.getParentAppName(),
+                        sourceNode));
+                return false;
+            }
+            long startTime = System.currentTimeMillis();
+            String revision = SiddhiAppDeployer.backup(sourceNode, appHolder.getAppName());
+            if (revision == null) {
+                LOG.warn(String.format("Couldn't persist the state of partial Siddhi app %s in %s. Hence, not "
+                        + "migrating it.", appHolder.getAppName(), sourceNode));
+                return false;
+            }
+            String appName = deploy(targetNode, new SiddhiQuery(appHolder.getAppName(), appHolder.getSiddhiApp()));
             if (appName == null || appName.isEmpty()) {
-                LOG.warn(String.format("Couldn't deploy partial Siddhi app %s in %s", siddhiQuery.getAppName(),
-                        resourceNode));
-                if (retry < resourcePool.getResourceNodeMap().size()) {
-                    deployedNode = deploy(siddhiQuery, retry + 1);
+                LOG.warn(String.format("Couldn't deploy partial Siddhi app %s in %s. Hence, not migrating it.",
+                        appHolder.getAppName(), targetNode));
+                return false;
+            }
+            if (!SiddhiAppDeployer.restore(targetNode, appHolder.getAppName(), revision)) {
+                LOG.warn(String.format("Couldn't restore the state of partial Siddhi app %s in %s to revision %s. "
+                        + "Hence, not migrating it.", appHolder.getAppName(), targetNode, revision));
+                if (!unDeploy(targetNode, appHolder.getAppName())) {
+                    LOG.warn(String.format("Could not un-deploy Siddhi app %s from %s.", appHolder.getAppName(),
+                            targetNode));
+                }
+                return false;
+            }
+            // Cut over to the target node, after which the partial Siddhi app is only tracked on the target node.
+            appHolder.setDeployedNode(targetNode);
+            if (!unDeploy(sourceNode, appHolder.getAppName())) {
+                LOG.warn(String.format("Could not un-deploy Siddhi app %s from %s after migrating it to %s.",
+                        appHolder.getAppName(), sourceNode, targetNode));
+            }
+            resourcePool.persist();
+            LOG.info(String.format("Siddhi app %s of %s migrated from %s to %s in %s ms.", appHolder.getAppName(),
+                    appHolder.getParentAppName(), sourceNode, targetNode, System.currentTimeMillis() - startTime));
+            return true;
+        } finally {
+            appLock.unlock();
+            poolLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scale a query group of a deployed distributed Siddhi app to the given partial Siddhi apps. Only the partial
+     * Siddhi apps of the query group which are added, changed or removed are deployed, re-deployed on the same
+     * resource node, or un-deployed respectively, while the other partial Siddhi apps keep running. Removed partial
+     * Siddhi apps are un-deployed before the others take over their partitions. The previous partial Siddhi apps are
+     * deployed back if any of the changes cannot be made.
+     *
+     * @param parentSiddhiAppName name of the distributed Siddhi app
+     * @param groupName           name of the query group
+     * @param siddhiQueries       partial Siddhi apps of the query group after scaling
+     * @return true if the query group is scaled
+     */
+    public boolean scale(String parentSiddhiAppName, String groupName, List<SiddhiQuery> siddhiQueries) {
+        Lock appLock = getAppLock(parentSiddhiAppName);
+        poolLock.readLock().lock();
+        appLock.lock();
+        try {
+            ResourcePool resourcePool = ServiceDataHolder.getResourcePool();
+            List<SiddhiAppHolder> appHolders = resourcePool.getSiddhiAppHoldersMap().get(parentSiddhiAppName);
+            if (appHolders == null) {
+                LOG.warn(String.format("Cannot scale query group %s of Siddhi app %s, since it is not deployed.",
+                        groupName, parentSiddhiAppName));
+                return false;
+            }
+            List<SiddhiAppHolder> scaledAppHolders = new ArrayList<>();
+            Map<String, SiddhiAppHolder> removedAppHolders = new LinkedHashMap<>();
+            for (SiddhiAppHolder appHolder : appHolders) {
+                if (groupName.equals(appHolder.getGroupName())) {
+                    removedAppHolders.put(appHolder.getAppName(), appHolder);
                 } else {
+                    scaledAppHolders.add(appHolder);
+                }
+            }
+            List<SiddhiAppHolder> groupAppHolders = new ArrayList<>();
+            List<SiddhiAppHolder> addedAppHolders = new ArrayList<>();
+            List<SiddhiAppHolder> changedAppHolders = new ArrayList<>();
+            List<String> previousSiddhiApps = new ArrayList<>();
+            for (SiddhiQuery siddhiQuery : siddhiQueries) {
+                SiddhiAppHolder appHolder = removedAppHolders.remove(siddhiQuery.getAppName());
+                if (appHolder == null) {
+                    appHolder = new SiddhiAppHolder(parentSiddhiAppName, groupName, siddhiQuery.getAppName(),
+                            siddhiQuery.getApp(), null);
+                    addedAppHolders.add(appHolder);
+                } else if (!siddhiQuery.getApp().equals(appHolder.getSiddhiApp())) {
+                    changedAppHolders.add(appHolder);
+                    previousSiddhiApps.add(appHolder.getSiddhiApp());
+                    appHolder.setSiddhiApp(siddhiQuery.getApp());
+                }
+                groupAppHolders.add(appHolder);
+            }
+
+            // Un-deploy the removed partial Siddhi apps first and re-deploy the changed partial Siddhi apps next, so
+            // that partitions are not consumed twice while they are reassigned to other instances.
+            List<SiddhiAppHolder> undeployedAppHolders = new ArrayList<>(removedAppHolders.values());
+            List<ResourceNode> undeployedNodes = new ArrayList<>();
+            undeployedAppHolders.forEach(appHolder -> undeployedNodes.add(appHolder.getDeployedNode()));
+            rollback(undeployedAppHolders);
+            for (int i = 0; i < changedAppHolders.size(); i++) {
+                SiddhiAppHolder appHolder = changedAppHolders.get(i);
+                String appName = deploy(appHolder.getDeployedNode(), new SiddhiQuery(appHolder.getAppName(),
+                        appHolder.getSiddhiApp()));
+                if (appName == null || appName.isEmpty()) {
+                    LOG.warn(String.format("Couldn't re-deploy partial Siddhi app %s in %s. Hence, not scaling query "
+                            + "group %s.", appHolder.getAppName(), appHolder.getDeployedNode(), groupName));
+                    revertScaling(changedAppHolders, previousSiddhiApps, i, Collections.emptyList(),
+                            undeployedAppHolders, undeployedNodes);
+                    return false;
+                }
+            }
+            Map<ResourceNode, List<SiddhiAppHolder>> placements = resourcePool.getNodeAppMapping();
+            List<SiddhiAppHolder> deployedAppHolders = deploy(addedAppHolders, placements, true);
+            if (deployedAppHolders.size() != addedAppHolders.size()) {
+                LOG.warn(String.format("Insufficient resources to scale query group %s of Siddhi app %s.",
+                        groupName, parentSiddhiAppName));
+                revertScaling(changedAppHolders, previousSiddhiApps, changedAppHolders.size(), deployedAppHolders,
+                        undeployedAppHolders, undeployedNodes);
+                return false;
+            }
+            removedAppHolders.keySet().forEach(deploymentMetrics::removePartialApp);
+            scaledAppHolders.addAll(groupAppHolders);
+            resourcePool.getSiddhiAppHoldersMap().put(parentSiddhiAppName, scaledAppHolders);
+            resourcePool.persist();
+            return true;
+        } finally {
+            appLock.unlock();
+            poolLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Deploy back the previous partial Siddhi apps of a query group which could not be scaled.
+     *
+     * @param changedAppHolders  partial Siddhi apps which were changed by scaling
+     * @param previousSiddhiApps previous Siddhi apps of the changed partial Siddhi apps
+     * @param redeployedCount    number of changed partial Siddhi apps which were already re-deployed
+     * @param deployedAppHolders partial Siddhi apps which were added by scaling and deployed
+     * @param removedAppHolders  partial Siddhi apps which were removed by scaling and un-deployed
+     * @param removedNodes       resource nodes on which the removed partial Siddhi apps were deployed
+     */
+    private void revertScaling(List<SiddhiAppHolder> changedAppHolders, List<String> previousSiddhiApps,
+                               int redeployedCount, List<SiddhiAppHolder> deployedAppHolders,
+                               List<SiddhiAppHolder> removedAppHolders, List<ResourceNode> removedNodes) {
+        rollback(deployedAppHolders);
+        for (int i = 0; i < changedAppHolders.size(); i++) {
+            SiddhiAppHolder appHolder = changedAppHolders.get(i);
+            appHolder.setSiddhiApp(previousSiddhiApps.get(i));
+            if (i < redeployedCount) {
+                String appName = deploy(appHolder.getDeployedNode(), new SiddhiQuery(appHolder.getAppName(),
+                        appHolder.getSiddhiApp()));
+                if (appName == null || appName.isEmpty()) {
+                    LOG.error(String.format("Couldn't deploy back partial Siddhi app %s in %s.",
+                            appHolder.getAppName(), appHolder.getDeployedNode()));
+                }
+            }
+        }
+        for (int i = 0; i < removedAppHolders.size(); i++) {
+            SiddhiAppHolder appHolder = removedAppHolders.get(i);
+            ResourceNode removedNode = removedNodes.get(i);
+            if (removedNode == null || appHolder.getDeployedNode() != null) {
+                continue;
+            }
+            String appName = deploy(removedNode, new SiddhiQuery(appHolder.getAppName(), appHolder.getSiddhiApp()));
+            if (appName == null || appName.isEmpty()) {
+                LOG.error(String.format("Couldn't deploy back partial Siddhi app %s in %s.", appHolder.getAppName(),
+                        removedNode));
+            } else {
+                appHolder.setDeployedNode(removedNode);
+            }
+        }
+    }
+
+    /**
+     * Rebalance the load of the resource nodes, by migrating partial Siddhi apps from the most loaded resource node
+     * to the least loaded resource node while the difference between their loads exceeds the rebalance threshold.
+     * A partial Siddhi app is not migrated to a resource node which already has an instance of the same execution
+     * group, so that parallelism is not lost. Partial Siddhi apps connected in-memory are not migrated.
+     *
+     * @return the number of partial Siddhi apps migrated
+     */
+    public int rebalance() {
+        DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
+        if (deploymentConfig == null || !rebalancing.compareAndSet(false, true)) {
+            return 0;
+        }
+        int migrations = 0;
+        try {
+            while (migrations < deploymentConfig.getMaxMigrationsPerRebalance()) {
+                SiddhiAppHolder appHolder = null;
+                ResourceNode targetNode = null;
+                poolLock.readLock().lock();
+                try {
+                    List<ResourceNode> resourceNodes = getAvailableResourceNodes();
+                    if (resourceNodes.size() < 2) {
+                        break;
+                    }
+                    LoadAwarePlacementStrategy loadEstimator = getLoadEstimator();
+                    Map<ResourceNode, List<SiddhiAppHolder>> placements = ServiceDataHolder.getResourcePool()
+                            .getNodeAppMapping();
+                    ResourceNode sourceNode = null;
+                    double sourceLoad = -1;
+                    double targetLoad = Double.MAX_VALUE;
+                    for (ResourceNode resourceNode : resourceNodes) {
+                        double load = loadEstimator.getLoad(resourceNode,
+                                placements.getOrDefault(resourceNode, Collections.emptyList()));
+                        if (load > sourceLoad) {
+                            sourceNode = resourceNode;
+                            sourceLoad = load;
+                        }
+                        if (load < targetLoad) {
+                            targetNode = resourceNode;
+                            targetLoad = load;
+                        }
+                    }
+                    if (sourceLoad - targetLoad <= deploymentConfig.getRebalanceThreshold()) {
+                        break;
+                    }
+                    List<SiddhiAppHolder> sourceApps = placements.get(sourceNode);
+                    List<SiddhiAppHolder> targetApps = placements.getOrDefault(targetNode, Collections.emptyList());
+                    double peakLoad = sourceLoad;
+                    for (SiddhiAppHolder candidate : sourceApps) {
+                        if (hasSameGroup(targetApps, candidate) || isColocated(candidate)) {
+                            continue;
+                        }
+                        List<SiddhiAppHolder> remainingApps = new ArrayList<>(sourceApps);
+                        remainingApps.remove(candidate);
+                        List<SiddhiAppHolder> receivedApps = new ArrayList<>(targetApps);
+                        receivedApps.add(candidate);
+                        double load = Math.max(loadEstimator.getLoad(sourceNode, remainingApps),
+                                loadEstimator.getLoad(targetNode, receivedApps));
+                        if (load < peakLoad) {
+                            appHolder = candidate;
+                            peakLoad = load;
+                        }
+                    }
+                    if (appHolder == null) {
+                        break;
+                    }
                     if (LOG.isDebugEnabled()) {
-                        LOG.warn(String.format("Couldn't deploy partial Siddhi app %s even after %s attempts.",
-                                siddhiQuery.getAppName(), retry));
+                        LOG.debug(String.format("Migrating partial Siddhi app %s from %s with load %s to %s with "
+                                        + "load %s.", appHolder.getAppName(), sourceNode, sourceLoad, targetNode,
+                                targetLoad));
                     }
+                } finally {
+                    poolLock.readLock().unlock();
                 }
+                if (!migrate(appHolder, targetNode)) {
+                    break;
+                }
+                migrations++;
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Error occurred while rebalancing Siddhi apps between resource nodes.", e);
+        } finally {
+            rebalancing.set(false);
+        }
+        if (migrations > 0) {
+            LOG.info(String.format("Rebalanced resource pool by migrating %s partial Siddhi apps.", migrations));
+        }
+        return migrations;
+    }
+
+    private boolean hasSameGroup(List<SiddhiAppHolder> appHolders, SiddhiAppHolder appHolder) {
+        for (SiddhiAppHolder placedApp : appHolders) {
+            if (placedApp.getGroupName() != null && placedApp.getGroupName().equals(appHolder.getGroupName())
+                    && placedApp.getParentAppName() != null
+                    && placedApp.getParentAppName().equals(appHolder.getParentAppName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the {@link LoadAwarePlacementStrategy} which estimates the load of the resource nodes when rebalancing.
+     * The configured placement strategy is used if it is load aware, so that estimated costs are shared.
+     *
+     * @return the {@link LoadAwarePlacementStrategy}
+     */
+    private synchronized LoadAwarePlacementStrategy getLoadEstimator() {
+        if (loadEstimator == null) {
+            PlacementStrategy strategy = getPlacementStrategy();
+            loadEstimator = (strategy instanceof LoadAwarePlacementStrategy)
+                    ? (LoadAwarePlacementStrategy) strategy : new LoadAwarePlacementStrategy();
+        }
+        return loadEstimator;
+    }
+
+    /**
+     * Deploy partial Siddhi apps concurrently on the deployment executor. Partial Siddhi apps which are connected
+     * in-memory are deployed together on the same resource node.
+     *
+     * @param appHolders      partial Siddhi apps to be deployed
+     * @param placements      partial Siddhi apps deployed on each resource node, which is updated with the
+     *                        deployments
+     * @param abortOnFailure  whether to skip the partial Siddhi apps which are not yet being deployed, once a partial
+     *                        Siddhi app cannot be deployed
+     * @return the partial Siddhi apps which are deployed, in the given order
+     */
+    private List<SiddhiAppHolder> deploy(List<SiddhiAppHolder> appHolders,
+                                         Map<ResourceNode, List<SiddhiAppHolder>> placements,
+                                         boolean abortOnFailure) {
+        CompletionService<List<SiddhiAppHolder>> completionService =
+                new ExecutorCompletionService<>(getDeploymentExecutor());
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        Reservations reservations = new Reservations(placements);
+        List<List<SiddhiAppHolder>> colocatedAppHolders = getColocatedAppHolders(appHolders);
+        for (List<SiddhiAppHolder> unit : colocatedAppHolders) {
+            completionService.submit(() -> {
+                ResourceNode deployedNode = (unit.size() == 1) ? deploy(unit.get(0), reservations, aborted)
+                        : deployColocated(unit, reservations, aborted);
+                if (deployedNode != null) {
+                    for (SiddhiAppHolder appHolder : unit) {
+                        appHolder.setDeployedNode(deployedNode);
+                        LOG.info(String.format("Siddhi app %s of %s successfully deployed in %s.",
+                                appHolder.getAppName(), appHolder.getParentAppName(), deployedNode));
+                    }
+                    return unit;
+                }
+                if (!aborted.get()) {
+                    for (SiddhiAppHolder appHolder : unit) {
+                        LOG.warn(String.format("Insufficient resources to deploy Siddhi app %s of %s.",
+                                appHolder.getAppName(), appHolder.getParentAppName()));
+                    }
+                    if (abortOnFailure) {
+                        aborted.set(true);
+                    }
+                }
+                return Collections.emptyList();
+            });
+        }
+        Set<SiddhiAppHolder> deployedAppHolders = new HashSet<>();
+        for (int i = 0; i < colocatedAppHolders.size(); i++) {
+            List<SiddhiAppHolder> unit = waitFor(completionService);
+            if (unit != null) {
+                deployedAppHolders.addAll(unit);
+            }
+        }
+        List<SiddhiAppHolder> deployedApps = new ArrayList<>();
+        for (SiddhiAppHolder appHolder : appHolders) {
+            if (deployedAppHolders.contains(appHolder)) {
+                deployedApps.add(appHolder);
+            }
+        }
+        return deployedApps;
+    }
+
+    /**
+     * Group the partial Siddhi apps which share in-memory topics, and hence have to be deployed on the same resource
+     * node.
+     *
+     * @param appHolders partial Siddhi apps
+     * @return the groups of co-located partial Siddhi apps, in the given order
+     */
+    private List<List<SiddhiAppHolder>> getColocatedAppHolders(List<SiddhiAppHolder> appHolders) {
+        int[] parents = new int[appHolders.size()];
+        Map<String, Integer> topicOwners = new HashMap<>();
+        for (int i = 0; i < appHolders.size(); i++) {
+            parents[i] = i;
+            for (String topic : InMemoryTransport.getTopics(appHolders.get(i).getSiddhiApp())) {
+                Integer owner = topicOwners.putIfAbsent(topic, i);
+                if (owner != null) {
+                    parents[getRoot(parents, i)] = getRoot(parents, owner);
+                }
+            }
+        }
+        Map<Integer, List<SiddhiAppHolder>> colocatedAppHolders = new LinkedHashMap<>();
+        for (int i = 0; i < appHolders.size(); i++) {
+            colocatedAppHolders.computeIfAbsent(getRoot(parents, i), root -> new ArrayList<>())
+                    .add(appHolders.get(i));
+        }
+        return new ArrayList<>(colocatedAppHolders.values());
+    }
+
+    private int getRoot(int[] parents, int index) {
+        while (parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    private boolean isColocated(SiddhiAppHolder appHolder) {
+        return !InMemoryTransport.getTopics(appHolder.getSiddhiApp()).isEmpty();
+    }
+
+    private <T> T waitFor(CompletionService<T> completionService) {
+        try {
+            return completionService.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while waiting for Siddhi apps to be deployed.", e);
+        } catch (ExecutionException e) {
+            LOG.error("Error occurred while deploying Siddhi app.", e.getCause());
+        }
+        return null;
+    }
+
+    /**
+     * Deploy a partial Siddhi app on the resource node selected by the {@link PlacementStrategy}. If the deployment
+     * fails, the partial Siddhi app is deployed on the next resource node selected, until all the resource nodes
+     * are tried.
+     *
+     * @param appHolder    partial Siddhi app to be deployed
+     * @param reservations partial Siddhi apps placed on each resource node, which are shared by the concurrent
+     *                     deployments and updated with the deployment
+     * @param aborted      whether the deployment is aborted due to a failure in deploying another partial Siddhi app
+     * @return the resource node on which the partial Siddhi app is deployed, or null if it could not be deployed
+     */
+    private ResourceNode deploy(SiddhiAppHolder appHolder, Reservations reservations, AtomicBoolean aborted) {
+        SiddhiQuery siddhiQuery = new SiddhiQuery(appHolder.getAppName(), appHolder.getSiddhiApp());
+        List<ResourceNode> resourceNodes = getAvailableResourceNodes();
+        int attempts = 0;
+        while (!resourceNodes.isEmpty() && !aborted.get()) {
+            // Reserve the node before deploying, so that concurrent placements account for this partial app.
+            ResourceNode resourceNode = reserve(Collections.singletonList(appHolder), resourceNodes, reservations);
+            if (resourceNode == null) {
+                break;
+            }
+            attempts++;
+            String appName = deploy(resourceNode, siddhiQuery);
+            if (appName == null || appName.isEmpty()) {
+                LOG.warn(String.format("Couldn't deploy partial Siddhi app %s in %s", siddhiQuery.getAppName(),
+                        resourceNode));
+                reservations.release(resourceNode, Collections.singletonList(appHolder));
+                resourceNodes.remove(resourceNode);
             } else {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(String.format("Partial Siddhi app %s successfully deployed in %s.",
                             appName, resourceNode));
                 }
-                deployedNode = resourceNode;
+                return resourceNode;
+            }
+        }
+        if (LOG.isDebugEnabled() && attempts > 0) {
+            LOG.debug(String.format("Couldn't deploy partial Siddhi app %s even after %s attempts.",
+                    siddhiQuery.getAppName(), attempts));
+        }
+        return null;
+    }
+
+    /**
+     * Deploy partial Siddhi apps which are connected in-memory on the same resource node, which is selected by the
+     * {@link PlacementStrategy} for the first partial Siddhi app. The partial Siddhi apps are deployed in the reverse
+     * order, so that the consuming partial Siddhi apps subscribe to the in-memory topics before events are published
+     * to them. If any of the partial Siddhi apps cannot be deployed, the deployed ones are un-deployed and all of them
+     * are deployed on the next resource node selected, until all the resource nodes are tried.
+     *
+     * @param appHolders   partial Siddhi apps to be deployed
+     * @param reservations partial Siddhi apps placed on each resource node, which are shared by the concurrent
+     *                     deployments and updated with the deployment
+     * @param aborted      whether the deployment is aborted due to a failure in deploying another partial Siddhi app
+     * @return the resource node on which the partial Siddhi apps are deployed, or null if they could not be deployed
+     */
+    private ResourceNode deployColocated(List<SiddhiAppHolder> appHolders, Reservations reservations,
+                                         AtomicBoolean aborted) {
+        List<ResourceNode> resourceNodes = getAvailableResourceNodes();
+        while (!resourceNodes.isEmpty() && !aborted.get()) {
+            ResourceNode resourceNode = reserve(appHolders, resourceNodes, reservations);
+            if (resourceNode == null) {
+                break;
+            }
+            List<SiddhiAppHolder> deployedAppHolders = new ArrayList<>();
+            for (int i = appHolders.size() - 1; i >= 0 && !aborted.get(); i--) {
+                SiddhiAppHolder appHolder = appHolders.get(i);
+                String appName = deploy(resourceNode, new SiddhiQuery(appHolder.getAppName(),
+                        appHolder.getSiddhiApp()));
+                if (appName == null || appName.isEmpty()) {
+                    LOG.warn(String.format("Couldn't deploy partial Siddhi app %s in %s", appHolder.getAppName(),
+                            resourceNode));
+                    break;
+                }
+                deployedAppHolders.add(appHolder);
+            }
+            if (deployedAppHolders.size() == appHolders.size()) {
+                return resourceNode;
+            }
+            for (SiddhiAppHolder appHolder : deployedAppHolders) {
+                if (!unDeploy(resourceNode, appHolder.getAppName())) {
+                    LOG.warn(String.format("Could not un-deploy Siddhi app %s from %s.", appHolder.getAppName(),
+                            resourceNode));
+                }
+            }
+            reservations.release(resourceNode, appHolders);
+            resourceNodes.remove(resourceNode);
+        }
+        return null;
+    }
+
+    /**
+     * Select a resource node for the partial Siddhi apps with the {@link PlacementStrategy} and reserve it. The
+     * resource node is selected on a copy of the placements without holding the lock, as placement strategies may
+     * parse the Siddhi apps, and is only reserved if no concurrent deployment changed the placements meanwhile.
+     * Otherwise it is selected again, up to {@link #MAX_PLACEMENT_ATTEMPTS} times.
+     *
+     * @param appHolders    partial Siddhi apps to be placed together, of which the first is given to the strategy
+     * @param resourceNodes resource nodes to select from
+     * @param reservations  partial Siddhi apps placed on each resource node
+     * @return the reserved resource node, or null if the strategy did not select one
+     */
+    private ResourceNode reserve(List<SiddhiAppHolder> appHolders, List<ResourceNode> resourceNodes,
+                                 Reservations reservations) {
+        PlacementStrategy strategy = getPlacementStrategy();
+        for (int attempt = 1; ; attempt++) {
+            long version = (attempt < MAX_PLACEMENT_ATTEMPTS) ? reservations.getVersion() : -1;
+            ResourceNode resourceNode = strategy.getNextResourceNode(appHolders.get(0), resourceNodes,
+                    reservations.copy());
+            if (resourceNode == null || reservations.reserve(resourceNode, appHolders, version)) {
+                return resourceNode;
+            }
+        }
+    }
+
+    /**
+     * Deploy a partial Siddhi app on a resource node, while limiting the concurrent deployments on the resource node,
+     * and record the latency of the deployment.
+     *
+     * @param resourceNode resource node to deploy on
+     * @param siddhiQuery  partial Siddhi app to be deployed
+     * @return Siddhi app name, or null if it could not be deployed
+     */
+    private String deploy(ResourceNode resourceNode, SiddhiQuery siddhiQuery) {
+        Semaphore permits = getNodePermits(resourceNode);
+        permits.acquireUninterruptibly();
+        long startTime = System.currentTimeMillis();
+        try {
+            return SiddhiAppDeployer.deploy(resourceNode, siddhiQuery);
+        } finally {
+            permits.release();
+            long latency = System.currentTimeMillis() - startTime;
+            deploymentMetrics.record(siddhiQuery.getAppName(), resourceNode.getId(), latency);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(String.format("Deploying partial Siddhi app %s in %s took %s ms.",
+                        siddhiQuery.getAppName(), resourceNode, latency));
             }
         }
-        return deployedNode;
     }
 
     /**
-     * Rollback (un-deploy) already deployed Siddhi apps.
+     * Un-deploy a partial Siddhi app from a resource node, while limiting the concurrent deployments on the resource
+     * node.
+     *
+     * @param resourceNode  resource node to un-deploy from
+     * @param siddhiAppName name of the partial Siddhi app
+     * @return true if the partial Siddhi app is un-deployed
+     */
+    private boolean unDeploy(ResourceNode resourceNode, String siddhiAppName) {
+        Semaphore permits = getNodePermits(resourceNode);
+        permits.acquireUninterruptibly();
+        try {
+            return SiddhiAppDeployer.unDeploy(resourceNode, siddhiAppName);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Rollback (un-deploy) already deployed Siddhi apps concurrently.
      *
      * @param siddhiAppHolders list of Siddhi app holders to be un deployed.
      */
     private void rollback(List<SiddhiAppHolder> siddhiAppHolders) {
         if (siddhiAppHolders != null) {
-            siddhiAppHolders.forEach(appHolder -> {
-                if (appHolder.getDeployedNode() != null) {
-                    if (!SiddhiAppDeployer.unDeploy(appHolder.getDeployedNode(), appHolder.getAppName())) {
-                        LOG.warn(String.format("Could not un-deploy Siddhi app %s from %s.",
-                                appHolder.getAppName(), appHolder.getDeployedNode()));
-                    } else {
-                        appHolder.setDeployedNode(null);
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug(String.format("Siddhi app %s un-deployed from %s.",
-                                    appHolder.getAppName(), appHolder.getDeployedNode()));
+            CompletionService<SiddhiAppHolder> completionService =
+                    new ExecutorCompletionService<>(getDeploymentExecutor());
+            int submitted = 0;
+            for (SiddhiAppHolder appHolder : siddhiAppHolders) {
+                ResourceNode deployedNode = appHolder.getDeployedNode();
+                if (deployedNode != null) {
+                    completionService.submit(() -> {
+                        if (!unDeploy(deployedNode, appHolder.getAppName())) {
+                            LOG.warn(String.format("Could not un-deploy Siddhi app %s from %s.",
+                                    appHolder.getAppName(), deployedNode));
+                        } else {
+                            appHolder.setDeployedNode(null);
+                            if (LOG.isDebugEnabled()) {
+                                LOG.debug(String.format("Siddhi app %s un-deployed from %s.",
+                                        appHolder.getAppName(), deployedNode));
+                            }
                         }
-                    }
+                        return appHolder;
+                    });
+                    submitted++;
                 }
-            });
+            }
+            for (int i = 0; i < submitted; i++) {
+                waitFor(completionService);
+            }
+        }
+    }
+
+    /**
+     * Partial Siddhi apps placed on each resource node, which are shared by concurrent deployments. Every change is
+     * counted in a version, so that a placement selected on a copy can be checked against concurrent changes.
+     */
+    private static class Reservations {
+        private final Map<ResourceNode, List<SiddhiAppHolder>> placements;
+        private long version;
+
+        Reservations(Map<ResourceNode, List<SiddhiAppHolder>> placements) {
+            this.placements = placements;
+        }
+
+        synchronized long getVersion() {
+            return version;
+        }
+
+        synchronized Map<ResourceNode, List<SiddhiAppHolder>> copy() {
+            Map<ResourceNode, List<SiddhiAppHolder>> copy = new HashMap<>();
+            placements.forEach((resourceNode, appHolders) -> copy.put(resourceNode, new ArrayList<>(appHolders)));
+            return copy;
+        }
+
+        /**
+         * Reserve a resource node for the partial Siddhi apps.
+         *
+         * @param expectedVersion version of the placements the resource node was selected on, or -1 to reserve
+         *                        regardless of concurrent changes
+         * @return true if the resource node is reserved
+         */
+        synchronized boolean reserve(ResourceNode resourceNode, List<SiddhiAppHolder> appHolders,
+                                     long expectedVersion) {
+            if (expectedVersion >= 0 && expectedVersion != version) {
+                return false;
+            }
+            placements.computeIfAbsent(resourceNode, node -> new ArrayList<>()).addAll(appHolders);
+            version++;
+            return true;
+        }
+
+        synchronized void release(ResourceNode resourceNode, List<SiddhiAppHolder> appHolders) {
+            placements.get(resourceNode).removeAll(appHolders);
+            version++;
         }
     }
 
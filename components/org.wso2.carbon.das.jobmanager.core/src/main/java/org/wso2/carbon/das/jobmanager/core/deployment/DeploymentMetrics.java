@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.deployment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latencies of deploying partial Siddhi apps on resource nodes, which are recorded per partial Siddhi app and per
+ * resource node.
+ */
+public class DeploymentMetrics {
+    /**
+     * Map of partial Siddhi app name -> latency of its last deployment in milliseconds.
+     */
+    private final Map<String, Long> partialAppLatencies = new ConcurrentHashMap<>();
+    /**
+     * Map of resource node id -> latencies of the deployments on the resource node.
+     */
+    private final Map<String, NodeLatency> nodeLatencies = new ConcurrentHashMap<>();
+
+    void record(String partialAppName, String nodeId, long latency) {
+        partialAppLatencies.put(partialAppName, latency);
+        nodeLatencies.computeIfAbsent(nodeId, id -> new NodeLatency()).record(latency);
+    }
+
+    void removePartialApp(String partialAppName) {
+        partialAppLatencies.remove(partialAppName);
+    }
+
+    /**
+     * Get the latency of the last deployment of each partial Siddhi app.
+     *
+     * @return map of partial Siddhi app name -> latency in milliseconds
+     */
+    public Map<String, Long> getPartialAppLatencies() {
+        return Collections.unmodifiableMap(partialAppLatencies);
+    }
+
+    /**
+     * Get the number of deployments made on a resource node.
+     *
+     * @param nodeId id of the resource node
+     * @return number of deployments
+     */
+    public long getDeploymentCount(String nodeId) {
+        NodeLatency nodeLatency = nodeLatencies.get(nodeId);
+        return (nodeLatency != null) ? nodeLatency.getCount() : 0;
+    }
+
+    /**
+     * Get the average latency of the deployments made on a resource node.
+     *
+     * @param nodeId id of the resource node
+     * @return average latency in milliseconds
+     */
+    public double getAverageLatency(String nodeId) {
+        NodeLatency nodeLatency = nodeLatencies.get(nodeId);
+        return (nodeLatency != null) ? nodeLatency.getAverage() : 0;
+    }
+
+    /**
+     * Get the maximum latency of the deployments made on a resource node.
+     *
+     * @param nodeId id of the resource node
+     * @return maximum latency in milliseconds
+     */
+    public long getMaxLatency(String nodeId) {
+        NodeLatency nodeLatency = nodeLatencies.get(nodeId);
+        return (nodeLatency != null) ? nodeLatency.getMax() : 0;
+    }
+
+    /**
+     * Summarize the latencies of the given deployments, grouped by resource node. Each resource node is reported with
+     * the number, average and maximum latency of all its deployments, followed by the latency of each given partial
+     * Siddhi app deployed on it.
+     *
+     * @param partialAppNodes map of partial Siddhi app name -> id of the resource node it is deployed on
+     * @return summary of the latencies
+     */
+    public String summarize(Map<String, String> partialAppNodes) {
+        Map<String, List<String>> nodePartialApps = new TreeMap<>();
+        partialAppNodes.forEach((partialAppName, nodeId) -> nodePartialApps.computeIfAbsent(nodeId,
+                id -> new ArrayList<>()).add(partialAppName));
+        StringJoiner summary = new StringJoiner("; ");
+        nodePartialApps.forEach((nodeId, partialAppNames) -> {
+            StringJoiner partialAppLatencies = new StringJoiner(", ");
+            partialAppNames.stream().sorted().forEach(partialAppName -> partialAppLatencies.add(partialAppName + " "
+                    + this.partialAppLatencies.get(partialAppName) + " ms"));
+            summary.add(String.format("%s: %s deployments, average %.1f ms, max %s ms (%s)", nodeId,
+                    getDeploymentCount(nodeId), getAverageLatency(nodeId), getMaxLatency(nodeId),
+                    partialAppLatencies));
+        });
+        return summary.toString();
+    }
+
+    private static class NodeLatency {
+        private long count;
+        private long total;
+        private long max;
+
+        synchronized void record(long latency) {
+            count++;
+            total += latency;
+            max = Math.max(max, latency);
+        }
+
+        synchronized long getCount() {
+            return count;
+        }
+
+        synchronized double getAverage() {
+            return (count > 0) ? (double) total / count : 0;
+        }
+
+        synchronized long getMax() {
+            return max;
+        }
+    }
+}
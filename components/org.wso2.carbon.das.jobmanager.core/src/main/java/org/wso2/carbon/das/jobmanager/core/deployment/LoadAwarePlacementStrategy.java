@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.deployment;
+
+import org.apache.log4j.Logger;
+import org.wso2.carbon.das.jobmanager.core.PlacementStrategy;
+import org.wso2.carbon.das.jobmanager.core.model.ResourceNode;
+import org.wso2.carbon.das.jobmanager.core.model.SiddhiAppHolder;
+import org.wso2.siddhi.query.api.SiddhiApp;
+import org.wso2.siddhi.query.api.execution.ExecutionElement;
+import org.wso2.siddhi.query.api.execution.partition.Partition;
+import org.wso2.siddhi.query.api.execution.query.Query;
+import org.wso2.siddhi.query.api.execution.query.input.handler.StreamHandler;
+import org.wso2.siddhi.query.api.execution.query.input.handler.Window;
+import org.wso2.siddhi.query.api.execution.query.input.stream.InputStream;
+import org.wso2.siddhi.query.api.execution.query.input.stream.JoinInputStream;
+import org.wso2.siddhi.query.api.execution.query.input.stream.SingleInputStream;
+import org.wso2.siddhi.query.api.execution.query.input.stream.StateInputStream;
+import org.wso2.siddhi.query.compiler.SiddhiCompiler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * {@link PlacementStrategy} which places a partial Siddhi app on the resource node with the least load relative to
+ * its capacity. The load of a resource node is the estimated cost of the partial Siddhi apps placed on it, and its
+ * capacity is derived from the processor count, load average and heap usage reported with its heartbeat. Instances
+ * of the same execution group are spread across resource nodes first, so that parallelism is not lost by placing
+ * them on the same node.
+ */
+public class LoadAwarePlacementStrategy implements PlacementStrategy {
+    private static final Logger LOG = Logger.getLogger(LoadAwarePlacementStrategy.class);
+    private static final double QUERY_COST = 1;
+    private static final double WINDOW_COST = 2;
+    private static final double JOIN_COST = 3;
+    private static final double PATTERN_COST = 3;
+    /**
+     * Queries inside a partition keep a separate instance per partition key.
+     */
+    private static final double PARTITION_COST_FACTOR = 2;
+    /**
+     * Fraction of the capacity assumed to be free on a fully utilized node, so that such nodes are still ranked.
+     */
+    private static final double MIN_FREE_CAPACITY = 0.1;
+    /**
+     * Estimated costs keyed by the partial Siddhi app, which are dropped once the partial app is no longer held.
+     */
+    private final Map<String, Double> costCache = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Override
+    public ResourceNode getNextResourceNode(SiddhiAppHolder partialApp, List<ResourceNode> resourceNodes,
+                                            Map<ResourceNode, List<SiddhiAppHolder>> placements) {
+        double partialAppCost = getCost(partialApp);
+        ResourceNode selectedNode = null;
+        int selectedGroupInstances = Integer.MAX_VALUE;
+        double selectedLoad = Double.MAX_VALUE;
+        for (ResourceNode resourceNode : resourceNodes) {
+            int groupInstances = 0;
+            double placedCost = 0;
+            for (SiddhiAppHolder placedApp : placements.getOrDefault(resourceNode, Collections.emptyList())) {
+                placedCost += getCost(placedApp);
+                if (isSameGroup(placedApp, partialApp)) {
+                    groupInstances++;
+                }
+            }
+            double load = (placedCost + partialAppCost) / getCapacity(resourceNode);
+            if (groupInstances < selectedGroupInstances
+                    || (groupInstances == selectedGroupInstances && load < selectedLoad)) {
+                selectedNode = resourceNode;
+                selectedGroupInstances = groupInstances;
+                selectedLoad = load;
+            }
+        }
+        if (LOG.isDebugEnabled() && selectedNode != null) {
+            LOG.debug(String.format("Selected %s for partial Siddhi app %s with estimated cost %s. Load of the node "
+                    + "after placement: %s", selectedNode, partialApp.getAppName(), partialAppCost, selectedLoad));
+        }
+        return selectedNode;
+    }
+
+    /**
+     * Get the load of a resource node, which is the estimated cost of the partial Siddhi apps placed on it relative
+     * to its capacity.
+     *
+     * @param resourceNode resource node
+     * @param placedApps   partial Siddhi apps placed on the resource node
+     * @return load of the resource node
+     */
+    public double getLoad(ResourceNode resourceNode, List<SiddhiAppHolder> placedApps) {
+        double placedCost = 0;
+        for (SiddhiAppHolder placedApp : placedApps) {
+            placedCost += getCost(placedApp);
+        }
+        return placedCost / getCapacity(resourceNode);
+    }
+
+    /**
+     * Get the capacity of the resource node which is not used by processes other than the placed partial Siddhi
+     * apps. Resource nodes which have not reported metrics yet are assumed to have a single free processor.
+     *
+     * @param resourceNode resource node
+     * @return free capacity of the resource node
+     */
+    private double getCapacity(ResourceNode resourceNode) {
+        int processorCount = Math.max(resourceNode.getProcessorCount(), 1);
+        double utilization = Math.max(resourceNode.getHeapMemoryUsage(), 0);
+        if (resourceNode.getSystemLoadAverage() >= 0) {
+            utilization = Math.max(utilization, resourceNode.getSystemLoadAverage() / processorCount);
+        }
+        return processorCount * Math.max(1 - utilization, MIN_FREE_CAPACITY);
+    }
+
+    private double getCost(SiddhiAppHolder partialApp) {
+        String siddhiApp = partialApp.getSiddhiApp();
+        if (siddhiApp == null) {
+            return QUERY_COST;
+        }
+        return costCache.computeIfAbsent(siddhiApp, this::estimateCost);
+    }
+
+    private double estimateCost(String siddhiAppString) {
+        try {
+            SiddhiApp siddhiApp = SiddhiCompiler.parse(siddhiAppString);
+            double cost = 0;
+            for (ExecutionElement executionElement : siddhiApp.getExecutionElementList()) {
+                if (executionElement instanceof Query) {
+                    cost += estimateCost((Query) executionElement);
+                } else if (executionElement instanceof Partition) {
+                    for (Query query : ((Partition) executionElement).getQueryList()) {
+                        cost += PARTITION_COST_FACTOR * estimateCost(query);
+                    }
+                }
+            }
+            return Math.max(cost, QUERY_COST);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not estimate the cost of partial Siddhi app. Hence, assuming the cost of a single "
+                    + "query. " + e.getMessage());
+            return QUERY_COST;
+        }
+    }
+
+    private double estimateCost(Query query) {
+        InputStream inputStream = query.getInputStream();
+        double cost = QUERY_COST;
+        if (inputStream instanceof JoinInputStream) {
+            JoinInputStream joinInputStream = (JoinInputStream) inputStream;
+            cost += JOIN_COST + estimateWindowCost(joinInputStream.getLeftInputStream())
+                    + estimateWindowCost(joinInputStream.getRightInputStream());
+        } else if (inputStream instanceof StateInputStream) {
+            cost += PATTERN_COST;
+        } else if (inputStream instanceof SingleInputStream) {
+            cost += estimateWindowCost((SingleInputStream) inputStream);
+        }
+        return cost;
+    }
+
+    private double estimateWindowCost(SingleInputStream inputStream) {
+        double cost = 0;
+        for (StreamHandler streamHandler : inputStream.getStreamHandlers()) {
+            if (streamHandler instanceof Window) {
+                cost += WINDOW_COST;
+            }
+        }
+        return cost;
+    }
+
+    private boolean isSameGroup(SiddhiAppHolder placedApp, SiddhiAppHolder partialApp) {
+        return placedApp.getGroupName() != null && placedApp.getGroupName().equals(partialApp.getGroupName())
+                && placedApp.getParentAppName() != null
+                && placedApp.getParentAppName().equals(partialApp.getParentAppName());
+    }
+}
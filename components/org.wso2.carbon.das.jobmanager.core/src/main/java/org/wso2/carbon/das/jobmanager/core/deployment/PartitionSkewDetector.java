@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.deployment;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Detects the partitions of the topics of a query group to which events are published at a much higher rate than to
+ * the other partitions of the same topic. As all the events of a partition key go to the same partition, a few hot
+ * partition keys keep the instance consuming their partition busy while the other instances are idle, which adding
+ * instances does not resolve.
+ */
+class PartitionSkewDetector {
+    private Map<TopicPartition, Long> previousEndOffsets = Collections.emptyMap();
+
+    /**
+     * Get the hot partitions from the events published to each partition since the previous check.
+     *
+     * @param endOffsets    offset up to which events are published to each partition
+     * @param skewThreshold ratio of the publishing rate of a partition to the average publishing rate of the
+     *                      partitions of its topic, above which the partition is hot
+     * @return map of hot partition -> share of the events of its topic published to it since the previous check
+     */
+    Map<TopicPartition, Double> detect(Map<TopicPartition, Long> endOffsets, double skewThreshold) {
+        Map<String, Long> topicEvents = new HashMap<>();
+        Map<String, Integer> topicPartitionCounts = new HashMap<>();
+        Map<TopicPartition, Long> partitionEvents = new HashMap<>();
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            Long previousEndOffset = previousEndOffsets.get(entry.getKey());
+            long events = (previousEndOffset != null) ? Math.max(entry.getValue() - previousEndOffset, 0) : 0;
+            partitionEvents.put(entry.getKey(), events);
+            topicEvents.merge(entry.getKey().topic(), events, Long::sum);
+            topicPartitionCounts.merge(entry.getKey().topic(), 1, Integer::sum);
+        }
+        previousEndOffsets = new HashMap<>(endOffsets);
+        Map<TopicPartition, Double> hotPartitions = new HashMap<>();
+        for (Map.Entry<TopicPartition, Long> entry : partitionEvents.entrySet()) {
+            String topic = entry.getKey().topic();
+            int partitionCount = topicPartitionCounts.get(topic);
+            long events = topicEvents.get(topic);
+            if (partitionCount > 1 && events > 0
+                    && entry.getValue() > skewThreshold * events / partitionCount) {
+                hotPartitions.put(entry.getKey(), (double) entry.getValue() / events);
+            }
+        }
+        return hotPartitions;
+    }
+}
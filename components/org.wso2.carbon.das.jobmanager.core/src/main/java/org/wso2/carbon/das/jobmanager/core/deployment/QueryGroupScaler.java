@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.deployment;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.log4j.Logger;
+import org.wso2.carbon.das.jobmanager.core.SiddhiTopologyCreator;
+import org.wso2.carbon.das.jobmanager.core.appCreator.ConsistentHashPartitionAssigner;
+import org.wso2.carbon.das.jobmanager.core.appCreator.SPSiddhiAppCreator;
+import org.wso2.carbon.das.jobmanager.core.appCreator.SiddhiQuery;
+import org.wso2.carbon.das.jobmanager.core.bean.DeploymentConfig;
+import org.wso2.carbon.das.jobmanager.core.internal.ServiceDataHolder;
+import org.wso2.carbon.das.jobmanager.core.model.ResourcePool;
+import org.wso2.carbon.das.jobmanager.core.model.SiddhiAppHolder;
+import org.wso2.carbon.das.jobmanager.core.topology.SiddhiQueryGroup;
+import org.wso2.carbon.das.jobmanager.core.topology.SiddhiTopology;
+import org.wso2.carbon.das.jobmanager.core.topology.SiddhiTopologyCreatorImpl;
+import org.wso2.carbon.das.jobmanager.core.util.KafkaOffsetUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Scales the number of instances of the query groups of distributed Siddhi apps at runtime, based on the lag of the
+ * query groups in consuming their Kafka topics. The parallelism given with {@code @dist(parallel=...)} is the maximum
+ * number of instances of a query group, as the topics are partitioned for it. A query group is scaled up when its lag
+ * per instance exceeds the configured threshold, in proportion to the rate at which events are published relative to
+ * the rate at which they are consumed. It is scaled down by half once its lag per instance stays below the configured
+ * threshold for several consecutive checks. Partitioned query groups lose the state of the partition keys which are
+ * reassigned to another instance, which is limited to the partitions of the added or removed instances. Partitions
+ * receiving a disproportionate share of the events of their topic are reported along with their hot partition keys,
+ * as scaling does not spread the load of a single partition.
+ */
+public class QueryGroupScaler implements Runnable {
+    private static final Logger LOG = Logger.getLogger(QueryGroupScaler.class);
+    /**
+     * Number of consecutive checks with a low lag after which a query group is scaled down.
+     */
+    private static final int SCALE_DOWN_CHECKS = 3;
+    /**
+     * Number of checks skipped after scaling a query group, while its instances are being started.
+     */
+    private static final int COOL_DOWN_CHECKS = 2;
+    /**
+     * Number of most frequent partition keys reported for a hot partition.
+     */
+    private static final int HOT_KEYS = 5;
+    private final SPSiddhiAppCreator appCreator;
+    /**
+     * Map of distributed Siddhi app name -> topology of the distributed Siddhi app.
+     */
+    private final Map<String, SiddhiTopology> topologies = new ConcurrentHashMap<>();
+    /**
+     * Map of query group name -> scaling state of the query group.
+     */
+    private final Map<String, ScalingState> scalingStates = new ConcurrentHashMap<>();
+    private KafkaOffsetUtil offsetUtil;
+    private ScheduledFuture<?> scalingTask;
+
+    public QueryGroupScaler(SPSiddhiAppCreator appCreator) {
+        this.appCreator = appCreator;
+    }
+
+    /**
+     * Start scaling the query groups at the configured interval, unless auto scaling is disabled.
+     */
+    public void start() {
+        DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
+        long autoScaleInterval = (deploymentConfig != null) ? deploymentConfig.getAutoScaleInterval() : 0;
+        if (autoScaleInterval > 0) {
+            offsetUtil = new KafkaOffsetUtil(deploymentConfig.getBootstrapURLs());
+            scalingTask = ServiceDataHolder.getExecutorService().scheduleWithFixedDelay(this, autoScaleInterval,
+                    autoScaleInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop scaling the query groups and close the Kafka consumers used to read their offsets.
+     */
+    public void stop() {
+        if (scalingTask != null) {
+            scalingTask.cancel(false);
+        }
+        if (offsetUtil != null) {
+            offsetUtil.close();
+        }
+    }
+
+    /**
+     * Register the topology of a distributed Siddhi app, so that its query groups are scaled.
+     *
+     * @param topology topology of the distributed Siddhi app
+     */
+    public void register(SiddhiTopology topology) {
+        topologies.put(topology.getName(), topology);
+        topology.getQueryGroupList().forEach(queryGroup -> scalingStates.remove(queryGroup.getName()));
+    }
+
+    /**
+     * Register the topologies of the distributed Siddhi apps of a resource pool restored from the database, replacing
+     * the registered topologies, so that scaling continues after a manager node restarts or becomes the leader.
+     *
+     * @param resourcePool restored resource pool
+     */
+    public void register(ResourcePool resourcePool) {
+        new ArrayList<>(topologies.keySet()).forEach(this::unregister);
+        scalingStates.clear();
+        SiddhiTopologyCreator topologyCreator = new SiddhiTopologyCreatorImpl();
+        resourcePool.getUserDefinedSiddhiApps().forEach((siddhiAppName, userDefinedSiddhiApp) -> {
+            try {
+                register(topologyCreator.createTopology(userDefinedSiddhiApp));
+            } catch (RuntimeException e) {
+                LOG.error(String.format("Could not create the topology of Siddhi app %s. Hence, its query groups "
+                        + "are not scaled.", siddhiAppName), e);
+            }
+        });
+    }
+
+    /**
+     * Stop scaling the query groups of a distributed Siddhi app.
+     *
+     * @param siddhiAppName name of the distributed Siddhi app
+     */
+    public void unregister(String siddhiAppName) {
+        SiddhiTopology topology = topologies.remove(siddhiAppName);
+        if (topology != null) {
+            topology.getQueryGroupList().forEach(queryGroup -> {
+                scalingStates.remove(queryGroup.getName());
+                if (offsetUtil != null) {
+                    offsetUtil.release(queryGroup.getName());
+                }
+            });
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!ServiceDataHolder.isLeader() || ServiceDataHolder.getResourcePool() == null) {
+            return;
+        }
+        for (SiddhiTopology topology : topologies.values()) {
+            for (SiddhiQueryGroup queryGroup : topology.getQueryGroupList()) {
+                try {
+                    scale(topology.getName(), queryGroup);
+                } catch (RuntimeException e) {
+                    LOG.error(String.format("Error occurred while scaling query group %s of Siddhi app %s.",
+                            queryGroup.getName(), topology.getName()), e);
+                }
+            }
+        }
+    }
+
+    private void scale(String siddhiAppName, SiddhiQueryGroup queryGroup) {
+        if (queryGroup.getParallelism() <= 1 || offsetUtil == null) {
+            return;
+        }
+        List<String> topics = appCreator.getConsumedTopics(siddhiAppName, queryGroup);
+        List<SiddhiAppHolder> appHolders = ServiceDataHolder.getResourcePool().getSiddhiAppHoldersMap()
+                .get(siddhiAppName);
+        if (topics.isEmpty() || appHolders == null) {
+            return;
+        }
+        int instanceCount = (int) appHolders.stream()
+                .filter(appHolder -> queryGroup.getName().equals(appHolder.getGroupName())).count();
+        DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
+        KafkaOffsetUtil.ConsumerOffsets consumerOffsets = offsetUtil.getConsumerOffsets(queryGroup.getName(),
+                topics);
+        if (instanceCount == 0 || consumerOffsets == null) {
+            return;
+        }
+        ScalingState scalingState = scalingStates.computeIfAbsent(queryGroup.getName(), name -> new ScalingState());
+        reportHotPartitions(siddhiAppName, queryGroup, instanceCount, consumerOffsets, scalingState);
+        int minInstanceCount = Math.min(Math.max(deploymentConfig.getAutoScaleMinInstances(), 1),
+                queryGroup.getParallelism());
+        int desiredInstanceCount = scalingState.getDesiredInstanceCount(instanceCount, minInstanceCount,
+                queryGroup.getParallelism(), consumerOffsets, System.currentTimeMillis(), deploymentConfig);
+        if (desiredInstanceCount != instanceCount) {
+            List<SiddhiQuery> siddhiQueries = appCreator.createApps(siddhiAppName, queryGroup,
+                    desiredInstanceCount);
+            if (ServiceDataHolder.getDeploymentManager().scale(siddhiAppName, queryGroup.getName(),
+                    siddhiQueries)) {
+                LOG.info(String.format("Scaled query group %s of Siddhi app %s from %s to %s instances, as its lag "
+                                + "is %s events.", queryGroup.getName(), siddhiAppName, instanceCount,
+                        desiredInstanceCount, consumerOffsets.getLag()));
+            }
+            scalingState.coolDown();
+        }
+    }
+
+    /**
+     * Warn about the partitions of a query group which newly became hot, along with the instance consuming them and
+     * the most frequent partition keys in their latest events.
+     */
+    private void reportHotPartitions(String siddhiAppName, SiddhiQueryGroup queryGroup, int instanceCount,
+                                     KafkaOffsetUtil.ConsumerOffsets consumerOffsets, ScalingState scalingState) {
+        Map<String, String> partitionedTopics = appCreator.getPartitionedTopics(siddhiAppName, queryGroup);
+        if (partitionedTopics.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, Long> endOffsets = new HashMap<>();
+        Map<String, Integer> partitionCounts = new HashMap<>();
+        for (Map.Entry<TopicPartition, Long> entry : consumerOffsets.getPartitionEndOffsets().entrySet()) {
+            if (partitionedTopics.containsKey(entry.getKey().topic())) {
+                endOffsets.put(entry.getKey(), entry.getValue());
+                partitionCounts.merge(entry.getKey().topic(), 1, Integer::sum);
+            }
+        }
+        DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
+        Map<TopicPartition, Double> hotPartitions = scalingState.skewDetector.detect(endOffsets,
+                deploymentConfig.getSkewThreshold());
+        for (Map.Entry<TopicPartition, Double> entry : hotPartitions.entrySet()) {
+            TopicPartition partition = entry.getKey();
+            if (scalingState.hotPartitions.contains(partition)) {
+                continue;
+            }
+            int instanceIndex = ConsistentHashPartitionAssigner.getInstance(queryGroup.getName(),
+                    partitionCounts.get(partition.topic()), instanceCount, partition.partition());
+            String partitionKey = partitionedTopics.get(partition.topic());
+            String hotKeys = "";
+            if (deploymentConfig.getHotKeySampleSize() > 0) {
+                hotKeys = getHotKeys(offsetUtil.sampleAttributeValues(partition, partitionKey,
+                        deploymentConfig.getHotKeySampleSize()));
+            }
+            LOG.warn(String.format("Partition %s of topic %s, consumed by %s-%s, receives %.0f%% of the events of "
+                            + "the topic, which scaling query group %s does not spread as they are partitioned by %s."
+                            + "%s", partition.partition(), partition.topic(), queryGroup.getName(), instanceIndex + 1,
+                    entry.getValue() * 100, queryGroup.getName(), partitionKey,
+                    hotKeys.isEmpty() ? "" : " Most frequent " + partitionKey + " values: " + hotKeys + "."));
+        }
+        scalingState.hotPartitions = hotPartitions.keySet();
+    }
+
+    private String getHotKeys(Map<String, Integer> valueCounts) {
+        int sampledEvents = valueCounts.values().stream().mapToInt(Integer::intValue).sum();
+        return valueCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(HOT_KEYS)
+                .map(entry -> String.format("%s (%.0f%%)", entry.getKey(), entry.getValue() * 100.0 / sampledEvents))
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Offsets of a query group at the previous check, from which the rates of publishing and consuming events are
+     * derived, along with its partitions which were hot at the previous check.
+     */
+    static class ScalingState {
+        private final PartitionSkewDetector skewDetector = new PartitionSkewDetector();
+        private Set<TopicPartition> hotPartitions = Collections.emptySet();
+        private long previousEndOffset = -1;
+        private long previousCommittedOffset;
+        private long previousTimestamp;
+        private int lowLagChecks;
+        private int coolDownChecks;
+
+        int getDesiredInstanceCount(int instanceCount, int minInstanceCount, int maxInstanceCount,
+                                    KafkaOffsetUtil.ConsumerOffsets consumerOffsets, long timestamp,
+                                    DeploymentConfig deploymentConfig) {
+            double publishRate = 0;
+            double consumeRate = 0;
+            if (previousEndOffset >= 0 && timestamp > previousTimestamp) {
+                publishRate = (double) (consumerOffsets.getEndOffset() - previousEndOffset)
+                        / (timestamp - previousTimestamp);
+                consumeRate = (double) (consumerOffsets.getCommittedOffset() - previousCommittedOffset)
+                        / (timestamp - previousTimestamp);
+            }
+            previousEndOffset = consumerOffsets.getEndOffset();
+            previousCommittedOffset = consumerOffsets.getCommittedOffset();
+            previousTimestamp = timestamp;
+            if (coolDownChecks > 0) {
+                coolDownChecks--;
+                return instanceCount;
+            }
+            long lagPerInstance = consumerOffsets.getLag() / instanceCount;
+            if (lagPerInstance > deploymentConfig.getScaleUpLagPerInstance()) {
+                lowLagChecks = 0;
+                int desiredInstanceCount = (consumeRate > 0)
+                        ? (int) Math.ceil(instanceCount * publishRate / consumeRate) : instanceCount * 2;
+                return Math.min(Math.max(desiredInstanceCount, instanceCount + 1), maxInstanceCount);
+            }
+            if (lagPerInstance < deploymentConfig.getScaleDownLagPerInstance() && instanceCount > minInstanceCount) {
+                if (++lowLagChecks >= SCALE_DOWN_CHECKS) {
+                    lowLagChecks = 0;
+                    return Math.max(instanceCount / 2, minInstanceCount);
+                }
+            } else {
+                lowLagChecks = 0;
+            }
+            return instanceCount;
+        }
+
+        void coolDown() {
+            coolDownChecks = COOL_DOWN_CHECKS;
+            lowLagChecks = 0;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.deployment;
+
+import org.wso2.carbon.das.jobmanager.core.PlacementStrategy;
+import org.wso2.carbon.das.jobmanager.core.model.ResourceNode;
+import org.wso2.carbon.das.jobmanager.core.model.SiddhiAppHolder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PlacementStrategy} which hands out the resource nodes in round robin manner, regardless of their load.
+ */
+public class RoundRobinPlacementStrategy implements PlacementStrategy {
+    private int nextIndex;
+
+    @Override
+    public synchronized ResourceNode getNextResourceNode(SiddhiAppHolder partialApp, List<ResourceNode> resourceNodes,
+                                                         Map<ResourceNode, List<SiddhiAppHolder>> placements) {
+        if (resourceNodes.isEmpty()) {
+            return null;
+        }
+        if (nextIndex >= resourceNodes.size()) {
+            nextIndex = 0;
+        }
+        return resourceNodes.get(nextIndex++);
+    }
+}
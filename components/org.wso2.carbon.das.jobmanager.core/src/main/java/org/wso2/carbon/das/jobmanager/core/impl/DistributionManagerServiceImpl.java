@@ -56,7 +56,14 @@ public class DistributionManagerServiceImpl implements DistributionService {
     public DeploymentStatus distribute(String userDefinedSiddhiApp) {
         SiddhiTopology topology = siddhiTopologyCreator.createTopology(userDefinedSiddhiApp);
         List<DeployableSiddhiQueryGroup> deployableQueryGroup = appCreator.createApps(topology);
-        return deploymentManager.deploy(new DistributedSiddhiQuery(topology.getName(), deployableQueryGroup));
+        // Persisted along with the deployment, so that the topology can be created again by the next leader
+        ServiceDataHolder.getResourcePool().getUserDefinedSiddhiApps().put(topology.getName(), userDefinedSiddhiApp);
+        DeploymentStatus deploymentStatus = deploymentManager.deploy(new DistributedSiddhiQuery(topology.getName(),
+                deployableQueryGroup));
+        if (ServiceDataHolder.getQueryGroupScaler() != null) {
+            ServiceDataHolder.getQueryGroupScaler().register(topology);
+        }
+        return deploymentStatus;
     }
 
     @Override
@@ -76,7 +83,11 @@ public class DistributionManagerServiceImpl implements DistributionService {
 
     @Override
     public void undeploy(String parentSiddhiAppName) {
+        ServiceDataHolder.getResourcePool().getUserDefinedSiddhiApps().remove(parentSiddhiAppName);
         deploymentManager.unDeploy(parentSiddhiAppName);
+        if (ServiceDataHolder.getQueryGroupScaler() != null) {
+            ServiceDataHolder.getQueryGroupScaler().unregister(parentSiddhiAppName);
+        }
     }
 
     @Override
@@ -21,25 +21,40 @@ package org.wso2.carbon.das.jobmanager.core.impl;
 import com.zaxxer.hikari.HikariDataSource;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.das.jobmanager.core.bean.InterfaceConfig;
 import org.wso2.carbon.das.jobmanager.core.exception.ResourceManagerException;
 import org.wso2.carbon.das.jobmanager.core.internal.ServiceDataHolder;
+import org.wso2.carbon.das.jobmanager.core.model.ManagerNode;
+import org.wso2.carbon.das.jobmanager.core.model.ResourceNode;
 import org.wso2.carbon.das.jobmanager.core.model.ResourcePool;
+import org.wso2.carbon.das.jobmanager.core.model.SiddhiAppHolder;
 import org.wso2.carbon.das.jobmanager.core.util.ResourceManagerConstants;
 import org.wso2.carbon.datasource.core.api.DataSourceService;
 import org.wso2.carbon.datasource.core.exception.DataSourceException;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Blob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import javax.sql.DataSource;
 
+/**
+ * Persists the resource pool in the resource mapping tables, which hold a row for each resource node, partial Siddhi
+ * app, placement of a partial Siddhi app on a resource node and user defined distributed Siddhi app. The last
+ * persisted rows are kept in memory, so that only the rows which changed since then are written.
+ */
 public class RDBMSServiceImpl {
     /**
      * The log class
@@ -49,6 +64,10 @@ public class RDBMSServiceImpl {
      * The datasource which is used to be connected to the database.
      */
     private DataSource datasource;
+    /**
+     * Map of groupId -> rows of the resource pool which were last persisted or restored.
+     */
+    private final Map<String, ResourcePoolRows> persistedRows = new HashMap<>();
 
     public RDBMSServiceImpl() {
         String datasourceName = ServiceDataHolder.getClusterConfig().getStrategyConfig().getDatasource();
@@ -65,67 +84,191 @@ public class RDBMSServiceImpl {
         } catch (DataSourceException e) {
             throw new ResourceManagerException("Error in initializing the datasource " + datasourceName, e);
         }
-        createResourcePoolTable();
+        createResourcePoolTables();
     }
 
     /**
-     * Create resource pool persistence table.
+     * Create resource pool persistence tables.
      */
-    private void createResourcePoolTable() {
+    private void createResourcePoolTables() {
         Connection connection = null;
         PreparedStatement preparedStatement = null;
         try {
             connection = getConnection();
-            preparedStatement = connection.prepareStatement(ResourceManagerConstants.CREATE_RESOURCE_MAPPING_TABLE);
-            preparedStatement.execute();
+            for (String query : new String[]{ResourceManagerConstants.CREATE_RESOURCE_GROUP_TABLE,
+                    ResourceManagerConstants.CREATE_RESOURCE_NODE_TABLE,
+                    ResourceManagerConstants.CREATE_SIDDHI_APP_HOLDER_TABLE,
+                    ResourceManagerConstants.CREATE_SIDDHI_APP_PLACEMENT_TABLE,
+                    ResourceManagerConstants.CREATE_DISTRIBUTED_SIDDHI_APP_TABLE}) {
+                preparedStatement = connection.prepareStatement(query);
+                preparedStatement.execute();
+                close(preparedStatement, ResourceManagerConstants.TASK_CREATE_RESOURCE_MAPPING_TABLES);
+                preparedStatement = null;
+            }
             connection.commit();
             if (log.isDebugEnabled()) {
-                log.debug("Resource Mapping Table Created Successfully");
+                log.debug("Resource Mapping Tables Created Successfully");
             }
         } catch (SQLException e) {
-            throw new ResourceManagerException("Error in executing create resource mapping table query.", e);
+            throw new ResourceManagerException("Error in executing create resource mapping table queries.", e);
         } finally {
-            close(preparedStatement, "Execute query");
-            close(connection, "Execute query");
+            close(preparedStatement, ResourceManagerConstants.TASK_CREATE_RESOURCE_MAPPING_TABLES);
+            close(connection, ResourceManagerConstants.TASK_CREATE_RESOURCE_MAPPING_TABLES);
         }
     }
 
-    public void persistResourcePool(ResourcePool resourcePool) throws ResourceManagerException {
+    /**
+     * Persist the resource pool, by writing only the rows which changed since the resource pool was last persisted
+     * or restored, in a single transaction.
+     *
+     * @param resourcePool resource pool to be persisted
+     * @throws ResourceManagerException if the resource pool could not be persisted
+     */
+    public synchronized void persistResourcePool(ResourcePool resourcePool) throws ResourceManagerException {
         if (resourcePool != null && resourcePool.getGroupId() != null) {
+            String groupId = resourcePool.getGroupId();
+            ResourcePoolRows currentRows = ResourcePoolRows.of(resourcePool);
+            ResourcePoolRows previousRows = persistedRows.get(groupId);
             Connection connection = null;
-            PreparedStatement preparedStatement = null;
             try {
                 connection = getConnection();
-                ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-                ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
-                objectOutputStream.writeObject(resourcePool);
-                byte[] resourceMappingAsBytes = byteArrayOutputStream.toByteArray();
-                // TODO: 10/31/17 Instead of REPLACE, use DELETE and INSERT
-                preparedStatement = connection.prepareStatement(ResourceManagerConstants
-                        .PS_REPLACE_RESOURCE_MAPPING_ROW);
-                preparedStatement.setString(1, resourcePool.getGroupId());
-                preparedStatement.setBinaryStream(2, new ByteArrayInputStream(resourceMappingAsBytes));
-                preparedStatement.executeUpdate();
+                if (previousRows == null) {
+                    // Rows written by another manager node are not known, hence replacing all of them.
+                    for (String query : new String[]{ResourceManagerConstants.PS_DELETE_RESOURCE_GROUP_ROW,
+                            ResourceManagerConstants.PS_DELETE_RESOURCE_NODE_ROWS,
+                            ResourceManagerConstants.PS_DELETE_SIDDHI_APP_HOLDER_ROWS,
+                            ResourceManagerConstants.PS_DELETE_SIDDHI_APP_PLACEMENT_ROWS,
+                            ResourceManagerConstants.PS_DELETE_DISTRIBUTED_SIDDHI_APP_ROWS}) {
+                        executeUpdate(connection, query, groupId);
+                    }
+                    previousRows = new ResourcePoolRows();
+                }
+                if (!Objects.equals(previousRows.leader, currentRows.leader)) {
+                    executeUpdate(connection, ResourceManagerConstants.PS_DELETE_RESOURCE_GROUP_ROW, groupId);
+                    insertGroupRow(connection, groupId, currentRows.leader);
+                }
+                int writtenRows = writeChangedRows(connection, groupId, previousRows.nodes, currentRows.nodes,
+                        ResourceManagerConstants.PS_DELETE_RESOURCE_NODE_ROW,
+                        ResourceManagerConstants.PS_INSERT_RESOURCE_NODE_ROW, NodeRow::bind);
+                writtenRows += writeChangedRows(connection, groupId, previousRows.appHolders,
+                        currentRows.appHolders, ResourceManagerConstants.PS_DELETE_SIDDHI_APP_HOLDER_ROW,
+                        ResourceManagerConstants.PS_INSERT_SIDDHI_APP_HOLDER_ROW, AppHolderRow::bind);
+                writtenRows += writeChangedRows(connection, groupId, previousRows.placements,
+                        currentRows.placements, ResourceManagerConstants.PS_DELETE_SIDDHI_APP_PLACEMENT_ROW,
+                        ResourceManagerConstants.PS_INSERT_SIDDHI_APP_PLACEMENT_ROW,
+                        (preparedStatement, nodeId) -> preparedStatement.setString(3, nodeId));
+                writtenRows += writeChangedRows(connection, groupId, previousRows.siddhiApps,
+                        currentRows.siddhiApps, ResourceManagerConstants.PS_DELETE_DISTRIBUTED_SIDDHI_APP_ROW,
+                        ResourceManagerConstants.PS_INSERT_DISTRIBUTED_SIDDHI_APP_ROW,
+                        (preparedStatement, siddhiApp) -> preparedStatement.setBytes(3,
+                                siddhiApp.getBytes(StandardCharsets.UTF_8)));
                 connection.commit();
+                persistedRows.put(groupId, currentRows);
                 if (log.isDebugEnabled()) {
-                    log.debug(ResourceManagerConstants.TASK_UPSERT_RESOURCE_MAPPING + " " +
-                            resourcePool.getGroupId() + " executed successfully");
+                    log.debug(ResourceManagerConstants.TASK_UPSERT_RESOURCE_MAPPING + " " + groupId +
+                            " executed successfully with " + writtenRows + " rows written");
                 }
             } catch (SQLException e) {
                 rollback(connection, ResourceManagerConstants.TASK_UPSERT_RESOURCE_MAPPING);
+                // The rows in the database are no longer known, hence replacing all of them with the next persist.
+                persistedRows.remove(groupId);
                 throw new ResourceManagerException("Error occurred while " +
-                        ResourceManagerConstants.TASK_UPSERT_RESOURCE_MAPPING + ". Group ID" +
-                        resourcePool.getGroupId(), e);
-            } catch (IOException e) {
-                throw new ResourceManagerException(e);
+                        ResourceManagerConstants.TASK_UPSERT_RESOURCE_MAPPING + ". Group ID" + groupId, e);
             } finally {
-                close(preparedStatement, ResourceManagerConstants.TASK_UPSERT_RESOURCE_MAPPING);
                 close(connection, ResourceManagerConstants.TASK_UPSERT_RESOURCE_MAPPING);
             }
         }
     }
 
-    public ResourcePool getResourcePool(String groupId) throws ResourceManagerException {
+    public synchronized ResourcePool getResourcePool(String groupId) throws ResourceManagerException {
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        ResourcePoolRows rows = new ResourcePoolRows();
+        try {
+            connection = getConnection();
+            preparedStatement = connection.prepareStatement(ResourceManagerConstants.PS_SELECT_RESOURCE_GROUP_ROW);
+            preparedStatement.setString(1, groupId);
+            resultSet = preparedStatement.executeQuery();
+            if (!resultSet.next()) {
+                connection.commit();
+                persistedRows.remove(groupId);
+                return getLegacyResourcePool(groupId);
+            }
+            rows.leader = new LeaderRow(resultSet.getString(1), resultSet.getString(2), resultSet.getInt(3));
+            close(resultSet, ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING);
+            close(preparedStatement, ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING);
+
+            preparedStatement = connection.prepareStatement(ResourceManagerConstants.PS_SELECT_RESOURCE_NODE_ROWS);
+            preparedStatement.setString(1, groupId);
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                rows.nodes.put(resultSet.getString(1), new NodeRow(resultSet.getString(2),
+                        resultSet.getString(3), resultSet.getInt(4)));
+            }
+            close(resultSet, ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING);
+            close(preparedStatement, ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING);
+
+            preparedStatement = connection.prepareStatement(
+                    ResourceManagerConstants.PS_SELECT_SIDDHI_APP_HOLDER_ROWS);
+            preparedStatement.setString(1, groupId);
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                rows.appHolders.put(resultSet.getString(1), new AppHolderRow(resultSet.getString(2),
+                        resultSet.getString(3), resultSet.getInt(4), resultSet.getInt(5) != 0,
+                        new String(resultSet.getBytes(6), StandardCharsets.UTF_8)));
+            }
+            close(resultSet, ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING);
+            close(preparedStatement, ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING);
+
+            preparedStatement = connection.prepareStatement(
+                    ResourceManagerConstants.PS_SELECT_SIDDHI_APP_PLACEMENT_ROWS);
+            preparedStatement.setString(1, groupId);
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                rows.placements.put(resultSet.getString(1), resultSet.getString(2));
+            }
+            close(resultSet, ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING);
+            close(preparedStatement, ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING);
+
+            preparedStatement = connection.prepareStatement(
+                    ResourceManagerConstants.PS_SELECT_DISTRIBUTED_SIDDHI_APP_ROWS);
+            preparedStatement.setString(1, groupId);
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                rows.siddhiApps.put(resultSet.getString(1), new String(resultSet.getBytes(2),
+                        StandardCharsets.UTF_8));
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new ResourceManagerException("Error occurred while " +
+                    ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING, e);
+        } finally {
+            close(resultSet, ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING);
+            close(preparedStatement, ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING);
+            close(connection, ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING);
+        }
+        persistedRows.put(groupId, rows);
+        return rows.toResourcePool(groupId);
+    }
+
+    /**
+     * Forget the rows which were last persisted or restored, so that the next persist replaces all the rows of the
+     * resource pools. Should be called when the leadership changes, as another manager node may write the rows while
+     * this manager node is not the leader.
+     */
+    public synchronized void clearPersistedRows() {
+        persistedRows.clear();
+    }
+
+    /**
+     * Get the resource pool persisted as a serialized blob by earlier versions. The resource pool is written to the
+     * resource mapping tables with the next persist.
+     *
+     * @param groupId group id of the resource pool
+     * @return the resource pool, or null if there is no such resource pool
+     */
+    private ResourcePool getLegacyResourcePool(String groupId) {
         Connection connection = null;
         PreparedStatement preparedStatement = null;
         ResultSet resultSet = null;
@@ -149,7 +292,12 @@ public class RDBMSServiceImpl {
                 }
             }
             connection.commit();
-        } catch (SQLException | ClassNotFoundException | IOException e) {
+        } catch (SQLException e) {
+            // Resource pool table does not exist, unless the resource pool was persisted by an earlier version.
+            if (log.isDebugEnabled()) {
+                log.debug("No resource pool persisted by an earlier version for group " + groupId, e);
+            }
+        } catch (ClassNotFoundException | IOException e) {
             throw new ResourceManagerException("Error occurred while " +
                     ResourceManagerConstants.TASK_GET_RESOURCE_MAPPING, e);
         } finally {
@@ -160,6 +308,82 @@ public class RDBMSServiceImpl {
         return resourcePool;
     }
 
+    private void executeUpdate(Connection connection, String query, String groupId) throws SQLException {
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = connection.prepareStatement(query);
+            preparedStatement.setString(1, groupId);
+            preparedStatement.executeUpdate();
+        } finally {
+            close(preparedStatement, ResourceManagerConstants.TASK_UPSERT_RESOURCE_MAPPING);
+        }
+    }
+
+    private void insertGroupRow(Connection connection, String groupId, LeaderRow leader) throws SQLException {
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = connection.prepareStatement(ResourceManagerConstants.PS_INSERT_RESOURCE_GROUP_ROW);
+            preparedStatement.setString(1, groupId);
+            preparedStatement.setString(2, leader.id);
+            preparedStatement.setString(3, leader.host);
+            preparedStatement.setInt(4, leader.port);
+            preparedStatement.executeUpdate();
+        } finally {
+            close(preparedStatement, ResourceManagerConstants.TASK_UPSERT_RESOURCE_MAPPING);
+        }
+    }
+
+    /**
+     * Write the rows of a resource mapping table which changed, as a batch of deletes followed by a batch of inserts.
+     *
+     * @param connection  connection to the database
+     * @param groupId     group id of the resource pool
+     * @param previous    map of key -> row, as last persisted
+     * @param current     map of key -> row, to be persisted
+     * @param deleteQuery query deleting the row of a group id and key
+     * @param insertQuery query inserting the row of a group id and key, followed by the columns of the row
+     * @param binder      binder of the columns of a row to the insert query
+     * @return number of rows deleted and inserted
+     */
+    private <T> int writeChangedRows(Connection connection, String groupId, Map<String, T> previous,
+                                     Map<String, T> current, String deleteQuery, String insertQuery,
+                                     RowBinder<T> binder) throws SQLException {
+        PreparedStatement deleteStatement = null;
+        PreparedStatement insertStatement = null;
+        int deletes = 0;
+        int inserts = 0;
+        try {
+            deleteStatement = connection.prepareStatement(deleteQuery);
+            for (Map.Entry<String, T> row : previous.entrySet()) {
+                if (!row.getValue().equals(current.get(row.getKey()))) {
+                    deleteStatement.setString(1, groupId);
+                    deleteStatement.setString(2, row.getKey());
+                    deleteStatement.addBatch();
+                    deletes++;
+                }
+            }
+            if (deletes > 0) {
+                deleteStatement.executeBatch();
+            }
+            insertStatement = connection.prepareStatement(insertQuery);
+            for (Map.Entry<String, T> row : current.entrySet()) {
+                if (!row.getValue().equals(previous.get(row.getKey()))) {
+                    insertStatement.setString(1, groupId);
+                    insertStatement.setString(2, row.getKey());
+                    binder.bind(insertStatement, row.getValue());
+                    insertStatement.addBatch();
+                    inserts++;
+                }
+            }
+            if (inserts > 0) {
+                insertStatement.executeBatch();
+            }
+        } finally {
+            close(deleteStatement, ResourceManagerConstants.TASK_UPSERT_RESOURCE_MAPPING);
+            close(insertStatement, ResourceManagerConstants.TASK_UPSERT_RESOURCE_MAPPING);
+        }
+        return deletes + inserts;
+    }
 
     /**
      * Get the connection to the database.
@@ -233,4 +457,237 @@ public class RDBMSServiceImpl {
             }
         }
     }
+
+    /**
+     * Binder of the columns of a row, which follow the group id and key, to an insert query.
+     */
+    private interface RowBinder<T> {
+        void bind(PreparedStatement preparedStatement, T row) throws SQLException;
+    }
+
+    /**
+     * Leader of the resource pool.
+     */
+    private static final class LeaderRow {
+        private final String id;
+        private final String host;
+        private final int port;
+
+        private LeaderRow(String id, String host, int port) {
+            this.id = id;
+            this.host = host;
+            this.port = port;
+        }
+
+        private static LeaderRow of(ManagerNode leaderNode) {
+            if (leaderNode == null) {
+                return new LeaderRow(null, null, 0);
+            }
+            InterfaceConfig httpInterface = leaderNode.getHttpInterface();
+            return new LeaderRow(leaderNode.getId(), (httpInterface != null) ? httpInterface.getHost() : null,
+                    (httpInterface != null) ? httpInterface.getPort() : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            LeaderRow that = (LeaderRow) o;
+            return port == that.port && Objects.equals(id, that.id) && Objects.equals(host, that.host);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, host, port);
+        }
+    }
+
+    /**
+     * Resource node, without the heartbeat details, which are refreshed by the next heartbeat of the node.
+     */
+    private static final class NodeRow {
+        private final String state;
+        private final String host;
+        private final int port;
+
+        private NodeRow(String state, String host, int port) {
+            this.state = state;
+            this.host = host;
+            this.port = port;
+        }
+
+        private static NodeRow of(ResourceNode resourceNode) {
+            InterfaceConfig httpInterface = resourceNode.getHttpInterface();
+            return new NodeRow(resourceNode.getState(), (httpInterface != null) ? httpInterface.getHost() : null,
+                    (httpInterface != null) ? httpInterface.getPort() : 0);
+        }
+
+        private static void bind(PreparedStatement preparedStatement, NodeRow row) throws SQLException {
+            preparedStatement.setString(3, row.state);
+            preparedStatement.setString(4, row.host);
+            preparedStatement.setInt(5, row.port);
+        }
+
+        private ResourceNode toResourceNode(String nodeId) {
+            ResourceNode resourceNode = new ResourceNode(nodeId);
+            resourceNode.setState(state);
+            InterfaceConfig httpInterface = new InterfaceConfig();
+            httpInterface.setHost(host);
+            httpInterface.setPort(port);
+            resourceNode.setHttpInterface(httpInterface);
+            return resourceNode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            NodeRow that = (NodeRow) o;
+            return port == that.port && Objects.equals(state, that.state) && Objects.equals(host, that.host);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(state, host, port);
+        }
+    }
+
+    /**
+     * Partial Siddhi app, which is either deployed or waiting for resources to be deployed.
+     */
+    private static final class AppHolderRow {
+        private final String parentAppName;
+        private final String groupName;
+        private final int index;
+        private final boolean waiting;
+        private final String siddhiApp;
+
+        private AppHolderRow(String parentAppName, String groupName, int index, boolean waiting, String siddhiApp) {
+            this.parentAppName = parentAppName;
+            this.groupName = groupName;
+            this.index = index;
+            this.waiting = waiting;
+            this.siddhiApp = siddhiApp;
+        }
+
+        private static void bind(PreparedStatement preparedStatement, AppHolderRow row) throws SQLException {
+            preparedStatement.setString(3, row.parentAppName);
+            if (row.groupName != null) {
+                preparedStatement.setString(4, row.groupName);
+            } else {
+                preparedStatement.setNull(4, Types.VARCHAR);
+            }
+            preparedStatement.setInt(5, row.index);
+            preparedStatement.setInt(6, row.waiting ? 1 : 0);
+            preparedStatement.setBytes(7, row.siddhiApp.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            AppHolderRow that = (AppHolderRow) o;
+            return index == that.index && waiting == that.waiting
+                    && Objects.equals(parentAppName, that.parentAppName)
+                    && Objects.equals(groupName, that.groupName) && Objects.equals(siddhiApp, that.siddhiApp);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(parentAppName, groupName, index, waiting);
+        }
+    }
+
+    /**
+     * Rows of a resource pool in the resource mapping tables.
+     */
+    private static final class ResourcePoolRows {
+        private LeaderRow leader;
+        /**
+         * Map of nodeId -> resource node.
+         */
+        private final Map<String, NodeRow> nodes = new HashMap<>();
+        /**
+         * Map of appName -> partial Siddhi app.
+         */
+        private final Map<String, AppHolderRow> appHolders = new HashMap<>();
+        /**
+         * Map of appName -> id of the node on which the partial Siddhi app is deployed.
+         */
+        private final Map<String, String> placements = new HashMap<>();
+        /**
+         * Map of parentAppName -> user defined Siddhi app.
+         */
+        private final Map<String, String> siddhiApps = new HashMap<>();
+
+        private static ResourcePoolRows of(ResourcePool resourcePool) {
+            ResourcePoolRows rows = new ResourcePoolRows();
+            rows.leader = LeaderRow.of(resourcePool.getLeaderNode());
+            resourcePool.getResourceNodeMap().forEach((nodeId, resourceNode)
+                    -> rows.nodes.put(nodeId, NodeRow.of(resourceNode)));
+            resourcePool.getSiddhiAppHoldersMap().values().forEach(appHolders -> rows.addAppHolders(appHolders,
+                    false));
+            resourcePool.getAppsWaitingForDeploy().values().forEach(appHolders -> rows.addAppHolders(appHolders,
+                    true));
+            if (resourcePool.getUserDefinedSiddhiApps() != null) {
+                rows.siddhiApps.putAll(resourcePool.getUserDefinedSiddhiApps());
+            }
+            return rows;
+        }
+
+        private void addAppHolders(List<SiddhiAppHolder> appHolders, boolean waiting) {
+            // Partial Siddhi apps are copied first, as the list may be changed concurrently by a deployment
+            SiddhiAppHolder[] appHoldersCopy = appHolders.toArray(new SiddhiAppHolder[0]);
+            for (int i = 0; i < appHoldersCopy.length; i++) {
+                SiddhiAppHolder appHolder = appHoldersCopy[i];
+                this.appHolders.put(appHolder.getAppName(), new AppHolderRow(appHolder.getParentAppName(),
+                        appHolder.getGroupName(), i, waiting, appHolder.getSiddhiApp()));
+                if (appHolder.getDeployedNode() != null) {
+                    placements.put(appHolder.getAppName(), appHolder.getDeployedNode().getId());
+                }
+            }
+        }
+
+        private ResourcePool toResourcePool(String groupId) {
+            ResourcePool resourcePool = new ResourcePool(groupId);
+            nodes.forEach((nodeId, node) -> resourcePool.getResourceNodeMap().put(nodeId,
+                    node.toResourceNode(nodeId)));
+            // Partial Siddhi apps are ordered by parent app name and index, hence added in the original order.
+            Map<String, List<SiddhiAppHolder>> deployedApps = new LinkedHashMap<>();
+            Map<String, List<SiddhiAppHolder>> waitingApps = new LinkedHashMap<>();
+            List<Map.Entry<String, AppHolderRow>> appHolderRows = new ArrayList<>(appHolders.entrySet());
+            appHolderRows.sort((row1, row2) -> (row1.getValue().parentAppName.equals(row2.getValue().parentAppName))
+                    ? Integer.compare(row1.getValue().index, row2.getValue().index)
+                    : row1.getValue().parentAppName.compareTo(row2.getValue().parentAppName));
+            for (Map.Entry<String, AppHolderRow> entry : appHolderRows) {
+                AppHolderRow row = entry.getValue();
+                String nodeId = placements.get(entry.getKey());
+                ResourceNode deployedNode = (nodeId != null) ? resourcePool.getResourceNodeMap().get(nodeId) : null;
+                if (nodeId != null && deployedNode == null) {
+                    log.warn("Siddhi app " + entry.getKey() + " is placed on " + nodeId + ", which is not in the " +
+                            "resource pool. Hence, considering it as not deployed.");
+                }
+                SiddhiAppHolder appHolder = new SiddhiAppHolder(row.parentAppName, row.groupName, entry.getKey(),
+                        row.siddhiApp, deployedNode);
+                (row.waiting ? waitingApps : deployedApps).computeIfAbsent(row.parentAppName,
+                        name -> new ArrayList<>()).add(appHolder);
+            }
+            resourcePool.getSiddhiAppHoldersMap().putAll(deployedApps);
+            resourcePool.getAppsWaitingForDeploy().putAll(waitingApps);
+            resourcePool.getUserDefinedSiddhiApps().putAll(siddhiApps);
+            return resourcePool;
+        }
+    }
 }
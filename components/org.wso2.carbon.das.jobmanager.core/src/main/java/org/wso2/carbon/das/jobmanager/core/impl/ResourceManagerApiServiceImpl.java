@@ -29,12 +29,14 @@ import org.wso2.carbon.das.jobmanager.core.model.InterfaceConfig;
 import org.wso2.carbon.das.jobmanager.core.model.ManagerNode;
 import org.wso2.carbon.das.jobmanager.core.model.ManagerNodeConfig;
 import org.wso2.carbon.das.jobmanager.core.model.NodeConfig;
+import org.wso2.carbon.das.jobmanager.core.model.NodeMetrics;
 import org.wso2.carbon.das.jobmanager.core.model.ResourceNode;
 import org.wso2.carbon.das.jobmanager.core.model.ResourcePool;
 import org.wso2.carbon.das.jobmanager.core.util.ResourceManagerConstants;
 import org.wso2.carbon.das.jobmanager.core.util.TypeConverter;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import javax.ws.rs.core.Response;
 
@@ -51,29 +53,33 @@ public class ResourceManagerApiServiceImpl extends ResourceManagerApiService {
     public Response updateHeartbeat(NodeConfig nodeConfig) throws NotFoundException {
         if (ServiceDataHolder.isLeader()) {
             ResourcePool resourcePool = ServiceDataHolder.getResourcePool();
-            List<InterfaceConfig> connectedManagers = new ArrayList<>();
-            for (NodeDetail nodeDetail : ServiceDataHolder.getCoordinator().getAllNodeDetails()) {
-                if (nodeDetail.getPropertiesMap() != null) {
-                    ManagerNode member = (ManagerNode) nodeDetail.getPropertiesMap()
-                            .get(ResourceManagerConstants.KEY_NODE_INFO);
-                    connectedManagers.add(TypeConverter.convert(member.getHttpInterface()));
-                }
-            }
+            // Delta heartbeats of joined resource nodes do not carry the interface, which is already known.
+            boolean deltaHeartbeat = nodeConfig.getHttpInterface() == null;
+            List<InterfaceConfig> connectedManagers = deltaHeartbeat ? null : getConnectedManagers();
             ResourceNode existingResourceNode = resourcePool.getResourceNodeMap().get(nodeConfig.getId());
             HeartbeatResponse.JoinedStateEnum joinedState = (existingResourceNode == null)
                     ? HeartbeatResponse.JoinedStateEnum.NEW
                     : HeartbeatResponse.JoinedStateEnum.EXISTS;
             ManagerNodeConfig leader = TypeConverter.convert(resourcePool.getLeaderNode());
-            if (existingResourceNode == null) {
+            if (existingResourceNode == null && deltaHeartbeat) {
+                // Resource node has been removed from the resource pool. Hence, it has to join again with a full
+                // heartbeat, as a new resource node.
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Delta heartbeat received from resource node " + nodeConfig.getId() + ", which is not " +
+                            "in the resource pool.");
+                }
+            } else if (existingResourceNode == null) {
                 ResourceNode resourceNode = new ResourceNode(nodeConfig.getId());
                 resourceNode.setState(HeartbeatResponse.JoinedStateEnum.EXISTS.toString());
                 resourceNode.setHttpInterface(TypeConverter.convert(nodeConfig.getHttpInterface()));
+                updateMetrics(resourceNode, nodeConfig.getMetrics());
                 resourcePool.addResourceNode(resourceNode);
             } else {
                 InterfaceConfig existingIFace = TypeConverter.convert(existingResourceNode.getHttpInterface());
                 InterfaceConfig currentIFace = nodeConfig.getHttpInterface();
-                if (currentIFace.equals(existingIFace)) {
+                if (deltaHeartbeat || currentIFace.equals(existingIFace)) {
                     existingResourceNode.updateLastPingTimestamp();
+                    updateMetrics(existingResourceNode, nodeConfig.getMetrics());
                     boolean redeploy = false;
                     if (ResourceManagerConstants.STATE_NEW.equalsIgnoreCase(existingResourceNode.getState())) {
                         joinedState = HeartbeatResponse.JoinedStateEnum.NEW;
@@ -113,4 +119,42 @@ public class ResourceManagerApiServiceImpl extends ResourceManagerApiService {
                     .build();
         }
     }
+
+    /**
+     * Get the interfaces of the members of the manager cluster, which are cached until the members change.
+     *
+     * @return interfaces of the connected managers
+     */
+    private List<InterfaceConfig> getConnectedManagers() {
+        List<InterfaceConfig> connectedManagers = ServiceDataHolder.getConnectedManagers();
+        if (connectedManagers == null) {
+            connectedManagers = new ArrayList<>();
+            for (NodeDetail nodeDetail : ServiceDataHolder.getCoordinator().getAllNodeDetails()) {
+                if (nodeDetail.getPropertiesMap() != null) {
+                    ManagerNode member = (ManagerNode) nodeDetail.getPropertiesMap()
+                            .get(ResourceManagerConstants.KEY_NODE_INFO);
+                    connectedManagers.add(TypeConverter.convert(member.getHttpInterface()));
+                }
+            }
+            connectedManagers = Collections.unmodifiableList(connectedManagers);
+            ServiceDataHolder.setConnectedManagers(connectedManagers);
+        }
+        return connectedManagers;
+    }
+
+    /**
+     * Update the load metrics of the resource node with the metrics sent with the heartbeat. Resource nodes which
+     * do not send metrics are treated as unloaded nodes.
+     *
+     * @param resourceNode resource node which sent the heartbeat
+     * @param metrics      metrics sent with the heartbeat
+     */
+    private void updateMetrics(ResourceNode resourceNode, NodeMetrics metrics) {
+        if (metrics != null) {
+            resourceNode.updateMetrics(
+                    metrics.getProcessorCount() != null ? metrics.getProcessorCount() : 0,
+                    metrics.getSystemLoadAverage() != null ? metrics.getSystemLoadAverage() : -1,
+                    metrics.getHeapMemoryUsage() != null ? metrics.getHeapMemoryUsage() : 0);
+        }
+    }
 }
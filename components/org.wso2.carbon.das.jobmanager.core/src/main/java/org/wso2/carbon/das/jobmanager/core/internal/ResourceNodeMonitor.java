@@ -18,29 +18,137 @@
 
 package org.wso2.carbon.das.jobmanager.core.internal;
 
+import org.apache.log4j.Logger;
 import org.wso2.carbon.das.jobmanager.core.bean.DeploymentConfig;
 import org.wso2.carbon.das.jobmanager.core.model.ResourceNode;
 import org.wso2.carbon.das.jobmanager.core.model.ResourcePool;
 
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Detects the resource nodes which stopped sending heartbeats, using a hashed timer wheel. Each resource node is kept
+ * in the bucket of the tick at which it times out, unless it sends another heartbeat before that. Heartbeats only
+ * update the last ping timestamp of the resource node, and the node is moved to a later bucket when its bucket is
+ * reached, so that each tick only visits the resource nodes which are due in that tick. Ticks run on a dedicated
+ * thread, so that they are not delayed by deployments blocking the shared executor, and failed resource nodes are
+ * removed on the shared executor, so that re-deploying their Siddhi apps does not delay the ticks either.
+ */
 public class ResourceNodeMonitor implements Runnable {
+    private static final Logger LOG = Logger.getLogger(ResourceNodeMonitor.class);
+    /**
+     * Duration of a tick of the timer wheel, which bounds the delay in detecting a failed resource node.
+     */
+    private static final long TICK_DURATION_MILLIS = 100;
+    private static final int WHEEL_SIZE = 512;
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ResourceNodeMonitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ResourcePool resourcePool;
+    private final long timeoutMillis;
+    private final Set<String>[] wheel;
+    /**
+     * Map of resource node id -> tick of the bucket holding the resource node.
+     */
+    private final Map<String, Long> scheduledTicks = new ConcurrentHashMap<>();
+    private final long startTimestamp;
+    private volatile long currentTick;
+    private ScheduledFuture<?> scheduledFuture;
 
-    @Override
-    public void run() {
-        ResourcePool resourcePool = ServiceDataHolder.getResourcePool();
-        Map<String, ResourceNode> resourceNodeMap = resourcePool.getResourceNodeMap();
+    @SuppressWarnings("unchecked")
+    public ResourceNodeMonitor(ResourcePool resourcePool) {
         DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
-        if (resourceNodeMap != null) {
-            long currentTimestamp = System.currentTimeMillis();
-            resourceNodeMap.values().forEach(resourceNode -> {
-                if (currentTimestamp - resourceNode.getLastPingTimestamp() >= deploymentConfig.getHeartbeatInterval()) {
-                    resourceNode.incrementFailedPingAttempts();
-                    if (resourceNode.getFailedPingAttempts() > deploymentConfig.getHeartbeatMaxRetry()) {
-                        resourcePool.removeResourceNode(resourceNode.getId());
-                    }
+        this.resourcePool = resourcePool;
+        // A resource node fails when it misses the heartbeat interval more than heartbeatMaxRetry times
+        this.timeoutMillis = (long) deploymentConfig.getHeartbeatInterval()
+                * (deploymentConfig.getHeartbeatMaxRetry() + 1);
+        this.wheel = new Set[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.startTimestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Start monitoring the resource nodes of the resource pool.
+     */
+    public synchronized void start() {
+        resourcePool.getResourceNodeMap().values().forEach(this::monitor);
+        scheduledFuture = TIMER.scheduleAtFixedRate(this, TICK_DURATION_MILLIS, TICK_DURATION_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Start monitoring a resource node, which is detected as failed if it does not send heartbeats.
+     *
+     * @param resourceNode resource node to be monitored
+     */
+    public void monitor(ResourceNode resourceNode) {
+        schedule(resourceNode.getId(), resourceNode.getLastPingTimestamp() + timeoutMillis);
+    }
+
+    @Override
+    public synchronized void run() {
+        if (ServiceDataHolder.getResourcePool() != resourcePool) {
+            // Resource pool was restored from the database, which has its own monitor.
+            scheduledFuture.cancel(false);
+            return;
+        }
+        long lastTick = (System.currentTimeMillis() - startTimestamp) / TICK_DURATION_MILLIS;
+        for (; currentTick <= lastTick; currentTick++) {
+            Set<String> bucket = wheel[(int) (currentTick % WHEEL_SIZE)];
+            for (String nodeId : bucket) {
+                Long scheduledTick = scheduledTicks.get(nodeId);
+                if (scheduledTick == null || scheduledTick > currentTick) {
+                    // Due in a later round of the wheel
+                    continue;
                 }
-            });
+                bucket.remove(nodeId);
+                scheduledTicks.remove(nodeId);
+                check(nodeId);
+            }
+        }
+    }
+
+    private void check(String nodeId) {
+        ResourceNode resourceNode = resourcePool.getResourceNodeMap().get(nodeId);
+        if (resourceNode == null) {
+            return;
+        }
+        long timeoutTimestamp = resourceNode.getLastPingTimestamp() + timeoutMillis;
+        if (System.currentTimeMillis() >= timeoutTimestamp) {
+            ServiceDataHolder.getExecutorService().execute(() -> remove(resourceNode));
+        } else {
+            schedule(nodeId, timeoutTimestamp);
+        }
+    }
+
+    private void remove(ResourceNode resourceNode) {
+        if (resourcePool.getResourceNodeMap().get(resourceNode.getId()) != resourceNode) {
+            return;
+        }
+        // The resource node may have sent a heartbeat while waiting for the shared executor
+        if (System.currentTimeMillis() < resourceNode.getLastPingTimestamp() + timeoutMillis) {
+            monitor(resourceNode);
+            return;
+        }
+        LOG.warn(String.format("%s did not send heartbeats for %s ms. Hence, removing it from the resource pool.",
+                resourceNode, timeoutMillis));
+        resourcePool.removeResourceNode(resourceNode.getId());
+    }
+
+    private void schedule(String nodeId, long timeoutTimestamp) {
+        long tick = Math.max((timeoutTimestamp - startTimestamp + TICK_DURATION_MILLIS - 1) / TICK_DURATION_MILLIS,
+                currentTick + 1);
+        if (scheduledTicks.putIfAbsent(nodeId, tick) == null) {
+            wheel[(int) (tick % WHEEL_SIZE)].add(nodeId);
         }
     }
 }
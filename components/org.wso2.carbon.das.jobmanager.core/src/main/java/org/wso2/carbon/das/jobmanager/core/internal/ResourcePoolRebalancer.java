@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.internal;
+
+import org.wso2.carbon.das.jobmanager.core.model.ResourcePool;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically rebalances the load of the resource nodes of a resource pool, by migrating partial Siddhi apps from
+ * the most loaded resource nodes to the least loaded resource nodes.
+ */
+public class ResourcePoolRebalancer implements Runnable {
+    private final ResourcePool resourcePool;
+    private ScheduledFuture<?> scheduledFuture;
+
+    public ResourcePoolRebalancer(ResourcePool resourcePool) {
+        this.resourcePool = resourcePool;
+    }
+
+    /**
+     * Start rebalancing the resource pool at the configured rebalance interval, unless rebalancing is disabled.
+     */
+    public synchronized void start() {
+        long rebalanceInterval = ServiceDataHolder.getDeploymentConfig().getRebalanceInterval();
+        if (rebalanceInterval > 0) {
+            scheduledFuture = ServiceDataHolder.getExecutorService().scheduleWithFixedDelay(this, rebalanceInterval,
+                    rebalanceInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void run() {
+        if (ServiceDataHolder.getResourcePool() != resourcePool) {
+            // Resource pool was restored from the database, which has its own rebalancer.
+            scheduledFuture.cancel(false);
+            return;
+        }
+        if (ServiceDataHolder.isLeader()) {
+            ServiceDataHolder.getDeploymentManager().rebalance();
+        }
+    }
+}
@@ -37,10 +37,12 @@ import org.wso2.carbon.das.jobmanager.core.appCreator.SPSiddhiAppCreator;
 import org.wso2.carbon.das.jobmanager.core.bean.ClusterConfig;
 import org.wso2.carbon.das.jobmanager.core.bean.DeploymentConfig;
 import org.wso2.carbon.das.jobmanager.core.deployment.DeploymentManagerImpl;
+import org.wso2.carbon.das.jobmanager.core.deployment.QueryGroupScaler;
 import org.wso2.carbon.das.jobmanager.core.exception.ResourceManagerException;
 import org.wso2.carbon.das.jobmanager.core.impl.DistributionManagerServiceImpl;
 import org.wso2.carbon.das.jobmanager.core.impl.RDBMSServiceImpl;
 import org.wso2.carbon.das.jobmanager.core.model.ManagerNode;
+import org.wso2.carbon.das.jobmanager.core.util.HTTPClientUtil;
 import org.wso2.carbon.das.jobmanager.core.util.ResourceManagerConstants;
 import org.wso2.carbon.datasource.core.api.DataSourceService;
 import org.wso2.carbon.stream.processor.core.distribution.DistributionService;
@@ -76,12 +78,14 @@ public class ServiceComponent {
             log.info("Starting Manager node in distributed mode.");
             ServiceDataHolder.setRdbmsService(new RDBMSServiceImpl());
             ServiceDataHolder.setDeploymentManager(new DeploymentManagerImpl());
+            SPSiddhiAppCreator appCreator = new SPSiddhiAppCreator();
+            ServiceDataHolder.setQueryGroupScaler(new QueryGroupScaler(appCreator));
+            ServiceDataHolder.getQueryGroupScaler().start();
             resourceManagerAPIServiceRegistration = bundleContext.registerService(Microservice.class.getName(),
                     new ResourceManagerApi(), null);
             distributionServiceRegistration = bundleContext.registerService(
                     DistributionService.class.getName(),
-                    new DistributionManagerServiceImpl(new SPSiddhiAppCreator(),
-                            ServiceDataHolder.getDeploymentManager()),
+                    new DistributionManagerServiceImpl(appCreator, ServiceDataHolder.getDeploymentManager()),
                     null);
         }
     }
@@ -100,6 +104,9 @@ public class ServiceComponent {
         if (distributionServiceRegistration != null) {
             distributionServiceRegistration.unregister();
         }
+        if (ServiceDataHolder.getQueryGroupScaler() != null) {
+            ServiceDataHolder.getQueryGroupScaler().stop();
+        }
     }
 
     /**
@@ -144,6 +151,7 @@ public class ServiceComponent {
                     deploymentConfig = configProvider.getConfigurationObject(DeploymentConfig.class);
                     if (deploymentConfig != null) {
                         ServiceDataHolder.setDeploymentConfig(deploymentConfig);
+                        HTTPClientUtil.configure(deploymentConfig);
                         String id = (String) ((Map) configProvider.getConfigurationObject("wso2.carbon"))
                                 .get("id");
                         currentNodeConfig = new ManagerNode().setId(id)
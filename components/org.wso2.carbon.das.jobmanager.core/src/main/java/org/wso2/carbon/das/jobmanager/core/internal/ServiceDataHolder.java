@@ -23,18 +23,21 @@ import org.wso2.carbon.das.jobmanager.core.appCreator.DistributedSiddhiQuery;
 import org.wso2.carbon.das.jobmanager.core.bean.ClusterConfig;
 import org.wso2.carbon.das.jobmanager.core.bean.DeploymentConfig;
 import org.wso2.carbon.das.jobmanager.core.deployment.DeploymentManagerImpl;
+import org.wso2.carbon.das.jobmanager.core.deployment.QueryGroupScaler;
 import org.wso2.carbon.das.jobmanager.core.impl.RDBMSServiceImpl;
+import org.wso2.carbon.das.jobmanager.core.model.InterfaceConfig;
 import org.wso2.carbon.das.jobmanager.core.model.ManagerNode;
 import org.wso2.carbon.das.jobmanager.core.model.ResourcePool;
 import org.wso2.carbon.datasource.core.api.DataSourceService;
 import org.wso2.carbon.stream.processor.core.util.DeploymentMode;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
 public class ServiceDataHolder {
-    private static final ScheduledExecutorService EXECUTOR_SERVICE = Executors.newScheduledThreadPool(2);
+    private static final ScheduledExecutorService EXECUTOR_SERVICE = Executors.newScheduledThreadPool(4);
     private static RDBMSServiceImpl rdbmsService;
     private static DataSourceService dataSourceService;
     private static DeploymentMode deploymentMode;
@@ -45,7 +48,12 @@ public class ServiceDataHolder {
     private static ClusterCoordinator coordinator;
     private static ResourcePool resourcePool;
     private static DeploymentManagerImpl deploymentManager;
+    private static QueryGroupScaler queryGroupScaler;
     private static boolean leader;
+    /**
+     * Interfaces of the members of the manager cluster, which are cached until the members change.
+     */
+    private static volatile List<InterfaceConfig> connectedManagers;
 
     public static ScheduledExecutorService getExecutorService() {
         return EXECUTOR_SERVICE;
@@ -131,6 +139,14 @@ public class ServiceDataHolder {
         ServiceDataHolder.resourcePool = resourcePool;
     }
 
+    public static List<InterfaceConfig> getConnectedManagers() {
+        return connectedManagers;
+    }
+
+    public static void setConnectedManagers(List<InterfaceConfig> connectedManagers) {
+        ServiceDataHolder.connectedManagers = connectedManagers;
+    }
+
     public static DeploymentManagerImpl getDeploymentManager() {
         return deploymentManager;
     }
@@ -138,4 +154,12 @@ public class ServiceDataHolder {
     public static void setDeploymentManager(DeploymentManagerImpl deploymentManager) {
         ServiceDataHolder.deploymentManager = deploymentManager;
     }
+
+    public static QueryGroupScaler getQueryGroupScaler() {
+        return queryGroupScaler;
+    }
+
+    public static void setQueryGroupScaler(QueryGroupScaler queryGroupScaler) {
+        ServiceDataHolder.queryGroupScaler = queryGroupScaler;
+    }
 }
@@ -32,6 +32,13 @@ public class ResourceNode implements Serializable {
     private InterfaceConfig httpInterface;
     private long lastPingTimestamp;
     private int failedPingAttempts;
+    /**
+     * Load metrics reported with the last heartbeat. These are not persisted, since they are refreshed with the
+     * next heartbeat of the node.
+     */
+    private transient int processorCount;
+    private transient double systemLoadAverage = -1;
+    private transient double heapMemoryUsage;
 
     public ResourceNode(String id) {
         this.id = id;
@@ -83,6 +90,31 @@ public class ResourceNode implements Serializable {
         failedPingAttempts += 1;
     }
 
+    public int getProcessorCount() {
+        return processorCount;
+    }
+
+    public double getSystemLoadAverage() {
+        return systemLoadAverage;
+    }
+
+    public double getHeapMemoryUsage() {
+        return heapMemoryUsage;
+    }
+
+    /**
+     * Update the load metrics reported with the last heartbeat of the node.
+     *
+     * @param processorCount    number of processors available to the node
+     * @param systemLoadAverage system load average of the node, or a negative value if it is not available
+     * @param heapMemoryUsage   ratio of the used heap memory to the maximum heap memory of the node
+     */
+    public void updateMetrics(int processorCount, double systemLoadAverage, double heapMemoryUsage) {
+        this.processorCount = processorCount;
+        this.systemLoadAverage = systemLoadAverage;
+        this.heapMemoryUsage = heapMemoryUsage;
+    }
+
     @Override
     public String toString() {
         return String.format("ResourceNode { id: %s, host: %s, port: %s }",
@@ -20,9 +20,9 @@ package org.wso2.carbon.das.jobmanager.core.model;
 
 import org.apache.log4j.Logger;
 import org.wso2.carbon.das.jobmanager.core.ResourcePoolChangeListener;
-import org.wso2.carbon.das.jobmanager.core.bean.DeploymentConfig;
 import org.wso2.carbon.das.jobmanager.core.exception.ResourceManagerException;
 import org.wso2.carbon.das.jobmanager.core.internal.ResourceNodeMonitor;
+import org.wso2.carbon.das.jobmanager.core.internal.ResourcePoolRebalancer;
 import org.wso2.carbon.das.jobmanager.core.internal.ServiceDataHolder;
 
 import java.io.Serializable;
@@ -30,7 +30,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class ResourcePool implements Serializable {
@@ -47,7 +46,13 @@ public class ResourcePool implements Serializable {
      * List which hold list of apps which are waiting for new resource nodes.
      */
     private Map<String, List<SiddhiAppHolder>> appsWaitingForDeploy;
+    /**
+     * Map of parentSiddhiAppName -> user defined Siddhi app, from which the topologies of the distributed Siddhi apps
+     * are created again once the resource pool is restored.
+     */
+    private Map<String, String> userDefinedSiddhiApps;
     private transient List<ResourcePoolChangeListener> poolChangeListeners;
+    private transient ResourceNodeMonitor resourceNodeMonitor;
 
     public ResourcePool(String groupId) {
         this.groupId = groupId;
@@ -55,16 +60,20 @@ public class ResourcePool implements Serializable {
         this.siddhiAppHoldersMap = new ConcurrentHashMap<>();
         this.poolChangeListeners = new CopyOnWriteArrayList<>();
         this.appsWaitingForDeploy = new ConcurrentHashMap<>();
+        this.userDefinedSiddhiApps = new ConcurrentHashMap<>();
     }
 
     public void init() {
         this.poolChangeListeners = new CopyOnWriteArrayList<>();
-        DeploymentConfig deploymentConfig = ServiceDataHolder.getDeploymentConfig();
+        // Resource pools persisted as a serialized blob by earlier versions do not hold the user defined Siddhi apps
+        if (userDefinedSiddhiApps == null) {
+            userDefinedSiddhiApps = new ConcurrentHashMap<>();
+        }
         setLeaderNode(ServiceDataHolder.getLeaderNode());
         registerResourcePoolChangeListener(ServiceDataHolder.getDeploymentManager());
-        ServiceDataHolder.getExecutorService().scheduleAtFixedRate(
-                new ResourceNodeMonitor(), deploymentConfig.getHeartbeatInterval(),
-                deploymentConfig.getHeartbeatInterval(), TimeUnit.MILLISECONDS);
+        resourceNodeMonitor = new ResourceNodeMonitor(this);
+        resourceNodeMonitor.start();
+        new ResourcePoolRebalancer(this).start();
 
         // TODO: 11/1/17 Don't ues this for now
         //        List<String> deployedApps = new ArrayList<>();
@@ -96,6 +105,9 @@ public class ResourcePool implements Serializable {
 
     public void addResourceNode(ResourceNode resourceNode) {
         this.resourceNodeMap.put(resourceNode.getId(), resourceNode);
+        if (resourceNodeMonitor != null) {
+            resourceNodeMonitor.monitor(resourceNode);
+        }
         LOG.info(String.format("%s added to the resource pool.", resourceNode));
         persist();
         poolChangeListeners.forEach(listener -> listener.resourceAdded(resourceNode));
@@ -116,7 +128,7 @@ public class ResourcePool implements Serializable {
                 if (redeploy) {
                     ServiceDataHolder.getDeploymentManager().reDeployAppsInResourceNode(resourceNode);
                 }
-            } else {
+            } else if (!appsWaitingForDeploy.isEmpty()) {
                 poolChangeListeners.forEach(listener -> listener.resourceAdded(resourceNode));
             }
         }
@@ -130,6 +142,10 @@ public class ResourcePool implements Serializable {
         this.siddhiAppHoldersMap = siddhiAppHoldersMap;
     }
 
+    public Map<String, String> getUserDefinedSiddhiApps() {
+        return userDefinedSiddhiApps;
+    }
+
     public void registerResourcePoolChangeListener(ResourcePoolChangeListener resourcePoolChangeListener) {
         this.poolChangeListeners.add(resourcePoolChangeListener);
     }
@@ -142,7 +158,11 @@ public class ResourcePool implements Serializable {
         this.appsWaitingForDeploy = appsWaitingForDeploy;
     }
 
-    public void persist() {
+    /**
+     * Persist the resource pool before returning, so that no change is lost if this manager node stops. Persists are
+     * serialized, and each of them writes a copy of the resource pool taken after the changes made before it.
+     */
+    public synchronized void persist() {
         try {
             ServiceDataHolder.getRdbmsService().persistResourcePool(ServiceDataHolder.getResourcePool());
         } catch (ResourceManagerException e) {
@@ -45,33 +45,75 @@ import org.wso2.siddhi.query.api.expression.Variable;
 import org.wso2.siddhi.query.api.util.ExceptionUtil;
 import org.wso2.siddhi.query.compiler.SiddhiCompiler;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 /**
- * Consumes a Siddhi App and produce a {@link SiddhiTopology} based on distributed annotations.
+ * Consumes a Siddhi App and produce a {@link SiddhiTopology} based on distributed annotations. Created topologies
+ * are cached by the content hash of the Siddhi app, so that re-distributing an unchanged Siddhi app neither parses
+ * nor validates it again, and yields the same query groups.
  */
 
 public class SiddhiTopologyCreatorImpl implements SiddhiTopologyCreator {
     private static final Logger log = Logger.getLogger(SiddhiTopologyCreatorImpl.class);
+    /**
+     * Maximum number of topologies cached, beyond which the least recently used topology is evicted.
+     */
+    private static final int MAX_CACHED_TOPOLOGIES = 32;
+    private final Map<String, SiddhiTopology> topologyCache =
+            new LinkedHashMap<String, SiddhiTopology>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SiddhiTopology> eldest) {
+                    return size() > MAX_CACHED_TOPOLOGIES;
+                }
+            };
     private SiddhiTopologyDataHolder siddhiTopologyDataHolder;
     private SiddhiApp siddhiApp;
     private SiddhiAppRuntime siddhiAppRuntime;
 
     @Override
-    public SiddhiTopology createTopology(String userDefinedSiddhiApp) {
-        this.siddhiApp = SiddhiCompiler.parse(userDefinedSiddhiApp);
-        this.siddhiAppRuntime = (new SiddhiManager()).createSiddhiAppRuntime(userDefinedSiddhiApp);
+    public synchronized SiddhiTopology createTopology(String userDefinedSiddhiApp) {
+        String contentHash = getContentHash(userDefinedSiddhiApp);
+        SiddhiTopology topology = topologyCache.get(contentHash);
+        if (topology == null) {
+            SiddhiManager siddhiManager = new SiddhiManager();
+            try {
+                this.siddhiApp = SiddhiCompiler.parse(userDefinedSiddhiApp);
+                this.siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(userDefinedSiddhiApp);
+                topology = compileTopology(userDefinedSiddhiApp);
+            } finally {
+                this.siddhiAppRuntime = null;
+                // The runtime is only used to validate the Siddhi app and to infer stream definitions
+                try {
+                    siddhiManager.shutdown();
+                } catch (RuntimeException e) {
+                    log.debug("Error occurred while shutting down the runtime used to validate the Siddhi app.", e);
+                }
+            }
+            topologyCache.put(contentHash, topology);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Using the cached topology of Siddhi app " + topology.getName() + ".");
+        }
+        return topology;
+    }
+
+    private SiddhiTopology compileTopology(String userDefinedSiddhiApp) {
         SiddhiQueryGroup siddhiQueryGroup;
         int[] queryContextEndIndex;
         int[] queryContextStartIndex;
         String execGroupName;
         int parallel;
         this.siddhiTopologyDataHolder = new SiddhiTopologyDataHolder(getAppName(), userDefinedSiddhiApp);
-        String defaultExecGroupName = siddhiTopologyDataHolder.getSiddhiAppName() + "-" + UUID.randomUUID();
+        // Named after the Siddhi app, so that the default execution group keeps its name when the Siddhi app changes
+        String defaultExecGroupName = siddhiTopologyDataHolder.getSiddhiAppName() + "-" + UUID.nameUUIDFromBytes(
+                siddhiTopologyDataHolder.getSiddhiAppName().getBytes(StandardCharsets.UTF_8));
 
         for (ExecutionElement executionElement : siddhiApp.getExecutionElementList()) {
             parallel = 1;
@@ -145,6 +187,24 @@ public class SiddhiTopologyCreatorImpl implements SiddhiTopologyCreator {
         return new SiddhiTopology(siddhiTopologyDataHolder.getSiddhiAppName(), assignPublishingStrategyOutputStream());
     }
 
+    /**
+     * Get the SHA-256 hash of a Siddhi app, which identifies its content in the topology cache.
+     */
+    private String getContentHash(String userDefinedSiddhiApp) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(userDefinedSiddhiApp.getBytes(StandardCharsets.UTF_8));
+            StringBuilder contentHash = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                contentHash.append(String.format("%02x", b));
+            }
+            return contentHash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256, hence the Siddhi app itself is only a fallback key
+            return userDefinedSiddhiApp;
+        }
+    }
+
     private String getAppName() {
         for (int i = 0; i < siddhiApp.getAnnotations().size(); i++) {
             if (siddhiApp.getAnnotations().get(i).getName().equals("name")) {
@@ -18,8 +18,16 @@
 
 package org.wso2.carbon.das.jobmanager.core.util;
 
+import org.wso2.carbon.das.jobmanager.core.bean.DeploymentConfig;
+
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -27,13 +35,17 @@ import okhttp3.RequestBody;
 import okhttp3.Response;
 
 /**
- * Utility class to handle HTTP requests.
+ * Utility class to handle HTTP requests. All the requests share a single {@link OkHttpClient}, so that connections
+ * to the resource nodes are kept alive and reused across requests.
  */
 public class HTTPClientUtil {
     /**
      * Media type to send with the requests.
      */
     private static final MediaType MEDIA_TYPE_PLAINTEXT = MediaType.parse("text/plain; charset=utf-8");
+    private static final int MAX_IDLE_CONNECTIONS = 20;
+    private static final long KEEP_ALIVE_DURATION_MINUTES = 5;
+    private static volatile OkHttpClient httpClient;
 
     /**
      * Send a GET request.
@@ -43,10 +55,7 @@ public class HTTPClientUtil {
      * @throws IOException when failed to connect.
      */
     public static Response doGetRequest(String url) throws IOException {
-        Request request = new Request.Builder()
-                .url(url)
-                .build();
-        return getAuthenticatedClient("admin", "admin").newCall(request).execute();
+        return getAuthenticatedClient().newCall(getRequest(url)).execute();
     }
 
     /**
@@ -58,12 +67,7 @@ public class HTTPClientUtil {
      * @throws IOException when failed to connect.
      */
     public static Response doPostRequest(String url, String payload) throws IOException {
-        RequestBody body = RequestBody.create(MEDIA_TYPE_PLAINTEXT, payload);
-        Request request = new Request.Builder()
-                .url(url)
-                .post(body)
-                .build();
-        return getAuthenticatedClient("admin", "admin").newCall(request).execute();
+        return getAuthenticatedClient().newCall(postRequest(url, payload)).execute();
     }
 
     /**
@@ -75,12 +79,7 @@ public class HTTPClientUtil {
      * @throws IOException when failed to connect.
      */
     public static Response doPutRequest(String url, String payload) throws IOException {
-        RequestBody body = RequestBody.create(MEDIA_TYPE_PLAINTEXT, payload);
-        Request request = new Request.Builder()
-                .url(url)
-                .put(body)
-                .build();
-        return getAuthenticatedClient("admin", "admin").newCall(request).execute();
+        return getAuthenticatedClient().newCall(putRequest(url, payload)).execute();
     }
 
     /**
@@ -91,24 +90,143 @@ public class HTTPClientUtil {
      * @throws IOException when failed to connect.
      */
     public static Response doDeleteRequest(String url) throws IOException {
-        Request request = new Request.Builder()
+        return getAuthenticatedClient().newCall(deleteRequest(url)).execute();
+    }
+
+    /**
+     * Send a POST request asynchronously.
+     *
+     * @param url     URL of the endpoint.
+     * @param payload payload string.
+     * @return future {@link Response} for the request, which completes exceptionally when failed to connect.
+     */
+    public static CompletableFuture<Response> doPostRequestAsync(String url, String payload) {
+        return execute(postRequest(url, payload));
+    }
+
+    /**
+     * Send a PUT request asynchronously.
+     *
+     * @param url     URL of the endpoint.
+     * @param payload payload string.
+     * @return future {@link Response} for the request, which completes exceptionally when failed to connect.
+     */
+    public static CompletableFuture<Response> doPutRequestAsync(String url, String payload) {
+        return execute(putRequest(url, payload));
+    }
+
+    /**
+     * Send a DELETE request asynchronously.
+     *
+     * @param url URL of the endpoint.
+     * @return future {@link Response} for the request, which completes exceptionally when failed to connect.
+     */
+    public static CompletableFuture<Response> doDeleteRequestAsync(String url) {
+        return execute(deleteRequest(url));
+    }
+
+    private static Request getRequest(String url) {
+        return new Request.Builder()
+                .url(url)
+                .build();
+    }
+
+    private static Request postRequest(String url, String payload) {
+        RequestBody body = RequestBody.create(MEDIA_TYPE_PLAINTEXT, payload);
+        return new Request.Builder()
+                .url(url)
+                .post(body)
+                .build();
+    }
+
+    private static Request putRequest(String url, String payload) {
+        RequestBody body = RequestBody.create(MEDIA_TYPE_PLAINTEXT, payload);
+        return new Request.Builder()
+                .url(url)
+                .put(body)
+                .build();
+    }
+
+    private static Request deleteRequest(String url) {
+        return new Request.Builder()
                 .url(url)
                 .delete()
                 .build();
-        return getAuthenticatedClient("admin", "admin").newCall(request).execute();
+    }
+
+    private static CompletableFuture<Response> execute(Request request) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        getAuthenticatedClient().newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                future.complete(response);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Create the shared authenticated {@link OkHttpClient} client from the deployment configuration, replacing the
+     * client created from an earlier configuration. Should be called whenever the deployment configuration is set.
+     *
+     * @param deploymentConfig deployment configuration holding the timeouts and retries, or null to use the defaults
+     */
+    public static void configure(DeploymentConfig deploymentConfig) {
+        synchronized (HTTPClientUtil.class) {
+            httpClient = createAuthenticatedClient("admin", "admin", deploymentConfig);
+        }
+    }
+
+    /**
+     * Get the shared authenticated {@link OkHttpClient} client. A client with the default timeouts and retries is
+     * created if no deployment configuration has been set yet.
+     *
+     * @return authenticated client
+     */
+    private static OkHttpClient getAuthenticatedClient() {
+        OkHttpClient client = httpClient;
+        if (client == null) {
+            synchronized (HTTPClientUtil.class) {
+                client = httpClient;
+                if (client == null) {
+                    client = createAuthenticatedClient("admin", "admin", null);
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
     }
 
     /**
      * Generate a authenticated {@link OkHttpClient} client.
      *
-     * @param username username
-     * @param password password
+     * @param username         username
+     * @param password         password
+     * @param deploymentConfig deployment configuration holding the timeouts and retries, or null to use the defaults
      * @return authenticated client
      */
-    private static OkHttpClient getAuthenticatedClient(final String username, final String password) {
-        OkHttpClient httpClient = new OkHttpClient.Builder()
+    private static OkHttpClient createAuthenticatedClient(final String username, final String password,
+                                                          DeploymentConfig deploymentConfig) {
+        if (deploymentConfig == null) {
+            deploymentConfig = new DeploymentConfig();
+        }
+        // Asynchronous requests to a single resource node are limited the same way as concurrent deployments
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(Math.max(deploymentConfig.getMaxConcurrentDeploymentsPerNode(), 1));
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION_MINUTES,
+                        TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                .connectTimeout(deploymentConfig.getHttpConnectTimeout(), TimeUnit.MILLISECONDS)
+                .readTimeout(deploymentConfig.getHttpReadTimeout(), TimeUnit.MILLISECONDS)
+                .writeTimeout(deploymentConfig.getHttpReadTimeout(), TimeUnit.MILLISECONDS)
                 .addInterceptor(new BasicAuthInterceptor(username, password))
+                .addInterceptor(new RetryInterceptor(deploymentConfig.getHttpMaxRetries()))
                 .build();
-        return httpClient;
     }
 }
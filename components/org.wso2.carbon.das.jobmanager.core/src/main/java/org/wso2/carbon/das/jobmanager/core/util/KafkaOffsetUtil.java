@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.util;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Util class used to read the offsets of Kafka consumer groups, from which their lag and throughput are derived, and
+ * to sample the events of a partition. A Kafka consumer is kept for each consumer group and reused across reads, as
+ * committed offsets can only be read by a consumer of the same group. Kafka consumers block without a timeout while
+ * the brokers cannot be reached, hence each read is woken up once it exceeds its timeout.
+ */
+public class KafkaOffsetUtil implements Closeable {
+    private static final Logger LOG = Logger.getLogger(KafkaOffsetUtil.class);
+    private static final long POLL_TIMEOUT = 500;
+    private static final long SAMPLE_TIMEOUT = 5000;
+    private static final long REQUEST_TIMEOUT = 10000;
+    /**
+     * Key of the consumer which samples events without a consumer group.
+     */
+    private static final String SAMPLING_CONSUMER = "";
+    private final String bootstrapServers;
+    /**
+     * Map of consumer group -> Kafka consumer of the consumer group.
+     */
+    private final Map<String, KafkaConsumer<byte[], byte[]>> consumers = new HashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "KafkaOffsetTimeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public KafkaOffsetUtil(String bootstrapServers) {
+        this.bootstrapServers = bootstrapServers;
+    }
+
+    /**
+     * Get the offsets of a consumer group in the given topics. Partitions in which the consumer group has not
+     * committed an offset yet are not counted, as its position in them is not known.
+     *
+     * @param groupId consumer group
+     * @param topics  topics consumed by the consumer group
+     * @return offsets of the consumer group summed over the partitions of the topics, or null if they could not be
+     * read
+     */
+    public synchronized ConsumerOffsets getConsumerOffsets(String groupId, Collection<String> topics) {
+        KafkaConsumer<byte[], byte[]> consumer = getConsumer(groupId);
+        ScheduledFuture<?> wakeup = timer.schedule(consumer::wakeup, REQUEST_TIMEOUT, TimeUnit.MILLISECONDS);
+        try {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : topics) {
+                List<PartitionInfo> partitionInfos = consumer.partitionsFor(topic);
+                if (partitionInfos != null) {
+                    for (PartitionInfo partitionInfo : partitionInfos) {
+                        partitions.add(new TopicPartition(topic, partitionInfo.partition()));
+                    }
+                }
+            }
+            // Partitions are assigned, rather than subscribed, so that the consumer group is not rebalanced
+            consumer.assign(partitions);
+            consumer.seekToEnd(partitions.toArray(new TopicPartition[partitions.size()]));
+            long endOffset = 0;
+            long committedOffset = 0;
+            Map<TopicPartition, Long> partitionEndOffsets = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                long position = consumer.position(partition);
+                partitionEndOffsets.put(partition, position);
+                OffsetAndMetadata committed = consumer.committed(partition);
+                if (committed != null) {
+                    endOffset += position;
+                    committedOffset += committed.offset();
+                }
+            }
+            if (!wakeup.cancel(false)) {
+                // The consumer would be woken up in the next read
+                closeConsumer(groupId);
+            }
+            return new ConsumerOffsets(endOffset, committedOffset, partitionEndOffsets);
+        } catch (WakeupException e) {
+            LOG.warn("Reading the offsets of consumer group " + groupId + " in topics " + topics + " did not "
+                    + "complete within " + REQUEST_TIMEOUT + " ms.");
+            closeConsumer(groupId);
+            return null;
+        } catch (KafkaException e) {
+            wakeup.cancel(false);
+            LOG.warn("Error occurred while reading the offsets of consumer group " + groupId + " in topics " + topics
+                    + ". " + e.getMessage());
+            closeConsumer(groupId);
+            return null;
+        }
+    }
+
+    /**
+     * Count the values of an attribute in the latest events of a partition, which are published with the XML mapping.
+     *
+     * @param partition     partition of a topic
+     * @param attributeName name of the attribute
+     * @param sampleSize    maximum number of latest Kafka records to be read
+     * @return number of events with each value of the attribute, which is empty if the events could not be read
+     */
+    public synchronized Map<String, Integer> sampleAttributeValues(TopicPartition partition, String attributeName,
+                                                                   int sampleSize) {
+        Pattern attributePattern = Pattern.compile("<" + Pattern.quote(attributeName) + ">([^<]*)</"
+                + Pattern.quote(attributeName) + ">");
+        Map<String, Integer> valueCounts = new HashMap<>();
+        KafkaConsumer<byte[], byte[]> consumer = getConsumer(SAMPLING_CONSUMER);
+        ScheduledFuture<?> wakeup = timer.schedule(consumer::wakeup, SAMPLE_TIMEOUT + REQUEST_TIMEOUT,
+                TimeUnit.MILLISECONDS);
+        try {
+            consumer.assign(Collections.singletonList(partition));
+            consumer.seekToEnd(partition);
+            long endOffset = consumer.position(partition);
+            consumer.seek(partition, Math.max(endOffset - sampleSize, 0));
+            long deadline = System.currentTimeMillis() + SAMPLE_TIMEOUT;
+            while (consumer.position(partition) < endOffset && System.currentTimeMillis() < deadline) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (record.offset() >= endOffset || record.value() == null) {
+                        continue;
+                    }
+                    Matcher matcher = attributePattern.matcher(new String(record.value(), StandardCharsets.UTF_8));
+                    while (matcher.find()) {
+                        valueCounts.merge(matcher.group(1), 1, Integer::sum);
+                    }
+                }
+            }
+            if (!wakeup.cancel(false)) {
+                closeConsumer(SAMPLING_CONSUMER);
+            }
+        } catch (KafkaException e) {
+            wakeup.cancel(false);
+            LOG.warn("Error occurred while sampling the events of partition " + partition + ". " + e.getMessage());
+            closeConsumer(SAMPLING_CONSUMER);
+        }
+        return valueCounts;
+    }
+
+    /**
+     * Close the Kafka consumer of a consumer group which is no longer read.
+     *
+     * @param groupId consumer group
+     */
+    public synchronized void release(String groupId) {
+        closeConsumer(groupId);
+    }
+
+    @Override
+    public synchronized void close() {
+        new ArrayList<>(consumers.keySet()).forEach(this::closeConsumer);
+        timer.shutdownNow();
+    }
+
+    private KafkaConsumer<byte[], byte[]> getConsumer(String groupId) {
+        return consumers.computeIfAbsent(groupId, key -> {
+            Properties properties = new Properties();
+            properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+            if (groupId.equals(SAMPLING_CONSUMER)) {
+                properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+            } else {
+                properties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+            }
+            properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+            properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+            properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+            return new KafkaConsumer<>(properties);
+        });
+    }
+
+    private void closeConsumer(String groupId) {
+        KafkaConsumer<byte[], byte[]> consumer = consumers.remove(groupId);
+        if (consumer != null) {
+            try {
+                consumer.close();
+            } catch (KafkaException e) {
+                LOG.debug("Error occurred while closing the Kafka consumer of consumer group " + groupId, e);
+            }
+        }
+    }
+
+    /**
+     * Offsets of a consumer group summed over the partitions it consumes.
+     */
+    public static class ConsumerOffsets {
+        private final long endOffset;
+        private final long committedOffset;
+        private final Map<TopicPartition, Long> partitionEndOffsets;
+
+        public ConsumerOffsets(long endOffset, long committedOffset, Map<TopicPartition, Long> partitionEndOffsets) {
+            this.endOffset = endOffset;
+            this.committedOffset = committedOffset;
+            this.partitionEndOffsets = partitionEndOffsets;
+        }
+
+        /**
+         * @return offset up to which events are published to the partitions
+         */
+        public long getEndOffset() {
+            return endOffset;
+        }
+
+        /**
+         * @return offset up to which events are consumed by the consumer group
+         */
+        public long getCommittedOffset() {
+            return committedOffset;
+        }
+
+        public long getLag() {
+            return Math.max(endOffset - committedOffset, 0);
+        }
+
+        /**
+         * @return offset up to which events are published to each partition, including the partitions in which the
+         * consumer group has not committed an offset yet
+         */
+        public Map<TopicPartition, Long> getPartitionEndOffsets() {
+            return partitionEndOffsets;
+        }
+    }
+}
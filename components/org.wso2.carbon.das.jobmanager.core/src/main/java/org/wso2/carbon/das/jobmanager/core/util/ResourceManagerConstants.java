@@ -36,6 +36,12 @@ public class ResourceManagerConstants {
 
     public static final String STATE_EXISTS = "EXISTS";
 
+    public static final String PLACEMENT_STRATEGY_LOAD_AWARE = "load-aware";
+
+    public static final String PLACEMENT_STRATEGY_ROUND_ROBIN = "round-robin";
+
+    public static final String TRANSPORT_KAFKA = "kafka";
+
     //App creator constants
     public static final String APP_NAME = "appName";
     public static final String TOPIC_LIST = "topicList";
@@ -64,21 +70,125 @@ public class ResourceManagerConstants {
 
     public static final String DESTINATION = "@destination(partition.no = '${" + PARTITION_NO + "}')";
 
+    public static final String IN_MEMORY_SOURCE_TEMPLATE = "@source(type='inMemory', topic='${" + TOPIC_LIST
+            + "}', @map(type='passThrough'))";
+
+    public static final String IN_MEMORY_SINK_TEMPLATE = "@sink(type='inMemory', topic='${" + TOPIC_LIST
+            + "}', @map(type='passThrough'))";
+
     public static final String KEY_NODE_INFO = "nodeInfo";
 
     public static final String TASK_UPSERT_RESOURCE_MAPPING = "Inserting/Updating resource mapping group";
 
     public static final String TASK_GET_RESOURCE_MAPPING = "Getting resource mapping group";
 
-    public static final String CREATE_RESOURCE_MAPPING_TABLE =
-            "CREATE TABLE IF NOT EXISTS RESOURCE_POOL_TABLE (\n"
+    public static final String TASK_CREATE_RESOURCE_MAPPING_TABLES = "Creating resource mapping tables";
+
+    public static final String CREATE_RESOURCE_GROUP_TABLE =
+            "CREATE TABLE IF NOT EXISTS RESOURCE_GROUP_TABLE (\n"
                     + "                        GROUP_ID VARCHAR(512) NOT NULL,\n"
-                    + "                        RESOURCE_MAPPING BLOB NOT NULL,\n"
+                    + "                        LEADER_ID VARCHAR(512),\n"
+                    + "                        LEADER_HOST VARCHAR(512),\n"
+                    + "                        LEADER_PORT INT,\n"
                     + "                        PRIMARY KEY (GROUP_ID)\n" + ");\n";
 
-    public static final String PS_REPLACE_RESOURCE_MAPPING_ROW =
-            "REPLACE INTO RESOURCE_POOL_TABLE (GROUP_ID, RESOURCE_MAPPING) VALUES (?,?);";
+    public static final String CREATE_RESOURCE_NODE_TABLE =
+            "CREATE TABLE IF NOT EXISTS RESOURCE_NODE_TABLE (\n"
+                    + "                        GROUP_ID VARCHAR(512) NOT NULL,\n"
+                    + "                        NODE_ID VARCHAR(512) NOT NULL,\n"
+                    + "                        STATE VARCHAR(64),\n"
+                    + "                        HOST VARCHAR(512),\n"
+                    + "                        PORT INT,\n"
+                    + "                        PRIMARY KEY (GROUP_ID, NODE_ID)\n" + ");\n";
+
+    public static final String CREATE_SIDDHI_APP_HOLDER_TABLE =
+            "CREATE TABLE IF NOT EXISTS SIDDHI_APP_HOLDER_TABLE (\n"
+                    + "                        GROUP_ID VARCHAR(512) NOT NULL,\n"
+                    + "                        APP_NAME VARCHAR(512) NOT NULL,\n"
+                    + "                        PARENT_APP_NAME VARCHAR(512) NOT NULL,\n"
+                    + "                        APP_GROUP_NAME VARCHAR(512),\n"
+                    + "                        APP_INDEX INT NOT NULL,\n"
+                    + "                        WAITING INT NOT NULL,\n"
+                    + "                        SIDDHI_APP BLOB NOT NULL,\n"
+                    + "                        PRIMARY KEY (GROUP_ID, APP_NAME)\n" + ");\n";
+
+    public static final String CREATE_SIDDHI_APP_PLACEMENT_TABLE =
+            "CREATE TABLE IF NOT EXISTS SIDDHI_APP_PLACEMENT_TABLE (\n"
+                    + "                        GROUP_ID VARCHAR(512) NOT NULL,\n"
+                    + "                        APP_NAME VARCHAR(512) NOT NULL,\n"
+                    + "                        NODE_ID VARCHAR(512) NOT NULL,\n"
+                    + "                        PRIMARY KEY (GROUP_ID, APP_NAME)\n" + ");\n";
+
+    public static final String CREATE_DISTRIBUTED_SIDDHI_APP_TABLE =
+            "CREATE TABLE IF NOT EXISTS DISTRIBUTED_SIDDHI_APP_TABLE (\n"
+                    + "                        GROUP_ID VARCHAR(512) NOT NULL,\n"
+                    + "                        APP_NAME VARCHAR(512) NOT NULL,\n"
+                    + "                        SIDDHI_APP BLOB NOT NULL,\n"
+                    + "                        PRIMARY KEY (GROUP_ID, APP_NAME)\n" + ");\n";
+
+    public static final String PS_DELETE_RESOURCE_GROUP_ROW =
+            "DELETE FROM RESOURCE_GROUP_TABLE WHERE GROUP_ID = ?";
+
+    public static final String PS_INSERT_RESOURCE_GROUP_ROW =
+            "INSERT INTO RESOURCE_GROUP_TABLE (GROUP_ID, LEADER_ID, LEADER_HOST, LEADER_PORT) VALUES (?,?,?,?)";
+
+    public static final String PS_SELECT_RESOURCE_GROUP_ROW =
+            "SELECT LEADER_ID, LEADER_HOST, LEADER_PORT FROM RESOURCE_GROUP_TABLE WHERE GROUP_ID = ?";
+
+    public static final String PS_DELETE_RESOURCE_NODE_ROWS =
+            "DELETE FROM RESOURCE_NODE_TABLE WHERE GROUP_ID = ?";
+
+    public static final String PS_DELETE_RESOURCE_NODE_ROW =
+            "DELETE FROM RESOURCE_NODE_TABLE WHERE GROUP_ID = ? AND NODE_ID = ?";
+
+    public static final String PS_INSERT_RESOURCE_NODE_ROW =
+            "INSERT INTO RESOURCE_NODE_TABLE (GROUP_ID, NODE_ID, STATE, HOST, PORT) VALUES (?,?,?,?,?)";
+
+    public static final String PS_SELECT_RESOURCE_NODE_ROWS =
+            "SELECT NODE_ID, STATE, HOST, PORT FROM RESOURCE_NODE_TABLE WHERE GROUP_ID = ?";
+
+    public static final String PS_DELETE_SIDDHI_APP_HOLDER_ROWS =
+            "DELETE FROM SIDDHI_APP_HOLDER_TABLE WHERE GROUP_ID = ?";
+
+    public static final String PS_DELETE_SIDDHI_APP_HOLDER_ROW =
+            "DELETE FROM SIDDHI_APP_HOLDER_TABLE WHERE GROUP_ID = ? AND APP_NAME = ?";
+
+    public static final String PS_INSERT_SIDDHI_APP_HOLDER_ROW =
+            "INSERT INTO SIDDHI_APP_HOLDER_TABLE (GROUP_ID, APP_NAME, PARENT_APP_NAME, APP_GROUP_NAME, APP_INDEX, "
+                    + "WAITING, SIDDHI_APP) VALUES (?,?,?,?,?,?,?)";
+
+    public static final String PS_SELECT_SIDDHI_APP_HOLDER_ROWS =
+            "SELECT APP_NAME, PARENT_APP_NAME, APP_GROUP_NAME, APP_INDEX, WAITING, SIDDHI_APP "
+                    + "FROM SIDDHI_APP_HOLDER_TABLE WHERE GROUP_ID = ?";
+
+    public static final String PS_DELETE_SIDDHI_APP_PLACEMENT_ROWS =
+            "DELETE FROM SIDDHI_APP_PLACEMENT_TABLE WHERE GROUP_ID = ?";
+
+    public static final String PS_DELETE_SIDDHI_APP_PLACEMENT_ROW =
+            "DELETE FROM SIDDHI_APP_PLACEMENT_TABLE WHERE GROUP_ID = ? AND APP_NAME = ?";
+
+    public static final String PS_INSERT_SIDDHI_APP_PLACEMENT_ROW =
+            "INSERT INTO SIDDHI_APP_PLACEMENT_TABLE (GROUP_ID, APP_NAME, NODE_ID) VALUES (?,?,?)";
+
+    public static final String PS_SELECT_SIDDHI_APP_PLACEMENT_ROWS =
+            "SELECT APP_NAME, NODE_ID FROM SIDDHI_APP_PLACEMENT_TABLE WHERE GROUP_ID = ?";
+
+    public static final String PS_DELETE_DISTRIBUTED_SIDDHI_APP_ROWS =
+            "DELETE FROM DISTRIBUTED_SIDDHI_APP_TABLE WHERE GROUP_ID = ?";
+
+    public static final String PS_DELETE_DISTRIBUTED_SIDDHI_APP_ROW =
+            "DELETE FROM DISTRIBUTED_SIDDHI_APP_TABLE WHERE GROUP_ID = ? AND APP_NAME = ?";
+
+    public static final String PS_INSERT_DISTRIBUTED_SIDDHI_APP_ROW =
+            "INSERT INTO DISTRIBUTED_SIDDHI_APP_TABLE (GROUP_ID, APP_NAME, SIDDHI_APP) VALUES (?,?,?)";
+
+    public static final String PS_SELECT_DISTRIBUTED_SIDDHI_APP_ROWS =
+            "SELECT APP_NAME, SIDDHI_APP FROM DISTRIBUTED_SIDDHI_APP_TABLE WHERE GROUP_ID = ?";
 
+    /**
+     * Resource pools were persisted as a single serialized blob by earlier versions, which is only read to migrate
+     * to the resource mapping tables.
+     */
     public static final String PS_SELECT_RESOURCE_MAPPING_ROW =
             "SELECT GROUP_ID, RESOURCE_MAPPING FROM RESOURCE_POOL_TABLE WHERE GROUP_ID =?";
 
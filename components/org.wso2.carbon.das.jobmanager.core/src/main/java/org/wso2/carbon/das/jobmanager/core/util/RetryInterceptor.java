@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.util;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Interceptor which retries a request when the resource node cannot be reached. Requests with an idempotent method are
+ * retried on any I/O failure, while other requests, such as deployments, are only retried when the connection could
+ * not be established, as the resource node may have already processed a request that failed afterwards.
+ */
+public class RetryInterceptor implements Interceptor {
+
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "PUT",
+            "DELETE", "OPTIONS"));
+    private final int maxRetries;
+
+    public RetryInterceptor(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Maximum number of retries of requests to resource nodes should not "
+                    + "be negative, but found " + maxRetries);
+        }
+        this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        boolean idempotent = IDEMPOTENT_METHODS.contains(request.method());
+        int attempt = 0;
+        while (true) {
+            try {
+                return chain.proceed(request);
+            } catch (IOException e) {
+                if (attempt++ >= maxRetries || !(idempotent || isConnectFailure(e))) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private boolean isConnectFailure(IOException e) {
+        return e instanceof ConnectException || e instanceof NoRouteToHostException;
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.das.jobmanager.core.appCreator.ConsistentHashPartitionAssigner;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class PartitionAssignerTestCase {
+    private static final String GROUP_NAME = "App-group1";
+
+    @Test
+    public void testBalancedAssignment() {
+        for (int instanceCount = 1; instanceCount <= 16; instanceCount++) {
+            List<List<Integer>> assignments = ConsistentHashPartitionAssigner.assign(GROUP_NAME, 16, instanceCount);
+            Assert.assertEquals(assignments.size(), instanceCount);
+            Set<Integer> partitions = new HashSet<>();
+            for (List<Integer> assignment : assignments) {
+                Assert.assertTrue(assignment.size() == 16 / instanceCount
+                        || assignment.size() == 16 / instanceCount + 1);
+                partitions.addAll(assignment);
+            }
+            Assert.assertEquals(partitions.size(), 16);
+        }
+    }
+
+    @Test
+    public void testMinimalMovementOnScaling() {
+        for (int instanceCount = 1; instanceCount < 16; instanceCount++) {
+            List<List<Integer>> assignments = ConsistentHashPartitionAssigner.assign(GROUP_NAME, 64, instanceCount);
+            List<List<Integer>> scaledAssignments = ConsistentHashPartitionAssigner.assign(GROUP_NAME, 64,
+                    instanceCount + 1);
+            for (int i = 0; i < instanceCount; i++) {
+                Assert.assertTrue(assignments.get(i).containsAll(scaledAssignments.get(i)));
+            }
+            Assert.assertEquals(scaledAssignments.get(instanceCount).size(), 64 / (instanceCount + 1));
+        }
+    }
+
+    @Test
+    public void testInstanceOfPartition() {
+        List<List<Integer>> assignments = ConsistentHashPartitionAssigner.assign(GROUP_NAME, 8, 3);
+        for (int partition = 0; partition < 8; partition++) {
+            int instance = ConsistentHashPartitionAssigner.getInstance(GROUP_NAME, 8, 3, partition);
+            Assert.assertTrue(assignments.get(instance).contains(partition));
+        }
+        Assert.assertEquals(ConsistentHashPartitionAssigner.getInstance(GROUP_NAME, 8, 3, 8), -1);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.das.jobmanager.core.bean.InterfaceConfig;
+import org.wso2.carbon.das.jobmanager.core.deployment.LoadAwarePlacementStrategy;
+import org.wso2.carbon.das.jobmanager.core.deployment.RoundRobinPlacementStrategy;
+import org.wso2.carbon.das.jobmanager.core.model.ResourceNode;
+import org.wso2.carbon.das.jobmanager.core.model.SiddhiAppHolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PlacementStrategyTestCase {
+    private static final String FILTER_APP = "@App:name('filter') define stream StockStream (symbol string, "
+            + "price float); from StockStream[price > 100] select * insert into FilteredStream;";
+    private static final String WINDOW_JOIN_APP = "@App:name('join') define stream StockStream (symbol string, "
+            + "price float); define stream TwitterStream (symbol string, count int); "
+            + "from StockStream#window.time(1 min) join TwitterStream#window.length(100) "
+            + "on StockStream.symbol == TwitterStream.symbol select StockStream.symbol, count insert into "
+            + "JoinedStream;";
+
+    @Test
+    public void testLoadAwarePlacementPrefersLessLoadedNode() {
+        ResourceNode idleNode = createResourceNode("idle", 4, 0.5, 0.2);
+        ResourceNode busyNode = createResourceNode("busy", 4, 3.8, 0.2);
+        PlacementStrategy placementStrategy = new LoadAwarePlacementStrategy();
+        ResourceNode selectedNode = placementStrategy.getNextResourceNode(
+                new SiddhiAppHolder("parent", "group1", "parent-group1-1", FILTER_APP, null),
+                Arrays.asList(busyNode, idleNode), new HashMap<>());
+        Assert.assertEquals(selectedNode, idleNode);
+    }
+
+    @Test
+    public void testLoadAwarePlacementConsidersPlacedApps() {
+        ResourceNode node1 = createResourceNode("node1", 4, 0, 0);
+        ResourceNode node2 = createResourceNode("node2", 4, 0, 0);
+        Map<ResourceNode, List<SiddhiAppHolder>> placements = new HashMap<>();
+        placements.put(node1, new ArrayList<>(Arrays.asList(
+                new SiddhiAppHolder("other", "group1", "other-group1-1", WINDOW_JOIN_APP, node1))));
+        placements.put(node2, new ArrayList<>(Arrays.asList(
+                new SiddhiAppHolder("other", "group2", "other-group2-1", FILTER_APP, node2),
+                new SiddhiAppHolder("other", "group3", "other-group3-1", FILTER_APP, node2))));
+        ResourceNode selectedNode = new LoadAwarePlacementStrategy().getNextResourceNode(
+                new SiddhiAppHolder("parent", "group1", "parent-group1-1", FILTER_APP, null),
+                Arrays.asList(node1, node2), placements);
+        Assert.assertEquals(selectedNode, node2);
+    }
+
+    @Test
+    public void testLoadAwarePlacementSpreadsGroupInstances() {
+        ResourceNode largeNode = createResourceNode("large", 16, 0, 0);
+        ResourceNode smallNode = createResourceNode("small", 2, 0, 0);
+        Map<ResourceNode, List<SiddhiAppHolder>> placements = new HashMap<>();
+        placements.put(largeNode, new ArrayList<>(Arrays.asList(
+                new SiddhiAppHolder("parent", "group1", "parent-group1-1", FILTER_APP, largeNode))));
+        ResourceNode selectedNode = new LoadAwarePlacementStrategy().getNextResourceNode(
+                new SiddhiAppHolder("parent", "group1", "parent-group1-2", FILTER_APP, null),
+                Arrays.asList(largeNode, smallNode), placements);
+        Assert.assertEquals(selectedNode, smallNode);
+    }
+
+    @Test
+    public void testLoadAwareLoadOfResourceNode() {
+        ResourceNode node = createResourceNode("node", 2, 0, 0);
+        LoadAwarePlacementStrategy placementStrategy = new LoadAwarePlacementStrategy();
+        SiddhiAppHolder filterApp = new SiddhiAppHolder("parent", "group1", "parent-group1-1", FILTER_APP, node);
+        SiddhiAppHolder joinApp = new SiddhiAppHolder("parent", "group2", "parent-group2-1", WINDOW_JOIN_APP, node);
+        double idleLoad = placementStrategy.getLoad(node, new ArrayList<>());
+        double filterLoad = placementStrategy.getLoad(node, Arrays.asList(filterApp));
+        double filterJoinLoad = placementStrategy.getLoad(node, Arrays.asList(filterApp, joinApp));
+        Assert.assertEquals(idleLoad, 0.0);
+        Assert.assertTrue(filterLoad > idleLoad);
+        Assert.assertTrue(filterJoinLoad - filterLoad > filterLoad);
+    }
+
+    @Test
+    public void testRoundRobinPlacement() {
+        ResourceNode node1 = createResourceNode("node1", 1, 0, 0);
+        ResourceNode node2 = createResourceNode("node2", 1, 0, 0);
+        List<ResourceNode> resourceNodes = Arrays.asList(node1, node2);
+        PlacementStrategy placementStrategy = new RoundRobinPlacementStrategy();
+        SiddhiAppHolder partialApp = new SiddhiAppHolder("parent", "group1", "parent-group1-1", FILTER_APP, null);
+        Assert.assertEquals(placementStrategy.getNextResourceNode(partialApp, resourceNodes, new HashMap<>()), node1);
+        Assert.assertEquals(placementStrategy.getNextResourceNode(partialApp, resourceNodes, new HashMap<>()), node2);
+        Assert.assertEquals(placementStrategy.getNextResourceNode(partialApp, resourceNodes, new HashMap<>()), node1);
+    }
+
+    private ResourceNode createResourceNode(String id, int processorCount, double systemLoadAverage,
+                                            double heapMemoryUsage) {
+        ResourceNode resourceNode = new ResourceNode(id);
+        InterfaceConfig interfaceConfig = new InterfaceConfig();
+        interfaceConfig.setHost("localhost");
+        interfaceConfig.setPort(9090);
+        resourceNode.setHttpInterface(interfaceConfig);
+        resourceNode.updateMetrics(processorCount, systemLoadAverage, heapMemoryUsage);
+        return resourceNode;
+    }
+}
@@ -19,11 +19,13 @@
 package org.wso2.carbon.das.jobmanager.core;
 
 import org.apache.log4j.Logger;
+import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import org.wso2.carbon.das.jobmanager.core.appCreator.DeployableSiddhiQueryGroup;
+import org.wso2.carbon.das.jobmanager.core.appCreator.InMemoryTransport;
 import org.wso2.carbon.das.jobmanager.core.appCreator.SPSiddhiAppCreator;
 import org.wso2.carbon.das.jobmanager.core.appCreator.SiddhiQuery;
 import org.wso2.carbon.das.jobmanager.core.bean.DeploymentConfig;
@@ -41,6 +43,7 @@ import org.wso2.siddhi.core.SiddhiManager;
 
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -425,4 +428,96 @@ public class SiddhiAppCreatorTestCase {
         }
 
     }
+
+    @Test
+    public void testScaledSiddhiAppCreation() {
+        String app = "@info(name = 'query1')\n"
+                + "From stockStream[price > 100]\n"
+                + "Select *\n"
+                + "Insert into filteredStockStream;";
+        String stockStream = "${stockStream}\n"
+                + "define stream stockStream(symbol string, price float, quantity int, tier string);";
+        String filteredStockStream = "${filteredStockStream}\n"
+                + "define stream filteredStockStream(symbol string, price float, quantity int, tier string);";
+        SubscriptionStrategyDataHolder stockStreamSubscription = new SubscriptionStrategyDataHolder(4,
+                TransportStrategy.FIELD_GROUPING);
+        stockStreamSubscription.setPartitionKey("symbol");
+        Map<String, InputStreamDataHolder> inputStreams = new HashMap<>();
+        inputStreams.put("stockStream", new InputStreamDataHolder("stockStream", stockStream,
+                EventHolder.STREAM, false, stockStreamSubscription));
+        OutputStreamDataHolder filteredStreamOutput = new OutputStreamDataHolder("filteredStockStream",
+                filteredStockStream, EventHolder.STREAM, true);
+        Map<String, OutputStreamDataHolder> outputStreams = new HashMap<>();
+        outputStreams.put("filteredStockStream", filteredStreamOutput);
+        SiddhiQueryGroup group = new SiddhiQueryGroup("Scaled-App-001", 4, inputStreams, outputStreams);
+        group.addQuery(app);
+
+        SPSiddhiAppCreator appCreator = new SPSiddhiAppCreator();
+        List<SiddhiQuery> queries = appCreator.createApps("Scaled-App", group, 2);
+        Assert.assertEquals(queries.size(), 2);
+        Assert.assertTrue(queries.get(0).getApp().contains("partition.no.list='1,3'"));
+        Assert.assertTrue(queries.get(1).getApp().contains("partition.no.list='0,2'"));
+        Assert.assertEquals(appCreator.getConsumedTopics("Scaled-App", group),
+                Collections.singletonList("Scaled-App.stockStream.symbol"));
+        Assert.assertEquals(appCreator.getPartitionedTopics("Scaled-App", group),
+                Collections.singletonMap("Scaled-App.stockStream.symbol", "symbol"));
+    }
+
+    @Test
+    public void testColocatedSiddhiAppCreation() {
+        ServiceDataHolder.getDeploymentConfig().setColocateQueryGroups(true);
+        String filterQuery = "@info(name = 'query1')\n"
+                + "From stockStream[price > 100]\n"
+                + "Select *\n"
+                + "Insert into filteredStockStream";
+        String avgQuery = "@info(name = 'query2')\n"
+                + "From filteredStockStream#window.length(10)\n"
+                + "Select symbol, avg(price) as avgPrice\n"
+                + "Insert into avgPriceStream";
+        String stockStream = "define stream stockStream(symbol string, price float)";
+        String filteredStockStream = "${filteredStockStream}\n"
+                + "define stream filteredStockStream(symbol string, price float)";
+        String avgPriceStream = "define stream avgPriceStream(symbol string, avgPrice double)";
+
+        Map<String, InputStreamDataHolder> app1Input = new HashMap<>();
+        app1Input.put("stockStream", new InputStreamDataHolder("stockStream", stockStream, EventHolder.STREAM,
+                true, new SubscriptionStrategyDataHolder(1, TransportStrategy.ALL)));
+        OutputStreamDataHolder filteredStreamOutput = new OutputStreamDataHolder("filteredStockStream",
+                filteredStockStream, EventHolder.STREAM, false);
+        filteredStreamOutput.addPublishingStrategy(new PublishingStrategyDataHolder("Colocated-App-002",
+                TransportStrategy.ROUND_ROBIN, 1));
+        Map<String, OutputStreamDataHolder> app1Output = new HashMap<>();
+        app1Output.put("filteredStockStream", filteredStreamOutput);
+        SiddhiQueryGroup group1 = new SiddhiQueryGroup("Colocated-App-001", 1, app1Input, app1Output);
+        group1.addQuery(filterQuery);
+
+        Map<String, InputStreamDataHolder> app2Input = new HashMap<>();
+        app2Input.put("filteredStockStream", new InputStreamDataHolder("filteredStockStream", filteredStockStream,
+                EventHolder.STREAM, false, new SubscriptionStrategyDataHolder(1, TransportStrategy.ROUND_ROBIN)));
+        Map<String, OutputStreamDataHolder> app2Output = new HashMap<>();
+        app2Output.put("avgPriceStream", new OutputStreamDataHolder("avgPriceStream", avgPriceStream,
+                EventHolder.STREAM, true));
+        SiddhiQueryGroup group2 = new SiddhiQueryGroup("Colocated-App-002", 1, app2Input, app2Output);
+        group2.addQuery(avgQuery);
+
+        List<SiddhiQueryGroup> queryGroupList = new ArrayList<>();
+        queryGroupList.add(group1);
+        queryGroupList.add(group2);
+        SiddhiTopology topology = new SiddhiTopology("Colocated-App", queryGroupList);
+        List<DeployableSiddhiQueryGroup> resultList = new SPSiddhiAppCreator().createApps(topology);
+
+        String producerApp = resultList.get(0).getSiddhiQueries().get(0).getApp();
+        String consumerApp = resultList.get(1).getSiddhiQueries().get(0).getApp();
+        Assert.assertTrue(producerApp.contains("@sink(type='inMemory', topic='Colocated-App.filteredStockStream'"));
+        Assert.assertTrue(consumerApp.contains("@source(type='inMemory', topic='Colocated-App.filteredStockStream'"));
+        Assert.assertFalse(producerApp.contains("type='kafka'"));
+        Assert.assertFalse(consumerApp.contains("type='kafka'"));
+        Assert.assertEquals(InMemoryTransport.getTopics(producerApp), InMemoryTransport.getTopics(consumerApp));
+        for (DeployableSiddhiQueryGroup group : resultList) {
+            for (SiddhiQuery query : group.getSiddhiQueries()) {
+                SiddhiManager siddhiManager = new SiddhiManager();
+                siddhiManager.createSiddhiAppRuntime(query.getApp());
+            }
+        }
+    }
 }
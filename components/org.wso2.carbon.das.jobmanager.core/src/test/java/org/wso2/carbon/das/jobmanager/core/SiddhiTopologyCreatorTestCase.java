@@ -704,6 +704,33 @@ public class SiddhiTopologyCreatorTestCase {
 
     }
 
+    @Test
+    public void testCachedTopology() {
+        String siddhiApp = "@App:name('CachedApp') "
+                + "define stream TempStream(deviceID long, roomNo int, temp double); "
+                + "from TempStream[temp > 40]\n"
+                + "select *\n"
+                + "insert into HighTempStream;"
+                + "@info(name='query2')@dist(parallel='2',execGroup='002')\n"
+                + "from HighTempStream[roomNo >= 100]\n"
+                + "select roomNo, temp\n"
+                + "insert into RoomTempStream;";
+
+        SiddhiTopologyCreatorImpl siddhiTopologyCreator = new SiddhiTopologyCreatorImpl();
+        SiddhiTopology topology = siddhiTopologyCreator.createTopology(siddhiApp);
+        Assert.assertSame(siddhiTopologyCreator.createTopology(siddhiApp), topology);
+
+        SiddhiTopology changedTopology = siddhiTopologyCreator.createTopology(siddhiApp.replace("roomNo >= 100",
+                "roomNo >= 200"));
+        Assert.assertNotSame(changedTopology, topology);
+        Assert.assertEquals(changedTopology.getQueryGroupList().get(0).getName(),
+                topology.getQueryGroupList().get(0).getName());
+        Assert.assertEquals(changedTopology.getQueryGroupList().get(0).getSiddhiApp(),
+                topology.getQueryGroupList().get(0).getSiddhiApp());
+        Assert.assertNotEquals(changedTopology.getQueryGroupList().get(1).getSiddhiApp(),
+                topology.getQueryGroupList().get(1).getSiddhiApp());
+    }
+
     private Map<String, List<SiddhiAppRuntime>> createSiddhiAppRuntimes(
             SiddhiManager siddhiManager, List<DeployableSiddhiQueryGroup> queryGroupList) {
         Map<String, List<SiddhiAppRuntime>> siddhiAppRuntimeMap = new HashMap<>(queryGroupList.size());
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.das.jobmanager.core.deployment;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class DeploymentMetricsTestCase {
+
+    @Test
+    public void testRecordLatencies() {
+        DeploymentMetrics metrics = new DeploymentMetrics();
+        metrics.record("app-group1-1", "node1", 10);
+        metrics.record("app-group2-1", "node1", 30);
+        metrics.record("app-group1-2", "node2", 20);
+
+        Assert.assertEquals(metrics.getDeploymentCount("node1"), 2);
+        Assert.assertEquals(metrics.getAverageLatency("node1"), 20.0);
+        Assert.assertEquals(metrics.getMaxLatency("node1"), 30);
+        Assert.assertEquals(metrics.getDeploymentCount("node2"), 1);
+        Assert.assertEquals(metrics.getDeploymentCount("node3"), 0);
+        Assert.assertEquals(metrics.getPartialAppLatencies().get("app-group2-1"), Long.valueOf(30));
+
+        metrics.removePartialApp("app-group2-1");
+        Assert.assertFalse(metrics.getPartialAppLatencies().containsKey("app-group2-1"));
+        Assert.assertEquals(metrics.getDeploymentCount("node1"), 2);
+    }
+
+    @Test
+    public void testSummarize() {
+        DeploymentMetrics metrics = new DeploymentMetrics();
+        metrics.record("app-group1-1", "node1", 10);
+        metrics.record("app-group2-1", "node1", 30);
+        metrics.record("app-group1-2", "node2", 20);
+
+        Map<String, String> partialAppNodes = new HashMap<>();
+        partialAppNodes.put("app-group2-1", "node1");
+        partialAppNodes.put("app-group1-1", "node1");
+        partialAppNodes.put("app-group1-2", "node2");
+        Assert.assertEquals(metrics.summarize(partialAppNodes),
+                "node1: 2 deployments, average 20.0 ms, max 30 ms (app-group1-1 10 ms, app-group2-1 30 ms); "
+                        + "node2: 1 deployments, average 20.0 ms, max 20 ms (app-group1-2 20 ms)");
+    }
+}
@@ -7,6 +7,7 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.carbon.event.simulator.core.factories.DatabaseApiServiceFactory;
+import org.wso2.carbon.event.simulator.core.internal.generator.database.util.DatabaseConnector;
 import org.wso2.carbon.event.simulator.core.model.*;
 
 
@@ -107,6 +108,7 @@ public class DatabaseApi implements Microservice {
      */
     @Deactivate
     protected void stop() throws Exception {
+        DatabaseConnector.closeDataSources();
         log.info("Event Simulator database service component is deactivated");
     }
 }
@@ -29,6 +29,7 @@ import org.wso2.carbon.event.simulator.core.service.EventSimulator;
 import org.wso2.carbon.event.simulator.core.service.EventSimulatorMap;
 import org.wso2.carbon.event.simulator.core.service.bean.ActiveSimulatorData;
 import org.wso2.carbon.event.simulator.core.service.bean.ResourceDependencyData;
+import org.wso2.carbon.event.simulator.core.service.bean.SimulationStatusResponse;
 import org.wso2.carbon.stream.processor.common.exception.ResourceNotFoundException;
 import org.wso2.carbon.stream.processor.common.exception.ResponseMapper;
 import org.wso2.carbon.utils.Utils;
@@ -312,7 +313,8 @@ public class FeedApiServiceImpl extends FeedApiService {
             EventSimulator eventSimulator = activeSimulatorData.getEventSimulator();
             return Response.ok()
                     .header("Access-Control-Allow-Origin", "*")
-                    .entity(new ResponseMapper(Response.Status.OK, eventSimulator.getStatus().name()))
+                    .entity(new SimulationStatusResponse(Response.Status.OK, eventSimulator.getStatus().name(),
+                            eventSimulator.getStatistics()))
                     .build();
         } else {
             return Response.status(Response.Status.NOT_FOUND)
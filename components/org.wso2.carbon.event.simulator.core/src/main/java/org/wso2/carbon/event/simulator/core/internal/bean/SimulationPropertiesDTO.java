@@ -18,6 +18,7 @@
 
 package org.wso2.carbon.event.simulator.core.internal.bean;
 
+import org.wso2.carbon.event.simulator.core.internal.util.EventSimulatorConstants;
 
 /**
  * SimulationPropertiesDTO class is used to create simulation configuration objects.
@@ -30,6 +31,9 @@ public class SimulationPropertiesDTO {
     private int noOfEventsRequired;
     private long startTimestamp;
     private long endTimestamp;
+    private double eventRate = -1;
+    private boolean maxSpeed;
+    private int batchSize = EventSimulatorConstants.DEFAULT_BATCH_SIZE;
 
     public String getSimulationName() {
         return simulationName;
@@ -79,4 +83,36 @@ public class SimulationPropertiesDTO {
         this.endTimestamp = endTimestamp;
     }
 
+    public double getEventRate() {
+        return eventRate;
+    }
+
+    public void setEventRate(double eventRate) {
+        this.eventRate = eventRate;
+    }
+
+    public boolean isMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public void setMaxSpeed(boolean maxSpeed) {
+        this.maxSpeed = maxSpeed;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return true if events are sent as fast as the event rate allows, in batches, instead of one event per time
+     * interval
+     */
+    public boolean isThroughputMode() {
+        return maxSpeed || eventRate > 0;
+    }
+
 }
@@ -27,6 +27,7 @@ import org.wso2.carbon.event.simulator.core.exception.EventGenerationException;
 import org.wso2.carbon.event.simulator.core.exception.SimulatorInitializationException;
 import org.wso2.carbon.event.simulator.core.internal.bean.CSVSimulationDTO;
 import org.wso2.carbon.event.simulator.core.internal.util.EventConverter;
+import org.wso2.carbon.event.simulator.core.internal.util.EventSimulatorConstants;
 import org.wso2.carbon.event.simulator.core.service.EventSimulatorDataHolder;
 import org.wso2.carbon.stream.processor.common.exception.ResourceNotFoundException;
 import org.wso2.siddhi.core.event.Event;
@@ -42,9 +43,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.TreeMap;
 
 
 /**
@@ -55,6 +54,9 @@ public class CSVReader {
     private Reader fileReader = null;
     private BufferedReader bufferedReader = null;
     private CSVParser csvParser = null;
+    private CSVRecordSorter recordSorter = null;
+    private MappedCSVReader mappedReader = null;
+    private File csvFile = null;
     private long lineNumber = 0;
     private long eventNumber = 0;
 
@@ -67,7 +69,7 @@ public class CSVReader {
     public CSVReader(String fileName, boolean isOrdered) throws ResourceNotFoundException {
         try {
             String csvFileDirectory = EventSimulatorDataHolder.getInstance().getCsvFileDirectory();
-            File csvFile = new File(Paths.get(csvFileDirectory, fileName).toString());
+            csvFile = new File(Paths.get(csvFileDirectory, fileName).toString());
             if (csvFile.exists()) {
                 if (csvFile.length() != 0) {
                     fileReader = new InputStreamReader(new FileInputStream(Paths.get(csvFileDirectory,
@@ -94,7 +96,9 @@ public class CSVReader {
     }
 
     /**
-     * If the CSV file is ordered by timestamp, this method reads the next line and produces an event
+     * If the CSV file is ordered by timestamp, this method reads the next line and produces an event.
+     * If the delimiter matches a single character, the CSV file is read using a {@link MappedCSVReader}, which parses
+     * the lines of the memory mapped file without creating strings for each of them.
      *
      * @param csvConfig        configuration of CSV simulation
      * @param streamAttributes list of attributes of the stream to which events are produced
@@ -108,6 +112,20 @@ public class CSVReader {
         int timestampPosition = Integer.parseInt(csvConfig.getTimestampAttribute());
         List<Integer> indices = csvConfig.getIndices();
         try {
+            if (bufferedReader != null && mappedReader == null) {
+                int delimiter = MappedCSVReader.getDelimiter(csvConfig.getDelimiter());
+                if (delimiter != -1) {
+                    mappedReader = new MappedCSVReader(csvFile, (byte) delimiter);
+                    bufferedReader.close();
+                    bufferedReader = null;
+                    if (log.isDebugEnabled()) {
+                        log.debug("Read memory mapped CSV file '" + csvConfig.getFileName() + "'.");
+                    }
+                }
+            }
+            if (mappedReader != null) {
+                return mappedReader.getNextEvent(csvConfig, streamAttributes, startTimestamp, endTimestamp);
+            }
             while (true) {
                 lineNumber++;
                 String line = bufferedReader.readLine();
@@ -186,29 +204,67 @@ public class CSVReader {
 
 
     /**
-     * If the CSV is not ordered by timestamp, getEventsMap() method is used to create a treeMap of events.
+     * If the CSV is not ordered by timestamp, sortEvents() method is used to sort the records of the CSV file by
+     * timestamp. The records are sorted in runs of bounded size which are spilled to disk, hence files of any size
+     * can be simulated. Events are then created from the sorted records using getNextSortedEvent().
      *
      * @param csvConfig        configuration of csv simulation
-     * @param streamAttributes list of attributes of the stream to which events are produced
      * @param startTimestamp   start timestamp of event simulation
      * @param endTimestamp     end timestamp of event simulation
-     * @return treeMap of events
      */
-    public TreeMap<Long, ArrayList<Event>> getEventsMap(CSVSimulationDTO csvConfig, List<Attribute> streamAttributes,
-                                                        long startTimestamp, long endTimestamp) {
+    public void sortEvents(CSVSimulationDTO csvConfig, long startTimestamp, long endTimestamp) {
+        CSVRecordSorter sorter = new CSVRecordSorter(EventSimulatorConstants.CSV_SORT_RUN_SIZE);
+        boolean sorted = false;
         try {
             csvParser = parseFile(csvConfig.getDelimiter());
-            return createEventsMap(csvConfig, streamAttributes, startTimestamp,
-                    endTimestamp);
+            addRecords(csvConfig, sorter, startTimestamp, endTimestamp);
+            sorter.sort();
+            sorted = true;
         } catch (IOException e) {
-            log.error("Error occurred when initializing CSVParser for CSV file '" + csvConfig.getFileName() + "' to " +
-                    "simulate stream '" + csvConfig.getStreamName() + "' using source configuration : " +
+            log.error("Error occurred when sorting CSV file '" + csvConfig.getFileName() + "' to simulate stream '" +
+                    csvConfig.getStreamName() + "' using source configuration : " + csvConfig.toString(), e);
+            throw new EventGenerationException("Error occurred when sorting CSV file '" + csvConfig.getFileName() +
+                    "' to simulate stream '" + csvConfig.getStreamName() + "' using source configuration : " +
                     csvConfig.toString(), e);
-            throw new EventGenerationException("Error occurred when initializing CSVParser for CSV file '" +
-                    csvConfig.getFileName() + "' to simulate stream '" + csvConfig.getStreamName() + "' using source " +
-                    "configuration : " + csvConfig.toString(), e);
         } finally {
             closeParser(csvConfig.getFileName(), false);
+            if (!sorted) {
+                sorter.close();
+            }
+        }
+        recordSorter = sorter;
+    }
+
+
+    /**
+     * If the CSV file is not ordered by timestamp, this method produces an event from the record with the next least
+     * timestamp, once the records are sorted using sortEvents()
+     *
+     * @param csvConfig        configuration of CSV simulation
+     * @param streamAttributes list of attributes of the stream to which events are produced
+     * @return event produced, or null if there are no more records
+     */
+    public Event getNextSortedEvent(CSVSimulationDTO csvConfig, List<Attribute> streamAttributes) {
+        try {
+            CSVRecordSorter.Record record;
+            while (recordSorter != null && (record = recordSorter.next()) != null) {
+                try {
+                    return EventConverter.eventConverter(streamAttributes, record.getData(), record.getTimestamp());
+                } catch (EventGenerationException e) {
+                    log.error("Error occurred when generating event using CSV event generator to simulate" +
+                            " stream '" + csvConfig.getStreamName() + "' using source configuration : " +
+                            csvConfig.toString() + "Drop event and create next event.", e);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            log.error("Error occurred when reading sorted records of CSV file '" + csvConfig.getFileName() + "' to " +
+                    "simulate stream '" + csvConfig.getStreamName() + "' using source configuration : " +
+                    csvConfig.toString(), e);
+            closeParser(csvConfig.getFileName(), false);
+            throw new EventGenerationException("Error occurred when reading sorted records of CSV file '" +
+                    csvConfig.getFileName() + "' to simulate stream '" + csvConfig.getStreamName() + "' using " +
+                    "source configuration : " + csvConfig.toString(), e);
         }
     }
 
@@ -234,25 +290,21 @@ public class CSVReader {
 
 
     /**
-     * createEventsMap() methods creates a treeMap of events using the data in the CSV file.
-     * The key of the treeMap will be the event timestamp and the value will be an array list of events belonging to
-     * the timestamp.
+     * addRecords() method adds the records of the CSV file which fall within the timestamp range to the record sorter.
+     * The data elements of a record are the values at the indices specified.
      *
-     * @param csvConfig        configuration of csv simulation
-     * @param streamAttributes list of attributes of the stream to which events are produced
-     * @param startTimestamp   start timestamp of event simulation
-     * @param endTimestamp     end timestamp of event simulation
-     * @return a treeMap of events
+     * @param csvConfig      configuration of csv simulation
+     * @param sorter         record sorter to which records are added
+     * @param startTimestamp start timestamp of event simulation
+     * @param endTimestamp   end timestamp of event simulation
+     * @throws IOException if an error occurs when spilling the records
      */
-    private TreeMap<Long, ArrayList<Event>> createEventsMap(CSVSimulationDTO csvConfig,
-                                                            List<Attribute> streamAttributes,
-                                                            long startTimestamp, long endTimestamp) {
-        TreeMap<Long, ArrayList<Event>> eventsMap = new TreeMap<>();
+    private void addRecords(CSVSimulationDTO csvConfig, CSVRecordSorter sorter, long startTimestamp,
+                            long endTimestamp) throws IOException {
         int timestampPosition = Integer.parseInt(csvConfig.getTimestampAttribute());
         long lineNumber;
         long timestamp;
         List<Integer> indices = csvConfig.getIndices();
-        Event event;
         if (csvParser != null) {
             for (CSVRecord record : csvParser) {
                 lineNumber = csvParser.getCurrentLineNumber();
@@ -263,28 +315,18 @@ public class CSVReader {
                 /*
                  * retrieve the value at the position specified by timestamp attribute as the timestamp
                  * if the timestamp is within the range specified by the startTimestamp and endTimestamp, proceed to
-                 * creating an event, else ignore record and proceed to next record
+                 * adding the record, else ignore record and proceed to next record
                  * retrieve the data elements required for event using record using the indices specified
                  * */
                 try {
                     timestamp = Long.parseLong(attributes.get(timestampPosition));
                     if (timestamp >= startTimestamp) {
                         if (endTimestamp == -1 || timestamp <= endTimestamp) {
-                            List<String> eventData = new ArrayList<>();
-                            indices.forEach(index -> eventData.add(attributes.get(index)));
-                            try {
-                                event = EventConverter.eventConverter(streamAttributes, eventData.toArray(), timestamp);
-                            } catch (EventGenerationException e) {
-                                log.error("Error occurred when generating event using CSV event generator to simulate" +
-                                        " stream '" + csvConfig.getStreamName() + "' using source configuration : " +
-                                        csvConfig.toString() + "Drop event and create next event.", e);
-                                continue;
-                            }
-                            if (!eventsMap.containsKey(timestamp)) {
-                                eventsMap.put(timestamp, new ArrayList<>(Collections.singletonList(event)));
-                            } else {
-                                eventsMap.get(timestamp).add(event);
+                            String[] eventData = new String[indices.size()];
+                            for (int i = 0; i < eventData.length; i++) {
+                                eventData[i] = attributes.get(indices.get(i));
                             }
+                            sorter.add(timestamp, eventData);
                         }
                     }
                 } catch (NumberFormatException e) {
@@ -299,15 +341,15 @@ public class CSVReader {
             }
         }
         if (log.isDebugEnabled()) {
-            log.debug("Create an ordered events map from CSV file '" + csvConfig.getFileName() + "' to simulate " +
-                    "stream '" + csvConfig.getStreamName() + "'.");
+            log.debug("Sort records of CSV file '" + csvConfig.getFileName() + "' to simulate stream '" +
+                    csvConfig.getStreamName() + "'.");
         }
-        return eventsMap;
     }
 
 
     /**
-     * closeParser() method is used to release resources created to read the CSV file
+     * closeParser() method is used to release resources created to read the CSV file, along with the records sorted
+     * if the CSV file is not ordered by timestamp
      *
      * @param isOrdered bool indicating whether the entries in CSV file are ordered or not
      */
@@ -320,6 +362,9 @@ public class CSVReader {
                 if (bufferedReader != null) {
                     bufferedReader.close();
                 }
+                if (mappedReader != null) {
+                    mappedReader.close();
+                }
             } else {
                 if (csvParser != null && !csvParser.isClosed()) {
                     csvParser.close();
@@ -328,6 +373,10 @@ public class CSVReader {
         } catch (IOException e) {
             log.error("Error occurred when closing CSV resources used for CSV file '" + fileName + "'", e);
         }
+        if (!isOrdered && recordSorter != null) {
+            recordSorter.close();
+            recordSorter = null;
+        }
         if (log.isDebugEnabled()) {
             log.debug("Close resources used for CSV file '" + fileName + "'.");
         }
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.event.simulator.core.internal.generator.csv.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * CSVRecordSorter sorts the records of a CSV file which is not ordered by timestamp, using a bounded amount of memory.
+ * Records are buffered up to the run size, and each full buffer is sorted by timestamp and spilled to a temporary
+ * file as a sorted run. Once all the records are added, the runs are merged while reading, holding only the next
+ * record of each run in memory. Records with the same timestamp are returned in the order they were added.
+ * If all the records fit in a single run, they are sorted in memory without spilling.
+ */
+public class CSVRecordSorter {
+    private static final Logger log = LoggerFactory.getLogger(CSVRecordSorter.class);
+    private static final Comparator<Record> RECORD_COMPARATOR = Comparator.comparingLong(Record::getTimestamp);
+    private static final Comparator<RunReader> RUN_COMPARATOR = Comparator.<RunReader>comparingLong(
+            runReader -> runReader.nextRecord.getTimestamp()).thenComparingInt(runReader -> runReader.runIndex);
+    private final int runSize;
+    private List<Record> buffer;
+    private int bufferPosition = 0;
+    private final List<File> runFiles = new ArrayList<>();
+    private PriorityQueue<RunReader> runReaders;
+
+    /**
+     * @param runSize maximum number of records held in memory
+     */
+    public CSVRecordSorter(int runSize) {
+        this.runSize = Math.max(runSize, 1);
+        this.buffer = new ArrayList<>(Math.min(this.runSize, 1024));
+    }
+
+    /**
+     * add() adds a record to be sorted, spilling the buffered records as a sorted run if the buffer is full
+     *
+     * @param timestamp timestamp of the record
+     * @param data      data elements of the record
+     * @throws IOException if an error occurs when spilling the records
+     */
+    public void add(long timestamp, String[] data) throws IOException {
+        buffer.add(new Record(timestamp, data));
+        if (buffer.size() >= runSize) {
+            spill();
+        }
+    }
+
+    /**
+     * sort() is called once all the records are added, to begin reading the records in the order of timestamps
+     *
+     * @throws IOException if an error occurs when spilling or opening the sorted runs
+     */
+    public void sort() throws IOException {
+        if (runFiles.isEmpty()) {
+//            List.sort() is stable, hence records with the same timestamp stay in the order they were added
+            buffer.sort(RECORD_COMPARATOR);
+            return;
+        }
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+        buffer = null;
+        runReaders = new PriorityQueue<>(runFiles.size(), RUN_COMPARATOR);
+        for (int i = 0; i < runFiles.size(); i++) {
+            RunReader runReader = new RunReader(runFiles.get(i), i);
+            if (runReader.advance()) {
+                runReaders.add(runReader);
+            } else {
+                runReader.close();
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Merge " + runFiles.size() + " sorted run(s) of CSV records.");
+        }
+    }
+
+    /**
+     * next() returns the record with the next least timestamp
+     *
+     * @return record, or null if all the records have been read
+     * @throws IOException if an error occurs when reading the sorted runs
+     */
+    public Record next() throws IOException {
+        if (runReaders == null) {
+            return (buffer != null && bufferPosition < buffer.size()) ? buffer.get(bufferPosition++) : null;
+        }
+        RunReader runReader = runReaders.poll();
+        if (runReader == null) {
+            return null;
+        }
+        Record record = runReader.nextRecord;
+        if (runReader.advance()) {
+            runReaders.add(runReader);
+        } else {
+            runReader.close();
+        }
+        return record;
+    }
+
+    /**
+     * close() releases the records and deletes the sorted runs spilled
+     */
+    public void close() {
+        buffer = null;
+        if (runReaders != null) {
+            runReaders.forEach(RunReader::close);
+            runReaders.clear();
+        }
+        for (File runFile : runFiles) {
+            if (runFile.exists() && !runFile.delete()) {
+                log.warn("Failed to delete sorted run '" + runFile.getPath() + "' of CSV records.");
+            }
+        }
+        runFiles.clear();
+    }
+
+    private void spill() throws IOException {
+        buffer.sort(RECORD_COMPARATOR);
+        File runFile = File.createTempFile("csv-simulation-run-", ".tmp");
+        runFile.deleteOnExit();
+        runFiles.add(runFile);
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(runFile)))) {
+            for (Record record : buffer) {
+                outputStream.writeLong(record.getTimestamp());
+                outputStream.writeInt(record.getData().length);
+                for (String element : record.getData()) {
+                    writeElement(outputStream, element);
+                }
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Spill sorted run of " + buffer.size() + " CSV records to '" + runFile.getPath() + "'.");
+        }
+        buffer.clear();
+    }
+
+    /**
+     * writeElement() writes the length of the UTF-8 encoded element followed by its bytes, as
+     * DataOutputStream.writeUTF() cannot write elements longer than 65535 bytes. A null element is written with a
+     * length of -1.
+     */
+    private static void writeElement(DataOutputStream outputStream, String element) throws IOException {
+        if (element == null) {
+            outputStream.writeInt(-1);
+            return;
+        }
+        byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    /**
+     * Record holds the timestamp and the data elements of a CSV record
+     */
+    public static class Record {
+        private final long timestamp;
+        private final String[] data;
+
+        private Record(long timestamp, String[] data) {
+            this.timestamp = timestamp;
+            this.data = data;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String[] getData() {
+            return data;
+        }
+    }
+
+    /**
+     * RunReader reads the records of a sorted run one at a time
+     */
+    private static class RunReader {
+        private final DataInputStream inputStream;
+        private final int runIndex;
+        private Record nextRecord;
+
+        private RunReader(File runFile, int runIndex) throws IOException {
+            this.inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(runFile)));
+            this.runIndex = runIndex;
+        }
+
+        private boolean advance() throws IOException {
+            long timestamp;
+            try {
+                timestamp = inputStream.readLong();
+            } catch (EOFException e) {
+                nextRecord = null;
+                return false;
+            }
+            String[] data = new String[inputStream.readInt()];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = readElement();
+            }
+            nextRecord = new Record(timestamp, data);
+            return true;
+        }
+
+        private String readElement() throws IOException {
+            int length = inputStream.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            inputStream.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void close() {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                log.error("Error occurred when closing sorted run of CSV records.", e);
+            }
+        }
+    }
+}
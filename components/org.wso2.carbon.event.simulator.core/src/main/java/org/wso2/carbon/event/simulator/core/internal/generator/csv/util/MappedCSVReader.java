@@ -0,0 +1,443 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.event.simulator.core.internal.generator.csv.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.event.simulator.core.exception.EventGenerationException;
+import org.wso2.carbon.event.simulator.core.internal.bean.CSVSimulationDTO;
+import org.wso2.carbon.stream.processor.common.utils.MappedByteBufferUtil;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MappedCSVReader reads events from a CSV file ordered by timestamp by memory mapping the file, instead of decoding
+ * it into lines and splitting them into strings.
+ * Lines are tokenized in place into the offsets of their fields, which are kept in buffers reused for all lines, and
+ * numeric and boolean fields are parsed directly from the bytes of the file according to the type of the stream
+ * attribute. Only string attributes are decoded into strings. Values which the fast path does not handle, such as
+ * numbers with exponents, are parsed the same way as {@link org.wso2.carbon.event.simulator.core.internal.util
+ * .EventConverter} does, hence the events produced are the same as those produced by {@link CSVReader}.
+ * The file is mapped in windows, so that files larger than 2 GB can be read.
+ */
+public class MappedCSVReader {
+    private static final Logger log = LoggerFactory.getLogger(MappedCSVReader.class);
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final String REGEX_META_CHARACTERS = ".$|()[]{}^?*+\\";
+    private static final double[] DOUBLE_POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final float[] FLOAT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f,
+            1e10f};
+    private final RandomAccessFile file;
+    private final FileChannel fileChannel;
+    private final long fileSize;
+    private final byte delimiter;
+    private final int windowSize;
+    private MappedByteBuffer window = null;
+    private long windowStart = 0;
+    private long nextLinePosition = 0;
+    private int lineStart;
+    private int lineEnd;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+    private byte[] stringBuffer = new byte[256];
+    private long lineNumber = 0;
+    private long eventNumber = 0;
+
+    /**
+     * @param csvFile   CSV file ordered by timestamp
+     * @param delimiter byte separating the fields of a line
+     * @throws IOException if the CSV file cannot be opened
+     */
+    public MappedCSVReader(File csvFile, byte delimiter) throws IOException {
+        this(csvFile, delimiter, WINDOW_SIZE);
+    }
+
+    MappedCSVReader(File csvFile, byte delimiter, int windowSize) throws IOException {
+        this.file = new RandomAccessFile(csvFile, "r");
+        this.fileChannel = file.getChannel();
+        this.fileSize = fileChannel.size();
+        this.delimiter = delimiter;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * getDelimiter() returns the byte matched by the delimiter of a CSV simulation configuration, which is a regular
+     * expression used to split lines
+     *
+     * @param delimiter delimiter of CSV simulation configuration
+     * @return byte matched by the delimiter, or -1 if the delimiter does not match exactly one ASCII character
+     */
+    public static int getDelimiter(String delimiter) {
+        if (delimiter == null) {
+            return -1;
+        }
+        if (delimiter.length() == 1 && delimiter.charAt(0) < 0x80
+                && REGEX_META_CHARACTERS.indexOf(delimiter.charAt(0)) == -1) {
+            return delimiter.charAt(0);
+        }
+        if (delimiter.length() == 2 && delimiter.charAt(0) == '\\') {
+            if (delimiter.charAt(1) == 't') {
+                return '\t';
+            }
+            if (REGEX_META_CHARACTERS.indexOf(delimiter.charAt(1)) != -1) {
+                return delimiter.charAt(1);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * getNextEvent() reads the next line which falls within the timestamp range and produces an event
+     *
+     * @param csvConfig        configuration of CSV simulation
+     * @param streamAttributes list of attributes of the stream to which events are produced
+     * @param startTimestamp   start timestamp of event simulation
+     * @param endTimestamp     end timestamp of event simulation
+     * @return event produced, or null if there are no more events
+     * @throws IOException if an error occurs when reading the CSV file
+     */
+    public Event getNextEvent(CSVSimulationDTO csvConfig, List<Attribute> streamAttributes, long startTimestamp,
+                              long endTimestamp) throws IOException {
+        int timestampPosition = Integer.parseInt(csvConfig.getTimestampAttribute());
+        List<Integer> indices = csvConfig.getIndices();
+        nextLine:
+        while (true) {
+            lineNumber++;
+            if (!readLine()) {
+                return null;
+            }
+            long timestamp;
+            if (timestampPosition == -1) {
+                timestamp = startTimestamp + eventNumber * csvConfig.getTimestampInterval();
+                if (endTimestamp != -1 && timestamp > endTimestamp) {
+                    return null;
+                }
+            } else {
+                if (timestampPosition >= fieldCount) {
+                    log.warn("Cannot retrieve data elements from line " + lineNumber + " for all indices " +
+                            indices + ". Line content : " + getLine() + ". Ignore line and read next line." +
+                            " Source configuration : " + csvConfig.toString());
+                    continue;
+                }
+                try {
+                    timestamp = parseLong(timestampPosition);
+                } catch (NumberFormatException e) {
+                    log.warn("Invalid data '" + getString(timestampPosition) + "' provided for timestamp" +
+                            "attribute in line " + lineNumber + ". Line content : " + getLine() + ". " +
+                            "Ignore line and read next line. Source configuration : " + csvConfig.toString());
+                    continue;
+                }
+                if (timestamp < startTimestamp || (endTimestamp != -1 && timestamp > endTimestamp)) {
+                    continue;
+                }
+            }
+            Object[] eventData = new Object[streamAttributes.size()];
+            try {
+                for (int i = 0; i < indices.size(); i++) {
+//                    the indices refer to the data elements left once the timestamp is removed from the line
+                    int field = indices.get(i);
+                    if (timestampPosition != -1 && field >= timestampPosition) {
+                        field++;
+                    }
+                    if (field >= fieldCount) {
+                        log.warn("Cannot retrieve data elements from line " + lineNumber + " for all indices " +
+                                indices + ". Line content : " + getLine() + ". Ignore line and read next line." +
+                                " Source configuration : " + csvConfig.toString());
+                        continue nextLine;
+                    }
+                    eventData[i] = parseField(field, streamAttributes.get(i));
+                }
+            } catch (EventGenerationException e) {
+                log.error("Error occurred when generating event using CSV event " +
+                        "generator to simulate stream '" + csvConfig.getStreamName() + "' using source " +
+                        "configuration : " + csvConfig.toString() + "Drop event and create next event.", e);
+                continue;
+            }
+            eventNumber++;
+            return new Event(timestamp, eventData);
+        }
+    }
+
+    /**
+     * close() releases the mapped window and closes the CSV file
+     *
+     * @throws IOException if an error occurs when closing the CSV file
+     */
+    public void close() throws IOException {
+        unmap();
+        file.close();
+    }
+
+    /**
+     * readLine() finds the next line of the CSV file and the offsets of its fields within the mapped window, mapping
+     * the window which holds the whole line if the line crosses the end of the current window
+     *
+     * @return true if a line is read, false if the end of the file is reached
+     * @throws IOException if an error occurs when mapping the CSV file
+     */
+    private boolean readLine() throws IOException {
+        if (nextLinePosition >= fileSize) {
+            return false;
+        }
+        long size = windowSize;
+        if (window == null || nextLinePosition >= windowStart + window.limit()) {
+            map(nextLinePosition, size);
+        }
+        while (true) {
+            int position = (int) (nextLinePosition - windowStart);
+            int limit = window.limit();
+            int end = position;
+            while (end < limit && window.get(end) != '\n' && window.get(end) != '\r') {
+                end++;
+            }
+            boolean lastWindow = windowStart + limit == fileSize;
+            if (end == limit && lastWindow) {
+                nextLinePosition = fileSize;
+            } else if (end < limit && (window.get(end) == '\n' || end + 1 < limit || lastWindow)) {
+                nextLinePosition = windowStart + end + 1;
+                if (window.get(end) == '\r' && end + 1 < limit && window.get(end + 1) == '\n') {
+                    nextLinePosition++;
+                }
+            } else {
+//                the line, or its \r\n terminator, crosses the end of the window
+                if (position == 0) {
+                    if (size >= Integer.MAX_VALUE) {
+                        throw new IOException("Line " + lineNumber + " of the CSV file is longer than " +
+                                Integer.MAX_VALUE + " bytes, which cannot be mapped.");
+                    }
+                    size = Math.min(size * 2, Integer.MAX_VALUE);
+                }
+                map(nextLinePosition, size);
+                continue;
+            }
+            lineStart = position;
+            lineEnd = end;
+            tokenize();
+            return true;
+        }
+    }
+
+    private void map(long position, long size) throws IOException {
+        unmap();
+        window = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size, fileSize - position));
+        windowStart = position;
+    }
+
+    /**
+     * unmap() releases the current window instead of leaving it to the garbage collector, so that the mapped memory
+     * of a large file is freed as soon as it is read
+     */
+    private void unmap() {
+        if (window != null) {
+            if (!MappedByteBufferUtil.unmap(window) && log.isDebugEnabled()) {
+                log.debug("Mapped window of the CSV file is released when it is garbage collected.");
+            }
+            window = null;
+        }
+    }
+
+    /**
+     * tokenize() finds the fields of the current line the same way as String.split(), removing trailing empty fields
+     */
+    private void tokenize() {
+        fieldCount = 0;
+        int fieldStart = lineStart;
+        for (int i = lineStart; i <= lineEnd; i++) {
+            if (i == lineEnd || window.get(i) == delimiter) {
+                if (fieldCount == fieldStarts.length) {
+                    fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+                    fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+                }
+                fieldStarts[fieldCount] = fieldStart;
+                fieldEnds[fieldCount] = i;
+                fieldCount++;
+                fieldStart = i + 1;
+            }
+        }
+        if (lineStart != lineEnd) {
+            while (fieldCount > 0 && fieldStarts[fieldCount - 1] == fieldEnds[fieldCount - 1]) {
+                fieldCount--;
+            }
+        }
+    }
+
+    private Object parseField(int field, Attribute attribute) {
+        try {
+            switch (attribute.getType()) {
+                case INT:
+                    long value = parseLong(field);
+                    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                        return Integer.parseInt(getString(field));
+                    }
+                    return (int) value;
+                case LONG:
+                    return parseLong(field);
+                case FLOAT:
+                    return parseFloat(field);
+                case DOUBLE:
+                    return parseDouble(field);
+                case STRING:
+                    return getString(field);
+                case BOOL:
+                    return isTrue(field);
+                default:
+//                    this statement is never reached since attribute type is an enum
+                    return null;
+            }
+        } catch (NumberFormatException e) {
+            throw new EventGenerationException("Error occurred when parsing event data. Attribute value " +
+                    "is incompatible with stream attribute. Attribute '" + attribute.getName() +
+                    "' expects a value of type '" + attribute.getType() + "'. ", e);
+        }
+    }
+
+    /**
+     * parseLong() parses a field made of an optional sign followed by ASCII digits, falling back to Long.parseLong()
+     * for any other field
+     */
+    private long parseLong(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        int i = start;
+        boolean negative = false;
+        if (i < end && (window.get(i) == '-' || window.get(i) == '+')) {
+            negative = window.get(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            return Long.parseLong(getString(field));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = window.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.parseLong(getString(field));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * parseDouble() parses a decimal field which has at most 15 significant digits and no exponent by dividing its
+     * digits by a power of ten, which are both exact doubles, hence the result is correctly rounded. Any other field
+     * is parsed using Double.parseDouble().
+     */
+    private double parseDouble(int field) {
+        long[] decimal = parseDecimal(field, 15, DOUBLE_POWERS_OF_TEN.length - 1);
+        if (decimal == null) {
+            return Double.parseDouble(getString(field));
+        }
+        double value = decimal[0] / DOUBLE_POWERS_OF_TEN[(int) decimal[1]];
+        return (decimal[2] == 1) ? -value : value;
+    }
+
+    /**
+     * parseFloat() parses a decimal field which has at most 7 significant digits and no exponent the same way as
+     * parseDouble() but in float arithmetic, and any other field using Float.parseFloat()
+     */
+    private float parseFloat(int field) {
+        long[] decimal = parseDecimal(field, 7, FLOAT_POWERS_OF_TEN.length - 1);
+        if (decimal == null) {
+            return Float.parseFloat(getString(field));
+        }
+        float value = decimal[0] / FLOAT_POWERS_OF_TEN[(int) decimal[1]];
+        return (decimal[2] == 1) ? -value : value;
+    }
+
+    /**
+     * parseDecimal() parses a field made of an optional sign, digits and an optional decimal point
+     *
+     * @return digits as an integer, number of digits after the decimal point and 1 if negative, or null if the field
+     * is not such a decimal, or has more digits or decimal places than the given maximums
+     */
+    private long[] parseDecimal(int field, int maxDigits, int maxScale) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        int i = start;
+        long negative = 0;
+        if (i < end && (window.get(i) == '-' || window.get(i) == '+')) {
+            negative = (window.get(i) == '-') ? 1 : 0;
+            i++;
+        }
+        long digits = 0;
+        int digitCount = 0;
+        int significantDigitCount = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            byte b = window.get(i);
+            if (b == '.' && scale == -1) {
+                scale = 0;
+            } else if (b >= '0' && b <= '9') {
+                digits = digits * 10 + (b - '0');
+                digitCount++;
+                if (digits != 0) {
+                    significantDigitCount++;
+                }
+                if (scale != -1) {
+                    scale++;
+                }
+            } else {
+                return null;
+            }
+        }
+        scale = Math.max(scale, 0);
+        if (digitCount == 0 || significantDigitCount > maxDigits || scale > maxScale) {
+            return null;
+        }
+        return new long[]{digits, scale, negative};
+    }
+
+    private boolean isTrue(int field) {
+        int start = fieldStarts[field];
+        return fieldEnds[field] - start == 4 && (window.get(start) | 0x20) == 't'
+                && (window.get(start + 1) | 0x20) == 'r' && (window.get(start + 2) | 0x20) == 'u'
+                && (window.get(start + 3) | 0x20) == 'e';
+    }
+
+    private String getString(int field) {
+        return decode(fieldStarts[field], fieldEnds[field]);
+    }
+
+    private String getLine() {
+        return decode(lineStart, lineEnd);
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (length > stringBuffer.length) {
+            stringBuffer = new byte[Math.max(length, stringBuffer.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            stringBuffer[i] = window.get(start + i);
+        }
+        return new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -29,6 +29,7 @@ import org.wso2.carbon.event.simulator.core.exception.SimulatorInitializationExc
 import org.wso2.carbon.event.simulator.core.internal.bean.DBSimulationDTO;
 import org.wso2.carbon.event.simulator.core.internal.generator.EventGenerator;
 import org.wso2.carbon.event.simulator.core.internal.generator.database.util.DatabaseConnector;
+import org.wso2.carbon.event.simulator.core.internal.generator.database.util.DatabaseRowReader;
 import org.wso2.carbon.event.simulator.core.internal.util.EventConverter;
 import org.wso2.carbon.event.simulator.core.internal.util.EventSimulatorConstants;
 import org.wso2.carbon.event.simulator.core.service.EventSimulatorDataHolder;
@@ -36,8 +37,6 @@ import org.wso2.carbon.stream.processor.common.exception.ResourceNotFoundExcepti
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -55,10 +54,9 @@ public class DatabaseEventGenerator implements EventGenerator {
     private long currentTimestamp;
     private DBSimulationDTO dbSimulationConfig;
     private Event nextEvent = null;
-    private ResultSet resultSet;
     private DatabaseConnector databaseConnection;
+    private DatabaseRowReader rowReader;
     private List<Attribute> streamAttributes;
-    private List<String> columnNames;
 
     public DatabaseEventGenerator() {
     }
@@ -100,46 +98,35 @@ public class DatabaseEventGenerator implements EventGenerator {
         if (dbSimulationConfig.getTimestampAttribute() == null) {
             currentTimestamp = startTimestamp;
         }
-        columnNames = dbSimulationConfig.getColumnNames();
     }
 
     /**
-     * start() method is used to retrieve the resultSet from the data source and to obtain the first event
+     * start() method is used to start reading the rows of the table from the data source and to obtain the first
+     * event
      */
     @Override
     public void start() {
-        try {
-            if (startTimestamp == -1 && "-1".equals(dbSimulationConfig.getTimestampAttribute())) {
-                startTimestamp = System.currentTimeMillis();
-            }
-            databaseConnection = new DatabaseConnector();
-            databaseConnection.connectToDatabase(dbSimulationConfig.getDriver(),
-                    dbSimulationConfig.getDataSourceLocation(), dbSimulationConfig.getUsername(),
-                    dbSimulationConfig.getPassword());
-            resultSet = databaseConnection.getDatabaseEventItems(dbSimulationConfig.getTableName(),
-                    dbSimulationConfig.getColumnNames(), dbSimulationConfig.getTimestampAttribute(),
-                    startTimestamp, endTimestamp);
-            if (resultSet != null && !resultSet.isBeforeFirst()) {
-                throw new EventGenerationException("Table '" + dbSimulationConfig.getTableName() + "' contains " +
-                        " no entries for the columns specified in source configuration " +
-                        dbSimulationConfig.toString());
-            }
-            getNextEvent();
-            if (log.isDebugEnabled() && resultSet != null) {
-                log.debug("Retrieved resultset to simulate stream '" + dbSimulationConfig.getStreamName() +
-                        "' and initialized variable nextEvent.");
-            }
-        } catch (SQLException e) {
-            log.error("Error occurred when retrieving resultset from database ' " +
-                    dbSimulationConfig.getDataSourceLocation() + "' to simulate to simulate stream '" +
-                    dbSimulationConfig.getStreamName() + "' using source configuration " +
-                    dbSimulationConfig.toString(), e);
-            throw new EventGenerationException("Error occurred when retrieving resultset from database ' " +
-                    dbSimulationConfig.getDataSourceLocation() + "' to simulate to simulate stream '" +
-                    dbSimulationConfig.getStreamName() + "' using source configuration " + dbSimulationConfig.toString()
-                    , e);
+        if (startTimestamp == -1 && "-1".equals(dbSimulationConfig.getTimestampAttribute())) {
+            startTimestamp = System.currentTimeMillis();
+        }
+        databaseConnection = new DatabaseConnector();
+        databaseConnection.connectToDatabase(dbSimulationConfig.getDriver(),
+                dbSimulationConfig.getDataSourceLocation(), dbSimulationConfig.getUsername(),
+                dbSimulationConfig.getPassword());
+        databaseConnection.validateEventSource(dbSimulationConfig.getTableName(), dbSimulationConfig.getColumnNames());
+        rowReader = new DatabaseRowReader(databaseConnection, dbSimulationConfig.getTableName(),
+                dbSimulationConfig.getColumnNames(), dbSimulationConfig.getTimestampAttribute(), streamAttributes,
+                startTimestamp, endTimestamp, dbSimulationConfig.getFetchSize());
+        getNextEvent();
+        if (nextEvent == null) {
+            stop();
+            throw new EventGenerationException("Table '" + dbSimulationConfig.getTableName() + "' contains " +
+                    " no entries for the columns specified in source configuration " +
+                    dbSimulationConfig.toString());
         }
         if (log.isDebugEnabled()) {
+            log.debug("Started reading rows to simulate stream '" + dbSimulationConfig.getStreamName() +
+                    "' and initialized variable nextEvent.");
             log.debug("Start database generator for stream '" + dbSimulationConfig.getStreamName() + "'");
         }
     }
@@ -149,6 +136,9 @@ public class DatabaseEventGenerator implements EventGenerator {
      */
     @Override
     public void stop() {
+        if (rowReader != null) {
+            rowReader.close();
+        }
         if (databaseConnection != null) {
             databaseConnection.closeConnection();
         }
@@ -192,77 +182,46 @@ public class DatabaseEventGenerator implements EventGenerator {
      */
     @Override
     public void getNextEvent() {
+        if (rowReader == null) {
+            return;
+        }
+        /*
+         * if the table has a next row, create an event using that row and assign it to nextEvent
+         * else, assign null to nextEvent
+         * */
+        DatabaseRowReader.Row row = rowReader.next();
         try {
-            /*
-             * if the resultset has a next entry, create an event using that entry and assign it to nextEvent
-             * else, assign null to nextEvent
-             * */
-            if (resultSet != null) {
-                if (resultSet.next()) {
-                    Object[] attributeValues = new Object[streamAttributes.size()];
-                    long timestamp = -1;
-                    /*
-                     * if timestamp attribute is specified use the value of the respective column as timestamp
-                     * else, calculate the timestamp.
-                     * timestamp of first event will be currentTimestamp and timestamp of successive event
-                     * will be (last event timestamp + interval)
-                     * */
-                    if (dbSimulationConfig.getTimestampAttribute() != null) {
-                        timestamp = resultSet.getLong(dbSimulationConfig.getTimestampAttribute());
-                    } else if (endTimestamp == -1 || currentTimestamp <= endTimestamp) {
-                        // If the start timestamp is not given, then the system timestamp will be used.
-                        if (currentTimestamp == -1) {
-                            currentTimestamp = System.currentTimeMillis();
-                        }
-                        timestamp = currentTimestamp;
-                        currentTimestamp += dbSimulationConfig.getTimestampInterval();
+            if (row != null) {
+                Object[] attributeValues = row.getData();
+                long timestamp = -1;
+                /*
+                 * if timestamp attribute is specified use the value of the respective column as timestamp
+                 * else, calculate the timestamp.
+                 * timestamp of first event will be currentTimestamp and timestamp of successive event
+                 * will be (last event timestamp + interval)
+                 * */
+                if (dbSimulationConfig.getTimestampAttribute() != null) {
+                    timestamp = row.getTimestamp();
+                } else if (endTimestamp == -1 || currentTimestamp <= endTimestamp) {
+                    // If the start timestamp is not given, then the system timestamp will be used.
+                    if (currentTimestamp == -1) {
+                        currentTimestamp = System.currentTimeMillis();
                     }
-                    if (timestamp != -1) {
-                        int i = 0;
-                        /*
-                         * For each attribute in streamAttributes, use attribute type to determine the getter method
-                         * to be used to access the resultset and use the attribute name to access a particular field
-                         * in resultset
-                         * */
-                        for (Attribute attribute : streamAttributes) {
-                            switch (attribute.getType()) {
-                                case STRING:
-                                    attributeValues[i] = resultSet.getString(columnNames.get(i++));
-                                    break;
-                                case INT:
-                                    attributeValues[i] = resultSet.getInt(columnNames.get(i++));
-                                    break;
-                                case DOUBLE:
-                                    attributeValues[i] = resultSet.getDouble(columnNames.get(i++));
-                                    break;
-                                case FLOAT:
-                                    attributeValues[i] = resultSet.getFloat(columnNames.get(i++));
-                                    break;
-                                case BOOL:
-                                    attributeValues[i] = resultSet.getBoolean(columnNames.get(i++));
-                                    break;
-                                case LONG:
-                                    attributeValues[i] = resultSet.getLong(columnNames.get(i++));
-                                    break;
-                                default:
-//                                this statement is never reaches since attribute type is an enum
-                            }
-                        }
-                    }
-                    nextEvent = EventConverter.eventConverter(streamAttributes, attributeValues, timestamp);
-                } else {
-                    nextEvent = null;
+                    timestamp = currentTimestamp;
+                    currentTimestamp += dbSimulationConfig.getTimestampInterval();
+                }
+                if (timestamp == -1) {
+                    attributeValues = new Object[streamAttributes.size()];
                 }
+                nextEvent = EventConverter.eventConverter(streamAttributes, attributeValues, timestamp);
+            } else {
+                nextEvent = null;
             }
         } catch (EventGenerationException e) {
             log.error("Error occurred when generating event using database event " +
                     "generator to simulate stream '" + dbSimulationConfig.getStreamName() + "' using source " +
                     "configuration " + dbSimulationConfig.toString() + "Drop event and create next event. ", e);
             getNextEvent();
-        } catch (SQLException e) {
-            throw new EventGenerationException("Error occurred when accessing result set to simulate to simulate " +
-                    "stream '" + dbSimulationConfig.getStreamName() + "' using source configuration " +
-                    dbSimulationConfig.toString(), e);
         }
     }
 
@@ -398,6 +357,12 @@ public class DatabaseEventGenerator implements EventGenerator {
                         "stream '" + sourceConfig.getString(EventSimulatorConstants.STREAM_NAME) + "'. Invalid " +
                         "source configuration : " + sourceConfig.toString());
             }
+            if (checkAvailability(sourceConfig, EventSimulatorConstants.FETCH_SIZE)
+                    && sourceConfig.getInt(EventSimulatorConstants.FETCH_SIZE) <= 0) {
+                throw new InvalidConfigException("Fetch size must be a positive value for database simulation of " +
+                        "stream '" + sourceConfig.getString(EventSimulatorConstants.STREAM_NAME) + "'. Invalid " +
+                        "source configuration : " + sourceConfig.toString());
+            }
         } catch (JSONException e) {
             log.error("Error occurred when accessing database simulation configuration of stream '" +
                     sourceConfig.getString(EventSimulatorConstants.STREAM_NAME) + "'. Invalid source configuration " +
@@ -452,6 +417,9 @@ public class DatabaseEventGenerator implements EventGenerator {
             dbSimulationDTO.setTableName(sourceConfig.getString(EventSimulatorConstants.TABLE_NAME));
             dbSimulationDTO.setTimestampAttribute(timestampAttribute);
             dbSimulationDTO.setTimestampInterval(timestampInterval);
+            if (checkAvailability(sourceConfig, EventSimulatorConstants.FETCH_SIZE)) {
+                dbSimulationDTO.setFetchSize(sourceConfig.getInt(EventSimulatorConstants.FETCH_SIZE));
+            }
             if (sourceConfig.isNull(EventSimulatorConstants.COLUMN_NAMES_LIST)) {
                 List<String> columns = new ArrayList<>();
                 streamAttributes.forEach(attribute -> columns.add(attribute.getName()));
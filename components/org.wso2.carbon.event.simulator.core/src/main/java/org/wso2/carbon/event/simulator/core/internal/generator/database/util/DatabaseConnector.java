@@ -18,18 +18,32 @@
 
 package org.wso2.carbon.event.simulator.core.internal.generator.database.util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
 import org.apache.log4j.Logger;
 import org.wso2.carbon.event.simulator.core.exception.EventGenerationException;
 import org.wso2.carbon.event.simulator.core.exception.SimulatorInitializationException;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import edu.umd.cs.findbugs.annotations.SuppressWarnings;
 
@@ -38,18 +52,45 @@ import edu.umd.cs.findbugs.annotations.SuppressWarnings;
 /**
  * DatabaseConnector is a utility class performs the following tasks
  * 1. Load the driver
- * 2. Connect to the database
+ * 2. Obtain a connection from the connection pool of the database
  * 3. Create and execute a SELECT query
  * 4. Return a result set containing data required for database event simulation
- * 5. Close database connection
+ * 5. Release the database connection
+ * <p>
+ * Connections are pooled per data source location and credentials, hence repeated simulations of the same database
+ * do not open a new physical connection each time. Pools are keyed by a hash of the credentials, and a pool is closed
+ * once it has not been used by any simulation for the pool eviction timeout. Queries are executed using
+ * forward-only, read-only cursors with the fetch size of the simulation, so that the driver retrieves the rows in
+ * batches instead of the whole table.
  */
 public class DatabaseConnector {
 
     private static final Logger log = Logger.getLogger(DatabaseConnector.class);
-    private static final String query_attribute_OnlyStartTime = "SELECT %s,%s FROM %s WHERE %s >= %d ORDER BY ABS(%s);";
-    private static final String query_attribute_WithBothLimits = "SELECT %s,%s FROM %s WHERE %s >= %d AND %s <= %d " +
-            "ORDER BY ABS(%s);";
+    private static final String query_attribute_FromStartTime = "SELECT %s,%s FROM %s WHERE %s %s ? ORDER BY %s;";
+    private static final String query_attribute_WithBothLimits = "SELECT %s,%s FROM %s WHERE %s %s ? AND %s <= ? " +
+            "ORDER BY %s;";
+    private static final String query_attribute_AtTime = "SELECT %s,%s FROM %s WHERE %s = ?;";
     private static final String query_interval = "SELECT %s FROM %s;";
+    /**
+     * each simulation holds a connection until it stops, hence the number of connections of a pool is not limited, so
+     * that concurrent simulations of the same database do not wait for each other
+     */
+    private static final int POOL_MAXIMUM_SIZE = Integer.MAX_VALUE;
+    private static final long POOL_CONNECTION_TIMEOUT = 10000;
+    private static final long POOL_IDLE_TIMEOUT = 60000;
+    private static final long POOL_EVICTION_TIMEOUT = 300000;
+    /**
+     * Map of hash of the driver, data source location and credentials -> connection pool, guarded by itself
+     */
+    private static final Map<String, PooledDataSource> dataSources = new HashMap<>();
+    private static final ScheduledExecutorService evictionTimer = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "DatabaseConnectorPoolEviction");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private HikariDataSource dataSource;
+    private String dataSourceKey;
     private Connection dbConnection;
     private String dataSourceLocation;
     private PreparedStatement preparedStatement = null;
@@ -60,57 +101,94 @@ public class DatabaseConnector {
     }
 
     /**
-     * getDatabaseEvenItems method is used to obtain data from a database
+     * validateEventSource method checks whether the database connection is established and whether the table and
+     * columns specified exist in the database
      *
-     * @param tableName          table from which data must be retrieved
-     * @param columnNames        list of columns to be retrieved
-     * @param timestampAttribute column containing timestamp
-     * @param timestampStartTime least possible timestamp
-     * @param timestampEndTime   maximum possible timestamp
-     * @return resultset containing data needed for event simulation
+     * @param tableName   table from which data must be retrieved
+     * @param columnNames list of columns to be retrieved
      */
-    public ResultSet getDatabaseEventItems(String tableName, List<String> columnNames, String timestampAttribute,
-                                           long timestampStartTime, long timestampEndTime) {
-        /*
-         * check whether,
-         * 1. database connection is established
-         * 2. table exists
-         * 3. column names are valid
-         *
-         * if successful, create an sql query and retrieve data for event generation
-         * else throw an exception
-         * */
+    public void validateEventSource(String tableName, List<String> columnNames) {
         try {
-            if (dbConnection != null && !dbConnection.isClosed()) {
-                if (checkTableExists(tableName) && validateColumns(tableName, columnNames)) {
-                    prepareSQLstatement(tableName, columnNames, timestampAttribute, timestampStartTime,
-                            timestampEndTime);
-                    this.resultSet = preparedStatement.executeQuery();
-                }
-            } else {
+            if (dbConnection == null || dbConnection.isClosed()) {
                 throw new EventGenerationException("Unable to connect to source '" + dataSourceLocation + "' to " +
-                        "retrieve data for the configuration, table name : '" + tableName + "', column names : '" +
-                        columnNames + "', timestamp attribute : '" + timestampAttribute + "', timestamp start time : " +
-                        "'" + timestampStartTime + "' and timestamp end time : '" + timestampEndTime + "'.");
+                        "retrieve data for the configuration, table name : '" + tableName + "' and column names : '" +
+                        columnNames + "'.");
             }
         } catch (SQLException e) {
-            log.error("Error occurred when retrieving resultset from source '" + dataSourceLocation + "' " +
-                    "to retrieve data for the configuration table name : '" + tableName + "'," +
-                    " column names : '" + columnNames + "', timestamp attribute : '" + timestampAttribute + "', " +
-                    "timestamp start time : '" + timestampStartTime + "' and timestamp end time : '" +
-                    timestampEndTime + "'. ", e);
+            log.error("Error occurred when validating the connection to source '" + dataSourceLocation + "'. ", e);
             closeConnection();
-            throw new EventGenerationException("Error occurred when retrieving resultset from source '" +
-                    dataSourceLocation + "' to retrieve data for the configuration, table name : '" + tableName + "'," +
-                    " column names : '" + columnNames + "', timestamp attribute : '" + timestampAttribute + "', " +
-                    "timestamp start time : '" + timestampStartTime + "' and timestamp end time : '" +
-                    timestampEndTime + "'. ", e);
+            throw new EventGenerationException("Error occurred when validating the connection to source '" +
+                    dataSourceLocation + "'. ", e);
+        }
+        checkTableExists(tableName);
+        validateColumns(tableName, columnNames);
+    }
+
+    /**
+     * getDatabaseEventItems method is used to obtain a page of data ordered by timestamp from a database. The next
+     * page is retrieved by calling this method again with the last timestamp retrieved, which uses the index on the
+     * timestamp column instead of skipping the rows already retrieved.
+     *
+     * @param tableName            table from which data must be retrieved
+     * @param columnNames          list of columns to be retrieved
+     * @param timestampAttribute   column containing timestamp
+     * @param fromTimestamp        least possible timestamp
+     * @param includeFromTimestamp whether rows having the timestamp fromTimestamp must be retrieved
+     * @param timestampEndTime     maximum possible timestamp, or -1 if there is no upper limit
+     * @param fetchSize            number of rows retrieved from the database at a time
+     * @param maxRows              maximum number of rows to be retrieved
+     * @return resultset containing data needed for event simulation
+     * @throws SQLException if an error occurs when querying the database
+     */
+    public ResultSet getDatabaseEventItems(String tableName, List<String> columnNames, String timestampAttribute,
+                                           long fromTimestamp, boolean includeFromTimestamp, long timestampEndTime,
+                                           int fetchSize, int maxRows) throws SQLException {
+        String columns = String.join(",", columnNames);
+        String operator = includeFromTimestamp ? ">=" : ">";
+        if (timestampEndTime == -1) {
+            return executeQuery(String.format(query_attribute_FromStartTime, timestampAttribute, columns, tableName,
+                    timestampAttribute, operator, timestampAttribute), fetchSize, maxRows, fromTimestamp);
+        } else {
+            return executeQuery(String.format(query_attribute_WithBothLimits, timestampAttribute, columns, tableName,
+                    timestampAttribute, operator, timestampAttribute, timestampAttribute), fetchSize, maxRows,
+                    fromTimestamp, timestampEndTime);
         }
-        return resultSet;
     }
 
     /**
-     * This method loads the JDBC driver and creates a database connection
+     * getDatabaseEventItems method is used to obtain the data having a given timestamp from a database
+     *
+     * @param tableName          table from which data must be retrieved
+     * @param columnNames        list of columns to be retrieved
+     * @param timestampAttribute column containing timestamp
+     * @param timestamp          timestamp of the data to be retrieved
+     * @param fetchSize          number of rows retrieved from the database at a time
+     * @return resultset containing data needed for event simulation
+     * @throws SQLException if an error occurs when querying the database
+     */
+    public ResultSet getDatabaseEventItems(String tableName, List<String> columnNames, String timestampAttribute,
+                                           long timestamp, int fetchSize) throws SQLException {
+        return executeQuery(String.format(query_attribute_AtTime, timestampAttribute, String.join(",", columnNames),
+                tableName, timestampAttribute), fetchSize, 0, timestamp);
+    }
+
+    /**
+     * getDatabaseEventItems method is used to obtain all the data of the columns specified from a database, in the
+     * order returned by the database
+     *
+     * @param tableName   table from which data must be retrieved
+     * @param columnNames list of columns to be retrieved
+     * @param fetchSize   number of rows retrieved from the database at a time
+     * @return resultset containing data needed for event simulation
+     * @throws SQLException if an error occurs when querying the database
+     */
+    public ResultSet getDatabaseEventItems(String tableName, List<String> columnNames, int fetchSize)
+            throws SQLException {
+        return executeQuery(String.format(query_interval, String.join(",", columnNames), tableName), fetchSize, 0);
+    }
+
+    /**
+     * This method loads the JDBC driver and obtains a connection from the connection pool of the database
      *
      * @param dataSourceLocation location of database to be used
      * @param username           username
@@ -119,9 +197,19 @@ public class DatabaseConnector {
     public void connectToDatabase(String driver, String dataSourceLocation, String username, String password) {
         try {
             this.dataSourceLocation = dataSourceLocation;
-            Class.forName(driver).newInstance();
-            dbConnection = DriverManager.getConnection(dataSourceLocation, username, password);
-        } catch (SQLException e) {
+            Class.forName(driver);
+            acquireDataSource(driver, dataSourceLocation, username, password);
+            dbConnection = dataSource.getConnection();
+        } catch (SQLTransientConnectionException e) {
+            log.error("Database did not provide a connection within " + POOL_CONNECTION_TIMEOUT + " milliseconds " +
+                    "for the configuration : driver : '" + driver + "', data source location : '" +
+                    dataSourceLocation + "' and username : '" + username + "'. ", e);
+            closeConnection();
+            throw new SimulatorInitializationException(" Database did not provide a connection within " +
+                    POOL_CONNECTION_TIMEOUT + " milliseconds for the configuration : driver : '" + driver + "', " +
+                    "data source location : '" + dataSourceLocation + "', and username : '" + username + "'. " +
+                    "Check whether the database accepts more connections. ", e);
+        } catch (SQLException | HikariPool.PoolInitializationException e) {
             log.error("Error occurred while connecting to database for the configuration : driver : '"
                     + driver + "', data source location : '" + dataSourceLocation + "' and username : '" + username +
                     "'. ", e);
@@ -129,7 +217,7 @@ public class DatabaseConnector {
             throw new SimulatorInitializationException(" Error occurred while connecting to database for the" +
                     " configuration : driver : '" + driver + "', data source location : '" + dataSourceLocation + "'," +
                     " and username : '" + username + "'.  ", e);
-        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+        } catch (ClassNotFoundException e) {
             log.error(" Error occurred when loading driver for the configuration driver : '" + driver + "', " +
                     "data source location : '" + dataSourceLocation + "' and username : '" + username + "'. ", e);
             closeConnection();
@@ -143,6 +231,144 @@ public class DatabaseConnector {
         }
     }
 
+    /**
+     * reconnect method releases the current database connection and obtains a new connection from the connection
+     * pool, which is used to resume retrieving data after the connection is broken
+     *
+     * @throws SQLException if a new connection cannot be obtained
+     */
+    public void reconnect() throws SQLException {
+        try {
+            releaseConnection();
+        } catch (EventGenerationException e) {
+            log.warn("Error occurred when releasing the broken connection to data source '" + dataSourceLocation +
+                    "'. ", e);
+        }
+        dbConnection = dataSource.getConnection();
+        if (log.isDebugEnabled()) {
+            log.debug("Reconnected to data source '" + dataSourceLocation + "'.");
+        }
+    }
+
+    /**
+     * acquireDataSource method obtains the connection pool of a database, creating it if it does not exist, and
+     * counts this connector as a user of the pool until the connection is closed
+     *
+     * @param driver             JDBC driver class name
+     * @param dataSourceLocation location of database to be used
+     * @param username           username
+     * @param password           password
+     */
+    private void acquireDataSource(String driver, String dataSourceLocation, String username, String password) {
+        releaseDataSource();
+        String key = hash(driver, dataSourceLocation, username, password);
+        synchronized (dataSources) {
+            PooledDataSource pooledDataSource = dataSources.get(key);
+            if (pooledDataSource == null) {
+                pooledDataSource = new PooledDataSource(createDataSource(driver, dataSourceLocation, username,
+                        password));
+                dataSources.put(key, pooledDataSource);
+            }
+            pooledDataSource.users++;
+            dataSource = pooledDataSource.dataSource;
+            dataSourceKey = key;
+        }
+    }
+
+    /**
+     * releaseDataSource method stops counting this connector as a user of its connection pool. A pool without users
+     * is closed if it is not used again within the pool eviction timeout.
+     */
+    private void releaseDataSource() {
+        if (dataSourceKey == null) {
+            return;
+        }
+        String key = dataSourceKey;
+        dataSourceKey = null;
+        synchronized (dataSources) {
+            PooledDataSource pooledDataSource = dataSources.get(key);
+            if (pooledDataSource == null || --pooledDataSource.users > 0) {
+                return;
+            }
+            long releaseCount = ++pooledDataSource.releaseCount;
+            evictionTimer.schedule(() -> evictDataSource(key, pooledDataSource, releaseCount), POOL_EVICTION_TIMEOUT,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * evictDataSource method closes a connection pool unless it has been used since it was released
+     */
+    private static void evictDataSource(String key, PooledDataSource pooledDataSource, long releaseCount) {
+        synchronized (dataSources) {
+            if (pooledDataSource.users > 0 || pooledDataSource.releaseCount != releaseCount
+                    || dataSources.get(key) != pooledDataSource) {
+                return;
+            }
+            dataSources.remove(key);
+        }
+        pooledDataSource.dataSource.close();
+        if (log.isDebugEnabled()) {
+            log.debug("Closed connection pool unused for " + POOL_EVICTION_TIMEOUT + " milliseconds.");
+        }
+    }
+
+    /**
+     * hash method returns the SHA-256 hash of the connection details, so that the credentials are not kept in
+     * plaintext as the key of the connection pool. Each detail is prefixed with its length, hence different details
+     * do not produce the same hash.
+     */
+    private static String hash(String... connectionDetails) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String connectionDetail : connectionDetails) {
+                byte[] bytes = String.valueOf(connectionDetail).getBytes(StandardCharsets.UTF_8);
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM.", e);
+        }
+    }
+
+    /**
+     * createDataSource method creates a connection pool for a database. Pooled connections are read-only and do not
+     * auto commit, as some drivers such as PostgreSQL only use cursors to fetch rows within a transaction.
+     *
+     * @param driver             JDBC driver class name
+     * @param dataSourceLocation location of database to be used
+     * @param username           username
+     * @param password           password
+     * @return connection pool
+     */
+    private static HikariDataSource createDataSource(String driver, String dataSourceLocation, String username,
+                                                     String password) {
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName(driver);
+        config.setJdbcUrl(dataSourceLocation);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setAutoCommit(false);
+        config.setReadOnly(true);
+        config.setMinimumIdle(0);
+        config.setMaximumPoolSize(POOL_MAXIMUM_SIZE);
+        config.setIdleTimeout(POOL_IDLE_TIMEOUT);
+        config.setConnectionTimeout(POOL_CONNECTION_TIMEOUT);
+        /*
+         * the pool loads the driver using the thread context class loader, which does not see the drivers available
+         * to this bundle unless it is set to the class loader of this bundle
+         * */
+        Thread currentThread = Thread.currentThread();
+        ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+        try {
+            currentThread.setContextClassLoader(DatabaseConnector.class.getClassLoader());
+            return new HikariDataSource(config);
+        } finally {
+            currentThread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
     /**
      * checkTableExists methods checks whether the table specified exists in the specified database
      *
@@ -223,47 +449,49 @@ public class DatabaseConnector {
     }
 
     /**
-     * PrepareSQLstatement() method creates the prepared statement needed to retrieve resultset
+     * executeQuery() method closes the previous query, if any, and executes a query using a forward-only, read-only
+     * prepared statement
      *
-     * @param tableName          table from which data must be retrieved
-     * @param columnNames        list of columns to be retrieved
-     * @param timestampAttribute column containing timestamp
-     * @param timestampStartTime least possible value for timestamp
-     * @param timestampEndTime   maximum possible value for timestamp
+     * @param query      query to be executed
+     * @param fetchSize  number of rows retrieved from the database at a time
+     * @param maxRows    maximum number of rows to be retrieved, or 0 if there is no limit
+     * @param parameters values of the parameters of the query
+     * @return resultset of the query
+     * @throws SQLException if an error occurs when executing the query
      */
     @SuppressWarnings("SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING")
-    private void prepareSQLstatement(String tableName, List<String> columnNames, String timestampAttribute,
-                                     long timestampStartTime, long timestampEndTime) {
-        /*
-         * create a prepared statement based on the timestamp start time and timestamp end time provided
-         * if an exception occurs while creating the prepared statement close resources and throw an exception
-         * */
-        String columns = String.join(",", columnNames);
+    private ResultSet executeQuery(String query, int fetchSize, int maxRows, long... parameters) throws SQLException {
+        closeQuery();
+        preparedStatement = dbConnection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        preparedStatement.setFetchSize(fetchSize);
+        preparedStatement.setMaxRows(maxRows);
+        for (int i = 0; i < parameters.length; i++) {
+            preparedStatement.setLong(i + 1, parameters[i]);
+        }
+        resultSet = preparedStatement.executeQuery();
+        return resultSet;
+    }
+
+    /**
+     * closeQuery() method closes the resultset and the prepared statement of the previous query
+     *
+     * @throws SQLException if an error occurs when closing the resultset or the prepared statement
+     */
+    private void closeQuery() throws SQLException {
         try {
-            if (timestampAttribute == null) {
-                this.preparedStatement = dbConnection.prepareStatement(String.format(query_interval, columns,
-                        tableName));
-            } else {
-                if (timestampEndTime == -1) {
-                    this.preparedStatement = dbConnection.prepareStatement(String.format(query_attribute_OnlyStartTime,
-                            timestampAttribute, columns, tableName, timestampAttribute, timestampStartTime,
-                            timestampAttribute));
-                } else {
-                    this.preparedStatement = dbConnection.prepareStatement(String.format(query_attribute_WithBothLimits,
-                            timestampAttribute, columns, tableName, timestampAttribute, timestampStartTime,
-                            timestampAttribute, timestampEndTime, timestampAttribute));
+            if (resultSet != null) {
+                resultSet.close();
+            }
+        } finally {
+            resultSet = null;
+            try {
+                if (preparedStatement != null) {
+                    preparedStatement.close();
                 }
+            } finally {
+                preparedStatement = null;
             }
-        } catch (SQLException e) {
-            log.error("Error occurred when forming prepared statement for the configuration table name : '" +
-                    tableName + "', columns : '" + columns + "', timestamp attribute : '" + timestampAttribute + "', " +
-                    "timestamp start time : '" + timestampStartTime + "' and timestamp end time : '" +
-                    timestampEndTime + "'. ", e);
-            closeConnection();
-            throw new EventGenerationException("Error occurred when forming prepared statement for the configuration" +
-                    "table name : '" + tableName + "', columns : '" + columns + "', timestamp attribute : '" +
-                    timestampAttribute + "', timestamp start time : '" + timestampStartTime + "' and timestamp end " +
-                    "time : '" + timestampEndTime + "'. ", e);
         }
     }
 
@@ -320,16 +548,23 @@ public class DatabaseConnector {
      * It performs the following tasks
      * 1. Close resultset obtained by querying the database
      * 2. Close prepared statement used to query the database
-     * 3. Close the database connection established
+     * 3. Release the database connection obtained from the connection pool
+     * 4. Release the connection pool, which is closed if no other simulation uses it within the eviction timeout
      */
     public void closeConnection() {
         try {
-            if (resultSet != null) {
-                resultSet.close();
-            }
-            if (preparedStatement != null) {
-                preparedStatement.close();
-            }
+            releaseConnection();
+        } finally {
+            releaseDataSource();
+        }
+    }
+
+    /**
+     * releaseConnection method closes the query and releases the database connection, keeping the connection pool
+     */
+    private void releaseConnection() {
+        try {
+            closeQuery();
             if (dbConnection != null && !dbConnection.isClosed()) {
                 dbConnection.close();
             }
@@ -344,4 +579,27 @@ public class DatabaseConnector {
         }
     }
 
+    /**
+     * closeDataSources method closes the connection pools of all the databases used for simulation
+     */
+    public static void closeDataSources() {
+        synchronized (dataSources) {
+            dataSources.values().forEach(pooledDataSource -> pooledDataSource.dataSource.close());
+            dataSources.clear();
+        }
+    }
+
+    /**
+     * PooledDataSource holds a connection pool along with the number of connectors using it
+     */
+    private static class PooledDataSource {
+        private final HikariDataSource dataSource;
+        private int users = 0;
+        private long releaseCount = 0;
+
+        private PooledDataSource(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+
 }
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.event.simulator.core.internal.generator.database.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.event.simulator.core.exception.EventGenerationException;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DatabaseRowReader reads the rows of a table used for database simulation in pages, retrieving the next page on a
+ * background thread while the rows of the current page are being simulated.
+ * <p>
+ * If a timestamp attribute is specified, each page is retrieved by a separate query ordered by the timestamp and
+ * starting from the last timestamp of the previous page (keyset pagination). Rows sharing the last timestamp of a
+ * full page are left for the next page, so that no row is skipped or repeated, and a page is retried once on a new
+ * connection if the connection breaks. Otherwise, the rows are read in pages from a single forward-only cursor.
+ */
+public class DatabaseRowReader {
+    private static final Logger log = LoggerFactory.getLogger(DatabaseRowReader.class);
+    private static final long TERMINATION_TIMEOUT = 5000;
+    private final DatabaseConnector databaseConnector;
+    private final String tableName;
+    private final List<String> columnNames;
+    private final String timestampAttribute;
+    private final List<Attribute> streamAttributes;
+    private final long endTimestamp;
+    private final int pageSize;
+    private final ExecutorService executorService;
+    private long fromTimestamp;
+    private boolean includeFromTimestamp = true;
+    private ResultSet cursor;
+    private boolean exhausted = false;
+    private Future<List<Row>> nextPage;
+    private List<Row> page = Collections.emptyList();
+    private int position = 0;
+
+    /**
+     * @param databaseConnector  connector connected to the database
+     * @param tableName          table from which data must be retrieved
+     * @param columnNames        columns to be retrieved, in the order of the stream attributes
+     * @param timestampAttribute column containing timestamp, or null if the rows are read in the order returned by
+     *                           the database
+     * @param streamAttributes   attributes of the stream simulated
+     * @param startTimestamp     least possible timestamp
+     * @param endTimestamp       maximum possible timestamp, or -1 if there is no upper limit
+     * @param pageSize           number of rows retrieved at a time
+     */
+    public DatabaseRowReader(DatabaseConnector databaseConnector, String tableName, List<String> columnNames,
+                             String timestampAttribute, List<Attribute> streamAttributes, long startTimestamp,
+                             long endTimestamp, int pageSize) {
+        this.databaseConnector = databaseConnector;
+        this.tableName = tableName;
+        this.columnNames = columnNames;
+        this.timestampAttribute = timestampAttribute;
+        this.streamAttributes = streamAttributes;
+        this.fromTimestamp = startTimestamp;
+        this.endTimestamp = endTimestamp;
+        this.pageSize = pageSize;
+        this.executorService = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "EventSimulator-DatabaseReader-" + tableName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.nextPage = executorService.submit(this::fetchPage);
+    }
+
+    /**
+     * next() returns the next row of the table, waiting for the next page to be retrieved if the rows of the current
+     * page are exhausted
+     *
+     * @return next row, or null if there are no more rows
+     */
+    public Row next() {
+        while (position >= page.size()) {
+            if (nextPage == null) {
+                return null;
+            }
+            try {
+                page = nextPage.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                nextPage = null;
+                throw new EventGenerationException("Interrupted when retrieving data from table '" + tableName +
+                        "'.", e);
+            } catch (ExecutionException e) {
+                nextPage = null;
+                throw new EventGenerationException("Error occurred when retrieving data from table '" + tableName +
+                        "'. ", e.getCause());
+            }
+            position = 0;
+            /*
+             * the page is retrieved before 'exhausted' is read, hence the value set by the background thread is
+             * visible here
+             * */
+            nextPage = exhausted ? null : executorService.submit(this::fetchPage);
+        }
+        return page.get(position++);
+    }
+
+    /**
+     * close() stops retrieving pages. The database connection is not closed.
+     */
+    public void close() {
+        nextPage = null;
+        executorService.shutdownNow();
+        try {
+            if (!executorService.awaitTermination(TERMINATION_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                log.warn("Retrieving data from table '" + tableName + "' did not stop within " +
+                        TERMINATION_TIMEOUT + " milliseconds.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * fetchPage() retrieves the next page of rows
+     *
+     * @return rows of the page
+     * @throws SQLException if an error occurs when retrieving the rows
+     */
+    private List<Row> fetchPage() throws SQLException {
+        if (timestampAttribute == null) {
+            return fetchCursorPage();
+        }
+        try {
+            return fetchKeysetPage();
+        } catch (SQLException e) {
+            log.warn("Error occurred when retrieving data from table '" + tableName + "' starting from timestamp " +
+                    fromTimestamp + ". Retrying with a new connection. ", e);
+            databaseConnector.reconnect();
+            return fetchKeysetPage();
+        }
+    }
+
+    /**
+     * fetchKeysetPage() retrieves the rows following the last timestamp retrieved, in the order of their timestamps
+     *
+     * @return rows of the page
+     * @throws SQLException if an error occurs when retrieving the rows
+     */
+    private List<Row> fetchKeysetPage() throws SQLException {
+        if (endTimestamp != -1 && fromTimestamp > endTimestamp) {
+            exhausted = true;
+            return Collections.emptyList();
+        }
+        List<Row> rows = readRows(databaseConnector.getDatabaseEventItems(tableName, columnNames,
+                timestampAttribute, fromTimestamp, includeFromTimestamp, endTimestamp, pageSize, pageSize),
+                pageSize);
+        if (rows.size() < pageSize) {
+            exhausted = true;
+            return rows;
+        }
+        /*
+         * more rows may have the last timestamp of a full page. Hence leave those rows for the next page, which starts
+         * from that timestamp. If all the rows of the page have the same timestamp, retrieve all the rows having
+         * that timestamp and start the next page after it. The keyset is only moved once the page is read in full,
+         * so that a page which fails is retrieved again from the same keyset.
+         * */
+        long lastTimestamp = rows.get(rows.size() - 1).getTimestamp();
+        int end = rows.size();
+        while (end > 0 && rows.get(end - 1).getTimestamp() == lastTimestamp) {
+            end--;
+        }
+        if (end > 0) {
+            rows = rows.subList(0, end);
+        } else {
+            rows = readRows(databaseConnector.getDatabaseEventItems(tableName, columnNames, timestampAttribute,
+                    lastTimestamp, pageSize), Integer.MAX_VALUE);
+        }
+        fromTimestamp = lastTimestamp;
+        includeFromTimestamp = end > 0;
+        return rows;
+    }
+
+    /**
+     * fetchCursorPage() retrieves the next rows from the cursor over the table, opening the cursor on the first call
+     *
+     * @return rows of the page
+     * @throws SQLException if an error occurs when retrieving the rows
+     */
+    private List<Row> fetchCursorPage() throws SQLException {
+        if (cursor == null) {
+            cursor = databaseConnector.getDatabaseEventItems(tableName, columnNames, pageSize);
+        }
+        List<Row> rows = readRows(cursor, pageSize);
+        if (rows.size() < pageSize) {
+            exhausted = true;
+        }
+        return rows;
+    }
+
+    /**
+     * readRows() reads rows from a resultset. For each attribute in streamAttributes, the attribute type determines
+     * the getter method used to access the column of the attribute.
+     *
+     * @param resultSet resultset from which rows are read
+     * @param maxRows   maximum number of rows to be read
+     * @return rows read
+     * @throws SQLException if an error occurs when accessing the resultset
+     */
+    private List<Row> readRows(ResultSet resultSet, int maxRows) throws SQLException {
+        List<Row> rows = new ArrayList<>(Math.min(maxRows, pageSize));
+        while (rows.size() < maxRows && resultSet.next()) {
+            long timestamp = (timestampAttribute != null) ? resultSet.getLong(timestampAttribute) : -1;
+            Object[] data = new Object[streamAttributes.size()];
+            for (int i = 0; i < streamAttributes.size(); i++) {
+                String columnName = columnNames.get(i);
+                switch (streamAttributes.get(i).getType()) {
+                    case STRING:
+                        data[i] = resultSet.getString(columnName);
+                        break;
+                    case INT:
+                        data[i] = resultSet.getInt(columnName);
+                        break;
+                    case DOUBLE:
+                        data[i] = resultSet.getDouble(columnName);
+                        break;
+                    case FLOAT:
+                        data[i] = resultSet.getFloat(columnName);
+                        break;
+                    case BOOL:
+                        data[i] = resultSet.getBoolean(columnName);
+                        break;
+                    case LONG:
+                        data[i] = resultSet.getLong(columnName);
+                        break;
+                    default:
+//                        this statement is never reaches since attribute type is an enum
+                }
+            }
+            rows.add(new Row(timestamp, data));
+        }
+        return rows;
+    }
+
+    /**
+     * Row holds the values of a row of the table
+     */
+    public static class Row {
+        private final long timestamp;
+        private final Object[] data;
+
+        Row(long timestamp, Object[] data) {
+            this.timestamp = timestamp;
+            this.data = data;
+        }
+
+        /**
+         * @return value of the timestamp attribute, or -1 if no timestamp attribute is specified
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public Object[] getData() {
+            return data;
+        }
+    }
+}
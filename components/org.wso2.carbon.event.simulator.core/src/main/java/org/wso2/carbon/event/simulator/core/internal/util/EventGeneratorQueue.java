@@ -0,0 +1,96 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.event.simulator.core.internal.util;
+
+import org.wso2.carbon.event.simulator.core.internal.generator.EventGenerator;
+import org.wso2.siddhi.core.event.Event;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * EventGeneratorQueue merges the events of the event generators of a simulation in the order of their timestamps.
+ * The event generators are kept in a min-heap keyed on the timestamp of their next event, so that finding the next
+ * event takes O(log n) for n event generators instead of scanning all of them. An event generator is re-inserted
+ * after its event is polled, and is dropped once it has no more events. Events with the same timestamp are taken
+ * in the order of the event generators.
+ */
+public class EventGeneratorQueue {
+    private static final Comparator<Entry> ENTRY_COMPARATOR = Comparator.<Entry>comparingLong(entry -> entry.timestamp)
+            .thenComparingInt(entry -> entry.index);
+    private final PriorityQueue<Entry> queue;
+
+    /**
+     * @param generators started event generators
+     */
+    public EventGeneratorQueue(List<EventGenerator> generators) {
+        this.queue = new PriorityQueue<>(Math.max(generators.size(), 1), ENTRY_COMPARATOR);
+        for (int i = 0; i < generators.size(); i++) {
+            offer(new Entry(generators.get(i), i));
+        }
+    }
+
+    /**
+     * peek() returns the event generator whose next event has the least timestamp
+     *
+     * @return event generator, or null if all the event generators are exhausted
+     */
+    public EventGenerator peek() {
+        Entry entry = queue.peek();
+        return (entry != null) ? entry.generator : null;
+    }
+
+    /**
+     * poll() returns the event with the least timestamp and advances its event generator
+     *
+     * @return event, or null if all the event generators are exhausted
+     */
+    public Event poll() {
+        Entry entry = queue.poll();
+        if (entry == null) {
+            return null;
+        }
+        Event event = entry.generator.poll();
+        offer(entry);
+        return event;
+    }
+
+    private void offer(Entry entry) {
+        Event nextEvent = entry.generator.peek();
+        if (nextEvent != null) {
+            entry.timestamp = nextEvent.getTimestamp();
+            queue.offer(entry);
+        }
+    }
+
+    /**
+     * Event generator along with the timestamp of its next event, which is cached as the heap compares it often
+     */
+    private static class Entry {
+        private final EventGenerator generator;
+        private final int index;
+        private long timestamp;
+
+        private Entry(EventGenerator generator, int index) {
+            this.generator = generator;
+            this.index = index;
+        }
+    }
+}
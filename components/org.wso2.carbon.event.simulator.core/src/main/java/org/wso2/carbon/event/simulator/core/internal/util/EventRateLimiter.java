@@ -0,0 +1,68 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.event.simulator.core.internal.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventRateLimiter paces event simulation to a target event rate using a token bucket. Tokens are added at the
+ * event rate up to the capacity of the bucket, and sending an event takes a token, so that batches of events can be
+ * sent at once while the average rate stays at the target. Tokens do not accumulate beyond the capacity while the
+ * simulation is paused or falls behind, which bounds the burst sent afterwards.
+ */
+public class EventRateLimiter {
+    private final double eventsPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillTime;
+
+    /**
+     * @param eventRate target number of events per second
+     * @param capacity  maximum number of events sent at once, beyond which the events sent are paid back by waiting
+     *                  longer for the next events
+     */
+    public EventRateLimiter(double eventRate, int capacity) {
+        this.eventsPerNano = eventRate / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(capacity, 1);
+        this.tokens = this.capacity;
+        this.lastRefillTime = System.nanoTime();
+    }
+
+    /**
+     * acquire() waits till the given number of events can be sent without exceeding the event rate
+     *
+     * @param events number of events to be sent
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire(int events) throws InterruptedException {
+        double required = Math.min(events, capacity);
+        refill();
+        while (tokens < required) {
+            TimeUnit.NANOSECONDS.sleep((long) Math.ceil((required - tokens) / eventsPerNano));
+            refill();
+        }
+        tokens -= events;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillTime) * eventsPerNano);
+        lastRefillTime = now;
+    }
+}
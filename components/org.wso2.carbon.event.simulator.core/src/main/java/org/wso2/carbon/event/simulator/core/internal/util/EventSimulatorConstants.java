@@ -38,6 +38,10 @@ public class EventSimulatorConstants {
     public static final String END_TIMESTAMP = "endTimestamp";
     public static final String SIMULATION_TIME_INTERVAL = "timeInterval";
     public static final String NUMBER_OF_EVENTS_REQUIRED = "noOfEvents";
+    public static final String EVENT_RATE = "eventRate";
+    public static final String MAX_SPEED = "maxSpeed";
+    public static final String BATCH_SIZE = "batchSize";
+    public static final int DEFAULT_BATCH_SIZE = 100;
 
 
     //Feed Simulation stream Configuration constants
@@ -58,6 +62,7 @@ public class EventSimulatorConstants {
     public static final String DELIMITER = "delimiter";
     public static final String IS_ORDERED = "isOrdered";
     public static final String INDICES = "indices";
+    public static final int CSV_SORT_RUN_SIZE = 100000;
 
 
     //Random data simulation constants
@@ -78,4 +83,6 @@ public class EventSimulatorConstants {
     public static final String PASSWORD = "password";
     public static final String TABLE_NAME = "tableName";
     public static final String COLUMN_NAMES_LIST = "columnNamesList";
+    public static final String FETCH_SIZE = "fetchSize";
+    public static final int DEFAULT_FETCH_SIZE = 1000;
 }
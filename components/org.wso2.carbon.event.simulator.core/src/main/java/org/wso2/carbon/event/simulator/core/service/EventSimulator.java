@@ -30,13 +30,18 @@ import org.wso2.carbon.event.simulator.core.exception.SimulatorInitializationExc
 import org.wso2.carbon.event.simulator.core.internal.bean.SimulationPropertiesDTO;
 import org.wso2.carbon.event.simulator.core.internal.generator.EventGenerator;
 import org.wso2.carbon.event.simulator.core.internal.util.EventGeneratorFactoryImpl;
+import org.wso2.carbon.event.simulator.core.internal.util.EventGeneratorQueue;
+import org.wso2.carbon.event.simulator.core.internal.util.EventRateLimiter;
 import org.wso2.carbon.event.simulator.core.internal.util.EventSimulatorConstants;
+import org.wso2.carbon.event.simulator.core.service.bean.SimulationStatistics;
 import org.wso2.carbon.stream.processor.common.exception.ResourceNotFoundException;
+import org.wso2.siddhi.core.event.Event;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -52,6 +57,8 @@ import static org.wso2.carbon.event.simulator.core.internal.util.CommonOperation
 public class EventSimulator implements Runnable {
     private static final Logger log = LoggerFactory.getLogger(EventSimulator.class);
     private List<EventGenerator> generators = new ArrayList<>();
+    // generatorQueue merges the events of the generators in the order of their timestamps while simulating
+    private EventGeneratorQueue generatorQueue;
     private SimulationPropertiesDTO simulationProperties;
     private String simulationName;
     private Status status = Status.STOP;
@@ -59,6 +66,14 @@ public class EventSimulator implements Runnable {
     private final Semaphore lock = new Semaphore(1, true);
     // lockStop is used to ensure that stop() will not be called in the middle of an event generation(avoid IOException)
     private final ReentrantLock lockStop = new ReentrantLock();
+    // statisticsLock guards the statistics, which are updated by the simulation and read through the status API
+    private final Object statisticsLock = new Object();
+    private long eventsSent;
+    private long pushCount;
+    private long totalPushTime;
+    private long maxPushTime;
+    private long firstPushTime;
+    private long lastPushTime;
 
 
     /**
@@ -215,6 +230,20 @@ public class EventSimulator implements Runnable {
                     }
                 }
             }
+            if (checkAvailability(simulationPropertiesConfig, EventSimulatorConstants.EVENT_RATE)
+                    && simulationPropertiesConfig.getDouble(EventSimulatorConstants.EVENT_RATE) <= 0) {
+                throw new InvalidConfigException("Event rate of simulation '" + simulationPropertiesConfig
+                        .getString(EventSimulatorConstants.EVENT_SIMULATION_NAME) + "' must be a positive value. " +
+                        "Invalid simulation properties configuration provided : " +
+                        simulationPropertiesConfig.toString());
+            }
+            if (checkAvailability(simulationPropertiesConfig, EventSimulatorConstants.BATCH_SIZE)
+                    && simulationPropertiesConfig.getInt(EventSimulatorConstants.BATCH_SIZE) <= 0) {
+                throw new InvalidConfigException("Batch size of simulation '" + simulationPropertiesConfig
+                        .getString(EventSimulatorConstants.EVENT_SIMULATION_NAME) + "' must be a positive value. " +
+                        "Invalid simulation properties configuration provided : " +
+                        simulationPropertiesConfig.toString());
+            }
         } catch (JSONException e) {
             log.error("Error occurred when accessing simulation configuration of simulation '" +
                     simulationPropertiesConfig.getString(EventSimulatorConstants.EVENT_SIMULATION_NAME) +
@@ -233,7 +262,6 @@ public class EventSimulator implements Runnable {
      */
     @SuppressWarnings("SWL_SLEEP_WITH_LOCK_HELD")
     private void eventSimulation() {
-        long minTimestamp;
         EventGenerator generator;
         int eventsRemaining = simulationProperties.getNoOfEventsRequired();
         try {
@@ -249,42 +277,25 @@ public class EventSimulator implements Runnable {
                  * sent is > 0, send an event, else stop event simulation
                  * */
                 if (eventsRemaining == -1 || eventsRemaining > 0) {
-                    minTimestamp = -1L;
-                    generator = null;
                     /*
-                     * 1. for each event generator peek the next event (i.e. the next event with least timestamp)
-                     * 2. take the first event generator will a not null nextEvent as the first refferal value for
-                     * generator with minimum timestamp event, and take the events timestamp as the minimum
-                     * timestamp refferal value
-                     * 3. then compare the timestamp of the remaining not null nextEvents with the minimum timestamp
-                     * and update the minimum timestamp refferal value accordingly.
-                     * 4. once all generators are iterated and the event with minimum timestamp if obtained, send
-                     * event.
-                     * 5. if all generators has nextEvent == null, then stop event simulation
+                     * 1. take the event generator whose next event has the least timestamp from the generator queue
+                     * 2. send its next event, which re-inserts the event generator into the queue according to the
+                     * timestamp of its following event
+                     * 3. if all generators has nextEvent == null, then stop event simulation
                      * */
                     lockStop.lock();
                     try {
-                        for (EventGenerator eventGenerator : generators) {
-                            if (eventGenerator.peek() != null) {
-                                if (minTimestamp == -1L) {
-                                    minTimestamp = eventGenerator.peek().getTimestamp();
-                                    generator = eventGenerator;
-                                } else if (eventGenerator.peek().getTimestamp() < minTimestamp) {
-                                    minTimestamp = eventGenerator.peek().getTimestamp();
-                                    generator = eventGenerator;
-                                }
-                            } else {
-                                generator = null;
-                            }
-                        }
-                        if (minTimestamp >= 0L && generator != null) {
+                        generator = generatorQueue.peek();
+                        if (generator != null) {
                             if (log.isDebugEnabled()) {
                                 log.debug("Input Event (Simulation : '" + simulationName + "') : "
                                                   + Arrays.deepToString(generator.peek().getData()));
                             }
+                            long pushStartTime = System.nanoTime();
                             EventSimulatorDataHolder.getInstance().getEventStreamService()
                                     .pushEvent(generator.getSiddhiAppName(), generator.getStreamName(),
-                                            generator.poll());
+                                            generatorQueue.poll());
+                            recordPush(1, System.nanoTime() - pushStartTime);
                         } else {
                             break;
                         }
@@ -313,6 +324,112 @@ public class EventSimulator implements Runnable {
         }
     }
 
+    /**
+     * throughputSimulation() method sends events belonging to one simulation configuration in the order of their
+     * timestamps, as fast as the event rate allows or as fast as possible in max speed mode
+     * Consecutive events of the same stream are pushed together in batches of up to the batch size
+     */
+    private void throughputSimulation() {
+        int batchSize = simulationProperties.getBatchSize();
+        EventRateLimiter rateLimiter = simulationProperties.isMaxSpeed() ? null
+                : new EventRateLimiter(simulationProperties.getEventRate(), batchSize);
+        int eventsRemaining = simulationProperties.getNoOfEventsRequired();
+        List<Event> batch = new ArrayList<>(batchSize);
+        try {
+            while (!status.equals(Status.STOP) && eventsRemaining != 0) {
+//                if the simulator is paused, wait till it is resumed
+                if (status.equals(Status.PAUSE)) {
+                    lock.acquire();
+                    lock.release();
+                }
+                int batchLimit = (eventsRemaining == -1) ? batchSize : Math.min(batchSize, eventsRemaining);
+                EventGenerator batchGenerator = null;
+                batch.clear();
+                lockStop.lock();
+                try {
+                    while (batch.size() < batchLimit && !status.equals(Status.STOP)) {
+                        EventGenerator generator = generatorQueue.peek();
+                        if (generator == null || (batchGenerator != null
+                                && !(generator.getSiddhiAppName().equals(batchGenerator.getSiddhiAppName())
+                                && generator.getStreamName().equals(batchGenerator.getStreamName())))) {
+                            break;
+                        }
+                        batchGenerator = generator;
+                        batch.add(generatorQueue.poll());
+                    }
+                } finally {
+                    lockStop.unlock();
+                }
+                if (batch.isEmpty() || status.equals(Status.STOP)) {
+                    break;
+                }
+                if (rateLimiter != null) {
+                    rateLimiter.acquire(batch.size());
+                }
+                long pushStartTime = System.nanoTime();
+                EventSimulatorDataHolder.getInstance().getEventStreamService()
+                        .pushEvents(batchGenerator.getSiddhiAppName(), batchGenerator.getStreamName(),
+                                batch.toArray(new Event[batch.size()]));
+                recordPush(batch.size(), System.nanoTime() - pushStartTime);
+                if (eventsRemaining > 0) {
+                    eventsRemaining -= batch.size();
+                }
+            }
+            stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (EventGenerationException e) {
+            /*
+             * catch exception so that any resources opened could be closed and rethrow an exception indicating which
+             * simulation failed
+             * */
+            stop();
+            throw new EventGenerationException("Error occurred when generating an event for simulation '" +
+                    simulationProperties.getSimulationName() + "'. ", e);
+        }
+    }
+
+    private void recordPush(int events, long pushTime) {
+        synchronized (statisticsLock) {
+            if (eventsSent == 0) {
+                firstPushTime = System.nanoTime() - pushTime;
+            }
+            eventsSent += events;
+            pushCount++;
+            totalPushTime += pushTime;
+            maxPushTime = Math.max(maxPushTime, pushTime);
+            lastPushTime = System.nanoTime();
+        }
+    }
+
+    private void resetStatistics() {
+        synchronized (statisticsLock) {
+            eventsSent = 0;
+            pushCount = 0;
+            totalPushTime = 0;
+            maxPushTime = 0;
+            firstPushTime = 0;
+            lastPushTime = 0;
+        }
+    }
+
+    /**
+     * getStatistics() returns the number of events sent so far, along with the rate at which they were sent
+     * between the first and the last push, and the time taken to push them
+     *
+     * @return statistics of the simulation
+     */
+    public SimulationStatistics getStatistics() {
+        synchronized (statisticsLock) {
+            double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+            long elapsedTime = lastPushTime - firstPushTime;
+            double eventRate = (elapsedTime > 0) ? eventsSent * (double) TimeUnit.SECONDS.toNanos(1) / elapsedTime
+                    : 0;
+            double averageLatency = (pushCount > 0) ? totalPushTime / nanosPerMilli / pushCount : 0;
+            return new SimulationStatistics(eventsSent, eventRate, averageLatency, maxPushTime / nanosPerMilli);
+        }
+    }
+
     /**
      * validateSimulationConfiguration() is used to parse the simulation configuration
      *
@@ -372,6 +489,21 @@ public class EventSimulator implements Runnable {
                 noOfEventsRequired = simulationPropertiesConfig.getInt(EventSimulatorConstants.
                         NUMBER_OF_EVENTS_REQUIRED);
             }
+            /*
+             * if eventRate is specified or maxSpeed is set, events are sent in batches at that rate or as fast as
+             * possible respectively, instead of one event per time interval
+             * */
+            double eventRate = -1;
+            if (checkAvailability(simulationPropertiesConfig, EventSimulatorConstants.EVENT_RATE)) {
+                eventRate = simulationPropertiesConfig.getDouble(EventSimulatorConstants.EVENT_RATE);
+            }
+            boolean maxSpeed = simulationPropertiesConfig.has(EventSimulatorConstants.MAX_SPEED)
+                    && !simulationPropertiesConfig.isNull(EventSimulatorConstants.MAX_SPEED)
+                    && simulationPropertiesConfig.getBoolean(EventSimulatorConstants.MAX_SPEED);
+            int batchSize = EventSimulatorConstants.DEFAULT_BATCH_SIZE;
+            if (checkAvailability(simulationPropertiesConfig, EventSimulatorConstants.BATCH_SIZE)) {
+                batchSize = simulationPropertiesConfig.getInt(EventSimulatorConstants.BATCH_SIZE);
+            }
 //            create simulationPropertiesDTO object
             SimulationPropertiesDTO simulationPropertiesDTO = new SimulationPropertiesDTO();
             simulationPropertiesDTO.setSimulationName(simulationPropertiesConfig
@@ -381,6 +513,9 @@ public class EventSimulator implements Runnable {
             simulationPropertiesDTO.setStartTimestamp(startTimestamp);
             simulationPropertiesDTO.setEndTimestamp(endTimestamp);
             simulationPropertiesDTO.setNoOfEventsRequired(noOfEventsRequired);
+            simulationPropertiesDTO.setEventRate(eventRate);
+            simulationPropertiesDTO.setMaxSpeed(maxSpeed);
+            simulationPropertiesDTO.setBatchSize(batchSize);
             return simulationPropertiesDTO;
 
         } catch (JSONException e) {
@@ -408,8 +543,14 @@ public class EventSimulator implements Runnable {
             if (log.isDebugEnabled()) {
                 log.debug("Event generators started. Begin event simulation of '" + simulationName + "'");
             }
+            generatorQueue = new EventGeneratorQueue(generators);
+            resetStatistics();
             status = Status.RUN;
-            eventSimulation();
+            if (simulationProperties.isThroughputMode()) {
+                throughputSimulation();
+            } else {
+                eventSimulation();
+            }
         } catch (SimulatorInitializationException e) {
             /*
              * catch exception so that any resources opened could be closed and rethrow an exception indicating which
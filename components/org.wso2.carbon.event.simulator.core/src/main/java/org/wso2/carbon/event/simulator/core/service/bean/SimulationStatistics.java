@@ -0,0 +1,59 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.event.simulator.core.service.bean;
+
+/**
+ * SimulationStatistics holds the number of events sent by a simulation, the rate at which they were sent and the
+ * time taken to push them to the Siddhi apps
+ */
+public class SimulationStatistics {
+    private long eventsSent;
+    private double eventRate;
+    private double averageLatency;
+    private double maxLatency;
+
+    /**
+     * @param eventsSent     number of events sent
+     * @param eventRate      events sent per second while the simulation was running
+     * @param averageLatency average time taken to push an event or a batch of events, in milliseconds
+     * @param maxLatency     maximum time taken to push an event or a batch of events, in milliseconds
+     */
+    public SimulationStatistics(long eventsSent, double eventRate, double averageLatency, double maxLatency) {
+        this.eventsSent = eventsSent;
+        this.eventRate = eventRate;
+        this.averageLatency = averageLatency;
+        this.maxLatency = maxLatency;
+    }
+
+    public long getEventsSent() {
+        return eventsSent;
+    }
+
+    public double getEventRate() {
+        return eventRate;
+    }
+
+    public double getAverageLatency() {
+        return averageLatency;
+    }
+
+    public double getMaxLatency() {
+        return maxLatency;
+    }
+}
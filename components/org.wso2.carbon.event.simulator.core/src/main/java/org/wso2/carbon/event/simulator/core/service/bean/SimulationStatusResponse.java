@@ -0,0 +1,39 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.event.simulator.core.service.bean;
+
+import org.wso2.carbon.stream.processor.common.exception.ResponseMapper;
+
+import javax.ws.rs.core.Response;
+
+/**
+ * SimulationStatusResponse carries the status of a feed simulation as the message, along with its statistics
+ */
+public class SimulationStatusResponse extends ResponseMapper {
+    private SimulationStatistics statistics;
+
+    public SimulationStatusResponse(Response.Status status, String message, SimulationStatistics statistics) {
+        super(status, message);
+        this.statistics = statistics;
+    }
+
+    public SimulationStatistics getStatistics() {
+        return statistics;
+    }
+}
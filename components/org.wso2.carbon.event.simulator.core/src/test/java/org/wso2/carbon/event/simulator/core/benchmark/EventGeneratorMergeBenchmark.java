@@ -0,0 +1,162 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.event.simulator.core.benchmark;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wso2.carbon.event.simulator.core.internal.generator.EventGenerator;
+import org.wso2.carbon.event.simulator.core.internal.util.EventGeneratorQueue;
+import org.wso2.siddhi.core.event.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventGeneratorMergeBenchmark measures the number of events per second merged from a number of event generators in
+ * the order of their timestamps, using the {@link EventGeneratorQueue} and using a scan over all the event
+ * generators for each event.
+ * Run with 'java -cp target/test-classes:&lt;test classpath&gt;
+ * org.wso2.carbon.event.simulator.core.benchmark.EventGeneratorMergeBenchmark'
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventGeneratorMergeBenchmark {
+
+    @Param({"1", "4", "16", "64", "256"})
+    private int sourceCount;
+
+    private List<EventGenerator> generators;
+    private EventGeneratorQueue generatorQueue;
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EventGeneratorMergeBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(sourceCount);
+        generators = new ArrayList<>(sourceCount);
+        for (int i = 0; i < sourceCount; i++) {
+            generators.add(new SequenceEventGenerator(random.nextInt(1000), 1 + random.nextInt(100)));
+        }
+        generatorQueue = new EventGeneratorQueue(generators);
+    }
+
+    @Benchmark
+    public Event heapMerge() {
+        return generatorQueue.poll();
+    }
+
+    @Benchmark
+    public Event linearScan() {
+        EventGenerator generator = null;
+        for (EventGenerator eventGenerator : generators) {
+            if (eventGenerator.peek() != null && (generator == null
+                    || eventGenerator.peek().getTimestamp() < generator.peek().getTimestamp())) {
+                generator = eventGenerator;
+            }
+        }
+        return (generator != null) ? generator.poll() : null;
+    }
+
+    /**
+     * Event generator producing an unbounded sequence of events with timestamps at a fixed interval
+     */
+    private static class SequenceEventGenerator implements EventGenerator {
+        private final long interval;
+        private final Object[] data = new Object[]{"WSO2", 55.6f, 100L};
+        private Event nextEvent;
+
+        private SequenceEventGenerator(long startTimestamp, long interval) {
+            this.interval = interval;
+            this.nextEvent = new Event(startTimestamp, data);
+        }
+
+        @Override
+        public void init(JSONObject sourceConfig, long startTimestamp, long endTimestamp) {
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public Event poll() {
+            Event event = nextEvent;
+            getNextEvent();
+            return event;
+        }
+
+        @Override
+        public Event peek() {
+            return nextEvent;
+        }
+
+        @Override
+        public void getNextEvent() {
+            nextEvent = new Event(nextEvent.getTimestamp() + interval, data);
+        }
+
+        @Override
+        public String getStreamName() {
+            return "FooStream";
+        }
+
+        @Override
+        public String getSiddhiAppName() {
+            return "TestSiddhiApp";
+        }
+
+        @Override
+        public void validateSourceConfiguration(JSONObject sourceConfig) {
+        }
+
+        @Override
+        public void setStartTimestamp(long startTimestamp) {
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.event.simulator.core.internal.generator.csv.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CSVRecordSorterTest the sorting of records of CSV files which are not ordered by timestamp
+ */
+public class CSVRecordSorterTest {
+    private static final long[] timestamps = {5, 3, 9, 3, 1, 7, 5, 2, 8, 3};
+
+    @Test
+    public void testSortInMemory() throws Exception {
+        Assert.assertEquals(sort(100), expectedRecords());
+    }
+
+    @Test
+    public void testSortWithSpilledRuns() throws Exception {
+//        a run size of 3 spills 4 sorted runs which are merged while reading
+        Assert.assertEquals(sort(3), expectedRecords());
+    }
+
+    @Test
+    public void testSortWithoutRecords() throws Exception {
+        CSVRecordSorter sorter = new CSVRecordSorter(3);
+        sorter.sort();
+        Assert.assertNull(sorter.next());
+        sorter.close();
+    }
+
+    @Test
+    public void testSortLongElementsWithSpilledRuns() throws Exception {
+//        elements longer than 65535 encoded bytes are spilled and read back as they are
+        char[] chars = new char[40000];
+        Arrays.fill(chars, '\u00e9');
+        String longElement = new String(chars);
+        CSVRecordSorter sorter = new CSVRecordSorter(1);
+        sorter.add(2, new String[]{longElement, "2"});
+        sorter.add(1, new String[]{"WSO2", "1"});
+        sorter.sort();
+        Assert.assertEquals(sorter.next().getData(), new String[]{"WSO2", "1"});
+        Assert.assertEquals(sorter.next().getData(), new String[]{longElement, "2"});
+        Assert.assertNull(sorter.next());
+        sorter.close();
+    }
+
+    @Test
+    public void testSpilledRunsDeletedOnClose() throws Exception {
+        Set<File> existingRunFiles = getRunFiles();
+        CSVRecordSorter sorter = new CSVRecordSorter(3);
+        for (int i = 0; i < timestamps.length; i++) {
+            sorter.add(timestamps[i], new String[]{"WSO2", String.valueOf(i)});
+        }
+        sorter.sort();
+        Set<File> runFiles = getRunFiles();
+        runFiles.removeAll(existingRunFiles);
+        Assert.assertEquals(runFiles.size(), 4);
+        sorter.next();
+        sorter.close();
+        runFiles.forEach(runFile -> Assert.assertFalse(runFile.exists(), runFile.getPath()));
+    }
+
+    private Set<File> getRunFiles() {
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles(
+                (dir, name) -> name.startsWith("csv-simulation-run-"));
+        return (files == null) ? new HashSet<>() : new HashSet<>(Arrays.asList(files));
+    }
+
+    private List<String> sort(int runSize) throws Exception {
+        CSVRecordSorter sorter = new CSVRecordSorter(runSize);
+        for (int i = 0; i < timestamps.length; i++) {
+            sorter.add(timestamps[i], new String[]{"WSO2", String.valueOf(i)});
+        }
+        sorter.sort();
+        List<String> records = new ArrayList<>();
+        CSVRecordSorter.Record record;
+        while ((record = sorter.next()) != null) {
+            records.add(record.getTimestamp() + ":" + String.join(",", record.getData()));
+        }
+        sorter.close();
+        return records;
+    }
+
+    /**
+     * records with the same timestamp are expected in the order of the CSV file
+     */
+    private List<String> expectedRecords() {
+        return Arrays.asList("1:WSO2,4", "2:WSO2,7", "3:WSO2,1", "3:WSO2,3", "3:WSO2,9", "5:WSO2,0", "5:WSO2,6",
+                "7:WSO2,5", "8:WSO2,8", "9:WSO2,2");
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.event.simulator.core.internal.generator.csv.util;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.event.simulator.core.internal.bean.CSVSimulationDTO;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MappedCSVReaderTest the parsing of events from memory mapped CSV files
+ */
+public class MappedCSVReaderTest {
+    private static File testDir = Paths.get("target", "MappedCSVReaderTest").toFile();
+    private static final List<Attribute> streamAttributes = Arrays.asList(
+            new Attribute("symbol", Attribute.Type.STRING), new Attribute("price", Attribute.Type.FLOAT),
+            new Attribute("volume", Attribute.Type.LONG), new Attribute("ratio", Attribute.Type.DOUBLE),
+            new Attribute("count", Attribute.Type.INT), new Attribute("active", Attribute.Type.BOOL));
+    private static final String csvContent = "1488615136958,WSO2,55.6,100,0.25,-7,true\r\n" +
+            "1488615136959,IBM,1.5e2,200,3.0E-3,+8,TRUE\n" +
+            "1488615136960,ORACLE,abc,300,0.5,9,false\n" +
+            "1488615136961,MSFT,57.25,400,-0.125,10,no\r" +
+            "1488615136962,GOOGLE,58,500,1.,11,True";
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        Files.createDirectories(testDir.toPath());
+        Files.write(new File(testDir, "sample.csv").toPath(), csvContent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testGetDelimiter() throws Exception {
+        Assert.assertEquals(MappedCSVReader.getDelimiter(","), ',');
+        Assert.assertEquals(MappedCSVReader.getDelimiter("\\t"), '\t');
+        Assert.assertEquals(MappedCSVReader.getDelimiter("\\|"), '|');
+        Assert.assertEquals(MappedCSVReader.getDelimiter("|"), -1);
+        Assert.assertEquals(MappedCSVReader.getDelimiter(",\\s*"), -1);
+    }
+
+    @Test
+    public void testGetNextEvent() throws Exception {
+        List<Event> events = readEvents(new MappedCSVReader(new File(testDir, "sample.csv"), (byte) ','));
+//        the line with an invalid float value is dropped
+        Assert.assertEquals(events.size(), 4);
+        Assert.assertEquals(events.get(0).getTimestamp(), 1488615136958L);
+        Assert.assertEquals(events.get(0).getData(), new Object[]{"WSO2", 55.6f, 100L, 0.25, -7, true});
+        Assert.assertEquals(events.get(1).getData(), new Object[]{"IBM", 150f, 200L, 0.003, 8, true});
+        Assert.assertEquals(events.get(2).getData(), new Object[]{"MSFT", 57.25f, 400L, -0.125, 10, false});
+        Assert.assertEquals(events.get(3).getTimestamp(), 1488615136962L);
+        Assert.assertEquals(events.get(3).getData(), new Object[]{"GOOGLE", 58f, 500L, 1.0, 11, true});
+    }
+
+    @Test
+    public void testLinesCrossingWindows() throws Exception {
+//        a window smaller than a line is grown, and lines crossing the end of a window are read from the next window
+        List<Event> events = readEvents(new MappedCSVReader(new File(testDir, "sample.csv"), (byte) ',', 16));
+        Assert.assertEquals(events.size(), 4);
+        Assert.assertEquals(events.get(2).getData(), new Object[]{"MSFT", 57.25f, 400L, -0.125, 10, false});
+    }
+
+    private List<Event> readEvents(MappedCSVReader reader) throws Exception {
+        CSVSimulationDTO csvConfig = new CSVSimulationDTO();
+        csvConfig.setStreamName("FooStream");
+        csvConfig.setFileName("sample.csv");
+        csvConfig.setDelimiter(",");
+        csvConfig.setTimestampAttribute("0");
+        csvConfig.setIndices(Arrays.asList(0, 1, 2, 3, 4, 5));
+        List<Event> events = new ArrayList<>();
+        Event event;
+        while ((event = reader.getNextEvent(csvConfig, streamAttributes, 0, -1)) != null) {
+            events.add(event);
+        }
+        reader.close();
+        return events;
+    }
+}
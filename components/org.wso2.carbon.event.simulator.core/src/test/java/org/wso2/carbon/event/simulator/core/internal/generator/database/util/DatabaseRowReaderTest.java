@@ -0,0 +1,155 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.event.simulator.core.internal.generator.database.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * DatabaseRowReaderTest tests reading the rows of a table in pages ordered by timestamp
+ */
+public class DatabaseRowReaderTest {
+    private static final long[] timestamps = {5, 3, 9, 3, 1, 7, 5, 3, 8, 3, 5};
+
+    @Test
+    public void testPagesWithRepeatedTimestamps() throws Exception {
+//        a page size of 2 splits the rows with timestamps 3 and 5, and fills whole pages with rows of timestamp 3
+        Assert.assertEquals(read(new TableConnector(-1), 2, 1, -1), expectedRows(1, 9));
+        Assert.assertEquals(read(new TableConnector(-1), 3, 3, 7), expectedRows(3, 7));
+    }
+
+    @Test
+    public void testRetryBrokenPage() throws Exception {
+        Assert.assertEquals(read(new TableConnector(2), 2, 1, -1), expectedRows(1, 9));
+    }
+
+    @Test
+    public void testRetryBrokenPageOfRepeatedTimestamp() throws Exception {
+//        the third query retrieves all the rows with timestamp 3, after a full page of them
+        Assert.assertEquals(read(new TableConnector(3), 2, 1, -1), expectedRows(1, 9));
+    }
+
+    private List<String> read(DatabaseConnector connector, int pageSize, long startTimestamp, long endTimestamp) {
+        DatabaseRowReader reader = new DatabaseRowReader(connector, "events", Collections.singletonList("id"), "ts",
+                Collections.singletonList(new Attribute("id", Attribute.Type.LONG)), startTimestamp, endTimestamp,
+                pageSize);
+        List<String> rows = new ArrayList<>();
+        DatabaseRowReader.Row row;
+        while ((row = reader.next()) != null) {
+            rows.add(row.getTimestamp() + ":" + row.getData()[0]);
+        }
+        reader.close();
+        return rows;
+    }
+
+    /**
+     * rows with the same timestamp are expected in the order of the table
+     */
+    private List<String> expectedRows(long startTimestamp, long endTimestamp) {
+        List<String> rows = new ArrayList<>();
+        Arrays.stream(timestamps).distinct().sorted().filter(timestamp -> timestamp >= startTimestamp
+                && timestamp <= endTimestamp).forEach(timestamp -> {
+            for (int i = 0; i < timestamps.length; i++) {
+                if (timestamps[i] == timestamp) {
+                    rows.add(timestamp + ":" + i);
+                }
+            }
+        });
+        return rows;
+    }
+
+    /**
+     * TableConnector answers the queries of the reader from the rows of timestamps, failing the query with the given
+     * number once
+     */
+    private static class TableConnector extends DatabaseConnector {
+        private int failingQuery;
+        private int queries = 0;
+
+        TableConnector(int failingQuery) {
+            this.failingQuery = failingQuery;
+        }
+
+        @Override
+        public ResultSet getDatabaseEventItems(String tableName, List<String> columnNames, String timestampAttribute,
+                                               long fromTimestamp, boolean includeFromTimestamp,
+                                               long timestampEndTime, int fetchSize, int maxRows) throws SQLException {
+            if (++queries == failingQuery) {
+                throw new SQLException("Connection reset");
+            }
+            return toResultSet(rows().stream()
+                    .filter(row -> includeFromTimestamp ? row[0] >= fromTimestamp : row[0] > fromTimestamp)
+                    .filter(row -> timestampEndTime == -1 || row[0] <= timestampEndTime)
+                    .sorted(Comparator.comparingLong(row -> row[0]))
+                    .limit(maxRows)
+                    .collect(Collectors.toList()));
+        }
+
+        @Override
+        public ResultSet getDatabaseEventItems(String tableName, List<String> columnNames, String timestampAttribute,
+                                               long timestamp, int fetchSize) throws SQLException {
+            if (++queries == failingQuery) {
+                throw new SQLException("Connection reset");
+            }
+            return toResultSet(rows().stream().filter(row -> row[0] == timestamp).collect(Collectors.toList()));
+        }
+
+        @Override
+        public void reconnect() {
+        }
+
+        private List<long[]> rows() {
+            List<long[]> rows = new ArrayList<>();
+            for (int i = 0; i < timestamps.length; i++) {
+                rows.add(new long[]{timestamps[i], i});
+            }
+            return rows;
+        }
+
+        private ResultSet toResultSet(List<long[]> rows) {
+            Iterator<long[]> iterator = rows.iterator();
+            long[][] current = new long[1][];
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next":
+                                current[0] = iterator.hasNext() ? iterator.next() : null;
+                                return current[0] != null;
+                            case "getLong":
+                                return "ts".equals(args[0]) ? current[0][0] : current[0][1];
+                            default:
+                                return null;
+                        }
+                    });
+        }
+    }
+}
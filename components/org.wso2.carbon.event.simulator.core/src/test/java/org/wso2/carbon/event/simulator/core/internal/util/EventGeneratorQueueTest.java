@@ -0,0 +1,126 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.event.simulator.core.internal.util;
+
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.event.simulator.core.internal.generator.EventGenerator;
+import org.wso2.siddhi.core.event.Event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * EventGeneratorQueueTest the merging of events of event generators in the order of their timestamps
+ */
+public class EventGeneratorQueueTest {
+
+    @Test
+    public void testEventsMergedInTimestampOrder() throws Exception {
+        EventGenerator first = new ListEventGenerator("FooStream", 1, 4, 4, 9);
+        EventGenerator second = new ListEventGenerator("BarStream", 2, 4, 7);
+        EventGeneratorQueue generatorQueue = new EventGeneratorQueue(Arrays.asList(first, second));
+        List<Long> timestamps = new ArrayList<>();
+        List<String> streams = new ArrayList<>();
+        while (generatorQueue.peek() != null) {
+            streams.add(generatorQueue.peek().getStreamName());
+            timestamps.add(generatorQueue.poll().getTimestamp());
+        }
+        Assert.assertEquals(timestamps, Arrays.asList(1L, 2L, 4L, 4L, 4L, 7L, 9L));
+//        events with the same timestamp are taken in the order of the event generators
+        Assert.assertEquals(streams, Arrays.asList("FooStream", "BarStream", "FooStream", "FooStream", "BarStream",
+                "BarStream", "FooStream"));
+        Assert.assertNull(generatorQueue.poll());
+    }
+
+    @Test
+    public void testExhaustedGeneratorsDropped() throws Exception {
+        EventGenerator first = new ListEventGenerator("FooStream", 5, 6);
+        EventGenerator empty = new ListEventGenerator("BarStream");
+        EventGenerator last = new ListEventGenerator("BazStream", 1);
+        EventGeneratorQueue generatorQueue = new EventGeneratorQueue(Arrays.asList(first, empty, last));
+        Assert.assertEquals(generatorQueue.poll().getTimestamp(), 1L);
+//        the events of the other event generators are still sent once the last event generator is exhausted
+        Assert.assertEquals(generatorQueue.poll().getTimestamp(), 5L);
+        Assert.assertEquals(generatorQueue.poll().getTimestamp(), 6L);
+        Assert.assertNull(generatorQueue.peek());
+    }
+
+    /**
+     * Event generator producing events with the given timestamps
+     */
+    private static class ListEventGenerator implements EventGenerator {
+        private final String streamName;
+        private final LinkedList<Event> events = new LinkedList<>();
+
+        private ListEventGenerator(String streamName, long... timestamps) {
+            this.streamName = streamName;
+            for (long timestamp : timestamps) {
+                events.add(new Event(timestamp, new Object[]{timestamp}));
+            }
+        }
+
+        @Override
+        public void init(JSONObject sourceConfig, long startTimestamp, long endTimestamp) {
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public Event poll() {
+            return events.poll();
+        }
+
+        @Override
+        public Event peek() {
+            return events.peek();
+        }
+
+        @Override
+        public void getNextEvent() {
+        }
+
+        @Override
+        public String getStreamName() {
+            return streamName;
+        }
+
+        @Override
+        public String getSiddhiAppName() {
+            return "TestSiddhiApp";
+        }
+
+        @Override
+        public void validateSourceConfiguration(JSONObject sourceConfig) {
+        }
+
+        @Override
+        public void setStartTimestamp(long startTimestamp) {
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c)  2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.event.simulator.core.internal.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventRateLimiterTest the pacing of event simulation to a target event rate
+ */
+public class EventRateLimiterTest {
+
+    @Test
+    public void testBatchesArePacedToEventRate() throws Exception {
+        EventRateLimiter rateLimiter = new EventRateLimiter(1000, 100);
+        long startTime = System.nanoTime();
+//        the first batch is sent from the initial tokens, and the next 4 batches take 100 ms each
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.acquire(100);
+        }
+        long elapsedTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        Assert.assertTrue(elapsedTime >= 390, "Elapsed time " + elapsedTime + " ms");
+    }
+
+    @Test
+    public void testBatchLargerThanCapacity() throws Exception {
+        EventRateLimiter rateLimiter = new EventRateLimiter(1000, 10);
+        long startTime = System.nanoTime();
+//        a batch larger than the capacity is sent at once, and is paid back before the next batch
+        rateLimiter.acquire(100);
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) < 50);
+        rateLimiter.acquire(1);
+        long elapsedTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        Assert.assertTrue(elapsedTime >= 85, "Elapsed time " + elapsedTime + " ms");
+    }
+}
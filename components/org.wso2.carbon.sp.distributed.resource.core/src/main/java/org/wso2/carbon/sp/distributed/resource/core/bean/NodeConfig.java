@@ -38,6 +38,10 @@ public class NodeConfig implements Serializable {
      * EXISTS means there're deployed artifacts.
      */
     private String state;
+    /**
+     * Load metrics of the node, which are refreshed before each heartbeat.
+     */
+    private NodeMetrics metrics;
 
     /**
      * Getter for the node id.
@@ -98,6 +102,26 @@ public class NodeConfig implements Serializable {
         return this;
     }
 
+    /**
+     * Getter for the load metrics of the node.
+     *
+     * @return metrics.
+     */
+    public NodeMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Setter for the load metrics of the node.
+     *
+     * @param metrics load metrics of the node.
+     * @return current {@link NodeConfig}
+     */
+    public NodeConfig setMetrics(NodeMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     @Override
     public String toString() {
         return String.format("Node { id: %s, host: %s, port: %s, state: %s }",
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.sp.distributed.resource.core.bean;
+
+import java.io.Serializable;
+
+/**
+ * This class represents the load metrics of the node, which are sent to the leader with each heartbeat so that
+ * partial Siddhi apps can be placed according to the load of the resource nodes.
+ */
+public class NodeMetrics implements Serializable {
+    private static final long serialVersionUID = -6034738453916468914L;
+    /**
+     * Number of processors available to the node.
+     */
+    private int processorCount;
+    /**
+     * System load average for the last minute, or a negative value if it is not available.
+     */
+    private double systemLoadAverage = -1;
+    /**
+     * Ratio of the used heap memory to the maximum heap memory of the node.
+     */
+    private double heapMemoryUsage;
+
+    /**
+     * Getter for the number of processors.
+     *
+     * @return processorCount.
+     */
+    public int getProcessorCount() {
+        return processorCount;
+    }
+
+    /**
+     * Setter for the number of processors.
+     *
+     * @param processorCount number of processors available to the node.
+     * @return current {@link NodeMetrics}
+     */
+    public NodeMetrics setProcessorCount(int processorCount) {
+        this.processorCount = processorCount;
+        return this;
+    }
+
+    /**
+     * Getter for the system load average.
+     *
+     * @return systemLoadAverage.
+     */
+    public double getSystemLoadAverage() {
+        return systemLoadAverage;
+    }
+
+    /**
+     * Setter for the system load average.
+     *
+     * @param systemLoadAverage system load average for the last minute.
+     * @return current {@link NodeMetrics}
+     */
+    public NodeMetrics setSystemLoadAverage(double systemLoadAverage) {
+        this.systemLoadAverage = systemLoadAverage;
+        return this;
+    }
+
+    /**
+     * Getter for the heap memory usage.
+     *
+     * @return heapMemoryUsage.
+     */
+    public double getHeapMemoryUsage() {
+        return heapMemoryUsage;
+    }
+
+    /**
+     * Setter for the heap memory usage.
+     *
+     * @param heapMemoryUsage ratio of the used heap memory to the maximum heap memory.
+     * @return current {@link NodeMetrics}
+     */
+    public NodeMetrics setHeapMemoryUsage(double heapMemoryUsage) {
+        this.heapMemoryUsage = heapMemoryUsage;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NodeMetrics { processorCount: %s, systemLoadAverage: %s, heapMemoryUsage: %s }",
+                processorCount, systemLoadAverage, heapMemoryUsage);
+    }
+}
@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import org.wso2.carbon.sp.distributed.resource.core.bean.HTTPInterfaceConfig;
 import org.wso2.carbon.sp.distributed.resource.core.bean.HeartbeatResponse;
 import org.wso2.carbon.sp.distributed.resource.core.bean.ManagerNodeConfig;
+import org.wso2.carbon.sp.distributed.resource.core.bean.NodeConfig;
 import org.wso2.carbon.sp.distributed.resource.core.exception.ResourceNodeException;
 import org.wso2.carbon.sp.distributed.resource.core.internal.ServiceDataHolder;
 
@@ -44,10 +45,20 @@ public class HeartbeatSender extends TimerTask {
      * Heartbeat endpoint template.
      */
     private static final String HEARTBEAT_ENDPOINT = "http://%s:%s/resourceManager/heartbeat";
+    /**
+     * Number of delta heartbeats sent between two full heartbeats, which also refresh the list of managers.
+     */
+    private static final int DELTA_HEARTBEATS_PER_FULL_HEARTBEAT = 9;
     /**
      * Timestamp of the last successful heartbeat.
      */
     private static long lastUpdatedTimestamp;
+    /**
+     * Number of delta heartbeats which can be sent before the next full heartbeat. Heartbeats only carry the changes
+     * of the node, along with its load metrics, once the node joined the resource pool of the current leader. A
+     * full heartbeat, which also carries the interface of the node, is sent when joining a leader.
+     */
+    private static int remainingDeltaHeartbeats;
     /**
      * Timer to schedule heartbeat sending task.
      */
@@ -152,22 +163,45 @@ public class HeartbeatSender extends TimerTask {
                     }
                 }
             }
+            NodeConfig currentNodeConfig = ServiceDataHolder.getCurrentNodeConfig();
+            currentNodeConfig.setMetrics(ResourceUtils.getNodeMetrics());
+            boolean deltaHeartbeat = remainingDeltaHeartbeats > 0
+                    && ResourceConstants.STATE_EXISTS.equalsIgnoreCase(currentNodeConfig.getState())
+                    && ServiceDataHolder.getLeaderNodeConfig() != null
+                    && config.equals(ServiceDataHolder.getLeaderNodeConfig().getHttpInterface());
             // Send request to the heartbeat endpoint.
             response = HTTPClientUtil.doPostRequest(
                     String.format(HEARTBEAT_ENDPOINT, config.getHost(), config.getPort()),
-                    ServiceDataHolder.getCurrentNodeConfig()
+                    deltaHeartbeat
+                            ? new NodeConfig().setId(currentNodeConfig.getId())
+                            .setState(currentNodeConfig.getState())
+                            .setMetrics(currentNodeConfig.getMetrics())
+                            : currentNodeConfig
             );
+            // Send a full heartbeat next, unless this heartbeat is accepted by the leader.
+            remainingDeltaHeartbeats = 0;
             switch (response.code()) {
                 case 200:
                     updateLastUpdatedTimestamp();
                     hbRes = gson.fromJson(response.body().string(), HeartbeatResponse.class);
                     ServiceDataHolder.setLeaderNodeConfig(hbRes.getLeader());
-                    /* Response will also contain list of managers which are connected to managers cluster.
-                     * This might contain managers which are not specified in Resource nodes "resourceManagers"
-                     * We'll add those to the resourceManagers list as well, so that managers can later be added
-                     * w/o needing to specify them in the resource node.
+                    /* Response to a full heartbeat will also contain list of managers which are connected to
+                     * managers cluster. This might contain managers which are not specified in Resource nodes
+                     * "resourceManagers". We'll add those to the resourceManagers list as well, so that managers can
+                     * later be added w/o needing to specify them in the resource node.
                      */
-                    ServiceDataHolder.getResourceManagers().addAll(hbRes.getConnectedManagers());
+                    if (hbRes.getConnectedManagers() != null) {
+                        for (HTTPInterfaceConfig connectedManager : hbRes.getConnectedManagers()) {
+                            if (!ServiceDataHolder.getResourceManagers().contains(connectedManager)) {
+                                ServiceDataHolder.getResourceManagers().add(connectedManager);
+                            }
+                        }
+                    }
+                    if (deltaHeartbeat && ResourceConstants.STATE_NEW.equalsIgnoreCase(hbRes.getJoinedState())) {
+                        // Leader removed this node from the resource pool. Hence, joining again with a full heartbeat.
+                        connected = sendHeartbeat(config);
+                        break;
+                    }
                     if (ResourceConstants.STATE_NEW.equalsIgnoreCase(hbRes.getJoinedState())) {
                         if (!ResourceConstants.STATE_NEW.equalsIgnoreCase(ServiceDataHolder.getCurrentNodeConfig()
                                 .getState())) {
@@ -181,6 +215,8 @@ public class HeartbeatSender extends TimerTask {
                             LOG.debug("Heartbeat sent to leader node " + hbRes.getLeader());
                         }
                         ServiceDataHolder.getCurrentNodeConfig().setState(ResourceConstants.STATE_EXISTS);
+                        remainingDeltaHeartbeats = deltaHeartbeat
+                                ? DELTA_HEARTBEATS_PER_FULL_HEARTBEAT - 1 : DELTA_HEARTBEATS_PER_FULL_HEARTBEAT;
                     } else if (ResourceConstants.STATE_REJECTED.equalsIgnoreCase(hbRes.getJoinedState())) {
                         throw new ResourceNodeException(String.format("Leader@{host:%s, port:%s} rejected resource %s" +
                                         " from joining the resource pool. Please check node id in deployment.yaml",
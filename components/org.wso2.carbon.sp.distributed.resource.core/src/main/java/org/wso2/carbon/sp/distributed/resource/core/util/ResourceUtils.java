@@ -21,9 +21,13 @@ package org.wso2.carbon.sp.distributed.resource.core.util;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wso2.carbon.sp.distributed.resource.core.bean.NodeMetrics;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
 
 public class ResourceUtils {
     private static final Logger LOG = LoggerFactory.getLogger(ResourceUtils.class);
@@ -42,4 +46,19 @@ public class ResourceUtils {
             LOG.error("Error occurred while cleaning the Siddhi apps directory.", e);
         }
     }
+
+    /**
+     * Collect the current load metrics of this node.
+     *
+     * @return load metrics of this node.
+     */
+    public static NodeMetrics getNodeMetrics() {
+        OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        MemoryUsage heapMemory = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long maxHeapMemory = heapMemory.getMax() > 0 ? heapMemory.getMax() : heapMemory.getCommitted();
+        return new NodeMetrics()
+                .setProcessorCount(operatingSystem.getAvailableProcessors())
+                .setSystemLoadAverage(operatingSystem.getSystemLoadAverage())
+                .setHeapMemoryUsage(maxHeapMemory > 0 ? (double) heapMemory.getUsed() / maxHeapMemory : 0);
+    }
 }
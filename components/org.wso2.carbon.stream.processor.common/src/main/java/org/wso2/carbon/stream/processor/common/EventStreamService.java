@@ -35,4 +35,18 @@ public interface EventStreamService {
             ResourceNotFoundException;
 
     public void pushEvent(String siddhiAppName, String streamName, Event event);
+
+    /**
+     * Push a batch of events to a stream in the given order. Implementations which can send the whole batch to the
+     * stream at once should override this, as it pushes the events one by one by default.
+     *
+     * @param siddhiAppName name of the Siddhi app
+     * @param streamName    name of the stream
+     * @param events        events to be pushed
+     */
+    public default void pushEvents(String siddhiAppName, String streamName, Event[] events) {
+        for (Event event : events) {
+            pushEvent(siddhiAppName, streamName, event);
+        }
+    }
 }
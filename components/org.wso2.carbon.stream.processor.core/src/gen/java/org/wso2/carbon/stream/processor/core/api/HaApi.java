@@ -64,6 +64,23 @@ public class HaApi implements Microservice {
         return delegate.haOutputSyncTimestampGet();
     }
 
+    @GET
+    @Path("/outputSyncStream")
+    @Produces({"application/octet-stream"})
+    @ApiResponses(value = {
+            @ApiResponse(
+                    code = 200,
+                    message = "The timestamps of last published events of each sink are pushed as they change.",
+                    response = byte[].class),
+
+            @ApiResponse(
+                    code = 404,
+                    message = "The timestamps of last published events of each sink cannot be pushed.",
+                    response = Error.class)})
+    public Response haOutputSyncStreamGet() throws NotFoundException {
+        return delegate.haOutputSyncStreamGet();
+    }
+
     @GET
     @Path("/state")
     @Produces({"application/json"})
@@ -98,4 +115,38 @@ public class HaApi implements Microservice {
             IOException {
         return delegate.haStateGet(siddhiAppName);
     }
+
+    @GET
+    @Path("/stateStream")
+    @Produces({"application/octet-stream"})
+    @ApiResponses(value = {
+            @ApiResponse(
+                    code = 200,
+                    message = "The state of all Siddhi applications is successfully streamed.",
+                    response = byte[].class),
+
+            @ApiResponse(
+                    code = 404,
+                    message = "The state of all Siddhi applications is not successfully streamed.",
+                    response = Error.class)})
+    public Response haStateStreamGet() throws NotFoundException {
+        return delegate.haStateStreamGet();
+    }
+
+    @GET
+    @Path("/stateStream/{siddhiAppName}")
+    @Produces({"application/octet-stream"})
+    @ApiResponses(value = {
+            @ApiResponse(
+                    code = 200,
+                    message = "The state of the requested Siddhi application is successfully streamed.",
+                    response = byte[].class),
+
+            @ApiResponse(
+                    code = 404,
+                    message = "The state of the requested Siddhi application is not successfully streamed.",
+                    response = Error.class)})
+    public Response haStateStreamGet(@PathParam("siddhiAppName") String siddhiAppName) throws NotFoundException {
+        return delegate.haStateStreamGet(siddhiAppName);
+    }
 }
@@ -28,7 +28,13 @@ public abstract class HaApiService {
 
     public abstract Response haOutputSyncTimestampGet() throws NotFoundException;
 
+    public abstract Response haOutputSyncStreamGet() throws NotFoundException;
+
     public abstract Response haStateGet() throws NotFoundException, IOException;
 
     public abstract Response haStateGet(String siddhiAppName) throws NotFoundException, IOException;
+
+    public abstract Response haStateStreamGet() throws NotFoundException;
+
+    public abstract Response haStateStreamGet(String siddhiAppName) throws NotFoundException;
 }
@@ -2,6 +2,7 @@ package org.wso2.carbon.stream.processor.core.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.annotations.ApiModelProperty;
+import org.wso2.carbon.stream.processor.core.persistence.PersistenceMetrics;
 
 import java.util.Objects;
 
@@ -22,6 +23,9 @@ public class SiddhiAppMetrics {
   @JsonProperty("isStatEnabled")
   private boolean isStatEnabled = false;
 
+  @JsonProperty("persistence")
+  private PersistenceMetrics persistence = null;
+
   public SiddhiAppMetrics appName(String appName) {
     this.appName = appName;
     return this;
@@ -94,6 +98,24 @@ public class SiddhiAppMetrics {
     this.isStatEnabled = isStatEnabled;
   }
 
+  public SiddhiAppMetrics persistence(PersistenceMetrics persistence) {
+    this.persistence = persistence;
+    return this;
+  }
+
+   /**
+   * Periodic persistence statistics of the siddhi app
+   * @return persistence
+  **/
+  @ApiModelProperty(value = "Periodic persistence statistics of the siddhi app")
+  public PersistenceMetrics getPersistence() {
+    return persistence;
+  }
+
+  public void setPersistence(PersistenceMetrics persistence) {
+    this.persistence = persistence;
+  }
+
 
   @Override
   public boolean equals(Object o) {
@@ -107,12 +129,13 @@ public class SiddhiAppMetrics {
     return Objects.equals(this.appName, siddhiAppMetrics.appName) &&
         Objects.equals(this.status, siddhiAppMetrics.status) &&
         Objects.equals(this.age, siddhiAppMetrics.age) &&
-        Objects.equals(this.isStatEnabled, siddhiAppMetrics.isStatEnabled);
+        Objects.equals(this.isStatEnabled, siddhiAppMetrics.isStatEnabled) &&
+        Objects.equals(this.persistence, siddhiAppMetrics.persistence);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(appName, status, age, isStatEnabled);
+    return Objects.hash(appName, status, age, isStatEnabled, persistence);
   }
 
   @Override
@@ -124,6 +147,7 @@ public class SiddhiAppMetrics {
     sb.append("    status: ").append(toIndentedString(status)).append("\n");
     sb.append("    age: ").append(toIndentedString(age)).append("\n");
     sb.append("    isStatEnabled: ").append(toIndentedString(isStatEnabled)).append("\n");
+    sb.append("    persistence: ").append(toIndentedString(persistence)).append("\n");
     sb.append("}");
     return sb.toString();
   }
@@ -18,6 +18,7 @@
 
 package org.wso2.carbon.stream.processor.core.ha;
 
+import org.wso2.carbon.stream.processor.core.ha.util.EventRingBuffer;
 import org.wso2.carbon.stream.processor.core.internal.beans.ActiveNodeLastPublishedEventTimeStamp;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.stream.output.sink.SinkHandler;
@@ -26,7 +27,6 @@ import org.wso2.siddhi.query.api.definition.StreamDefinition;
 
 import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Implementation of {@link SinkHandler} used for 2 node minimum HA
@@ -35,19 +35,16 @@ public class HACoordinationSinkHandler extends SinkHandler {
 
     private boolean isActiveNode;
     private long lastPublishedEventTimestamp = 0L;
-    private Queue<Event> passiveNodeProcessedEvents;
+    private EventRingBuffer passiveNodeProcessedEvents;
     private String sinkHandlerElementId;
 
-    private final int queueCapacity;
-
     /**
      * Constructor.
      *
      * @param queueCapacity is the size of the queue that would hold events in the Passive Node
      */
     public HACoordinationSinkHandler(int queueCapacity) {
-        this.queueCapacity = queueCapacity;
-        passiveNodeProcessedEvents = new LinkedBlockingQueue<>(queueCapacity);
+        passiveNodeProcessedEvents = new EventRingBuffer(queueCapacity);
     }
 
     @Override
@@ -68,12 +65,9 @@ public class HACoordinationSinkHandler extends SinkHandler {
             lastPublishedEventTimestamp = event.getTimestamp();
             sinkHandlerCallback.mapAndSend(event);
         } else {
+            // Writers are serialized as the ring buffer only supports a single writer. Readers do not lock.
             synchronized (this) {
-                boolean eventBuffered = passiveNodeProcessedEvents.offer(event);
-                if (!eventBuffered) { //Handles if the queue is full
-                    passiveNodeProcessedEvents.remove();
-                    passiveNodeProcessedEvents.add(event);
-                }
+                passiveNodeProcessedEvents.offer(event);
             }
         }
     }
@@ -92,15 +86,7 @@ public class HACoordinationSinkHandler extends SinkHandler {
             sinkHandlerCallback.mapAndSend(events);
         } else {
             synchronized (this) {
-                int sizeAfterUpdate = passiveNodeProcessedEvents.size() + events.length;
-                if (sizeAfterUpdate >= queueCapacity) {
-                    for (int i = queueCapacity; i < sizeAfterUpdate; i++) {
-                        passiveNodeProcessedEvents.remove();
-                    }
-                }
-                for (Event event : events) {
-                    passiveNodeProcessedEvents.add(event);
-                }
+                passiveNodeProcessedEvents.offer(events);
             }
         }
     }
@@ -137,10 +123,7 @@ public class HACoordinationSinkHandler extends SinkHandler {
      * @param activeLastPublishedTimestamp timestamp of the last event the active node published from the given sink
      */
     public void trimPassiveNodeEventQueue(long activeLastPublishedTimestamp) {
-        while (passiveNodeProcessedEvents.peek() != null &&
-                passiveNodeProcessedEvents.peek().getTimestamp() <= activeLastPublishedTimestamp) {
-            passiveNodeProcessedEvents.remove();
-        }
+        passiveNodeProcessedEvents.trim(activeLastPublishedTimestamp);
     }
 
     public Queue<Event> getPassiveNodeProcessedEvents() {
@@ -20,6 +20,7 @@ package org.wso2.carbon.stream.processor.core.ha;
 
 import org.apache.log4j.Logger;
 import org.wso2.carbon.stream.processor.core.ha.util.CoordinationConstants;
+import org.wso2.carbon.stream.processor.core.ha.util.EventRingBuffer;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.stream.input.InputHandler;
 import org.wso2.siddhi.core.stream.input.source.SourceHandler;
@@ -28,7 +29,6 @@ import org.wso2.siddhi.query.api.definition.StreamDefinition;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Implementation of {@link SourceHandler} used for 2 node minimum HA
@@ -36,17 +36,15 @@ import java.util.concurrent.LinkedBlockingQueue;
 public class HACoordinationSourceHandler extends SourceHandler {
 
     private boolean isActiveNode;
-    private boolean collectEvents;
+    private volatile boolean collectEvents;
     private long lastProcessedEventTimestamp = 0L;
-    private Queue<Event> passiveNodeBufferedEvents;
+    private EventRingBuffer passiveNodeBufferedEvents;
     private String sourceHandlerElementId;
 
-    private final int queueCapacity;
     private static final Logger log = Logger.getLogger(HACoordinationSourceHandler.class);
 
     public HACoordinationSourceHandler(int queueCapacity) {
-        this.queueCapacity = queueCapacity;
-        passiveNodeBufferedEvents = new LinkedBlockingQueue<>(queueCapacity);
+        passiveNodeBufferedEvents = new EventRingBuffer(queueCapacity);
     }
 
     @Override
@@ -67,17 +65,16 @@ public class HACoordinationSourceHandler extends SourceHandler {
             lastProcessedEventTimestamp = event.getTimestamp();
             inputHandler.send(event);
         } else {
-            synchronized (this) {
-                if (collectEvents) {
-                    boolean eventBuffered = passiveNodeBufferedEvents.offer(event);
-                    if (!eventBuffered) {
-                        passiveNodeBufferedEvents.remove();
-                        passiveNodeBufferedEvents.add(event);
+            // Writers are serialized while collecting, as the ring buffer only supports a single writer
+            if (collectEvents) {
+                synchronized (this) {
+                    if (collectEvents) {
+                        passiveNodeBufferedEvents.offer(event);
+                        return;
                     }
-                } else {
-                    inputHandler.send(event);
                 }
             }
+            inputHandler.send(event);
         }
     }
 
@@ -96,19 +93,13 @@ public class HACoordinationSourceHandler extends SourceHandler {
         } else {
             if (collectEvents) {
                 synchronized (this) {
-                    int sizeAfterUpdate = passiveNodeBufferedEvents.size() + events.length;
-                    if (sizeAfterUpdate >= queueCapacity) {
-                        for (int i = queueCapacity; i < sizeAfterUpdate; i++) {
-                            passiveNodeBufferedEvents.remove();
-                        }
-                    }
-                    for (Event event : events) {
-                        passiveNodeBufferedEvents.add(event);
+                    if (collectEvents) {
+                        passiveNodeBufferedEvents.offer(events);
+                        return;
                     }
                 }
-            } else {
-                inputHandler.send(events);
             }
+            inputHandler.send(events);
         }
     }
 
@@ -119,27 +110,28 @@ public class HACoordinationSourceHandler extends SourceHandler {
      */
     public void processBufferedEvents(long activeLastProcessedEventTimestamp) {
 
-        while (passiveNodeBufferedEvents.peek() != null &&
-                passiveNodeBufferedEvents.peek().getTimestamp() <= activeLastProcessedEventTimestamp) {
-            passiveNodeBufferedEvents.remove();
-        }
-        while (passiveNodeBufferedEvents.peek() != null) {
+        passiveNodeBufferedEvents.trim(activeLastProcessedEventTimestamp);
+        Event event;
+        while ((event = passiveNodeBufferedEvents.poll()) != null) {
             try {
-                getInputHandler().send(passiveNodeBufferedEvents.poll());
+                getInputHandler().send(event);
             } catch (InterruptedException e) {
                 log.error("Error esending Passive Node Events after State Sync. ", e);
             }
         }
-        collectEvents(false);
+        // Writers check the flag while holding the lock, so no events are buffered once it is released
+        synchronized (this) {
+            collectEvents(false);
+        }
         if (log.isDebugEnabled()) {
             log.debug("Setting Source Handler with ID " + sourceHandlerElementId + " to stop collecting events" +
                     " in buffer");
         }
 
         //Recheck if queue is not empty due to other thread updating the queue and send events
-        while (passiveNodeBufferedEvents.peek() != null) {
+        while ((event = passiveNodeBufferedEvents.poll()) != null) {
             try {
-                getInputHandler().send(passiveNodeBufferedEvents.poll());
+                getInputHandler().send(event);
             } catch (InterruptedException e) {
                 log.error("Error Resending Passive Node Events after State Sync. ", e);
             }
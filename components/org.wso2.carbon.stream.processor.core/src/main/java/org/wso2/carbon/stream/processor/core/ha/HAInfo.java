@@ -18,6 +18,10 @@
 
 package org.wso2.carbon.stream.processor.core.ha;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Class that holds information about current node's HA deployment used for Dashboard.
  */
@@ -27,8 +31,9 @@ public class HAInfo {
     private String groupId;
     private boolean isActive;
     private long lastPersistedTimestamp;
-    private long lastSyncedTimestamp;
-    private boolean isInSync;
+    private volatile long lastSyncedTimestamp;
+    private volatile boolean isInSync;
+    private final Map<String, Long> siddhiAppSyncLatencies = new ConcurrentHashMap<>();
 
     public HAInfo(String nodeId, String groupId, boolean isActiveNode) {
         this.nodeId = nodeId;
@@ -83,4 +88,16 @@ public class HAInfo {
     public void setInSync(boolean inSync) {
         isInSync = inSync;
     }
+
+    /**
+     * @return time taken in milliseconds for each Siddhi Application to be restored, since the passive node started
+     * borrowing the state of the active node
+     */
+    public Map<String, Long> getSiddhiAppSyncLatencies() {
+        return Collections.unmodifiableMap(siddhiAppSyncLatencies);
+    }
+
+    public void setSiddhiAppSyncLatency(String siddhiAppName, long syncLatency) {
+        siddhiAppSyncLatencies.put(siddhiAppName, syncLatency);
+    }
 }
@@ -24,6 +24,7 @@ import org.wso2.carbon.cluster.coordinator.service.ClusterCoordinator;
 import org.wso2.carbon.stream.processor.core.internal.beans.DeploymentConfig;
 import org.wso2.carbon.stream.processor.core.ha.util.CompressionUtil;
 import org.wso2.carbon.stream.processor.core.ha.util.RequestUtil;
+import org.wso2.carbon.stream.processor.core.ha.util.StateTransferUtil;
 import org.wso2.carbon.stream.processor.core.internal.StreamProcessorDataHolder;
 import org.wso2.carbon.stream.processor.core.model.HAStateSyncObject;
 import org.wso2.siddhi.core.SiddhiAppRuntime;
@@ -31,17 +32,26 @@ import org.wso2.siddhi.core.SiddhiManager;
 import org.wso2.siddhi.core.stream.input.source.SourceHandler;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -52,6 +62,7 @@ public class HAManager {
     private ClusterCoordinator clusterCoordinator;
     private ScheduledExecutorService passiveNodeOutputSchedulerService;
     private ScheduledFuture passiveNodeOutputScheduledFuture;
+    private PassiveNodeOutputSyncManager passiveNodeOutputSyncManager;
     private boolean liveSyncEnabled;
     private int outputSyncInterval;
     private String localHost;
@@ -63,6 +74,7 @@ public class HAManager {
     private String clusterId;
     private int sinkQueueCapacity;
     private int sourceQueueCapacity;
+    private int stateSyncRestorePoolSize;
     private String activeNodeHost;
     private String activeNodePort;
     private HACoordinationSourceHandlerManager sourceHandlerManager;
@@ -83,6 +95,7 @@ public class HAManager {
         this.stateSyncGracePeriod = deploymentConfig.getStateSyncGracePeriod();
         this.sinkQueueCapacity = deploymentConfig.getSinkQueueCapacity();
         this.sourceQueueCapacity = deploymentConfig.getSourceQueueCapacity();
+        this.stateSyncRestorePoolSize = Math.max(deploymentConfig.getStateSyncRestorePoolSize(), 1);
         this.retrySiddhiAppSyncTimerList = new LinkedList<>();
     }
 
@@ -141,11 +154,14 @@ public class HAManager {
                 syncAfterGracePeriodTimer = persistenceStoreSyncAfterGracePeriod(stateSyncGracePeriod);
             }
 
+            passiveNodeOutputSyncManager = new PassiveNodeOutputSyncManager(clusterCoordinator, sinkHandlerManager,
+                    recordTableHandlerManager, activeNodeHost, activeNodePort, liveSyncEnabled, outputSyncInterval);
+            if (liveSyncEnabled) {
+                passiveNodeOutputSyncManager.startOutputSyncStream();
+            }
             passiveNodeOutputSchedulerService = Executors.newSingleThreadScheduledExecutor();
             passiveNodeOutputScheduledFuture = passiveNodeOutputSchedulerService.scheduleAtFixedRate(
-                    new PassiveNodeOutputSyncManager(clusterCoordinator, sinkHandlerManager, recordTableHandlerManager,
-                            activeNodeHost, activeNodePort, liveSyncEnabled), outputSyncInterval, outputSyncInterval,
-                    TimeUnit.MILLISECONDS);
+                    passiveNodeOutputSyncManager, outputSyncInterval, outputSyncInterval, TimeUnit.MILLISECONDS);
         }
         HAInfo haInfo = new HAInfo(nodeId, clusterId, isActiveNode);
         StreamProcessorDataHolder.setHaInfo(haInfo);
@@ -170,6 +186,9 @@ public class HAManager {
         if (passiveNodeOutputSchedulerService != null) {
             passiveNodeOutputSchedulerService.shutdown();
         }
+        if (passiveNodeOutputSyncManager != null) {
+            passiveNodeOutputSyncManager.stop();
+        }
         if (syncAfterGracePeriodTimer != null) {
             syncAfterGracePeriodTimer.cancel();
             syncAfterGracePeriodTimer.purge();
@@ -203,36 +222,12 @@ public class HAManager {
                     }
                     ((HACoordinationSourceHandler) sourceHandler).collectEvents(true);
                 }
-                HAStateSyncObject haStateSyncObject = getActiveNodeSnapshot(activeNodeHost, activeNodePort);
-                if (haStateSyncObject.hasState()) {
-                    Map<String, byte[]> snapshotMap = haStateSyncObject.getSnapshotMap();
-                    Map<String, byte[]> decompressedSnapshotMap;
-                    decompressedSnapshotMap = new HashMap<>();
-                    for (Map.Entry<String, byte[]> snapshotEntry : snapshotMap.entrySet()) {
-                        try {
-                            decompressedSnapshotMap.put(snapshotEntry.getKey(), CompressionUtil.decompressGZIP(
-                                    snapshotEntry.getValue()));
-                        } catch (IOException e) {
-                            log.error("Passive Node: Error decompressing bytes of active nodes state. "
-                                    + e.getMessage(), e);
-                        }
-                    }
-
-                    ConcurrentMap<String, SiddhiAppRuntime> siddhiAppRuntimeMap = StreamProcessorDataHolder.
-                            getSiddhiManager().getSiddhiAppRuntimeMap();
-
+                ConcurrentMap<String, SiddhiAppRuntime> siddhiAppRuntimeMap = StreamProcessorDataHolder.
+                        getSiddhiManager().getSiddhiAppRuntimeMap();
+                Set<String> restoredSiddhiApps = syncActiveNodeState(siddhiAppRuntimeMap);
+                if (restoredSiddhiApps != null) {
                     for (SiddhiAppRuntime siddhiAppRuntime : siddhiAppRuntimeMap.values()) {
-                        byte[] snapshot = decompressedSnapshotMap.get(siddhiAppRuntime.getName());
-                        if (snapshot != null) {
-                            if (log.isDebugEnabled()) {
-                                log.debug("Passive Node: Restoring state of Siddhi Application " + siddhiAppRuntime.
-                                        getName() + " of passive node while live syncing after specified" +
-                                        " grace period");
-                            }
-                            siddhiAppRuntime.restore(snapshot);
-                            StreamProcessorDataHolder.getHaInfo().setLastSyncedTimestamp(System.currentTimeMillis());
-                            StreamProcessorDataHolder.getHaInfo().setInSync(true);
-                        } else {
+                        if (!restoredSiddhiApps.contains(siddhiAppRuntime.getName())) {
                             log.warn("Passive Node: No Snapshot found for Siddhi Application " + siddhiAppRuntime.
                                     getName() + " while trying live sync with active node after specified " +
                                     "grace period");
@@ -244,6 +239,127 @@ public class HAManager {
         return timer;
     }
 
+    /**
+     * Method to stream the state of all Siddhi Applications from the active node and restore each Siddhi Application
+     * as soon as its snapshot is received. Snapshots are decompressed and restored in parallel on a bounded pool,
+     * while the next snapshots are being read. Each Siddhi Application starts replaying the events buffered by its
+     * source handlers as soon as it is restored. Falls back to the JSON state endpoint if the active node does not
+     * support streaming the state.
+     *
+     * @param siddhiAppRuntimeMap the Siddhi Applications deployed in the passive node
+     * @return names of the restored Siddhi Applications, or null if the state could not be retrieved
+     */
+    private Set<String> syncActiveNodeState(Map<String, SiddhiAppRuntime> siddhiAppRuntimeMap) {
+        long syncStartTime = System.currentTimeMillis();
+        Set<String> restoredSiddhiApps = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        ExecutorService restoreExecutorService = Executors.newFixedThreadPool(stateSyncRestorePoolSize);
+        // Bounds the number of snapshots that are read but not yet restored
+        Semaphore pendingRestores = new Semaphore(stateSyncRestorePoolSize);
+        List<Future<?>> restoreTasks = new ArrayList<>();
+        StateTransferUtil.StateFrameHandler restoreHandler = (siddhiAppName, snapshot) -> {
+            try {
+                pendingRestores.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to restore " + siddhiAppName);
+            }
+            restoreTasks.add(restoreExecutorService.submit(() -> {
+                try {
+                    if (restoreSiddhiAppState(siddhiAppRuntimeMap.get(siddhiAppName), siddhiAppName, snapshot)) {
+                        restoredSiddhiApps.add(siddhiAppName);
+                        long syncLatency = System.currentTimeMillis() - syncStartTime;
+                        StreamProcessorDataHolder.getHaInfo().setSiddhiAppSyncLatency(siddhiAppName, syncLatency);
+                        if (log.isDebugEnabled()) {
+                            log.debug("Passive Node: Siddhi Application " + siddhiAppName + " synced with " +
+                                    "active node in " + syncLatency + " ms");
+                        }
+                    }
+                } finally {
+                    pendingRestores.release();
+                }
+            }));
+        };
+
+        String url = "http://%s:%d/ha/stateStream";
+        URI baseURI = URI.create(String.format(url, activeNodeHost, Integer.parseInt(activeNodePort)));
+        try {
+            int statusCode = RequestUtil.sendRequest(baseURI, StateTransferUtil.CONTENT_TYPE, content ->
+                    StateTransferUtil.readFrames(content, restoreHandler));
+            if (statusCode == 404) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Passive Node: Active node does not support streaming the state. Borrowing state " +
+                            "as JSON");
+                }
+                HAStateSyncObject haStateSyncObject = getActiveNodeSnapshot(activeNodeHost, activeNodePort);
+                if (!haStateSyncObject.hasState()) {
+                    return null;
+                }
+                for (Map.Entry<String, byte[]> snapshotEntry : haStateSyncObject.getSnapshotMap().entrySet()) {
+                    restoreHandler.handleFrame(snapshotEntry.getKey(), snapshotEntry.getValue());
+                }
+            } else if (statusCode != 200) {
+                log.error("Failed in connection with active node using live state sync. HTTP status : " +
+                        statusCode);
+                return null;
+            }
+        } catch (IOException e) {
+            log.error("Passive Node: Error while reading the state stream of active node. " + e.getMessage(), e);
+        } finally {
+            awaitRestores(restoreTasks);
+            restoreExecutorService.shutdown();
+        }
+        log.info("Passive Node: Restored " + restoredSiddhiApps.size() + " Siddhi Applications with the state of " +
+                "active node in " + (System.currentTimeMillis() - syncStartTime) + " ms");
+        return restoredSiddhiApps;
+    }
+
+    private void awaitRestores(List<Future<?>> restoreTasks) {
+        for (Future<?> restoreTask : restoreTasks) {
+            try {
+                restoreTask.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Passive Node: Interrupted while waiting for Siddhi Applications to be restored");
+                return;
+            } catch (ExecutionException e) {
+                log.error("Passive Node: Error while restoring the state of a Siddhi Application received from " +
+                        "active node. " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Method to restore a Siddhi Application from the compressed snapshot received from the active node
+     *
+     * @param siddhiAppRuntime   the Siddhi Application to restore, null if it is not deployed in the passive node
+     * @param siddhiAppName      the name of the Siddhi Application
+     * @param compressedSnapshot the compressed snapshot of the Siddhi Application
+     * @return true if the Siddhi Application is restored
+     */
+    private boolean restoreSiddhiAppState(SiddhiAppRuntime siddhiAppRuntime, String siddhiAppName,
+                                          byte[] compressedSnapshot) {
+        if (siddhiAppRuntime == null) {
+            log.warn("Passive Node: Snapshot of Siddhi Application " + siddhiAppName + " received from active " +
+                    "node, but it is not deployed in passive node");
+            return false;
+        }
+        byte[] snapshot;
+        try {
+            snapshot = CompressionUtil.decompress(compressedSnapshot);
+        } catch (IOException e) {
+            log.error("Passive Node: Error decompressing bytes of active nodes state. " + e.getMessage(), e);
+            return false;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Passive Node: Restoring state of Siddhi Application " + siddhiAppName + " of passive node " +
+                    "while live syncing after specified grace period");
+        }
+        siddhiAppRuntime.restore(snapshot);
+        StreamProcessorDataHolder.getHaInfo().setLastSyncedTimestamp(System.currentTimeMillis());
+        StreamProcessorDataHolder.getHaInfo().setInSync(true);
+        return true;
+    }
+
     /**
      * Implements a timer task to run after specified time interval to get active nodes last persisted state
      *
@@ -273,11 +389,11 @@ public class HAManager {
         String url = "http://%s:%d/ha/state";
         URI baseURI = URI.create(String.format(url, activeNodeHost, Integer.parseInt(activeNodePort)));
         String httpResponseMessage = RequestUtil.sendRequest(baseURI);
+        HAStateSyncObject haStateSyncObject = null;
         if (httpResponseMessage != null) {
-            return new Gson().fromJson(httpResponseMessage, HAStateSyncObject.class);
-        } else {
-            return new HAStateSyncObject(false);
+            haStateSyncObject = new Gson().fromJson(httpResponseMessage, HAStateSyncObject.class);
         }
+        return haStateSyncObject != null ? haStateSyncObject : new HAStateSyncObject(false);
     }
 
     /**
@@ -295,6 +411,27 @@ public class HAManager {
                 activeNodeHost = (String) activeNodeHostAndPortMap.get("host");
                 activeNodePort = (String) activeNodeHostAndPortMap.get("port");
 
+                String streamUrl = "http://%s:%d/ha/stateStream/" + siddhiAppName;
+                URI streamURI = URI.create(String.format(streamUrl, activeNodeHost,
+                        Integer.parseInt(activeNodePort)));
+                Map<String, byte[]> snapshotMap = new HashMap<>();
+                int statusCode;
+                try {
+                    statusCode = RequestUtil.sendRequest(streamURI, StateTransferUtil.CONTENT_TYPE, content ->
+                            StateTransferUtil.readFrames(content, snapshotMap::put));
+                } catch (IOException e) {
+                    log.error("Passive Node: Error while reading the state stream of " + siddhiAppName +
+                            " from active node. " + e.getMessage(), e);
+                    return new HAStateSyncObject(false);
+                }
+                if (statusCode == 200) {
+                    return snapshotMap.containsKey(siddhiAppName) ? new HAStateSyncObject(snapshotMap) :
+                            new HAStateSyncObject(false);
+                } else if (statusCode != 404) {
+                    return new HAStateSyncObject(false);
+                }
+
+                // Active node does not support streaming the state
                 String url = "http://%s:%d/ha/state/" + siddhiAppName;
                 URI baseURI = URI.create(String.format(url, activeNodeHost, Integer.parseInt(activeNodePort)));
                 String httpResponseMessage = RequestUtil.sendRequest(baseURI);
@@ -19,10 +19,14 @@
 package org.wso2.carbon.stream.processor.core.ha;
 
 import com.google.gson.Gson;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.carbon.cluster.coordinator.service.ClusterCoordinator;
 import org.wso2.carbon.stream.processor.core.ha.util.CoordinationConstants;
+import org.wso2.carbon.stream.processor.core.ha.util.OutputSyncStreamUtil;
 import org.wso2.carbon.stream.processor.core.ha.util.RequestUtil;
 import org.wso2.carbon.stream.processor.core.model.OutputSyncTimestamps;
 import org.wso2.carbon.stream.processor.core.model.OutputSyncTimestampCollection;
@@ -31,11 +35,18 @@ import org.wso2.siddhi.core.stream.output.sink.SinkHandlerManager;
 import org.wso2.siddhi.core.table.record.RecordTableHandler;
 import org.wso2.siddhi.core.table.record.RecordTableHandlerManager;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
- * Class that manages the periodic calls the passive node makes to the active node to sync the publishers
+ * Class that manages the syncing of the publishers of the passive node with the active node.
+ * The passive node keeps a long lived connection to the active node, over which the active node pushes the timestamps
+ * of the sinks and record tables as they change, so that the passive node queues are trimmed continuously. While the
+ * connection is not available, the timestamps are periodically retrieved from the active node, or from the cluster
+ * coordinator when live state sync is disabled.
  */
 public class PassiveNodeOutputSyncManager implements Runnable {
 
@@ -47,32 +58,154 @@ public class PassiveNodeOutputSyncManager implements Runnable {
     private final ClusterCoordinator clusterCoordinator;
     private final SinkHandlerManager sinkHandlerManager;
     private final RecordTableHandlerManager recordTableHandlerManager;
+    private final int outputSyncInterval;
+    private final CloseableHttpClient httpClient;
+    private volatile boolean outputSyncStreamConnected = false;
+    private volatile boolean stopped = false;
+    private Thread outputSyncStreamThread;
 
     public PassiveNodeOutputSyncManager(ClusterCoordinator clusterCoordinator, SinkHandlerManager sinkHandlerManager,
                                         RecordTableHandlerManager recordTableHandlerManager, String host, String port,
-                                        boolean liveSyncEnabled) {
+                                        boolean liveSyncEnabled, int outputSyncInterval) {
         this.activeNodeHost = host;
         this.activeNodePort = port;
         this.liveSyncEnabled = liveSyncEnabled;
         this.clusterCoordinator = clusterCoordinator;
         this.sinkHandlerManager = sinkHandlerManager;
         this.recordTableHandlerManager = recordTableHandlerManager;
+        this.outputSyncInterval = outputSyncInterval;
+        // The active node sends a heartbeat at least once a second, so a silent connection is considered lost
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(outputSyncInterval)
+                .setSocketTimeout((int) (10 * OutputSyncStreamUtil.HEARTBEAT_INTERVAL_MILLIS))
+                .build();
+        this.httpClient = HttpClients.custom().setDefaultRequestConfig(requestConfig).build();
+    }
+
+    /**
+     * Starts the thread that keeps the output sync stream from the active node connected.
+     */
+    public void startOutputSyncStream() {
+        outputSyncStreamThread = new Thread(this::readOutputSyncStream, "PassiveNodeOutputSyncStream");
+        outputSyncStreamThread.setDaemon(true);
+        outputSyncStreamThread.start();
+    }
+
+    /**
+     * Stops syncing the publishers with the active node and releases the connections to it.
+     */
+    public void stop() {
+        stopped = true;
+        outputSyncStreamConnected = false;
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("Passive Node: Error while closing the connections to active node. " + e.getMessage(), e);
+        }
+        if (outputSyncStreamThread != null) {
+            outputSyncStreamThread.interrupt();
+        }
+    }
+
+    private void readOutputSyncStream() {
+        String url = "http://%s:%d/ha/outputSyncStream";
+        URI baseURI = URI.create(String.format(url, activeNodeHost, Integer.parseInt(activeNodePort)));
+        OutputSyncStreamUtil.OutputSyncTimestampHandler handler =
+                new OutputSyncStreamUtil.OutputSyncTimestampHandler() {
+                    @Override
+                    public void handleSinkTimestamp(String sinkHandlerElementId, long timestamp) {
+                        trimSinkQueue(sinkHandlerElementId, timestamp);
+                    }
+
+                    @Override
+                    public void handleRecordTableTimestamp(String recordTableHandlerElementId, long timestamp) {
+                        trimRecordTableQueue(recordTableHandlerElementId, timestamp);
+                    }
+                };
+        while (!stopped) {
+            int statusCode;
+            try {
+                statusCode = RequestUtil.sendRequest(httpClient, baseURI, OutputSyncStreamUtil.CONTENT_TYPE,
+                        content -> {
+                            outputSyncStreamConnected = true;
+                            log.info("Passive Node: Connected to the output sync stream of active node");
+                            OutputSyncStreamUtil.readBatches(content, handler);
+                        });
+            } catch (IOException e) {
+                statusCode = RequestUtil.REQUEST_FAILED;
+                if (!stopped) {
+                    log.warn("Passive Node: Connection to the output sync stream of active node lost. " +
+                            e.getMessage());
+                }
+            } finally {
+                outputSyncStreamConnected = false;
+            }
+            if (statusCode == 404) {
+                log.info("Passive Node: Active node does not support pushing output sync timestamps. " +
+                        "Timestamps will be retrieved every " + outputSyncInterval + " milliseconds");
+                return;
+            }
+            try {
+                Thread.sleep(outputSyncInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void trimSinkQueue(String sinkHandlerElementId, long timestamp) {
+        HACoordinationSinkHandler sinkHandler = (HACoordinationSinkHandler) sinkHandlerManager.
+                getRegisteredSinkHandlers().get(sinkHandlerElementId);
+        if (sinkHandler != null) {
+            sinkHandler.trimPassiveNodeEventQueue(timestamp);
+        } else if (log.isDebugEnabled()) {
+            //This might happen due to delays in deploying siddhi applications to both nodes
+            log.debug("Passive Node: Sink handler " + sinkHandlerElementId + " of active node is not registered");
+        }
+    }
+
+    private void trimRecordTableQueue(String recordTableHandlerElementId, long timestamp) {
+        HACoordinationRecordTableHandler recordTableHandler = (HACoordinationRecordTableHandler)
+                recordTableHandlerManager.getRegisteredRecordTableHandlers().get(recordTableHandlerElementId);
+        if (recordTableHandler != null) {
+            recordTableHandler.trimRecordTableEventQueue(timestamp);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Passive Node: Record table handler " + recordTableHandlerElementId + " of active node is " +
+                    "not registered");
+        }
     }
 
     @Override
     public void run() {
 
+        if (outputSyncStreamConnected || stopped) {
+            // Queues are trimmed as the active node pushes the timestamps
+            return;
+        }
+
         if (liveSyncEnabled) {
 
             String url = "http://%s:%d/ha/outputSyncTimestamps";
             URI baseURI = URI.create(String.format(url, activeNodeHost, Integer.parseInt(activeNodePort)));
-            String httpResponseMessage = RequestUtil.sendRequest(baseURI);
+            OutputSyncTimestampCollection[] response = new OutputSyncTimestampCollection[1];
+            try {
+                RequestUtil.sendRequest(httpClient, baseURI, "application/json", content ->
+                        response[0] = new Gson().fromJson(new InputStreamReader(content, StandardCharsets.UTF_8),
+                                OutputSyncTimestampCollection.class));
+            } catch (IOException | RuntimeException e) {
+                log.error("Passive Node: Error while reading last published timestamps of active node. " +
+                        e.getMessage(), e);
+                return;
+            }
             if (log.isDebugEnabled()) {
                 log.debug("Passive Node: Accessed active node to retrieve last published timestamps.");
             }
 
-            OutputSyncTimestampCollection outputSyncCollection = new Gson().fromJson(httpResponseMessage,
-                    OutputSyncTimestampCollection.class);
+            OutputSyncTimestampCollection outputSyncCollection = response[0];
+            if (outputSyncCollection == null) {
+                return;
+            }
 
             Map<String, SinkHandler> sinkHandlerMap = sinkHandlerManager.getRegisteredSinkHandlers();
 
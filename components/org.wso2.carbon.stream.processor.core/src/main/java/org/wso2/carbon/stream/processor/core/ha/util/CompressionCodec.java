@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core.ha.util;
+
+import java.io.IOException;
+
+/**
+ * Codec used to compress snapshots that are persisted or transferred to the passive node.
+ * Custom codecs can be plugged in by configuring the fully qualified name of the implementation class, which should
+ * have a public no-argument constructor and an ID that is not used by the built-in codecs of {@link CompressionUtil}.
+ */
+public interface CompressionCodec {
+
+    /**
+     * @return ID of the codec, which is written in the header of the compressed bytes
+     */
+    byte getId();
+
+    /**
+     * @return name of the codec
+     */
+    String getName();
+
+    byte[] compress(byte[] data) throws IOException;
+
+    /**
+     * Method that decompresses the given range of bytes, that was compressed by this codec.
+     *
+     * @param data   is the array holding the compressed bytes
+     * @param offset is the offset of the compressed bytes
+     * @param length is the length of the compressed bytes
+     * @return the decompressed bytes
+     * @throws IOException if the bytes cannot be decompressed
+     */
+    byte[] decompress(byte[] data, int offset, int length) throws IOException;
+}
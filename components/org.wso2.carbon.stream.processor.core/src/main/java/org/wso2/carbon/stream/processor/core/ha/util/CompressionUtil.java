@@ -21,18 +21,140 @@ package org.wso2.carbon.stream.processor.core.ha.util;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 
 /**
  * CompressionUtil class that holds compression and decompression algorithms.
+ * Bytes compressed with {@link #compress(byte[], CompressionCodec)} start with a header that identifies the codec, so
+ * that {@link #decompress(byte[])} can restore bytes compressed with any codec, as well as uncompressed bytes and
+ * bytes compressed with {@link #compressGZIP(byte[])}.
  */
 public class CompressionUtil {
 
+    public static final String CODEC_NONE = "none";
+    public static final String CODEC_GZIP = "gzip";
+    public static final String CODEC_DEFLATE = "deflate";
+
+    private static final byte[] HEADER = {(byte) 0xC0, (byte) 0xDE};
+    private static final int HEADER_LENGTH = HEADER.length + 1;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int GZIP_TRAILER_LENGTH = 8;
+    private static final int BUFFER_SIZE = 8192;
+    // Deflate cannot expand bytes by more than 1032 times, so a recorded length above this ratio is corrupt
+    private static final int MAX_COMPRESSION_RATIO = 1032;
+    private static final int MAX_INITIAL_CAPACITY = 64 * 1024 * 1024;
+
+    private static final CompressionCodec NONE = new NoneCodec();
+    private static final CompressionCodec GZIP = new GZIPCodec();
+    private static final Map<String, CompressionCodec> codecsByName = new ConcurrentHashMap<>();
+    private static final Map<Byte, CompressionCodec> codecsById = new ConcurrentHashMap<>();
+
+    static {
+        register(NONE);
+        register(GZIP);
+        register(new DeflateCodec());
+    }
+
+    private static void register(CompressionCodec codec) {
+        codecsByName.put(codec.getName().toLowerCase(Locale.ENGLISH), codec);
+        codecsById.put(codec.getId(), codec);
+    }
+
+    /**
+     * Method that returns the codec with the given name. If it is not one of the built-in codecs, the name is
+     * treated as the class name of a {@link CompressionCodec} implementation.
+     *
+     * @param name is the name of the codec or the class name of a custom codec
+     * @return the codec
+     * @throws IllegalArgumentException if no codec can be resolved for the given name
+     */
+    public static synchronized CompressionCodec getCodec(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        CompressionCodec codec = codecsByName.get(name.toLowerCase(Locale.ENGLISH));
+        if (codec != null) {
+            return codec;
+        }
+        try {
+            codec = (CompressionCodec) Class.forName(name).newInstance();
+        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | ClassCastException e) {
+            throw new IllegalArgumentException("Compression codec " + name + " is invalid. Valid codecs are " +
+                    CODEC_NONE + ", " + CODEC_GZIP + ", " + CODEC_DEFLATE + " or the class name of a " +
+                    CompressionCodec.class.getName() + " implementation.", e);
+        }
+        CompressionCodec registeredCodec = codecsById.get(codec.getId());
+        if (registeredCodec != null && !registeredCodec.getClass().equals(codec.getClass())) {
+            throw new IllegalArgumentException("ID " + codec.getId() + " of compression codec " + name +
+                    " is already used by the codec " + registeredCodec.getName());
+        }
+        codecsByName.put(name.toLowerCase(Locale.ENGLISH), codec);
+        register(codec);
+        return codec;
+    }
+
+    /**
+     * Method that compresses the given bytes with the given codec. Bytes are returned as they are when the codec is
+     * {@link #CODEC_NONE}, and GZIP bytes are returned without a header as they are identified by the GZIP magic
+     * number, which keeps them readable by nodes that only support {@link #decompressGZIP(byte[])}.
+     *
+     * @param data  is the bytes to compress
+     * @param codec is the codec to compress with
+     * @return the compressed bytes
+     * @throws IOException if the bytes cannot be compressed
+     */
+    public static byte[] compress(byte[] data, CompressionCodec codec) throws IOException {
+        if (data == null || codec == null || codec.getId() == NONE.getId()) {
+            return data;
+        }
+        if (codec.getId() == GZIP.getId()) {
+            return compressGZIP(data);
+        }
+        byte[] compressed = codec.compress(data);
+        byte[] framed = new byte[HEADER_LENGTH + compressed.length];
+        System.arraycopy(HEADER, 0, framed, 0, HEADER.length);
+        framed[HEADER.length] = codec.getId();
+        System.arraycopy(compressed, 0, framed, HEADER_LENGTH, compressed.length);
+        return framed;
+    }
+
+    /**
+     * Method that decompresses bytes compressed with any of the codecs. Bytes without a header are decompressed
+     * with GZIP if they start with the GZIP magic number, and are returned as they are otherwise.
+     *
+     * @param data is the bytes to decompress
+     * @return the decompressed bytes
+     * @throws IOException if the bytes cannot be decompressed
+     */
+    public static byte[] decompress(byte[] data) throws IOException {
+        if (data == null) {
+            return null;
+        }
+        if (data.length >= HEADER_LENGTH && data[0] == HEADER[0] && data[1] == HEADER[1]) {
+            byte codecId = data[HEADER.length];
+            CompressionCodec codec = codecsById.get(codecId);
+            if (codec == null) {
+                throw new IOException("Bytes are compressed with an unknown codec of ID " + codecId);
+            }
+            return codec.decompress(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+        }
+        if (isGZIP(data)) {
+            return decompressGZIP(data, 0, data.length);
+        }
+        return data;
+    }
+
     public static byte[] compressGZIP(byte[] data) throws IOException {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        GZIPOutputStream gzip = new GZIPOutputStream(byteArrayOutputStream);
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(Math.max(data.length / 4, 32));
+        GZIPOutputStream gzip = new GZIPOutputStream(byteArrayOutputStream, BUFFER_SIZE);
         gzip.write(data);
         gzip.close();
         byteArrayOutputStream.close();
@@ -40,17 +162,200 @@ public class CompressionUtil {
     }
 
     public static byte[] decompressGZIP(byte[] data) throws IOException {
-        byte[] uncompressedBytes = new byte[1000000];
-        InputStream inputStream = new ByteArrayInputStream(data);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        return decompressGZIP(data, 0, data.length);
+    }
+
+    private static boolean isGZIP(byte[] data) {
+        return data.length >= GZIP_TRAILER_LENGTH && ((data[0] & 0xff) | ((data[1] & 0xff) << 8)) == GZIP_MAGIC;
+    }
 
-        GZIPInputStream gzip = new GZIPInputStream(inputStream);
-        int len;
-        while ((len = gzip.read(uncompressedBytes)) > 0) {
-            out.write(uncompressedBytes, 0, len);
+    /**
+     * Method that decompresses GZIP bytes directly in to an array sized from the length recorded in the GZIP
+     * trailer, so that the decompressed bytes are not copied again unless the recorded length is wrong. The recorded
+     * length is only a hint, as it comes from the received bytes, and the array grows as needed.
+     */
+    private static byte[] decompressGZIP(byte[] data, int offset, int length) throws IOException {
+        int expectedLength = 0;
+        if (length >= GZIP_TRAILER_LENGTH) {
+            int trailerOffset = offset + length - 4;
+            expectedLength = (data[trailerOffset] & 0xff) | ((data[trailerOffset + 1] & 0xff) << 8) |
+                    ((data[trailerOffset + 2] & 0xff) << 16) | ((data[trailerOffset + 3] & 0xff) << 24);
+        }
+        byte[] uncompressedBytes = new byte[expectedLength > 0 ? initialCapacity(expectedLength, length) :
+                initialCapacity(Math.max(length * 4, 32), length)];
+        int size = 0;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data, offset, length),
+                BUFFER_SIZE)) {
+            int len;
+            while ((len = gzip.read(uncompressedBytes, size, uncompressedBytes.length - size)) >= 0) {
+                size += len;
+                if (size == uncompressedBytes.length) {
+                    int next = gzip.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    uncompressedBytes = Arrays.copyOf(uncompressedBytes, growCapacity(uncompressedBytes.length));
+                    uncompressedBytes[size++] = (byte) next;
+                }
+            }
+        }
+        return size == uncompressedBytes.length ? uncompressedBytes : Arrays.copyOf(uncompressedBytes, size);
+    }
+
+    /**
+     * Method that bounds the array allocated for a recorded uncompressed length by the largest length the compressed
+     * bytes can expand to and by {@link #MAX_INITIAL_CAPACITY}, so that corrupt bytes cannot exhaust the heap.
+     */
+    private static int initialCapacity(int recordedLength, int compressedLength) {
+        long maxLength = Math.min((long) compressedLength * MAX_COMPRESSION_RATIO, MAX_INITIAL_CAPACITY);
+        return (int) Math.max(Math.min(recordedLength, maxLength), 32);
+    }
+
+    private static int growCapacity(int capacity) {
+        if (capacity >= Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("Decompressed bytes are too large to be held in an array");
+        }
+        return (int) Math.min((long) capacity * 2 + 1, Integer.MAX_VALUE - 8);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16) |
+                ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    /**
+     * Codec that leaves the bytes uncompressed.
+     */
+    private static class NoneCodec implements CompressionCodec {
+
+        @Override
+        public byte getId() {
+            return 0;
+        }
+
+        @Override
+        public String getName() {
+            return CODEC_NONE;
+        }
+
+        @Override
+        public byte[] compress(byte[] data) {
+            return data;
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int offset, int length) {
+            return Arrays.copyOfRange(data, offset, offset + length);
+        }
+    }
+
+    /**
+     * Codec that compresses with GZIP.
+     */
+    private static class GZIPCodec implements CompressionCodec {
+
+        @Override
+        public byte getId() {
+            return 1;
+        }
+
+        @Override
+        public String getName() {
+            return CODEC_GZIP;
+        }
+
+        @Override
+        public byte[] compress(byte[] data) throws IOException {
+            return compressGZIP(data);
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int offset, int length) throws IOException {
+            return decompressGZIP(data, offset, length);
+        }
+    }
+
+    /**
+     * Codec that compresses with raw deflate at the fastest compression level. The uncompressed length is written
+     * ahead of the deflated bytes, so that they are inflated directly in to an array of the exact size. Lengths
+     * beyond {@link #MAX_INITIAL_CAPACITY} are only allocated as the inflated bytes reach them.
+     */
+    private static class DeflateCodec implements CompressionCodec {
+
+        private static final int LENGTH_PREFIX = 4;
+
+        @Override
+        public byte getId() {
+            return 2;
+        }
+
+        @Override
+        public String getName() {
+            return CODEC_DEFLATE;
+        }
+
+        @Override
+        public byte[] compress(byte[] data) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+                byte[] compressedBytes = new byte[LENGTH_PREFIX + Math.max(data.length / 2, 64)];
+                writeInt(compressedBytes, 0, data.length);
+                int size = LENGTH_PREFIX;
+                while (!deflater.finished()) {
+                    if (size == compressedBytes.length) {
+                        compressedBytes = Arrays.copyOf(compressedBytes, growCapacity(compressedBytes.length));
+                    }
+                    size += deflater.deflate(compressedBytes, size, compressedBytes.length - size);
+                }
+                return Arrays.copyOf(compressedBytes, size);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int offset, int length) throws IOException {
+            if (length < LENGTH_PREFIX) {
+                throw new IOException("Deflated bytes are truncated");
+            }
+            int uncompressedLength = readInt(data, offset);
+            int deflatedLength = length - LENGTH_PREFIX;
+            if (uncompressedLength < 0 || uncompressedLength > (long) deflatedLength * MAX_COMPRESSION_RATIO) {
+                throw new IOException("Invalid uncompressed length " + uncompressedLength + " for " +
+                        deflatedLength + " deflated bytes");
+            }
+            byte[] uncompressedBytes = new byte[Math.min(uncompressedLength, MAX_INITIAL_CAPACITY)];
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(data, offset + LENGTH_PREFIX, deflatedLength);
+                int size = 0;
+                while (size < uncompressedLength) {
+                    if (size == uncompressedBytes.length) {
+                        uncompressedBytes = Arrays.copyOf(uncompressedBytes,
+                                (int) Math.min((long) size * 2, uncompressedLength));
+                    }
+                    int len = inflater.inflate(uncompressedBytes, size, uncompressedBytes.length - size);
+                    if (len == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Deflated bytes are truncated, inflated " + size + " of " +
+                                uncompressedLength + " bytes");
+                    }
+                    size += len;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Deflated bytes are corrupted", e);
+            } finally {
+                inflater.end();
+            }
+            return uncompressedBytes;
         }
-        gzip.close();
-        inputStream.close();
-        return out.toByteArray();
     }
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core.ha.util;
+
+import org.wso2.siddhi.core.event.Event;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preallocated bounded ring buffer of events that overwrites the oldest event when it is full.
+ * Events are added by a single writer thread, and can be concurrently polled and trimmed by other threads without
+ * locking. Writer and readers coordinate through the head sequence, which is only ever moved forward with a
+ * compare-and-set, so that a reader never hands out an event whose slot has been overwritten.
+ */
+public class EventRingBuffer extends AbstractQueue<Event> {
+
+    private final Event[] buffer;
+    private final int capacity;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public EventRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity of the event ring buffer should be positive, but found "
+                    + capacity);
+        }
+        this.capacity = capacity;
+        this.buffer = new Event[capacity];
+    }
+
+    /**
+     * Adds the event, overwriting the oldest event if the buffer is full. Should only be called by the writer.
+     *
+     * @param event the event to add
+     * @return always true
+     */
+    @Override
+    public boolean offer(Event event) {
+        if (event == null) {
+            throw new NullPointerException("Event cannot be null");
+        }
+        long currentTail = tail.get();
+        // The oldest slot is released before it is overwritten
+        release(currentTail + 1 - capacity);
+        buffer[index(currentTail)] = event;
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Adds the events in order, overwriting the oldest events if the buffer does not have enough space. Only the
+     * last events that fit in to the buffer are retained if more events than the capacity are given. Should only be
+     * called by the writer.
+     *
+     * @param events the events to add
+     */
+    public void offer(Event[] events) {
+        int offset = Math.max(events.length - capacity, 0);
+        int length = events.length - offset;
+        if (length == 0) {
+            return;
+        }
+        long currentTail = tail.get();
+        release(currentTail + length - capacity);
+        for (int i = 0; i < length; i++) {
+            buffer[index(currentTail + i)] = events[offset + i];
+        }
+        tail.lazySet(currentTail + length);
+    }
+
+    @Override
+    public Event poll() {
+        while (true) {
+            long currentHead = head.get();
+            if (currentHead >= tail.get()) {
+                return null;
+            }
+            Event event = buffer[index(currentHead)];
+            if (head.compareAndSet(currentHead, currentHead + 1)) {
+                return event;
+            }
+        }
+    }
+
+    @Override
+    public Event peek() {
+        while (true) {
+            long currentHead = head.get();
+            if (currentHead >= tail.get()) {
+                return null;
+            }
+            Event event = buffer[index(currentHead)];
+            if (head.get() == currentHead) {
+                return event;
+            }
+        }
+    }
+
+    /**
+     * Removes the events with a timestamp less than or equal to the given timestamp from the head of the buffer,
+     * stopping at the first newer event. Event timestamps are not guaranteed to be in order, so events after a newer
+     * event are retained even if they are older.
+     *
+     * @param timestamp the timestamp up to which events are removed
+     * @return the number of events removed
+     */
+    public int trim(long timestamp) {
+        while (true) {
+            long currentHead = head.get();
+            long currentTail = tail.get();
+            long sequence = currentHead;
+            while (sequence < currentTail && buffer[index(sequence)].getTimestamp() <= timestamp) {
+                sequence++;
+            }
+            if (sequence == currentHead || head.compareAndSet(currentHead, sequence)) {
+                return (int) (sequence - currentHead);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        while (true) {
+            long currentHead = head.get();
+            long currentTail = tail.get();
+            if (currentHead >= currentTail || head.compareAndSet(currentHead, currentTail)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(Math.min(size, capacity), 0);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the events buffered at the time the iterator was created. Events
+     * that are overwritten while iterating are skipped.
+     */
+    @Override
+    public Iterator<Event> iterator() {
+        long iteratorTail = tail.get();
+        return new Iterator<Event>() {
+            private long next = head.get();
+
+            @Override
+            public boolean hasNext() {
+                next = Math.max(next, head.get());
+                return next < iteratorTail;
+            }
+
+            @Override
+            public Event next() {
+                while (hasNext()) {
+                    Event event = buffer[index(next)];
+                    if (head.get() <= next) {
+                        next++;
+                        return event;
+                    }
+                }
+                throw new NoSuchElementException();
+            }
+        };
+    }
+
+    /**
+     * Moves the head forward to the given sequence, unless readers have already moved it further.
+     */
+    private void release(long sequence) {
+        long currentHead;
+        while ((currentHead = head.get()) < sequence) {
+            if (head.compareAndSet(currentHead, sequence)) {
+                return;
+            }
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % capacity);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core.ha.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Util class used to push the output sync timestamps of the active node to the passive node over a long lived
+ * connection. The stream starts with a header, followed by batches that hold the sinks and record tables whose
+ * timestamps changed since the previous batch. An empty batch is sent as a heartbeat when nothing changes.
+ */
+public class OutputSyncStreamUtil {
+
+    public static final String CONTENT_TYPE = "application/octet-stream";
+    public static final long HEARTBEAT_INTERVAL_MILLIS = 1000;
+
+    private static final int MAGIC = 0x53504f53;
+    private static final byte VERSION = 1;
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Writer of the batches of an output sync stream.
+     */
+    public static class OutputSyncStreamWriter {
+
+        private final DataOutputStream outputStream;
+
+        public OutputSyncStreamWriter(OutputStream outputStream) throws IOException {
+            this.outputStream = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+            this.outputStream.writeInt(MAGIC);
+            this.outputStream.writeByte(VERSION);
+            this.outputStream.flush();
+        }
+
+        /**
+         * Writes and flushes a batch of timestamps.
+         *
+         * @param sinkTimestamps        last published timestamps of the sinks that changed
+         * @param recordTableTimestamps last operation timestamps of the record tables that changed
+         * @throws IOException if the passive node is no longer connected
+         */
+        public void writeBatch(Map<String, Long> sinkTimestamps, Map<String, Long> recordTableTimestamps)
+                throws IOException {
+            writeTimestamps(sinkTimestamps);
+            writeTimestamps(recordTableTimestamps);
+            outputStream.flush();
+        }
+
+        private void writeTimestamps(Map<String, Long> timestamps) throws IOException {
+            outputStream.writeInt(timestamps.size());
+            for (Map.Entry<String, Long> timestamp : timestamps.entrySet()) {
+                outputStream.writeUTF(timestamp.getKey());
+                outputStream.writeLong(timestamp.getValue());
+            }
+        }
+    }
+
+    /**
+     * Handler of the timestamps read from an output sync stream.
+     */
+    public interface OutputSyncTimestampHandler {
+
+        void handleSinkTimestamp(String sinkHandlerElementId, long timestamp);
+
+        void handleRecordTableTimestamp(String recordTableHandlerElementId, long timestamp);
+    }
+
+    /**
+     * Method that reads an output sync stream until the active node closes it, and hands over each timestamp to the
+     * given handler as soon as its batch is read.
+     *
+     * @param inputStream is the output sync stream
+     * @param handler     is the handler of the timestamps
+     * @throws IOException if the stream is invalid, or the connection to the active node is lost
+     */
+    public static void readBatches(InputStream inputStream, OutputSyncTimestampHandler handler) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(inputStream, BUFFER_SIZE));
+        if (dataInputStream.readInt() != MAGIC) {
+            throw new IOException("Response of the active node is not an output sync stream");
+        }
+        byte version = dataInputStream.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported output sync stream version " + version);
+        }
+        while (true) {
+            int sinkCount;
+            try {
+                sinkCount = dataInputStream.readInt();
+            } catch (EOFException e) {
+                // Active node closed the stream in between two batches
+                return;
+            }
+            for (int i = 0; i < sinkCount; i++) {
+                handler.handleSinkTimestamp(dataInputStream.readUTF(), dataInputStream.readLong());
+            }
+            int recordTableCount = dataInputStream.readInt();
+            for (int i = 0; i < recordTableCount; i++) {
+                handler.handleRecordTableTimestamp(dataInputStream.readUTF(), dataInputStream.readLong());
+            }
+        }
+    }
+}
@@ -20,12 +20,15 @@ package org.wso2.carbon.stream.processor.core.ha.util;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.log4j.Logger;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 
@@ -36,6 +39,20 @@ public class RequestUtil {
 
     private static final Logger log = Logger.getLogger(RequestUtil.class);
 
+    /**
+     * Status returned by {@link #sendRequest(URI, String, ResponseStreamHandler)} when the request fails before a
+     * response is received.
+     */
+    public static final int REQUEST_FAILED = -1;
+
+    /**
+     * Handler of the content of a http response, which is read as a stream.
+     */
+    public interface ResponseStreamHandler {
+
+        void handleResponse(InputStream content) throws IOException;
+    }
+
     /**
      * Send http GET requests to specified uri
      *
@@ -66,11 +83,15 @@ public class RequestUtil {
         }
         try (BufferedReader br = new BufferedReader(new InputStreamReader((response.getEntity().getContent())))) {
             String output;
-            String content = null;
+            StringBuilder content = null;
             while ((output = br.readLine()) != null) {
-                content = output;
+                if (content == null) {
+                    content = new StringBuilder(output);
+                } else {
+                    content.append('\n').append(output);
+                }
             }
-            return content;
+            return content == null ? null : content.toString();
 
         } catch (IOException e) {
             log.error("Passive Node: Error occurred while reading response from Active Node using live" +
@@ -79,4 +100,60 @@ public class RequestUtil {
         return "";
     }
 
+    /**
+     * Send http GET requests to specified uri and hand over the content of a successful response to the handler as
+     * a stream, so that the response does not have to be held in memory.
+     *
+     * @param uri     the desired destination to which the http request should be sent
+     * @param accept  the content type accepted as the response
+     * @param handler the handler of the response content
+     * @return the http status code of the response, or {@link #REQUEST_FAILED} if the request could not be sent
+     * @throws IOException if the handler fails to read the response content
+     */
+    public static int sendRequest(URI uri, String accept, ResponseStreamHandler handler) throws IOException {
+        try (CloseableHttpClient client = HttpClients.createDefault()) {
+            return sendRequest(client, uri, accept, handler);
+        }
+    }
+
+    /**
+     * Send http GET requests to specified uri using the given client, so that its connections are reused, and hand
+     * over the content of a successful response to the handler as a stream.
+     *
+     * @param client  the client used to send the request
+     * @param uri     the desired destination to which the http request should be sent
+     * @param accept  the content type accepted as the response
+     * @param handler the handler of the response content
+     * @return the http status code of the response, or {@link #REQUEST_FAILED} if the request could not be sent
+     * @throws IOException if the handler fails to read the response content
+     */
+    public static int sendRequest(CloseableHttpClient client, URI uri, String accept, ResponseStreamHandler handler)
+            throws IOException {
+        HttpGet get = new HttpGet(uri);
+        get.addHeader("Accept", accept);
+        if (log.isDebugEnabled()) {
+            log.debug("Passive Node: Sending GET request to Active Node to URI " + uri);
+        }
+        CloseableHttpResponse response;
+        try {
+            response = client.execute(get);
+        } catch (IOException e) {
+            log.error("Passive Node: Error occurred while connecting to Active Node using live state sync.", e);
+            return REQUEST_FAILED;
+        }
+        try {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == 200) {
+                try (InputStream content = response.getEntity().getContent()) {
+                    handler.handleResponse(content);
+                }
+            } else if (log.isDebugEnabled()) {
+                log.debug("Passive Node: Active Node responded to URI " + uri + " with HTTP status " +
+                        statusCode + " " + response.getStatusLine().getReasonPhrase());
+            }
+            return statusCode;
+        } finally {
+            response.close();
+        }
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core.ha.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Util class used to stream the state of Siddhi Applications from the active node to the passive node.
+ * The stream starts with a header, followed by a length prefixed frame holding the compressed snapshot of each Siddhi
+ * Application, and ends with an end marker. Snapshots are written and read one frame at a time, so that neither node
+ * has to hold the state of all the Siddhi Applications in memory at once.
+ */
+public class StateTransferUtil {
+
+    public static final String CONTENT_TYPE = "application/octet-stream";
+
+    private static final int MAGIC = 0x53505354;
+    private static final byte VERSION = 1;
+    private static final int END_OF_STREAM = -1;
+    private static final int MAX_SIDDHI_APP_NAME_LENGTH = 65535;
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * Writer of the frames of a state stream.
+     */
+    public static class StateStreamWriter {
+
+        private final DataOutputStream outputStream;
+
+        public StateStreamWriter(OutputStream outputStream) throws IOException {
+            this.outputStream = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+            this.outputStream.writeInt(MAGIC);
+            this.outputStream.writeByte(VERSION);
+        }
+
+        public void writeFrame(String siddhiAppName, byte[] snapshot) throws IOException {
+            byte[] siddhiAppNameBytes = siddhiAppName.getBytes(StandardCharsets.UTF_8);
+            outputStream.writeInt(siddhiAppNameBytes.length);
+            outputStream.write(siddhiAppNameBytes);
+            outputStream.writeInt(snapshot.length);
+            outputStream.write(snapshot);
+        }
+
+        /**
+         * Writes the end marker and flushes the stream. A stream without the end marker is treated as truncated by
+         * the reader.
+         */
+        public void close() throws IOException {
+            outputStream.writeInt(END_OF_STREAM);
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Handler of the frames read from a state stream.
+     */
+    public interface StateFrameHandler {
+
+        void handleFrame(String siddhiAppName, byte[] snapshot) throws IOException;
+    }
+
+    /**
+     * Method that reads a state stream and hands over each frame to the given handler as soon as it is read.
+     *
+     * @param inputStream is the state stream
+     * @param handler     is the handler of the frames
+     * @return the number of frames read
+     * @throws IOException if the stream is invalid or truncated
+     */
+    public static int readFrames(InputStream inputStream, StateFrameHandler handler) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(inputStream, BUFFER_SIZE));
+        try {
+            if (dataInputStream.readInt() != MAGIC) {
+                throw new IOException("Response of the active node is not a state stream");
+            }
+            byte version = dataInputStream.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported state stream version " + version);
+            }
+            int frameCount = 0;
+            int siddhiAppNameLength;
+            while ((siddhiAppNameLength = dataInputStream.readInt()) != END_OF_STREAM) {
+                if (siddhiAppNameLength < 0 || siddhiAppNameLength > MAX_SIDDHI_APP_NAME_LENGTH) {
+                    throw new IOException("Invalid Siddhi Application name length " + siddhiAppNameLength +
+                            " in state stream");
+                }
+                byte[] siddhiAppNameBytes = new byte[siddhiAppNameLength];
+                dataInputStream.readFully(siddhiAppNameBytes);
+                String siddhiAppName = new String(siddhiAppNameBytes, StandardCharsets.UTF_8);
+                int snapshotLength = dataInputStream.readInt();
+                if (snapshotLength < 0) {
+                    throw new IOException("Invalid snapshot length " + snapshotLength + " of Siddhi Application " +
+                            siddhiAppName + " in state stream");
+                }
+                byte[] snapshot = new byte[snapshotLength];
+                dataInputStream.readFully(snapshot);
+                handler.handleFrame(siddhiAppName, snapshot);
+                frameCount++;
+            }
+            return frameCount;
+        } catch (EOFException e) {
+            throw new IOException("State stream from the active node is truncated", e);
+        }
+    }
+}
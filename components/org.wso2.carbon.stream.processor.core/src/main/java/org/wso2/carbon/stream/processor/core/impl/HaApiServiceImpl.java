@@ -23,7 +23,11 @@ import org.wso2.carbon.stream.processor.core.api.*;
 import org.wso2.carbon.stream.processor.core.api.NotFoundException;
 import org.wso2.carbon.stream.processor.core.ha.HACoordinationRecordTableHandler;
 import org.wso2.carbon.stream.processor.core.ha.HACoordinationSinkHandler;
+import org.wso2.carbon.stream.processor.core.ha.HAManager;
+import org.wso2.carbon.stream.processor.core.ha.util.CompressionCodec;
 import org.wso2.carbon.stream.processor.core.ha.util.CompressionUtil;
+import org.wso2.carbon.stream.processor.core.ha.util.OutputSyncStreamUtil;
+import org.wso2.carbon.stream.processor.core.ha.util.StateTransferUtil;
 import org.wso2.carbon.stream.processor.core.internal.SiddhiAppData;
 import org.wso2.carbon.stream.processor.core.internal.StreamProcessorDataHolder;
 import org.wso2.carbon.stream.processor.core.model.HAStateSyncObject;
@@ -36,10 +40,12 @@ import org.wso2.siddhi.core.table.record.RecordTableHandlerManager;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 /**
  * Implementation of HA Api Service
@@ -91,17 +97,82 @@ public class HaApiServiceImpl extends HaApiService {
                 lastRecordTableOperationTimestamp)).build();
     }
 
+    /**
+     * Keeps the connection of the passive node open while this node is the active node, and pushes the timestamps of
+     * the sinks and record tables that changed since the last push, every output sync push interval. A heartbeat is
+     * pushed when nothing changes, so that a lost connection is detected by both nodes.
+     */
+    @Override
+    public Response haOutputSyncStreamGet() throws NotFoundException {
+        long pushInterval = Math.max(StreamProcessorDataHolder.getDeploymentConfig().getOutputSyncPushInterval(), 1);
+        StreamingOutput outputSyncStream = outputStream -> {
+            OutputSyncStreamUtil.OutputSyncStreamWriter writer =
+                    new OutputSyncStreamUtil.OutputSyncStreamWriter(outputStream);
+            Map<String, Long> lastSentSinkTimestamps = new HashMap<>();
+            Map<String, Long> lastSentRecordTableTimestamps = new HashMap<>();
+            long lastSentTime = System.currentTimeMillis();
+            log.info("Active Node: Pushing output sync timestamps to passive node");
+            while (isActiveNode()) {
+                Map<String, Long> sinkTimestamps = new HashMap<>();
+                for (Map.Entry<String, SinkHandler> sinkHandlerMap : StreamProcessorDataHolder.
+                        getSinkHandlerManager().getRegisteredSinkHandlers().entrySet()) {
+                    long timestamp = ((HACoordinationSinkHandler) sinkHandlerMap.getValue()).
+                            getActiveNodeLastPublishedTimestamp();
+                    Long lastSentTimestamp = lastSentSinkTimestamps.put(sinkHandlerMap.getKey(), timestamp);
+                    if (lastSentTimestamp == null || lastSentTimestamp != timestamp) {
+                        sinkTimestamps.put(sinkHandlerMap.getKey(), timestamp);
+                    }
+                }
+                Map<String, Long> recordTableTimestamps = new HashMap<>();
+                for (Map.Entry<String, RecordTableHandler> recordTableHandlerMap : StreamProcessorDataHolder.
+                        getRecordTableHandlerManager().getRegisteredRecordTableHandlers().entrySet()) {
+                    long timestamp = ((HACoordinationRecordTableHandler) recordTableHandlerMap.getValue()).
+                            getActiveNodeLastOperationTimestamp();
+                    Long lastSentTimestamp = lastSentRecordTableTimestamps.put(recordTableHandlerMap.getKey(),
+                            timestamp);
+                    if (lastSentTimestamp == null || lastSentTimestamp != timestamp) {
+                        recordTableTimestamps.put(recordTableHandlerMap.getKey(), timestamp);
+                    }
+                }
+                long currentTime = System.currentTimeMillis();
+                if (!sinkTimestamps.isEmpty() || !recordTableTimestamps.isEmpty() ||
+                        currentTime - lastSentTime >= OutputSyncStreamUtil.HEARTBEAT_INTERVAL_MILLIS) {
+                    // Fails once the passive node disconnects, which releases this thread
+                    writer.writeBatch(sinkTimestamps, recordTableTimestamps);
+                    lastSentTime = currentTime;
+                    if (log.isDebugEnabled()) {
+                        log.debug("Active Node: Pushed timestamps of " + sinkTimestamps.size() + " sinks and " +
+                                recordTableTimestamps.size() + " record tables to passive node");
+                    }
+                }
+                try {
+                    Thread.sleep(pushInterval);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        };
+        return Response.ok(outputSyncStream, OutputSyncStreamUtil.CONTENT_TYPE).build();
+    }
+
+    private boolean isActiveNode() {
+        HAManager haManager = StreamProcessorDataHolder.getHAManager();
+        return haManager != null && haManager.isActiveNode();
+    }
+
     @Override
     public Response haStateGet() throws NotFoundException, IOException {
 
         Map<String, Long> sourceTimestamps = new HashMap<>();
         Map<String, byte[]> snapshotMap = new HashMap<>();
         try {
+            CompressionCodec compressionCodec = getStateSyncCompressionCodec();
             Map<String, SiddhiAppData> siddhiAppMap = StreamProcessorDataHolder.getStreamProcessorService().
                     getSiddhiAppMap();
             for (Map.Entry<String, SiddhiAppData> siddhiAppMapEntry : siddhiAppMap.entrySet()) {
-                byte[] compressedArray = CompressionUtil.compressGZIP(siddhiAppMapEntry.getValue().
-                        getSiddhiAppRuntime().snapshot());
+                byte[] compressedArray = CompressionUtil.compress(siddhiAppMapEntry.getValue().
+                        getSiddhiAppRuntime().snapshot(), compressionCodec);
                 snapshotMap.put(siddhiAppMapEntry.getKey(), compressedArray);
             }
         } catch (Exception e) {
@@ -122,7 +193,7 @@ public class HaApiServiceImpl extends HaApiService {
                     get(siddhiAppName);
             if (siddhiAppData != null) {
                 byte[] snapshot = siddhiAppData.getSiddhiAppRuntime().snapshot();
-                byte[] compressedArray = CompressionUtil.compressGZIP(snapshot);
+                byte[] compressedArray = CompressionUtil.compress(snapshot, getStateSyncCompressionCodec());
                 snapshotMap.put(siddhiAppName, compressedArray);
             } else {
                 log.warn("Siddhi application " + siddhiAppName + " may not be deployed in active node yet but " +
@@ -138,4 +209,67 @@ public class HaApiServiceImpl extends HaApiService {
         log.info("Active Node: Snapshoting of " + siddhiAppName + " on request of passive node successfull");
         return Response.ok().entity(new HAStateSyncObject(snapshotMap)).build();
     }
+
+    @Override
+    public Response haStateStreamGet() throws NotFoundException {
+        Map<String, SiddhiAppData> siddhiAppMap = StreamProcessorDataHolder.getStreamProcessorService().
+                getSiddhiAppMap();
+        return streamState(new ArrayList<>(siddhiAppMap.keySet()));
+    }
+
+    @Override
+    public Response haStateStreamGet(String siddhiAppName) throws NotFoundException {
+        if (!StreamProcessorDataHolder.getStreamProcessorService().getSiddhiAppMap().containsKey(siddhiAppName)) {
+            log.warn("Siddhi application " + siddhiAppName + " may not be deployed in active node yet but " +
+                    "requested for snapshot from passive node");
+        }
+        return streamState(Collections.singletonList(siddhiAppName));
+    }
+
+    /**
+     * Method that streams the snapshots of the given Siddhi Applications one at a time, so that only the snapshot
+     * being written is held in memory. Siddhi Applications that are not deployed are left out of the stream.
+     *
+     * @param siddhiAppNames names of the Siddhi Applications whose state to stream
+     * @return the response streaming the state
+     */
+    private Response streamState(List<String> siddhiAppNames) {
+        CompressionCodec compressionCodec = getStateSyncCompressionCodec();
+        StreamingOutput stateStream = outputStream -> {
+            StateTransferUtil.StateStreamWriter writer = new StateTransferUtil.StateStreamWriter(outputStream);
+            Map<String, SiddhiAppData> siddhiAppMap = StreamProcessorDataHolder.getStreamProcessorService().
+                    getSiddhiAppMap();
+            int streamedSiddhiApps = 0;
+            for (String siddhiAppName : siddhiAppNames) {
+                SiddhiAppData siddhiAppData = siddhiAppMap.get(siddhiAppName);
+                if (siddhiAppData == null) {
+                    continue;
+                }
+                try {
+                    writer.writeFrame(siddhiAppName, CompressionUtil.compress(siddhiAppData.getSiddhiAppRuntime().
+                            snapshot(), compressionCodec));
+                } catch (RuntimeException | IOException e) {
+                    // The end marker is not written, so that the passive node discards the truncated stream
+                    log.error("Error while streaming the snapshot of " + siddhiAppName + " to passive node. " +
+                            e.getMessage(), e);
+                    throw new IOException("Error while streaming the snapshot of " + siddhiAppName, e);
+                }
+                streamedSiddhiApps++;
+            }
+            writer.close();
+            log.info("Active Node: Streaming of the state of " + streamedSiddhiApps + " Siddhi Applications on " +
+                    "request of passive node successful");
+        };
+        return Response.ok(stateStream, StateTransferUtil.CONTENT_TYPE).build();
+    }
+
+    private CompressionCodec getStateSyncCompressionCodec() {
+        String codecName = StreamProcessorDataHolder.getDeploymentConfig().getStateSyncCompression();
+        try {
+            return CompressionUtil.getCodec(codecName);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid compression codec " + codecName + " set for state sync. GZIP will be used.", e);
+            return CompressionUtil.getCodec(CompressionUtil.CODEC_GZIP);
+        }
+    }
 }
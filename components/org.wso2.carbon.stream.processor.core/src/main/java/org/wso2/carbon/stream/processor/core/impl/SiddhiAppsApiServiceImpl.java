@@ -32,6 +32,8 @@ import org.wso2.carbon.stream.processor.core.model.SiddhiAppContent;
 import org.wso2.carbon.stream.processor.core.model.SiddhiAppMetrics;
 import org.wso2.carbon.stream.processor.core.model.SiddhiAppRevision;
 import org.wso2.carbon.stream.processor.core.model.SiddhiAppStatus;
+import org.wso2.carbon.stream.processor.core.persistence.PersistenceManager;
+import org.wso2.carbon.stream.processor.core.persistence.PersistenceMetrics;
 import org.wso2.siddhi.core.SiddhiAppRuntime;
 import org.wso2.siddhi.core.util.snapshot.PersistenceReference;
 import org.wso2.siddhi.query.api.SiddhiApp;
@@ -44,6 +46,10 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 /**
@@ -54,6 +60,11 @@ import java.util.Map;
 public class SiddhiAppsApiServiceImpl extends SiddhiAppsApiService {
 
     private static final Logger log = LoggerFactory.getLogger(SiddhiAppsApiServiceImpl.class);
+    /**
+     * Time to wait for the state of a Siddhi app to be written to the persistence store before responding to a backup,
+     * which is kept below the default read timeout of the requests from the manager.
+     */
+    private static final long BACKUP_TIMEOUT_IN_SEC = 30;
 
     @Override
     public Response siddhiAppsPost(String body) throws NotFoundException {
@@ -229,6 +240,11 @@ public class SiddhiAppsApiServiceImpl extends SiddhiAppsApiService {
                     getSiddhiAppRuntime(appName);
             if (siddhiAppRuntime != null) {
                 PersistenceReference persistenceReference = siddhiAppRuntime.persist();
+                // The revision is written asynchronously, and has to be restorable once it is returned
+                Future<?> persistenceFuture = persistenceReference.getFuture();
+                if (persistenceFuture != null) {
+                    persistenceFuture.get(BACKUP_TIMEOUT_IN_SEC, TimeUnit.SECONDS);
+                }
                 SiddhiAppRevision siddhiAppRevision = new SiddhiAppRevision();
                 siddhiAppRevision.setrevision(persistenceReference.getRevision());
                 return Response.status(Response.Status.CREATED).entity(siddhiAppRevision).build();
@@ -238,6 +254,19 @@ public class SiddhiAppsApiServiceImpl extends SiddhiAppsApiService {
                                 "with provided name : " + appName));
                 status = Response.Status.NOT_FOUND;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while waiting for the state of Siddhi App : " + appName + " to be persisted", e);
+            jsonString = new Gson().
+                    toJson(new ApiResponseMessageWithCode(ApiResponseMessageWithCode.FILE_PROCESSING_ERROR,
+                            e.getMessage()));
+            status = Response.Status.INTERNAL_SERVER_ERROR;
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("State of Siddhi App : " + appName + " could not be persisted", e);
+            jsonString = new Gson().
+                    toJson(new ApiResponseMessageWithCode(ApiResponseMessageWithCode.FILE_PROCESSING_ERROR,
+                            "State could not be persisted: " + e.getMessage()));
+            status = Response.Status.INTERNAL_SERVER_ERROR;
         } catch (Exception e) {
             log.error("Exception occurred when backup the state for Siddhi App : " + appName, e);
             jsonString = new Gson().
@@ -303,6 +332,7 @@ public class SiddhiAppsApiServiceImpl extends SiddhiAppsApiService {
                         SiddhiAppMetrics appMetrics = new SiddhiAppMetrics();
                         appMetrics.setAge(age);
                         appMetrics.appName(siddhiAppFileEntry.getKey());
+                        appMetrics.persistence(getPersistenceMetrics(siddhiAppFileEntry.getKey()));
                         appMetrics.isStatEnabled(siddiAppData.getSiddhiAppRuntime().isStatsEnabled());
                         appMetrics.status(siddiAppData.isActive() ?
                                 SiddhiAppProcessorConstants.SIDDHI_APP_STATUS_ACTIVE :
@@ -321,6 +351,7 @@ public class SiddhiAppsApiServiceImpl extends SiddhiAppsApiService {
                         appMetrics.setAge(0);
                     }
                     appMetrics.appName(siddhiAppFileEntry.getKey());
+                    appMetrics.persistence(getPersistenceMetrics(siddhiAppFileEntry.getKey()));
                     if (siddiAppData.isActive()) {
                         appMetrics.isStatEnabled(siddiAppData.getSiddhiAppRuntime().isStatsEnabled());
                     } else {
@@ -340,6 +371,11 @@ public class SiddhiAppsApiServiceImpl extends SiddhiAppsApiService {
         }
     }
 
+    private PersistenceMetrics getPersistenceMetrics(String siddhiAppName) {
+        PersistenceManager persistenceManager = StreamProcessorDataHolder.getPersistenceManager();
+        return (persistenceManager != null) ? persistenceManager.getPersistenceMetrics(siddhiAppName) : null;
+    }
+
     @Override
     public Response siddhiAppMetricsEnable(String appFileName, boolean statsEnabled) throws NotFoundException {
         String
@@ -52,7 +52,9 @@ import org.wso2.siddhi.core.config.StatisticsConfiguration;
 import org.wso2.siddhi.core.util.SiddhiComponentActivator;
 import org.wso2.siddhi.core.util.persistence.PersistenceStore;
 
+import java.io.Closeable;
 import java.io.File;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -73,6 +75,8 @@ public class ServiceComponent {
     private ServiceRegistration serviceRegistration;
     private ScheduledFuture<?> scheduledFuture = null;
     private ScheduledExecutorService scheduledExecutorService = null;
+    private PersistenceManager persistenceManager = null;
+    private PersistenceStore persistenceStore = null;
     private boolean clusterComponentActivated;
     private boolean serviceComponentActivated;
 
@@ -95,7 +99,6 @@ public class ServiceComponent {
         SiddhiManager siddhiManager = new SiddhiManager();
         FileConfigManager fileConfigManager = new FileConfigManager(configProvider);
         siddhiManager.setConfigManager(fileConfigManager);
-        PersistenceStore persistenceStore;
         Map persistenceConfig = (Map) configProvider.getConfigurationObject(PersistenceConstants.STATE_PERSISTENCE_NS);
 
         if (persistenceConfig != null &&
@@ -129,11 +132,39 @@ public class ServiceComponent {
                     log.warn("Periodic persistence interval not set. Default value of one minute is used");
                 }
             }
+            Object workerPoolSize = persistenceConfig.get(PersistenceConstants.STATE_PERSISTENCE_WORKER_POOL_SIZE);
+            if (workerPoolSize == null || !(workerPoolSize instanceof Integer) || (int) workerPoolSize < 1) {
+                workerPoolSize = PersistenceConstants.DEFAULT_PERSISTENCE_WORKER_POOL_SIZE;
+                if (log.isDebugEnabled()) {
+                    log.debug("Periodic persistence worker pool size not set or invalid. Default value of " +
+                            workerPoolSize + " is used");
+                }
+            }
+            Map<String, Integer> siddhiAppIntervals = new HashMap<>();
+            Object siddhiAppIntervalsConfig = persistenceConfig.
+                    get(PersistenceConstants.STATE_PERSISTENCE_SIDDHI_APP_INTERVALS_IN_MIN);
+            if (siddhiAppIntervalsConfig instanceof Map) {
+                for (Object entry : ((Map) siddhiAppIntervalsConfig).entrySet()) {
+                    Map.Entry siddhiAppInterval = (Map.Entry) entry;
+                    if (siddhiAppInterval.getValue() instanceof Integer && (int) siddhiAppInterval.getValue() > 0) {
+                        siddhiAppIntervals.put(String.valueOf(siddhiAppInterval.getKey()),
+                                (Integer) siddhiAppInterval.getValue());
+                    } else {
+                        log.warn("Invalid periodic persistence interval set for Siddhi App " +
+                                siddhiAppInterval.getKey() + ". Default interval is used");
+                    }
+                }
+            }
             scheduledExecutorService = Executors.newScheduledThreadPool(1);
 
             if ((int) persistenceInterval > 0) {
-                scheduledFuture = scheduledExecutorService.scheduleAtFixedRate(new PersistenceManager(),
-                        (int) persistenceInterval, (int) persistenceInterval, TimeUnit.MINUTES);
+                persistenceManager = new PersistenceManager(persistenceStore, (int) workerPoolSize,
+                        (int) persistenceInterval, siddhiAppIntervals);
+                int tickInterval = PersistenceManager.getTickIntervalInMin((int) persistenceInterval,
+                        siddhiAppIntervals);
+                scheduledFuture = scheduledExecutorService.scheduleAtFixedRate(persistenceManager,
+                        tickInterval, tickInterval, TimeUnit.MINUTES);
+                StreamProcessorDataHolder.setPersistenceManager(persistenceManager);
             }
             StreamProcessorDataHolder.setIsPersistenceEnabled(true);
             log.info("Periodic state persistence started with an interval of " + persistenceInterval.toString() +
@@ -206,6 +237,19 @@ public class ServiceComponent {
     protected void stop() throws Exception {
         log.info("Service Component is deactivated");
 
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+        }
+
+        if (scheduledExecutorService != null) {
+            scheduledExecutorService.shutdown();
+        }
+
+        // Snapshots being written are completed before the Siddhi Apps they are taken from are shut down
+        if (persistenceManager != null) {
+            persistenceManager.shutdown();
+        }
+
         Map<String, SiddhiAppData> siddhiAppMap = StreamProcessorDataHolder.
                 getStreamProcessorService().getSiddhiAppMap();
         for (SiddhiAppData siddhiAppData : siddhiAppMap.values()) {
@@ -214,12 +258,8 @@ public class ServiceComponent {
             }
         }
 
-        if (scheduledFuture != null) {
-            scheduledFuture.cancel(false);
-        }
-
-        if (scheduledExecutorService != null) {
-            scheduledExecutorService.shutdown();
+        if (persistenceStore instanceof Closeable) {
+            ((Closeable) persistenceStore).close();
         }
 
         serviceRegistration.unregister();
@@ -28,6 +28,7 @@ import org.wso2.carbon.stream.processor.core.ha.HAInfo;
 import org.wso2.carbon.stream.processor.core.ha.HAManager;
 import org.wso2.carbon.stream.processor.core.internal.beans.DeploymentConfig;
 import org.wso2.carbon.stream.processor.core.internal.util.SiddhiAppProcessorConstants;
+import org.wso2.carbon.stream.processor.core.persistence.PersistenceManager;
 import org.wso2.siddhi.core.SiddhiManager;
 import org.wso2.siddhi.core.stream.input.source.SourceHandlerManager;
 import org.wso2.siddhi.core.stream.output.sink.SinkHandlerManager;
@@ -51,6 +52,7 @@ public class StreamProcessorDataHolder {
     private static HAInfo haInfo;
     private static DistributionService distributionService;
     private static RecordTableHandlerManager recordTableHandlerManager;
+    private static PersistenceManager persistenceManager;
     private CarbonRuntime carbonRuntime;
     private SiddhiAppProcessorConstants.RuntimeMode runtimeMode = SiddhiAppProcessorConstants.RuntimeMode.ERROR;
     private BundleContext bundleContext;
@@ -165,6 +167,14 @@ public class StreamProcessorDataHolder {
         StreamProcessorDataHolder.distributionService = distributionService;
     }
 
+    public static PersistenceManager getPersistenceManager() {
+        return persistenceManager;
+    }
+
+    public static void setPersistenceManager(PersistenceManager persistenceManager) {
+        StreamProcessorDataHolder.persistenceManager = persistenceManager;
+    }
+
     /**
      * Returns the CarbonRuntime service which gets set through a service component.
      *
@@ -181,8 +181,8 @@ public class StreamProcessorService {
                                             "Sync before deploying app");
                                 }
                                 try {
-                                    byte[] decompressGZIP = CompressionUtil.decompressGZIP(snapshot);
-                                    siddhiAppRuntime.restore(decompressGZIP);
+                                    byte[] decompressedSnapshot = CompressionUtil.decompress(snapshot);
+                                    siddhiAppRuntime.restore(decompressedSnapshot);
                                 } catch (IOException e) {
                                     log.error("Error Decompressing Bytes " + e.getMessage(), e);
                                 }
@@ -370,8 +370,8 @@ public class StreamProcessorService {
                 if (haStateSyncObject.hasState()) {
                     byte[] snapshot = haStateSyncObject.getSnapshotMap().get(siddhiAppName);
                     try {
-                        byte[] decompressGZIP = CompressionUtil.decompressGZIP(snapshot);
-                        siddhiAppRuntime.restore(decompressGZIP);
+                        byte[] decompressedSnapshot = CompressionUtil.decompress(snapshot);
+                        siddhiAppRuntime.restore(decompressedSnapshot);
                         siddhiAppRuntime.start();
                         siddhiAppData.setActive(true);
                         siddhiAppData.setSiddhiAppRuntime(siddhiAppRuntime);
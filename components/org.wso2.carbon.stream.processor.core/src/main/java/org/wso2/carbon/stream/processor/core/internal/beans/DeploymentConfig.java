@@ -27,10 +27,13 @@ public class DeploymentConfig {
     private String type;
     private LiveSyncConfig liveSync;
     private int outputSyncInterval = 60000;
+    private int outputSyncPushInterval = 100;
     private int stateSyncGracePeriod = 120000;
     private int sinkQueueCapacity = 20000;
     private int sourceQueueCapacity = 20000;
     private int retryAppSyncPeriod = 60000;
+    private String stateSyncCompression = "gzip";
+    private int stateSyncRestorePoolSize = 4;
 
     public String getType() {
         return type;
@@ -56,6 +59,14 @@ public class DeploymentConfig {
         this.outputSyncInterval = outputSyncInterval;
     }
 
+    public int getOutputSyncPushInterval() {
+        return outputSyncPushInterval;
+    }
+
+    public void setOutputSyncPushInterval(int outputSyncPushInterval) {
+        this.outputSyncPushInterval = outputSyncPushInterval;
+    }
+
     public int getStateSyncGracePeriod() {
         return stateSyncGracePeriod;
     }
@@ -87,4 +98,20 @@ public class DeploymentConfig {
     public void setRetryAppSyncPeriod(int retryAppSyncPeriod) {
         this.retryAppSyncPeriod = retryAppSyncPeriod;
     }
+
+    public String getStateSyncCompression() {
+        return stateSyncCompression;
+    }
+
+    public void setStateSyncCompression(String stateSyncCompression) {
+        this.stateSyncCompression = stateSyncCompression;
+    }
+
+    public int getStateSyncRestorePoolSize() {
+        return stateSyncRestorePoolSize;
+    }
+
+    public void setStateSyncRestorePoolSize(int stateSyncRestorePoolSize) {
+        this.stateSyncRestorePoolSize = stateSyncRestorePoolSize;
+    }
 }
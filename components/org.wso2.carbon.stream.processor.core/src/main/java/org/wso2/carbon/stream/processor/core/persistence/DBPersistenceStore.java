@@ -21,33 +21,53 @@ package org.wso2.carbon.stream.processor.core.persistence;
 import com.zaxxer.hikari.HikariDataSource;
 import org.apache.log4j.Logger;
 import org.wso2.carbon.datasource.core.exception.DataSourceException;
+import org.wso2.carbon.stream.processor.core.ha.util.CompressionCodec;
+import org.wso2.carbon.stream.processor.core.ha.util.CompressionUtil;
 import org.wso2.carbon.stream.processor.core.internal.StreamProcessorDataHolder;
 import org.wso2.carbon.stream.processor.core.persistence.exception.DatabaseUnsupportedException;
 import org.wso2.carbon.stream.processor.core.persistence.exception.DatasourceConfigurationException;
+import org.wso2.carbon.stream.processor.core.persistence.exception.PersistenceStoreException;
+import org.wso2.carbon.stream.processor.core.persistence.util.DeltaSnapshotHandler;
 import org.wso2.carbon.stream.processor.core.persistence.util.ExecutionInfo;
 import org.wso2.carbon.stream.processor.core.persistence.util.PersistenceConstants;
 import org.wso2.carbon.stream.processor.core.persistence.util.RDBMSConfiguration;
 import org.wso2.carbon.stream.processor.core.persistence.dto.RDBMSQueryConfigurationEntry;
 import org.wso2.siddhi.core.util.persistence.PersistenceStore;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Blob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.sql.DataSource;
 import javax.sql.rowset.serial.SerialBlob;
 
 /**
- * Implementation of Persistence Store that would persist snapshots to an RDBMS instance
+ * Implementation of Persistence Store that would persist snapshots to an RDBMS instance.
+ * When delta snapshots are enabled, revisions in between two full snapshots are persisted as deltas. When chunked
+ * snapshots are enabled, snapshots are streamed to and from a chunk table as a sequence of fixed size rows.
+ * Snapshots are compressed with the configured compression codec.
  */
 public class DBPersistenceStore implements PersistenceStore {
 
     private static final Logger log = Logger.getLogger(DBPersistenceStore.class);
     private static final String MSSQL_DATABASE_TYPE = "microsoft sql server";
     private static final String POSTGRES_DATABASE_TYPE = "postgresql";
+    private static final String MYSQL_DATABASE_TYPE = "mysql";
+    private static final String CHUNK_TABLE_SUFFIX = "_CHUNK";
+    private static final int CHUNK_INSERT_BATCH_SIZE = 16;
 
     private ExecutionInfo executionInfo;
     private String datasourceName;
@@ -55,44 +75,212 @@ public class DBPersistenceStore implements PersistenceStore {
     private String tableName;
     private int numberOfRevisionsToKeep;
     private String databaseType;
+    private DeltaSnapshotHandler deltaSnapshotHandler;
+    private CompressionCodec compressionCodec;
+    private boolean chunkedSnapshotEnabled;
+    private int chunkSize;
+    private final List<PendingRevision> pendingRevisions = new ArrayList<>();
+    private final ReentrantLock batchWriteLock = new ReentrantLock();
+    private final Map<String, Integer> revisionCounts = new ConcurrentHashMap<>();
+    private final AtomicLong saveCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
 
     @Override
     public void save(String siddhiAppName, String revision, byte[] snapshot) {
         createTableIfNotExist();
 
-        Connection con = null;
-        PreparedStatement stmt = null;
+        DeltaSnapshotHandler.PreparedSnapshot preparedSnapshot = null;
+        if (deltaSnapshotHandler.isEnabled()) {
+            preparedSnapshot = deltaSnapshotHandler.prepare(siddhiAppName, revision, snapshot);
+            snapshot = preparedSnapshot.getBytes();
+        }
+        try {
+            snapshot = CompressionUtil.compress(snapshot, compressionCodec);
+        } catch (IOException e) {
+            if (preparedSnapshot != null) {
+                deltaSnapshotHandler.invalidate(siddhiAppName);
+            }
+            throw new PersistenceStoreException("Error while compressing revision " + revision + " of siddhiApp: " +
+                    siddhiAppName + " with the codec " + compressionCodec.getName(), e);
+        }
+
+        PendingRevision pendingRevision = new PendingRevision(siddhiAppName, revision, snapshot, preparedSnapshot);
+        synchronized (pendingRevisions) {
+            pendingRevisions.add(pendingRevision);
+        }
+        // Revisions that are saved while another batch is being written are written together in the next batch
+        batchWriteLock.lock();
         try {
+            if (!pendingRevision.written) {
+                List<PendingRevision> batch;
+                synchronized (pendingRevisions) {
+                    batch = new ArrayList<>(pendingRevisions);
+                    pendingRevisions.clear();
+                }
+                writeBatch(batch);
+            }
+        } finally {
+            batchWriteLock.unlock();
+        }
+        if (pendingRevision.failure != null) {
+            throw new PersistenceStoreException("Cannot save the revision " + revision + " of siddhiApp: " +
+                    siddhiAppName + " to the database with datasource name " + datasourceName,
+                    pendingRevision.failure);
+        }
+    }
+
+    /**
+     * Method that writes a batch of revisions along with the clean up of old revisions in a single transaction.
+     * If the batch fails, each revision of it is written in a transaction of its own.
+     *
+     * @param batch is the list of revisions to be written
+     */
+    private void writeBatch(List<PendingRevision> batch) {
+        long startTime = System.currentTimeMillis();
+        Connection con;
+        try {
+            con = datasource.getConnection();
+        } catch (SQLException e) {
+            log.error("Cannot establish connection to datasource " + datasourceName + " while saving revisions " +
+                    getRevisions(batch), e);
+            completeRevisions(batch, e);
+            return;
+        }
+        try {
+            con.setAutoCommit(false);
             try {
-                con = datasource.getConnection();
+                writeRevisions(con, batch);
             } catch (SQLException e) {
-                log.error("Cannot establish connection to datasource " + datasourceName +
-                        " while saving revision " + revision, e);
-                return;
+                rollback(con, batch);
+                if (batch.size() == 1) {
+                    log.error("Error while saving revision " + getRevisions(batch) + " to the database with " +
+                            "datasource name " + datasourceName, e);
+                    completeRevisions(batch, e);
+                } else {
+                    log.warn("Error while saving the batch of revisions " + getRevisions(batch) + " to the " +
+                            "database with datasource name " + datasourceName + ". Revisions will be saved " +
+                            "individually.", e);
+                    for (PendingRevision pendingRevision : batch) {
+                        List<PendingRevision> singleRevision = Collections.singletonList(pendingRevision);
+                        try {
+                            writeRevisions(con, singleRevision);
+                        } catch (SQLException ex) {
+                            rollback(con, singleRevision);
+                            log.error("Error while saving revision " + pendingRevision.revision + " of the " +
+                                    "siddhiApp " + pendingRevision.siddhiAppName + " to the database with " +
+                                    "datasource name " + datasourceName, ex);
+                            completeRevisions(singleRevision, ex);
+                        }
+                    }
+                }
             }
-            con.setAutoCommit(false);
-            stmt = con.prepareStatement(executionInfo.getPreparedInsertStatement());
-            stmt.setString(1, siddhiAppName);
-            stmt.setString(2, revision);
-            if (databaseType.equals(POSTGRES_DATABASE_TYPE)) {
-                stmt.setBlob(3, new SerialBlob(snapshot));
+        } catch (SQLException e) {
+            log.error("Error while saving revisions " + getRevisions(batch) + " to the database with datasource " +
+                    "name " + datasourceName, e);
+            completeRevisions(batch, e);
+        } finally {
+            cleanupConnections(null, con);
+        }
+        long batchWriteTime = System.currentTimeMillis() - startTime;
+        long batches = batchCount.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug("Batch of " + batch.size() + " revisions written to the database with datasource " +
+                    datasourceName + " in " + batchWriteTime + " ms. " + saveCount.get() + " revisions saved in " +
+                    batches + " batches so far.");
+        }
+    }
+
+    private void writeRevisions(Connection con, List<PendingRevision> batch) throws SQLException {
+        insertRevisions(con, batch);
+        cleanOldRevisions(con, batch);
+        con.commit();
+        completeRevisions(batch, null);
+    }
+
+    private void insertRevisions(Connection con, List<PendingRevision> batch) throws SQLException {
+        PreparedStatement stmt = null;
+        PreparedStatement chunkStmt = null;
+        try {
+            if (chunkedSnapshotEnabled) {
+                stmt = con.prepareStatement(executionInfo.getPreparedInsertChunkedSnapshotStatement());
+                chunkStmt = con.prepareStatement(executionInfo.getPreparedInsertChunkStatement());
+                for (PendingRevision pendingRevision : batch) {
+                    stmt.setString(1, pendingRevision.siddhiAppName);
+                    stmt.setString(2, pendingRevision.revision);
+                    stmt.addBatch();
+                    insertChunks(chunkStmt, pendingRevision.siddhiAppName, pendingRevision.revision,
+                            pendingRevision.snapshot);
+                }
             } else {
-                Blob blob = con.createBlob();
-                blob.setBytes(1, snapshot);
-                stmt.setBlob(3, blob);
+                stmt = con.prepareStatement(executionInfo.getPreparedInsertStatement());
+                for (PendingRevision pendingRevision : batch) {
+                    stmt.setString(1, pendingRevision.siddhiAppName);
+                    stmt.setString(2, pendingRevision.revision);
+                    if (databaseType.equals(POSTGRES_DATABASE_TYPE)) {
+                        stmt.setBlob(3, new SerialBlob(pendingRevision.snapshot));
+                    } else {
+                        Blob blob = con.createBlob();
+                        blob.setBytes(1, pendingRevision.snapshot);
+                        stmt.setBlob(3, blob);
+                    }
+                    stmt.addBatch();
+                }
             }
-            stmt.executeUpdate();
-            con.commit();
-            if (log.isDebugEnabled()) {
-                log.debug("Periodic persistence of " + siddhiAppName + " persisted successfully.");
+            stmt.executeBatch();
+        } finally {
+            cleanupConnections(chunkStmt, null);
+            cleanupConnections(stmt, null);
+        }
+    }
+
+    /**
+     * Method that completes the revisions of a batch, releasing the threads waiting to save them.
+     *
+     * @param batch   is the list of revisions written
+     * @param failure is the error due to which the revisions could not be written, or null if they were written
+     */
+    private void completeRevisions(List<PendingRevision> batch, Exception failure) {
+        boolean written = failure == null;
+        for (PendingRevision pendingRevision : batch) {
+            if (pendingRevision.preparedSnapshot != null) {
+                if (written) {
+                    deltaSnapshotHandler.commit(pendingRevision.siddhiAppName, pendingRevision.preparedSnapshot);
+                } else {
+                    deltaSnapshotHandler.invalidate(pendingRevision.siddhiAppName);
+                }
             }
+            pendingRevision.failure = failure;
+            pendingRevision.written = true;
+            if (written) {
+                saveCount.incrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("Periodic persistence of " + pendingRevision.siddhiAppName + " persisted successfully.");
+                }
+            }
+        }
+    }
+
+    private void rollback(Connection con, List<PendingRevision> batch) {
+        for (PendingRevision pendingRevision : batch) {
+            // Revision counts are re-read from the database once a transaction is rolled back
+            revisionCounts.remove(pendingRevision.siddhiAppName);
+        }
+        try {
+            con.rollback();
         } catch (SQLException e) {
-            log.error("Error while saving revision" + revision + " of the siddhiApp " +
-                    siddhiAppName + " to the database with datasource name " + datasourceName, e);
-        } finally {
-            cleanupConnections(stmt, con);
+            log.error("Unable to rollback the transaction." + e.getMessage(), e);
         }
-        cleanOldRevisions(siddhiAppName);
+    }
+
+    private String getRevisions(List<PendingRevision> batch) {
+        StringBuilder revisions = new StringBuilder();
+        for (PendingRevision pendingRevision : batch) {
+            if (revisions.length() > 0) {
+                revisions.append(", ");
+            }
+            revisions.append(pendingRevision.revision);
+        }
+        return revisions.toString();
     }
 
     @Override
@@ -127,19 +315,49 @@ public class DBPersistenceStore implements PersistenceStore {
             } else {
                 tableName = String.valueOf(tableObject);
             }
+            Object chunkedSnapshotObject = configurationMap.get(PersistenceConstants.CHUNKED_SNAPSHOT_ENABLED);
+            chunkedSnapshotEnabled = chunkedSnapshotObject instanceof Boolean && (Boolean) chunkedSnapshotObject;
+            Object chunkSizeObject = configurationMap.get(PersistenceConstants.CHUNK_SIZE_IN_KB);
+            if (chunkSizeObject instanceof Integer && (int) chunkSizeObject > 0 &&
+                    (int) chunkSizeObject <= Integer.MAX_VALUE / 1024) {
+                chunkSize = (int) chunkSizeObject * 1024;
+            } else {
+                chunkSize = PersistenceConstants.DEFAULT_CHUNK_SIZE_IN_KB * 1024;
+                if (chunkedSnapshotEnabled && log.isDebugEnabled()) {
+                    log.debug("Chunk size for database system persistence not set or invalid. " +
+                            "Default chunk size will be used.");
+                }
+            }
 
         } else {
             datasourceName = PersistenceConstants.DEFAULT_DB_PERSISTENCE_DATASOURCE;
             tableName = PersistenceConstants.DEFAULT_DB_PERSISTENCE_TABLE_NAME;
+            chunkSize = PersistenceConstants.DEFAULT_CHUNK_SIZE_IN_KB * 1024;
             if (log.isDebugEnabled()) {
                 log.debug("Database system persistence config not set. Default config values will be used.");
             }
         }
+        deltaSnapshotHandler = new DeltaSnapshotHandler(configurationMap);
+        Object compressionCodecObject = configurationMap == null ? null :
+                configurationMap.get(PersistenceConstants.COMPRESSION_CODEC);
+        try {
+            compressionCodec = CompressionUtil.getCodec(compressionCodecObject == null ? null :
+                    String.valueOf(compressionCodecObject));
+        } catch (IllegalArgumentException e) {
+            compressionCodec = CompressionUtil.getCodec(CompressionUtil.CODEC_NONE);
+            log.error("Invalid compression codec set for database system persistence. Snapshots will not be " +
+                    "compressed.", e);
+        }
 
         try {
             datasource = (HikariDataSource) StreamProcessorDataHolder.getDataSourceService().
                     getDataSource(datasourceName);
-            databaseType = datasource.getConnection().getMetaData().getDatabaseProductName().toLowerCase();
+            Connection con = datasource.getConnection();
+            try {
+                databaseType = con.getMetaData().getDatabaseProductName().toLowerCase();
+            } finally {
+                cleanupConnections(null, con);
+            }
         } catch (DataSourceException e) {
             throw new DatasourceConfigurationException("Datasource " + datasourceName +
                     " is not defined to use for snapshot persistence.", e);
@@ -153,6 +371,27 @@ public class DBPersistenceStore implements PersistenceStore {
 
     @Override
     public byte[] load(String siddhiAppName, String revision) {
+        byte[] snapshot = loadRevision(siddhiAppName, revision);
+        if (DeltaSnapshotHandler.isDelta(snapshot)) {
+            try {
+                String baseRevision = DeltaSnapshotHandler.getBaseRevision(snapshot);
+                byte[] baseSnapshot = loadRevision(siddhiAppName, baseRevision);
+                if (baseSnapshot == null) {
+                    log.error("Base revision " + baseRevision + " of revision " + revision + " of siddhiApp: " +
+                            siddhiAppName + " is not available in the database with datasource " + datasourceName);
+                    return null;
+                }
+                snapshot = DeltaSnapshotHandler.applyDelta(baseSnapshot, snapshot);
+            } catch (IOException e) {
+                log.error("Error while reassembling revision " + revision + " of siddhiApp: " +
+                        siddhiAppName + " from its delta", e);
+                return null;
+            }
+        }
+        return snapshot;
+    }
+
+    private byte[] loadRevision(String siddhiAppName, String revision) {
         PreparedStatement stmt = null;
         Connection con = null;
         byte[] blobAsBytes = null;
@@ -173,15 +412,27 @@ public class DBPersistenceStore implements PersistenceStore {
             if (resultSet.next()) {
                 Blob blobSnapshot;
                 if (databaseType.equals(MSSQL_DATABASE_TYPE)) {
-                    blobSnapshot = new SerialBlob(resultSet.getBytes("snapshot"));
+                    byte[] snapshot = resultSet.getBytes("snapshot");
+                    blobSnapshot = snapshot == null ? null : new SerialBlob(snapshot);
                 } else {
                     blobSnapshot = resultSet.getBlob("snapshot");
                 }
-                int blobLength = (int) blobSnapshot.length();
-                blobAsBytes = blobSnapshot.getBytes(1, blobLength);
+                if (blobSnapshot == null) {
+                    // Revision has been persisted as chunks
+                    blobAsBytes = loadChunks(con, siddhiAppName, revision);
+                } else {
+                    long blobLength = blobSnapshot.length();
+                    if (blobLength > Integer.MAX_VALUE) {
+                        log.error("Revision " + revision + " of siddhiApp: " + siddhiAppName + " of " + blobLength +
+                                " bytes is too large to be restored");
+                        return null;
+                    }
+                    blobAsBytes = blobSnapshot.getBytes(1, (int) blobLength);
+                }
+                blobAsBytes = CompressionUtil.decompress(blobAsBytes);
             }
 
-        } catch (SQLException e) {
+        } catch (SQLException | IOException e) {
             log.error("Error while retrieving revision " + revision + " of siddhiApp: " +
                     siddhiAppName + " from the database with datasource " + datasourceName, e);
         } finally {
@@ -237,101 +488,233 @@ public class DBPersistenceStore implements PersistenceStore {
         executionInfo.setPreparedSelectLastStatement(databaseQueryEntries.getSelectLastQuery());
         executionInfo.setPreparedDeleteStatement(databaseQueryEntries.getDeleteQuery());
         executionInfo.setPreparedCountStatement(databaseQueryEntries.getCountQuery());
+        executionInfo.setPreparedInsertChunkedSnapshotStatement(databaseQueryEntries.getInsertChunkedSnapshotQuery());
+        executionInfo.setPreparedCreateChunkTableStatement(databaseQueryEntries.getCreateChunkTableQuery());
+        executionInfo.setPreparedChunkTableExistenceCheckStatement(databaseQueryEntries.getIsChunkTableExistQuery());
+        executionInfo.setPreparedInsertChunkStatement(databaseQueryEntries.getInsertChunkQuery());
+        executionInfo.setPreparedSelectChunksStatement(databaseQueryEntries.getSelectChunksQuery());
+        executionInfo.setPreparedDeleteChunksStatement(databaseQueryEntries.getDeleteChunksQuery());
 
     }
 
     /**
-     * Method that would create the persistence table
+     * Method that adds the chunks of the snapshot to the batch of the chunk insert statement. The batch is executed
+     * periodically so that the driver does not hold the whole snapshot.
+     *
+     * @param stmt          is the chunk insert statement
+     * @param siddhiAppName is the name of the Siddhi Application
+     * @param revision      is the revision being persisted
+     * @param snapshot      is the snapshot to be persisted
+     * @throws SQLException if the chunks cannot be inserted
+     */
+    private void insertChunks(PreparedStatement stmt, String siddhiAppName, String revision, byte[] snapshot)
+            throws SQLException {
+        int chunkIndex = 0;
+        int offset = 0;
+        do {
+            int length = Math.min(chunkSize, snapshot.length - offset);
+            stmt.setString(1, siddhiAppName);
+            stmt.setString(2, revision);
+            stmt.setInt(3, chunkIndex);
+            stmt.setInt(4, snapshot.length);
+            stmt.setBinaryStream(5, new ByteArrayInputStream(snapshot, offset, length), length);
+            stmt.addBatch();
+            chunkIndex++;
+            offset += length;
+            if (chunkIndex % CHUNK_INSERT_BATCH_SIZE == 0) {
+                stmt.executeBatch();
+            }
+        } while (offset < snapshot.length);
+        if (chunkIndex % CHUNK_INSERT_BATCH_SIZE != 0) {
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Method that streams the chunks of a revision from the chunk table into a single snapshot
+     *
+     * @param con           is the connection used to read the revision
+     * @param siddhiAppName is the name of the Siddhi Application
+     * @param revision      is the revision to load
+     * @return the snapshot, or null if the chunks of the revision are missing or incomplete
+     * @throws SQLException if the chunks cannot be read
+     * @throws IOException  if a chunk cannot be streamed
+     */
+    private byte[] loadChunks(Connection con, String siddhiAppName, String revision)
+            throws SQLException, IOException {
+        PreparedStatement stmt = null;
+        byte[] snapshot = null;
+        int offset = 0;
+        try {
+            stmt = con.prepareStatement(executionInfo.getPreparedSelectChunksStatement(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Stream the rows rather than letting the driver buffer the whole result
+            stmt.setFetchSize(databaseType.equals(MYSQL_DATABASE_TYPE) ? Integer.MIN_VALUE : 1);
+            stmt.setString(1, revision);
+            stmt.setString(2, siddhiAppName);
+            ResultSet resultSet = stmt.executeQuery();
+            while (resultSet.next()) {
+                if (snapshot == null) {
+                    snapshot = new byte[resultSet.getInt("snapshotLength")];
+                }
+                InputStream chunk = resultSet.getBinaryStream("chunk");
+                if (chunk == null) {
+                    continue;
+                }
+                try {
+                    int read;
+                    while (offset < snapshot.length &&
+                            (read = chunk.read(snapshot, offset, snapshot.length - offset)) > 0) {
+                        offset += read;
+                    }
+                } finally {
+                    chunk.close();
+                }
+            }
+        } finally {
+            cleanupConnections(stmt, null);
+        }
+        if (snapshot == null || offset != snapshot.length) {
+            log.error("Chunks of revision " + revision + " of siddhiApp: " + siddhiAppName +
+                    " are missing or incomplete in the database with datasource " + datasourceName);
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Method that would create the persistence table, and the chunk table when chunked snapshots are enabled
      */
     private void createTableIfNotExist() {
         if (!executionInfo.isTableExist()) {
-            Statement stmt = null;
-            Connection con = null;
+            executionInfo.setTableExist(createTableIfNotExist(tableName,
+                    executionInfo.getPreparedTableExistenceCheckStatement(),
+                    executionInfo.getPreparedCreateTableStatement()));
+        }
+        if (chunkedSnapshotEnabled && !executionInfo.isChunkTableExist()) {
+            executionInfo.setChunkTableExist(createTableIfNotExist(tableName + CHUNK_TABLE_SUFFIX,
+                    executionInfo.getPreparedChunkTableExistenceCheckStatement(),
+                    executionInfo.getPreparedCreateChunkTableStatement()));
+        }
+    }
+
+    private boolean createTableIfNotExist(String table, String tableExistenceCheckStatement,
+                                          String createTableStatement) {
+        Statement stmt = null;
+        Connection con = null;
+        try {
             try {
+                con = datasource.getConnection();
+                con.setAutoCommit(false);
+                stmt = con.createStatement();
+            } catch (SQLException e) {
+                log.error("Cannot establish connection to datasource " + datasourceName +
+                        " when checking persistence table exists", e);
+                return false;
+            }
+            try {
+                stmt.executeQuery(tableExistenceCheckStatement);
+                return true;
+
+            } catch (SQLException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Table " + table + " does not Exist. Table Will be created. ");
+                }
+                cleanupConnections(stmt, con);
                 try {
                     con = datasource.getConnection();
-                    con.setAutoCommit(false);
                     stmt = con.createStatement();
-                } catch (SQLException e) {
-                    log.error("Cannot establish connection to datasource " + datasourceName +
-                            " when checking persistence table exists", e);
-                    return;
-                }
-                try {
-                    stmt.executeQuery(executionInfo.getPreparedTableExistenceCheckStatement());
-                    executionInfo.setTableExist(true);
-
-                } catch (SQLException e) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Table " + tableName + " does not Exist. Table Will be created. ");
-                    }
-                    cleanupConnections(stmt, con);
-                    try {
-                        con = datasource.getConnection();
-                        stmt = con.createStatement();
-                        con.setAutoCommit(false);
-                        stmt.executeUpdate(executionInfo.getPreparedCreateTableStatement());
-                        con.commit();
-                        executionInfo.setTableExist(true);
-                    } catch (SQLException ex) {
-                        log.error("Could not create table " + tableName +
-                                " using datasource " + datasourceName, ex);
-                    }
+                    con.setAutoCommit(false);
+                    stmt.executeUpdate(createTableStatement);
+                    con.commit();
+                    return true;
+                } catch (SQLException ex) {
+                    log.error("Could not create table " + table +
+                            " using datasource " + datasourceName, ex);
+                    return false;
                 }
-            } finally {
-                cleanupConnections(stmt, con);
             }
+        } finally {
+            cleanupConnections(stmt, con);
         }
     }
 
     /**
-     * Method to remove revisions that are older than the user specified amount
+     * Method to remove revisions that are older than the user specified amount. In delta snapshot mode, a base
+     * revision is retained for as long as any of the retained deltas depend on it. The number of revisions of each
+     * Siddhi Application is only read from the database the first time, and tracked thereafter.
      *
-     * @param siddhiAppName is the name of the Siddhi Application whose old revisions to remove
+     * @param con   is the connection of the transaction that persisted the revisions
+     * @param batch is the list of revisions that were persisted
+     * @throws SQLException if the old revisions cannot be removed
      */
-    private void cleanOldRevisions(String siddhiAppName) {
-        PreparedStatement stmt = null;
-        Connection con = null;
-        int count = 0;
-
-        try {
-            con = datasource.getConnection();
-            con.setAutoCommit(false);
-        } catch (SQLException e) {
-            log.error("Cannot establish connection to data source " + datasourceName +
-                    " to clean old revisions", e);
-            return;
+    private void cleanOldRevisions(Connection con, List<PendingRevision> batch) throws SQLException {
+        Map<String, Integer> insertedRevisions = new LinkedHashMap<>();
+        for (PendingRevision pendingRevision : batch) {
+            insertedRevisions.merge(pendingRevision.siddhiAppName, 1, Integer::sum);
         }
+        PreparedStatement countStmt = null;
+        PreparedStatement deleteStmt = null;
+        PreparedStatement deleteChunksStmt = null;
         try {
-            stmt = con.prepareStatement(executionInfo.getPreparedCountStatement());
-            stmt.setString(1, siddhiAppName);
-            ResultSet resultSet = stmt.executeQuery();
-            if (resultSet.next()) {
-                count = resultSet.getInt(1);
-            }
-            int numberOfRevisionsToClean = count - numberOfRevisionsToKeep;
-            if (numberOfRevisionsToClean > 0) {
-                stmt = con.prepareStatement(executionInfo.getPreparedDeleteStatement());
-                if (databaseType.equals(MSSQL_DATABASE_TYPE)) {
-                    stmt.setInt(1, numberOfRevisionsToClean);
-                    stmt.setString(2, siddhiAppName);
+            for (Map.Entry<String, Integer> entry : insertedRevisions.entrySet()) {
+                String siddhiAppName = entry.getKey();
+                Integer count = revisionCounts.get(siddhiAppName);
+                if (count == null) {
+                    if (countStmt == null) {
+                        countStmt = con.prepareStatement(executionInfo.getPreparedCountStatement());
+                    }
+                    countStmt.setString(1, siddhiAppName);
+                    ResultSet resultSet = countStmt.executeQuery();
+                    count = resultSet.next() ? resultSet.getInt(1) : 0;
+                    resultSet.close();
                 } else {
-                    stmt.setString(1, siddhiAppName);
-                    stmt.setInt(2, numberOfRevisionsToClean);
+                    count += entry.getValue();
                 }
-                stmt.executeUpdate();
-                con.commit();
-            }
 
-        } catch (SQLException e) {
-            log.error("Error in cleaning old revisions of siddhiApp: " +
-                    siddhiAppName + "from the database with datasource " + datasourceName, e);
+                int revisionsToKeep = numberOfRevisionsToKeep;
+                if (deltaSnapshotHandler.isEnabled()) {
+                    revisionsToKeep = deltaSnapshotHandler.getRevisionsToKeep(siddhiAppName,
+                            numberOfRevisionsToKeep);
+                }
+                int numberOfRevisionsToClean = count - revisionsToKeep;
+                if (revisionsToKeep >= 0 && numberOfRevisionsToClean > 0) {
+                    if (deleteStmt == null) {
+                        deleteStmt = con.prepareStatement(executionInfo.getPreparedDeleteStatement());
+                    }
+                    if (databaseType.equals(MSSQL_DATABASE_TYPE)) {
+                        deleteStmt.setInt(1, numberOfRevisionsToClean);
+                        deleteStmt.setString(2, siddhiAppName);
+                    } else {
+                        deleteStmt.setString(1, siddhiAppName);
+                        deleteStmt.setInt(2, numberOfRevisionsToClean);
+                    }
+                    deleteStmt.addBatch();
+                    if (chunkedSnapshotEnabled) {
+                        if (deleteChunksStmt == null) {
+                            deleteChunksStmt = con.prepareStatement(executionInfo.getPreparedDeleteChunksStatement());
+                        }
+                        deleteChunksStmt.setString(1, siddhiAppName);
+                        deleteChunksStmt.setString(2, siddhiAppName);
+                        deleteChunksStmt.addBatch();
+                    }
+                    count = revisionsToKeep;
+                }
+                revisionCounts.put(siddhiAppName, count);
+            }
+            if (deleteStmt != null) {
+                deleteStmt.executeBatch();
+            }
+            if (deleteChunksStmt != null) {
+                deleteChunksStmt.executeBatch();
+            }
         } finally {
-            cleanupConnections(stmt, con);
+            cleanupConnections(countStmt, null);
+            cleanupConnections(deleteStmt, null);
+            cleanupConnections(deleteChunksStmt, null);
         }
     }
 
-
     private void cleanupConnections(Statement stmt, Connection connection) {
         if (stmt != null) {
             try {
@@ -348,4 +731,25 @@ public class DBPersistenceStore implements PersistenceStore {
             }
         }
     }
+
+    /**
+     * Revision of a Siddhi Application that is waiting to be written as part of a batch
+     */
+    private static class PendingRevision {
+
+        private final String siddhiAppName;
+        private final String revision;
+        private final byte[] snapshot;
+        private final DeltaSnapshotHandler.PreparedSnapshot preparedSnapshot;
+        private volatile boolean written = false;
+        private volatile Exception failure;
+
+        private PendingRevision(String siddhiAppName, String revision, byte[] snapshot,
+                                DeltaSnapshotHandler.PreparedSnapshot preparedSnapshot) {
+            this.siddhiAppName = siddhiAppName;
+            this.revision = revision;
+            this.snapshot = snapshot;
+            this.preparedSnapshot = preparedSnapshot;
+        }
+    }
 }
@@ -20,35 +20,54 @@ package org.wso2.carbon.stream.processor.core.persistence;
 
 import com.google.common.io.Files;
 import org.apache.log4j.Logger;
+import org.wso2.carbon.stream.processor.core.ha.util.CompressionCodec;
+import org.wso2.carbon.stream.processor.core.ha.util.CompressionUtil;
+import org.wso2.carbon.stream.processor.core.persistence.exception.PersistenceStoreException;
+import org.wso2.carbon.stream.processor.core.persistence.util.DeltaSnapshotHandler;
 import org.wso2.carbon.stream.processor.core.persistence.util.PersistenceConstants;
 import org.wso2.siddhi.core.util.persistence.PersistenceStore;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
- * Implementation of Persistence Store that would persist snapshots to the file system
+ * Implementation of Persistence Store that would persist snapshots to the file system.
+ * When delta snapshots are enabled, revisions in between two full snapshots are persisted as deltas. Snapshots are
+ * compressed with the configured compression codec.
  */
 public class FileSystemPersistenceStore implements PersistenceStore {
 
     private static final Logger log = Logger.getLogger(FileSystemPersistenceStore.class);
     private int numberOfRevisionsToSave;
     private String folder;
+    private DeltaSnapshotHandler deltaSnapshotHandler;
+    private CompressionCodec compressionCodec;
 
     @Override
     public void save(String siddhiAppName, String revision, byte[] snapshot) {
         File file = new File(folder + File.separator + siddhiAppName + File.separator + revision);
         try {
             Files.createParentDirs(file);
-            Files.write(snapshot, file);
+            if (deltaSnapshotHandler.isEnabled()) {
+                DeltaSnapshotHandler.PreparedSnapshot preparedSnapshot =
+                        deltaSnapshotHandler.prepare(siddhiAppName, revision, snapshot);
+                Files.write(CompressionUtil.compress(preparedSnapshot.getBytes(), compressionCodec), file);
+                deltaSnapshotHandler.commit(siddhiAppName, preparedSnapshot);
+            } else {
+                Files.write(CompressionUtil.compress(snapshot, compressionCodec), file);
+            }
             cleanOldRevisions(siddhiAppName);
             if (log.isDebugEnabled()) {
                 log.debug("Periodic persistence of " + siddhiAppName + " persisted successfully.");
             }
         } catch (IOException e) {
-            log.error("Cannot save the revision " + revision + " of SiddhiApp: " + siddhiAppName +
-                    " to the file system.", e);
+            if (deltaSnapshotHandler.isEnabled()) {
+                deltaSnapshotHandler.invalidate(siddhiAppName);
+            }
+            throw new PersistenceStoreException("Cannot save the revision " + revision + " of SiddhiApp: " +
+                    siddhiAppName + " to the file system.", e);
         }
     }
 
@@ -83,13 +102,30 @@ public class FileSystemPersistenceStore implements PersistenceStore {
                 log.debug("File system persistence config not set. Default persistence location will be used.");
             }
         }
+        deltaSnapshotHandler = new DeltaSnapshotHandler(configurationMap);
+        Object compressionCodecObject = configurationMap == null ? null :
+                configurationMap.get(PersistenceConstants.COMPRESSION_CODEC);
+        try {
+            compressionCodec = CompressionUtil.getCodec(compressionCodecObject == null ? null :
+                    String.valueOf(compressionCodecObject));
+        } catch (IllegalArgumentException e) {
+            compressionCodec = CompressionUtil.getCodec(CompressionUtil.CODEC_NONE);
+            log.error("Invalid compression codec set for file system persistence. Snapshots will not be " +
+                    "compressed.", e);
+        }
     }
 
     @Override
     public byte[] load(String siddhiAppName, String revision) {
         File file = new File(folder + File.separator + siddhiAppName + File.separator + revision);
         try {
-            byte[] bytes = Files.toByteArray(file);
+            byte[] bytes = CompressionUtil.decompress(Files.toByteArray(file));
+            if (DeltaSnapshotHandler.isDelta(bytes)) {
+                String baseRevision = DeltaSnapshotHandler.getBaseRevision(bytes);
+                File baseFile = new File(folder + File.separator + siddhiAppName + File.separator + baseRevision);
+                bytes = DeltaSnapshotHandler.applyDelta(CompressionUtil.decompress(Files.toByteArray(baseFile)),
+                        bytes);
+            }
             log.info("State loaded for " + siddhiAppName + " revision " + revision + " from the file system.");
             return bytes;
         } catch (IOException e) {
@@ -119,34 +155,28 @@ public class FileSystemPersistenceStore implements PersistenceStore {
     }
 
     /**
-     * Method to remove revisions that are older than the user specified amount
+     * Method to remove revisions that are older than the user specified amount. In delta snapshot mode, a base
+     * revision is retained for as long as any of the retained deltas depend on it.
      *
      * @param siddhiAppName is the name of the Siddhi Application whose old revisions to remove
      */
-
     private void cleanOldRevisions(String siddhiAppName) {
+        int revisionsToKeep = numberOfRevisionsToSave;
+        if (deltaSnapshotHandler.isEnabled()) {
+            revisionsToKeep = deltaSnapshotHandler.getRevisionsToKeep(siddhiAppName, numberOfRevisionsToSave);
+            if (revisionsToKeep < 0) {
+                return;
+            }
+        }
         File targetDirectory = new File(folder + File.separator + siddhiAppName);
         File[] files = targetDirectory.listFiles();
-        if (files != null) {
-            while (files.length > numberOfRevisionsToSave) {
-                String firstRevision = null;
-                for (File file : files) {
-                    String fileName = file.getName();
-                    if (firstRevision == null || fileName.compareTo(firstRevision) < 0) {
-                        firstRevision = fileName;
-                    }
-                }
-                File fileToDelete = new File(targetDirectory + File.separator + firstRevision);
-                if (fileToDelete.exists()) {
-                    Boolean isDeleted = fileToDelete.delete();
-                    if (!isDeleted) {
-                        log.error("Error deleting old revision " + firstRevision);
-                    }
-                }
-                files = targetDirectory.listFiles();
-                if (files == null || files.length < 1) {
-                    break;
-                }
+        if (files == null || files.length <= revisionsToKeep) {
+            return;
+        }
+        Arrays.sort(files, (file, otherFile) -> file.getName().compareTo(otherFile.getName()));
+        for (int i = 0; i < files.length - revisionsToKeep; i++) {
+            if (!files[i].delete()) {
+                log.error("Error deleting old revision " + files[i].getName());
             }
         }
     }
@@ -0,0 +1,623 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core.persistence;
+
+import org.apache.log4j.Logger;
+import org.wso2.carbon.stream.processor.common.utils.MappedByteBufferUtil;
+import org.wso2.carbon.stream.processor.core.persistence.exception.PersistenceStoreException;
+import org.wso2.carbon.stream.processor.core.persistence.util.PersistenceConstants;
+import org.wso2.siddhi.core.util.persistence.PersistenceStore;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Implementation of Persistence Store that appends snapshots of all Siddhi Applications to pre-allocated, memory
+ * mapped segment files. An in-memory index of the records is rebuilt from the segments on start up, and segments
+ * that mostly hold removed revisions are compacted in the background.
+ * <p>
+ * Each record is laid out as: magic, CRC32, Siddhi App name length, revision length, snapshot length, Siddhi App
+ * name, revision and snapshot.
+ * <p>
+ * The store must be closed when it is no longer used, which forces and releases the mapped segments. A store that is
+ * not closed is closed by a shutdown hook.
+ */
+public class MemoryMappedPersistenceStore implements PersistenceStore, Closeable {
+
+    private static final Logger log = Logger.getLogger(MemoryMappedPersistenceStore.class);
+    private static final int RECORD_MAGIC = 0x53505352;
+    private static final int RECORD_HEADER_SIZE = 16;
+    private static final String SEGMENT_FILE_SUFFIX = ".segment";
+    private static final int BYTES_PER_MB = 1024 * 1024;
+    private static final long MAINTENANCE_SHUTDOWN_TIMEOUT_IN_SEC = 10;
+
+    private int numberOfRevisionsToKeep;
+    private File folder;
+    private int segmentSize;
+    private FsyncPolicy fsyncPolicy;
+    private double compactionThreshold;
+    private final Map<String, ConcurrentSkipListMap<String, RecordLocation>> index = new ConcurrentHashMap<>();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment activeSegment;
+    private ScheduledExecutorService maintenanceExecutorService;
+    private final List<ScheduledFuture<?>> maintenanceTasks = new ArrayList<>();
+    private Thread shutdownHook;
+    private boolean closed = false;
+
+    @Override
+    public void save(String siddhiAppName, String revision, byte[] snapshot) {
+        byte[] siddhiAppNameBytes = siddhiAppName.getBytes(StandardCharsets.UTF_8);
+        byte[] revisionBytes = revision.getBytes(StandardCharsets.UTF_8);
+        long recordLength = (long) RECORD_HEADER_SIZE + siddhiAppNameBytes.length + revisionBytes.length +
+                snapshot.length;
+        if (recordLength > Integer.MAX_VALUE) {
+            throw new PersistenceStoreException("Cannot save the revision " + revision + " of SiddhiApp: " +
+                    siddhiAppName + " as the snapshot of " + snapshot.length + " bytes exceeds the maximum " +
+                    "segment size.");
+        }
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                throw new PersistenceStoreException("Cannot save the revision " + revision + " of SiddhiApp: " +
+                        siddhiAppName + " as the segment store is closed.");
+            }
+            RecordLocation location = append(siddhiAppNameBytes, revisionBytes, ByteBuffer.wrap(snapshot),
+                    crc(siddhiAppNameBytes, revisionBytes, ByteBuffer.wrap(snapshot)));
+            addToIndex(siddhiAppName, revision, location);
+            cleanOldRevisions(siddhiAppName);
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                location.segment.buffer.force();
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Periodic persistence of " + siddhiAppName + " persisted successfully.");
+            }
+        } catch (IOException e) {
+            throw new PersistenceStoreException("Cannot save the revision " + revision + " of SiddhiApp: " +
+                    siddhiAppName + " to the segment store.", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void setProperties(Map properties) {
+        Map configurationMap = (Map) properties.get(PersistenceConstants.STATE_PERSISTENCE_CONFIGS);
+        Object numberOfRevisionsObject = properties.get(PersistenceConstants.STATE_PERSISTENCE_REVISIONS_TO_KEEP);
+        if (numberOfRevisionsObject == null || !(numberOfRevisionsObject instanceof Integer)) {
+            numberOfRevisionsToKeep = 3;
+            if (log.isDebugEnabled()) {
+                log.debug("Number of revisions to keep is not set or invalid. Default value will be used.");
+            }
+        } else {
+            numberOfRevisionsToKeep = (int) numberOfRevisionsObject;
+        }
+
+        String location = PersistenceConstants.DEFAULT_SEGMENT_PERSISTENCE_FOLDER;
+        int segmentSizeInMB = PersistenceConstants.DEFAULT_SEGMENT_SIZE_IN_MB;
+        fsyncPolicy = FsyncPolicy.PERIODIC;
+        int fsyncIntervalInSec = PersistenceConstants.DEFAULT_FSYNC_INTERVAL_IN_SEC;
+        compactionThreshold = PersistenceConstants.DEFAULT_COMPACTION_THRESHOLD;
+        int compactionIntervalInSec = PersistenceConstants.DEFAULT_COMPACTION_INTERVAL_IN_SEC;
+        if (configurationMap != null) {
+            Object locationObject = configurationMap.get("location");
+            if (locationObject instanceof String) {
+                location = (String) locationObject;
+            }
+            Object segmentSizeObject = configurationMap.get(PersistenceConstants.SEGMENT_SIZE_IN_MB);
+            if (segmentSizeObject instanceof Integer && (int) segmentSizeObject > 0 &&
+                    (int) segmentSizeObject < Integer.MAX_VALUE / BYTES_PER_MB) {
+                segmentSizeInMB = (int) segmentSizeObject;
+            }
+            Object fsyncPolicyObject = configurationMap.get(PersistenceConstants.FSYNC_POLICY);
+            if (fsyncPolicyObject instanceof String) {
+                try {
+                    fsyncPolicy = FsyncPolicy.valueOf(((String) fsyncPolicyObject).toUpperCase(Locale.ENGLISH));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Invalid fsync policy " + fsyncPolicyObject + " set for the segment store. " +
+                            "Default policy " + fsyncPolicy + " will be used.");
+                }
+            }
+            Object fsyncIntervalObject = configurationMap.get(PersistenceConstants.FSYNC_INTERVAL_IN_SEC);
+            if (fsyncIntervalObject instanceof Integer && (int) fsyncIntervalObject > 0) {
+                fsyncIntervalInSec = (int) fsyncIntervalObject;
+            }
+            Object compactionThresholdObject = configurationMap.get(PersistenceConstants.COMPACTION_THRESHOLD);
+            if (compactionThresholdObject instanceof Number) {
+                compactionThreshold = ((Number) compactionThresholdObject).doubleValue();
+            }
+            Object compactionIntervalObject = configurationMap.get(PersistenceConstants.COMPACTION_INTERVAL_IN_SEC);
+            if (compactionIntervalObject instanceof Integer && (int) compactionIntervalObject > 0) {
+                compactionIntervalInSec = (int) compactionIntervalObject;
+            }
+        } else if (log.isDebugEnabled()) {
+            log.debug("Segment persistence config not set. Default config values will be used.");
+        }
+        segmentSize = segmentSizeInMB * BYTES_PER_MB;
+        folder = new File(location);
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new RuntimeException("Cannot create the segment store folder " + folder.getAbsolutePath());
+        }
+
+        lock.writeLock().lock();
+        try {
+            // The store is re-opened with the new properties if it was already opened
+            cancelMaintenanceTasks();
+            releaseSegments();
+            closed = false;
+            openSegments();
+            if (maintenanceExecutorService == null) {
+                maintenanceExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "SegmentPersistenceStoreMaintenance");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            maintenanceTasks.add(maintenanceExecutorService.scheduleWithFixedDelay(this::compact,
+                    compactionIntervalInSec, compactionIntervalInSec, TimeUnit.SECONDS));
+            if (fsyncPolicy == FsyncPolicy.PERIODIC) {
+                maintenanceTasks.add(maintenanceExecutorService.scheduleWithFixedDelay(this::sync,
+                        fsyncIntervalInSec, fsyncIntervalInSec, TimeUnit.SECONDS));
+            }
+            if (shutdownHook == null) {
+                shutdownHook = new Thread(this::close, "SegmentPersistenceStoreShutdownHook");
+                Runtime.getRuntime().addShutdownHook(shutdownHook);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot open the segments of the segment store at " +
+                    folder.getAbsolutePath(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Method that stops the background maintenance, forces the active segment and releases all the segments. The
+     * store cannot be used after it is closed, unless its properties are set again.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService executorService;
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            cancelMaintenanceTasks();
+            executorService = maintenanceExecutorService;
+            maintenanceExecutorService = null;
+            if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (IllegalStateException e) {
+                    // The JVM is already shutting down, hence the hook runs regardless
+                }
+            }
+            shutdownHook = null;
+            if (activeSegment != null && fsyncPolicy != FsyncPolicy.NONE) {
+                activeSegment.buffer.force();
+            }
+            releaseSegments();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // A maintenance task waiting for the lock finds the store closed, hence it is waited for outside the lock
+        if (executorService != null) {
+            executorService.shutdown();
+            try {
+                executorService.awaitTermination(MAINTENANCE_SHUTDOWN_TIMEOUT_IN_SEC, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Segment store at " + (folder == null ? null : folder.getAbsolutePath()) + " closed.");
+        }
+    }
+
+    private void cancelMaintenanceTasks() {
+        for (ScheduledFuture<?> maintenanceTask : maintenanceTasks) {
+            maintenanceTask.cancel(false);
+        }
+        maintenanceTasks.clear();
+    }
+
+    /**
+     * Method that unmaps and closes all the segments and clears the index. Must be called while holding the write
+     * lock, as the mapped buffers must not be accessed once released.
+     */
+    private void releaseSegments() {
+        for (Segment segment : segments.values()) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.error("Error while closing segment " + segment.file.getName() + " of the segment store.", e);
+            }
+        }
+        segments.clear();
+        index.clear();
+        activeSegment = null;
+    }
+
+    @Override
+    public byte[] load(String siddhiAppName, String revision) {
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                log.error("Cannot load the revision " + revision + " of SiddhiApp: " + siddhiAppName + " as the " +
+                        "segment store is closed.");
+                return null;
+            }
+            Map<String, RecordLocation> revisions = index.get(siddhiAppName);
+            RecordLocation location = revisions == null ? null : revisions.get(revision);
+            if (location == null) {
+                log.error("Cannot load the revision " + revision + " of SiddhiApp: " + siddhiAppName +
+                        " as it does not exist in the segment store.");
+                return null;
+            }
+            ByteBuffer payload = location.getPayload();
+            byte[] bytes = new byte[location.payloadLength];
+            payload.duplicate().get(bytes);
+            if (crc(siddhiAppName.getBytes(StandardCharsets.UTF_8), revision.getBytes(StandardCharsets.UTF_8),
+                    payload) != location.crc) {
+                log.error("Cannot load the revision " + revision + " of SiddhiApp: " + siddhiAppName +
+                        " as the record in the segment store is corrupted.");
+                return null;
+            }
+            log.info("State loaded for " + siddhiAppName + " revision " + revision + " from the segment store.");
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String getLastRevision(String siddhiAppName) {
+        ConcurrentSkipListMap<String, RecordLocation> revisions = index.get(siddhiAppName);
+        if (revisions == null || revisions.isEmpty()) {
+            return null;
+        }
+        return revisions.lastKey();
+    }
+
+    /**
+     * Method to remove revisions that are older than the user specified amount from the index. The space of the
+     * removed records is reclaimed when their segments are compacted.
+     *
+     * @param siddhiAppName is the name of the Siddhi Application whose old revisions to remove
+     */
+    private void cleanOldRevisions(String siddhiAppName) {
+        ConcurrentSkipListMap<String, RecordLocation> revisions = index.get(siddhiAppName);
+        while (revisions.size() > numberOfRevisionsToKeep) {
+            RecordLocation removedLocation = revisions.pollFirstEntry().getValue();
+            removedLocation.segment.liveBytes -= removedLocation.recordLength;
+        }
+    }
+
+    private void addToIndex(String siddhiAppName, String revision, RecordLocation location) {
+        RecordLocation replacedLocation = index.computeIfAbsent(siddhiAppName,
+                name -> new ConcurrentSkipListMap<>()).put(revision, location);
+        if (replacedLocation != null) {
+            replacedLocation.segment.liveBytes -= replacedLocation.recordLength;
+        }
+    }
+
+    private RecordLocation append(byte[] siddhiAppNameBytes, byte[] revisionBytes, ByteBuffer payload, int crc)
+            throws IOException {
+        int recordLength = RECORD_HEADER_SIZE + siddhiAppNameBytes.length + revisionBytes.length +
+                payload.remaining();
+        if (activeSegment == null || activeSegment.getRemaining() < recordLength) {
+            rollSegment(recordLength);
+        }
+        int offset = activeSegment.writePosition;
+        ByteBuffer buffer = activeSegment.buffer.duplicate();
+        buffer.position(offset);
+        buffer.putInt(RECORD_MAGIC);
+        buffer.putInt(crc);
+        buffer.putShort((short) siddhiAppNameBytes.length);
+        buffer.putShort((short) revisionBytes.length);
+        buffer.putInt(payload.remaining());
+        buffer.put(siddhiAppNameBytes);
+        buffer.put(revisionBytes);
+        int payloadOffset = buffer.position();
+        int payloadLength = payload.remaining();
+        buffer.put(payload);
+        activeSegment.writePosition += recordLength;
+        activeSegment.liveBytes += recordLength;
+        return new RecordLocation(activeSegment, recordLength, payloadOffset, payloadLength, crc);
+    }
+
+    private void rollSegment(int minimumSize) throws IOException {
+        if (activeSegment != null) {
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                activeSegment.buffer.force();
+            }
+            activeSegment.sealed = true;
+        }
+        int segmentId = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        File segmentFile = new File(folder, String.format(Locale.ENGLISH, "%010d", segmentId) +
+                SEGMENT_FILE_SUFFIX);
+        activeSegment = Segment.open(segmentId, segmentFile, Math.max(segmentSize, minimumSize));
+        segments.put(segmentId, activeSegment);
+    }
+
+    /**
+     * Method that maps the existing segments and rebuilds the index by scanning their records. Scanning of a
+     * segment stops at the first record that is incomplete or fails the CRC check.
+     */
+    private void openSegments() throws IOException {
+        File[] segmentFiles = folder.listFiles((dir, name) -> name.endsWith(SEGMENT_FILE_SUFFIX));
+        if (segmentFiles != null) {
+            for (File segmentFile : segmentFiles) {
+                String fileName = segmentFile.getName();
+                try {
+                    int segmentId = Integer.parseInt(fileName.substring(0,
+                            fileName.length() - SEGMENT_FILE_SUFFIX.length()));
+                    segments.put(segmentId, Segment.open(segmentId, segmentFile, (int) segmentFile.length()));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring unknown file " + fileName + " in the segment store.");
+                }
+            }
+        }
+        for (Segment segment : segments.values()) {
+            scanSegment(segment);
+            segment.sealed = true;
+        }
+        for (String siddhiAppName : index.keySet()) {
+            cleanOldRevisions(siddhiAppName);
+        }
+        if (!segments.isEmpty()) {
+            activeSegment = segments.lastEntry().getValue();
+            activeSegment.sealed = false;
+        }
+    }
+
+    private void scanSegment(Segment segment) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int position = 0;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            buffer.position(position);
+            if (buffer.getInt() != RECORD_MAGIC) {
+                break;
+            }
+            int crc = buffer.getInt();
+            int siddhiAppNameLength = buffer.getShort() & 0xFFFF;
+            int revisionLength = buffer.getShort() & 0xFFFF;
+            int payloadLength = buffer.getInt();
+            long recordLength = (long) RECORD_HEADER_SIZE + siddhiAppNameLength + revisionLength + payloadLength;
+            if (payloadLength < 0 || position + recordLength > buffer.capacity()) {
+                break;
+            }
+            byte[] siddhiAppNameBytes = new byte[siddhiAppNameLength];
+            byte[] revisionBytes = new byte[revisionLength];
+            buffer.get(siddhiAppNameBytes);
+            buffer.get(revisionBytes);
+            int payloadOffset = buffer.position();
+            ByteBuffer payload = buffer.slice();
+            payload.limit(payloadLength);
+            if (crc(siddhiAppNameBytes, revisionBytes, payload) != crc) {
+                log.warn("Corrupted record found at offset " + position + " of segment " + segment.file.getName() +
+                        ". Records from this offset onwards are ignored.");
+                break;
+            }
+            segment.liveBytes += recordLength;
+            addToIndex(new String(siddhiAppNameBytes, StandardCharsets.UTF_8),
+                    new String(revisionBytes, StandardCharsets.UTF_8),
+                    new RecordLocation(segment, (int) recordLength, payloadOffset, payloadLength, crc));
+            position += recordLength;
+        }
+        segment.writePosition = position;
+    }
+
+    /**
+     * Method that reclaims the space of removed revisions. Sealed segments without live records are deleted, and
+     * the live records of sealed segments that fall below the compaction threshold are moved to the active
+     * segment before the segment is deleted.
+     */
+    private void compact() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            for (Segment segment : new ArrayList<>(segments.values())) {
+                if (!segment.sealed || segment == activeSegment) {
+                    continue;
+                }
+                if (segment.liveBytes > 0 && segment.liveBytes >= segment.writePosition * compactionThreshold) {
+                    continue;
+                }
+                if (segment.liveBytes > 0) {
+                    relocateLiveRecords(segment);
+                }
+                segments.remove(segment.id);
+                segment.close();
+                if (!segment.file.delete()) {
+                    log.error("Error deleting compacted segment " + segment.file.getName());
+                } else if (log.isDebugEnabled()) {
+                    log.debug("Segment " + segment.file.getName() + " of the segment store compacted.");
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error while compacting the segment store at " + folder.getAbsolutePath(), e);
+        } catch (RuntimeException e) {
+            log.error("Unexpected error while compacting the segment store at " + folder.getAbsolutePath(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void relocateLiveRecords(Segment segment) throws IOException {
+        for (Map.Entry<String, ConcurrentSkipListMap<String, RecordLocation>> siddhiAppEntry : index.entrySet()) {
+            byte[] siddhiAppNameBytes = siddhiAppEntry.getKey().getBytes(StandardCharsets.UTF_8);
+            List<Map.Entry<String, RecordLocation>> liveRecords = new ArrayList<>();
+            for (Map.Entry<String, RecordLocation> revisionEntry : siddhiAppEntry.getValue().entrySet()) {
+                if (revisionEntry.getValue().segment == segment) {
+                    liveRecords.add(revisionEntry);
+                }
+            }
+            for (Map.Entry<String, RecordLocation> liveRecord : liveRecords) {
+                RecordLocation location = liveRecord.getValue();
+                RecordLocation newLocation = append(siddhiAppNameBytes,
+                        liveRecord.getKey().getBytes(StandardCharsets.UTF_8), location.getPayload(), location.crc);
+                siddhiAppEntry.getValue().put(liveRecord.getKey(), newLocation);
+                segment.liveBytes -= location.recordLength;
+            }
+        }
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            activeSegment.buffer.force();
+        }
+    }
+
+    private void sync() {
+        lock.readLock().lock();
+        try {
+            if (!closed && activeSegment != null) {
+                activeSegment.buffer.force();
+            }
+        } catch (RuntimeException e) {
+            log.error("Error while syncing the segment store at " + folder.getAbsolutePath(), e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int crc(byte[] siddhiAppNameBytes, byte[] revisionBytes, ByteBuffer payload) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(siddhiAppNameBytes);
+        crc32.update(revisionBytes);
+        crc32.update(payload.duplicate());
+        return (int) crc32.getValue();
+    }
+
+    /**
+     * Policy that decides when the memory mapped segments are forced to the storage device
+     */
+    public enum FsyncPolicy {
+        /**
+         * Force the segment after each snapshot is written
+         */
+        ALWAYS,
+        /**
+         * Force the active segment periodically and each segment when it is sealed
+         */
+        PERIODIC,
+        /**
+         * Leave flushing to the operating system
+         */
+        NONE
+    }
+
+    /**
+     * Pre-allocated, memory mapped segment file that records are appended to
+     */
+    private static class Segment {
+
+        private final int id;
+        private final File file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private long liveBytes;
+        private boolean sealed;
+
+        private Segment(int id, File file, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(int id, File file, int size) throws IOException {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                if (randomAccessFile.length() < size) {
+                    randomAccessFile.setLength(size);
+                }
+                FileChannel channel = randomAccessFile.getChannel();
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                return new Segment(id, file, channel, buffer);
+            } catch (IOException e) {
+                randomAccessFile.close();
+                throw e;
+            }
+        }
+
+        private int getRemaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        /**
+         * Close the segment and release its mapping, so that the memory is freed and the file can be deleted
+         */
+        private void close() throws IOException {
+            if (!MappedByteBufferUtil.unmap(buffer) && log.isDebugEnabled()) {
+                log.debug("Mapping of segment " + file.getName() + " is released when it is garbage collected.");
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * Location of a record in the segments
+     */
+    private static class RecordLocation {
+
+        private final Segment segment;
+        private final int recordLength;
+        private final int payloadOffset;
+        private final int payloadLength;
+        private final int crc;
+
+        private RecordLocation(Segment segment, int recordLength, int payloadOffset, int payloadLength, int crc) {
+            this.segment = segment;
+            this.recordLength = recordLength;
+            this.payloadOffset = payloadOffset;
+            this.payloadLength = payloadLength;
+            this.crc = crc;
+        }
+
+        private ByteBuffer getPayload() {
+            ByteBuffer payload = segment.buffer.duplicate();
+            payload.position(payloadOffset);
+            payload.limit(payloadOffset + payloadLength);
+            return payload.slice();
+        }
+    }
+}
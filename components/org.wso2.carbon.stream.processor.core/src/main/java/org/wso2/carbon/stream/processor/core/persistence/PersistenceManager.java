@@ -22,19 +22,44 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.carbon.stream.processor.core.ha.HAManager;
 import org.wso2.carbon.stream.processor.core.internal.StreamProcessorDataHolder;
+import org.wso2.carbon.stream.processor.core.persistence.util.RevisionUtil;
 import org.wso2.siddhi.core.SiddhiAppRuntime;
-import org.wso2.siddhi.core.util.snapshot.PersistenceReference;
+import org.wso2.siddhi.core.util.persistence.PersistenceStore;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Class that manages the periodic persistence of Siddhi Applications
+ * Class that manages the periodic persistence of Siddhi Applications.
+ * On each tick, the Siddhi Applications that are due are persisted in parallel on a bounded worker pool. A Siddhi
+ * Application is skipped if its previous snapshot is still being written.
  */
 public class PersistenceManager implements Runnable {
 
     private static final Logger log = LoggerFactory.getLogger(PersistenceManager.class);
+    private static final long SHUTDOWN_TIMEOUT_IN_SEC = 60;
 
-    public PersistenceManager() {
+    private final PersistenceStore persistenceStore;
+    private final int defaultIntervalInMin;
+    private final Map<String, Integer> siddhiAppIntervalsInMin;
+    private final ExecutorService persistenceWorkers;
+    private final Set<String> inProgressSiddhiApps = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final ConcurrentMap<String, Long> lastScheduledTimestamps = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PersistenceMetrics> persistenceMetrics = new ConcurrentHashMap<>();
+
+    public PersistenceManager(PersistenceStore persistenceStore, int workerPoolSize, int defaultIntervalInMin,
+                              Map<String, Integer> siddhiAppIntervalsInMin) {
+        this.persistenceStore = persistenceStore;
+        this.defaultIntervalInMin = defaultIntervalInMin;
+        this.siddhiAppIntervalsInMin = siddhiAppIntervalsInMin;
+        this.persistenceWorkers = Executors.newFixedThreadPool(workerPoolSize);
     }
 
     @Override
@@ -52,15 +77,118 @@ public class PersistenceManager implements Runnable {
     private void persist() {
         ConcurrentMap<String, SiddhiAppRuntime> siddhiAppRuntimeMap = StreamProcessorDataHolder.
                 getSiddhiManager().getSiddhiAppRuntimeMap();
+        long currentTimestamp = System.currentTimeMillis();
         for (SiddhiAppRuntime siddhiAppRuntime : siddhiAppRuntimeMap.values()) {
-            PersistenceReference persistenceReference = siddhiAppRuntime.persist();
+            String siddhiAppName = siddhiAppRuntime.getName();
+            if (!isDue(siddhiAppName, currentTimestamp)) {
+                continue;
+            }
+            PersistenceMetrics metrics = persistenceMetrics.computeIfAbsent(siddhiAppName,
+                    name -> new PersistenceMetrics());
+            if (!inProgressSiddhiApps.add(siddhiAppName)) {
+                metrics.recordSkipped();
+                log.warn("Skipping periodic persistence of siddhi App " + siddhiAppName +
+                        " as its previous snapshot is still being persisted");
+                continue;
+            }
+            lastScheduledTimestamps.put(siddhiAppName, currentTimestamp);
+            try {
+                persistenceWorkers.execute(() -> persist(siddhiAppRuntime, metrics));
+            } catch (RejectedExecutionException e) {
+                inProgressSiddhiApps.remove(siddhiAppName);
+                log.error("Periodic persistence of siddhi App " + siddhiAppName + " could not be scheduled", e);
+            }
+        }
+        lastScheduledTimestamps.keySet().retainAll(siddhiAppRuntimeMap.keySet());
+        persistenceMetrics.keySet().retainAll(siddhiAppRuntimeMap.keySet());
+    }
+
+    private void persist(SiddhiAppRuntime siddhiAppRuntime, PersistenceMetrics metrics) {
+        String siddhiAppName = siddhiAppRuntime.getName();
+        try {
+            long startTime = System.currentTimeMillis();
+            byte[] snapshot = siddhiAppRuntime.snapshot();
+            long serializedTime = System.currentTimeMillis();
+            String revision = RevisionUtil.createRevision(serializedTime, siddhiAppName);
+            persistenceStore.save(siddhiAppName, revision, snapshot);
+            long writtenTime = System.currentTimeMillis();
+            metrics.recordPersisted(revision, snapshot.length, serializedTime - startTime,
+                    writtenTime - serializedTime);
             if (StreamProcessorDataHolder.getHAManager() != null) {
-                StreamProcessorDataHolder.getHaInfo().setLastPersistedTimestamp(System.currentTimeMillis());
+                StreamProcessorDataHolder.getHaInfo().setLastPersistedTimestamp(writtenTime);
             }
             if (log.isDebugEnabled()) {
-                log.debug("Revision " + persistenceReference.getRevision() +
-                        " of siddhi App " + siddhiAppRuntime.getName() + " persisted successfully");
+                log.debug("Revision " + revision + " of siddhi App " + siddhiAppName +
+                        " persisted successfully. " + metrics);
+            }
+        } catch (RuntimeException e) {
+            metrics.recordFailed();
+            log.error("Error while persisting the state of siddhi App " + siddhiAppName, e);
+        } finally {
+            inProgressSiddhiApps.remove(siddhiAppName);
+        }
+    }
+
+    private boolean isDue(String siddhiAppName, long currentTimestamp) {
+        Long lastScheduledTimestamp = lastScheduledTimestamps.get(siddhiAppName);
+        if (lastScheduledTimestamp == null) {
+            return true;
+        }
+        Integer intervalInMin = siddhiAppIntervalsInMin.get(siddhiAppName);
+        if (intervalInMin == null) {
+            intervalInMin = defaultIntervalInMin;
+        }
+        // Allow a small tolerance so that the scheduling jitter of the tick does not skip a whole interval
+        long toleranceInMillis = TimeUnit.SECONDS.toMillis(1);
+        return currentTimestamp - lastScheduledTimestamp + toleranceInMillis >=
+                TimeUnit.MINUTES.toMillis(intervalInMin);
+    }
+
+    /**
+     * Method that returns the interval in which the persistence ticks should be scheduled, so that the default
+     * interval as well as each of the Siddhi Application specific intervals are honoured.
+     *
+     * @param defaultIntervalInMin    is the default persistence interval
+     * @param siddhiAppIntervalsInMin are the Siddhi Application specific persistence intervals
+     * @return the tick interval in minutes
+     */
+    public static int getTickIntervalInMin(int defaultIntervalInMin, Map<String, Integer> siddhiAppIntervalsInMin) {
+        int tickInterval = defaultIntervalInMin;
+        for (int intervalInMin : siddhiAppIntervalsInMin.values()) {
+            tickInterval = greatestCommonDivisor(tickInterval, intervalInMin);
+        }
+        return tickInterval;
+    }
+
+    private static int greatestCommonDivisor(int a, int b) {
+        return b == 0 ? a : greatestCommonDivisor(b, a % b);
+    }
+
+    /**
+     * Method that returns the periodic persistence statistics of a Siddhi Application.
+     *
+     * @param siddhiAppName is the name of the Siddhi Application
+     * @return the statistics, or null if the Siddhi Application has not been scheduled for persistence yet
+     */
+    public PersistenceMetrics getPersistenceMetrics(String siddhiAppName) {
+        return persistenceMetrics.get(siddhiAppName);
+    }
+
+    /**
+     * Method that stops scheduling persistence and waits for the snapshots being written to complete, so that they
+     * are not cut off when the Siddhi Applications and the persistence store are shut down.
+     */
+    public void shutdown() {
+        persistenceWorkers.shutdown();
+        try {
+            if (!persistenceWorkers.awaitTermination(SHUTDOWN_TIMEOUT_IN_SEC, TimeUnit.SECONDS)) {
+                log.warn("Persistence of siddhi Apps " + inProgressSiddhiApps + " did not complete within " +
+                        SHUTDOWN_TIMEOUT_IN_SEC + " seconds of shutdown");
+                persistenceWorkers.shutdownNow();
             }
+        } catch (InterruptedException e) {
+            persistenceWorkers.shutdownNow();
+            Thread.currentThread().interrupt();
         }
     }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core.persistence;
+
+/**
+ * Class that holds the periodic persistence statistics of a Siddhi Application
+ */
+public class PersistenceMetrics {
+
+    private volatile String lastRevision;
+    private volatile long lastPersistedTimestamp;
+    private volatile long lastSnapshotSize;
+    private volatile long lastSerializeTime;
+    private volatile long lastWriteTime;
+    private volatile long persistCount;
+    private volatile long skippedCount;
+    private volatile long failedCount;
+
+    public String getLastRevision() {
+        return lastRevision;
+    }
+
+    public long getLastPersistedTimestamp() {
+        return lastPersistedTimestamp;
+    }
+
+    /**
+     * @return size of the last persisted snapshot in bytes
+     */
+    public long getLastSnapshotSize() {
+        return lastSnapshotSize;
+    }
+
+    /**
+     * @return time taken to serialize the last snapshot in milliseconds
+     */
+    public long getLastSerializeTime() {
+        return lastSerializeTime;
+    }
+
+    /**
+     * @return time taken to write the last snapshot to the persistence store in milliseconds
+     */
+    public long getLastWriteTime() {
+        return lastWriteTime;
+    }
+
+    public long getPersistCount() {
+        return persistCount;
+    }
+
+    /**
+     * @return number of persistence ticks skipped as the previous snapshot was still being written
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    synchronized void recordPersisted(String revision, long snapshotSize, long serializeTime, long writeTime) {
+        this.lastRevision = revision;
+        this.lastPersistedTimestamp = System.currentTimeMillis();
+        this.lastSnapshotSize = snapshotSize;
+        this.lastSerializeTime = serializeTime;
+        this.lastWriteTime = writeTime;
+        this.persistCount++;
+    }
+
+    synchronized void recordSkipped() {
+        this.skippedCount++;
+    }
+
+    synchronized void recordFailed() {
+        this.failedCount++;
+    }
+
+    @Override
+    public String toString() {
+        return "PersistenceMetrics{" +
+                "lastRevision='" + lastRevision + '\'' +
+                ", lastSnapshotSize=" + lastSnapshotSize +
+                ", lastSerializeTime=" + lastSerializeTime +
+                ", lastWriteTime=" + lastWriteTime +
+                ", persistCount=" + persistCount +
+                ", skippedCount=" + skippedCount +
+                ", failedCount=" + failedCount +
+                '}';
+    }
+}
@@ -35,6 +35,12 @@ public class RDBMSQueryConfigurationEntry {
     private String selectLastQuery;
     private String deleteQuery;
     private String countQuery;
+    private String insertChunkedSnapshotQuery;
+    private String createChunkTableQuery;
+    private String isChunkTableExistQuery;
+    private String insertChunkQuery;
+    private String selectChunksQuery;
+    private String deleteChunksQuery;
 
     @XmlAttribute(name = "name", required = true)
     public String getDatabaseName() {
@@ -107,4 +113,58 @@ public class RDBMSQueryConfigurationEntry {
     public void setCountQuery(String countQuery) {
         this.countQuery = countQuery;
     }
+
+    @XmlElement(required = true)
+    public String getInsertChunkedSnapshotQuery() {
+        return insertChunkedSnapshotQuery;
+    }
+
+    public void setInsertChunkedSnapshotQuery(String insertChunkedSnapshotQuery) {
+        this.insertChunkedSnapshotQuery = insertChunkedSnapshotQuery;
+    }
+
+    @XmlElement(required = true)
+    public String getCreateChunkTableQuery() {
+        return createChunkTableQuery;
+    }
+
+    public void setCreateChunkTableQuery(String createChunkTableQuery) {
+        this.createChunkTableQuery = createChunkTableQuery;
+    }
+
+    @XmlElement(required = true)
+    public String getIsChunkTableExistQuery() {
+        return isChunkTableExistQuery;
+    }
+
+    public void setIsChunkTableExistQuery(String isChunkTableExistQuery) {
+        this.isChunkTableExistQuery = isChunkTableExistQuery;
+    }
+
+    @XmlElement(required = true)
+    public String getInsertChunkQuery() {
+        return insertChunkQuery;
+    }
+
+    public void setInsertChunkQuery(String insertChunkQuery) {
+        this.insertChunkQuery = insertChunkQuery;
+    }
+
+    @XmlElement(required = true)
+    public String getSelectChunksQuery() {
+        return selectChunksQuery;
+    }
+
+    public void setSelectChunksQuery(String selectChunksQuery) {
+        this.selectChunksQuery = selectChunksQuery;
+    }
+
+    @XmlElement(required = true)
+    public String getDeleteChunksQuery() {
+        return deleteChunksQuery;
+    }
+
+    public void setDeleteChunksQuery(String deleteChunksQuery) {
+        this.deleteChunksQuery = deleteChunksQuery;
+    }
 }
@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core.persistence.util;
+
+import org.apache.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+
+/**
+ * Handles the delta snapshot mode of the persistence stores. A full (base) snapshot of a Siddhi App is persisted
+ * periodically and the revisions in between are persisted as block level deltas against that base revision.
+ */
+public class DeltaSnapshotHandler {
+
+    private static final Logger log = Logger.getLogger(DeltaSnapshotHandler.class);
+    private static final byte[] DELTA_HEADER = {'S', 'P', 'D', '1'};
+    private static final double MAX_DELTA_RATIO = 0.5;
+
+    private boolean enabled;
+    private int fullSnapshotInterval;
+    private int blockSize;
+    private final Map<String, SnapshotChain> snapshotChains = new ConcurrentHashMap<>();
+
+    public DeltaSnapshotHandler(Map configurationMap) {
+        if (configurationMap == null) {
+            enabled = false;
+            return;
+        }
+        Object enabledObject = configurationMap.get(PersistenceConstants.DELTA_SNAPSHOT_ENABLED);
+        enabled = enabledObject instanceof Boolean && (Boolean) enabledObject;
+
+        Object intervalObject = configurationMap.get(PersistenceConstants.DELTA_SNAPSHOT_FULL_SNAPSHOT_INTERVAL);
+        if (intervalObject instanceof Integer && (int) intervalObject > 0) {
+            fullSnapshotInterval = (int) intervalObject;
+        } else {
+            fullSnapshotInterval = PersistenceConstants.DEFAULT_FULL_SNAPSHOT_INTERVAL;
+            if (enabled && log.isDebugEnabled()) {
+                log.debug("Full snapshot interval is not set or invalid. Default value will be used.");
+            }
+        }
+
+        Object blockSizeObject = configurationMap.get(PersistenceConstants.DELTA_SNAPSHOT_BLOCK_SIZE);
+        if (blockSizeObject instanceof Integer && (int) blockSizeObject > 0) {
+            blockSize = (int) blockSizeObject;
+        } else {
+            blockSize = PersistenceConstants.DEFAULT_DELTA_BLOCK_SIZE;
+            if (enabled && log.isDebugEnabled()) {
+                log.debug("Delta block size is not set or invalid. Default value will be used.");
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Method that decides whether the given snapshot is persisted as a full revision or as a delta against the
+     * current base revision of the Siddhi App. The decision is only applied to the chain once
+     * {@link #commit(String, PreparedSnapshot)} is called after the revision is written.
+     *
+     * @param siddhiAppName is the name of the Siddhi Application
+     * @param revision      is the revision being persisted
+     * @param snapshot      is the full serialized state of the Siddhi Application
+     * @return the prepared snapshot holding the bytes to be written
+     */
+    public PreparedSnapshot prepare(String siddhiAppName, String revision, byte[] snapshot) {
+        SnapshotChain chain = snapshotChains.get(siddhiAppName);
+        if (chain == null) {
+            return new PreparedSnapshot(revision, snapshot, computeBlockDigests(snapshot), null);
+        }
+        String baseRevision;
+        long[] baseDigests;
+        synchronized (chain) {
+            if (chain.revisionsSinceBase >= fullSnapshotInterval) {
+                return new PreparedSnapshot(revision, snapshot, computeBlockDigests(snapshot), null);
+            }
+            baseRevision = chain.baseRevision;
+            baseDigests = chain.baseDigests;
+        }
+
+        List<Integer> changedBlocks = new ArrayList<>();
+        long changedBytes = 0;
+        int numberOfBlocks = getNumberOfBlocks(snapshot.length);
+        for (int i = 0; i < numberOfBlocks; i++) {
+            int offset = i * blockSize;
+            int length = Math.min(blockSize, snapshot.length - offset);
+            if (i >= baseDigests.length || baseDigests[i] != digest(snapshot, offset, length)) {
+                changedBlocks.add(i);
+                changedBytes += length;
+            }
+        }
+        if (changedBytes > snapshot.length * MAX_DELTA_RATIO) {
+            if (log.isDebugEnabled()) {
+                log.debug("Delta of revision " + revision + " of " + siddhiAppName + " exceeds the allowed size. " +
+                        "A full snapshot will be persisted instead.");
+            }
+            return new PreparedSnapshot(revision, snapshot, computeBlockDigests(snapshot), null);
+        }
+
+        try {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream((int) changedBytes +
+                    changedBlocks.size() * 8 + 256);
+            DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+            dataOutputStream.write(DELTA_HEADER);
+            dataOutputStream.writeUTF(baseRevision);
+            dataOutputStream.writeInt(snapshot.length);
+            dataOutputStream.writeInt(blockSize);
+            dataOutputStream.writeInt(changedBlocks.size());
+            for (int blockIndex : changedBlocks) {
+                int offset = blockIndex * blockSize;
+                int length = Math.min(blockSize, snapshot.length - offset);
+                dataOutputStream.writeInt(blockIndex);
+                dataOutputStream.writeInt(length);
+                dataOutputStream.write(snapshot, offset, length);
+            }
+            dataOutputStream.flush();
+            return new PreparedSnapshot(revision, byteArrayOutputStream.toByteArray(), null, baseRevision);
+        } catch (IOException e) {
+            log.error("Error while creating the delta of revision " + revision + " of " + siddhiAppName +
+                    ". A full snapshot will be persisted instead.", e);
+            return new PreparedSnapshot(revision, snapshot, computeBlockDigests(snapshot), null);
+        }
+    }
+
+    /**
+     * Method that applies a successfully written revision to the snapshot chain of the Siddhi App. Revisions of a
+     * Siddhi App may be persisted concurrently (e.g. periodic and on demand persistence), hence a delta whose base
+     * revision was replaced by a concurrently written full revision drops the chain, so that no revision is removed
+     * until a new chain alone covers the revisions to keep.
+     *
+     * @param siddhiAppName    is the name of the Siddhi Application
+     * @param preparedSnapshot is the revision that was written to the store
+     */
+    public void commit(String siddhiAppName, PreparedSnapshot preparedSnapshot) {
+        if (preparedSnapshot.isFullSnapshot()) {
+            SnapshotChain chain = snapshotChains.computeIfAbsent(siddhiAppName, name -> new SnapshotChain());
+            synchronized (chain) {
+                if (chain.baseRevision != null) {
+                    chain.previousSegmentSizes.addFirst(chain.revisionsSinceBase);
+                }
+                chain.baseRevision = preparedSnapshot.getRevision();
+                chain.baseDigests = preparedSnapshot.blockDigests;
+                chain.revisionsSinceBase = 1;
+            }
+            return;
+        }
+        SnapshotChain chain = snapshotChains.get(siddhiAppName);
+        if (chain == null) {
+            return;
+        }
+        synchronized (chain) {
+            if (preparedSnapshot.baseRevision.equals(chain.baseRevision)) {
+                chain.revisionsSinceBase++;
+            } else {
+                snapshotChains.remove(siddhiAppName, chain);
+                if (log.isDebugEnabled()) {
+                    log.debug("Base revision " + preparedSnapshot.baseRevision + " of delta revision " +
+                            preparedSnapshot.getRevision() + " of " + siddhiAppName + " was replaced concurrently. " +
+                            "The next revision will be persisted in full.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Method that drops the snapshot chain of the Siddhi App so that the next revision is persisted in full.
+     * This is used when a revision could not be written to the store.
+     *
+     * @param siddhiAppName is the name of the Siddhi Application
+     */
+    public void invalidate(String siddhiAppName) {
+        snapshotChains.remove(siddhiAppName);
+    }
+
+    /**
+     * Method that returns how many of the latest revisions must be retained so that at least the configured number
+     * of revisions can be restored. A delta is never retained without the base revision it was created from.
+     *
+     * @param siddhiAppName           is the name of the Siddhi Application
+     * @param numberOfRevisionsToKeep is the configured number of revisions to keep
+     * @return the number of latest revisions to keep, or -1 if no revision should be removed yet
+     */
+    public int getRevisionsToKeep(String siddhiAppName, int numberOfRevisionsToKeep) {
+        SnapshotChain chain = snapshotChains.get(siddhiAppName);
+        if (chain == null) {
+            return -1;
+        }
+        synchronized (chain) {
+            return getRevisionsToKeep(chain, numberOfRevisionsToKeep);
+        }
+    }
+
+    private int getRevisionsToKeep(SnapshotChain chain, int numberOfRevisionsToKeep) {
+        int revisionsToKeep = chain.revisionsSinceBase;
+        int remaining = numberOfRevisionsToKeep - chain.revisionsSinceBase;
+        Iterator<Integer> iterator = chain.previousSegmentSizes.iterator();
+        while (remaining > 0 && iterator.hasNext()) {
+            int segmentSize = iterator.next();
+            revisionsToKeep += segmentSize;
+            remaining -= segmentSize;
+        }
+        // Segments older than the retained ones are removed from the store and need not be tracked
+        while (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        if (remaining > 0 && !chain.historyComplete) {
+            // Revisions persisted before this chain started are not known, hence they are retained until the
+            // chain alone covers the configured number of revisions.
+            return -1;
+        }
+        chain.historyComplete = true;
+        return revisionsToKeep;
+    }
+
+    public static boolean isDelta(byte[] snapshot) {
+        if (snapshot == null || snapshot.length < DELTA_HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < DELTA_HEADER.length; i++) {
+            if (snapshot[i] != DELTA_HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method that returns the revision of the base snapshot a delta was created against
+     *
+     * @param delta is a delta revision
+     * @return the base revision
+     * @throws IOException if the delta is malformed
+     */
+    public static String getBaseRevision(byte[] delta) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(delta));
+        dataInputStream.skipBytes(DELTA_HEADER.length);
+        return dataInputStream.readUTF();
+    }
+
+    /**
+     * Method that reassembles the full snapshot of a revision from its base revision and delta
+     *
+     * @param base  is the full snapshot of the base revision
+     * @param delta is the delta revision
+     * @return the full snapshot
+     * @throws IOException if the delta is malformed
+     */
+    public static byte[] applyDelta(byte[] base, byte[] delta) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(delta));
+        dataInputStream.skipBytes(DELTA_HEADER.length);
+        dataInputStream.readUTF();
+        int snapshotLength = dataInputStream.readInt();
+        int deltaBlockSize = dataInputStream.readInt();
+        int numberOfChangedBlocks = dataInputStream.readInt();
+        byte[] snapshot = Arrays.copyOf(base, snapshotLength);
+        for (int i = 0; i < numberOfChangedBlocks; i++) {
+            int blockIndex = dataInputStream.readInt();
+            int length = dataInputStream.readInt();
+            dataInputStream.readFully(snapshot, blockIndex * deltaBlockSize, length);
+        }
+        return snapshot;
+    }
+
+    private long[] computeBlockDigests(byte[] snapshot) {
+        long[] digests = new long[getNumberOfBlocks(snapshot.length)];
+        for (int i = 0; i < digests.length; i++) {
+            int offset = i * blockSize;
+            digests[i] = digest(snapshot, offset, Math.min(blockSize, snapshot.length - offset));
+        }
+        return digests;
+    }
+
+    private int getNumberOfBlocks(int snapshotLength) {
+        return (snapshotLength + blockSize - 1) / blockSize;
+    }
+
+    private static long digest(byte[] snapshot, int offset, int length) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(snapshot, offset, length);
+        Adler32 adler32 = new Adler32();
+        adler32.update(snapshot, offset, length);
+        return (crc32.getValue() << 32) | adler32.getValue();
+    }
+
+    /**
+     * Revision of a Siddhi App that is ready to be written to the persistence store
+     */
+    public static class PreparedSnapshot {
+
+        private final String revision;
+        private final byte[] bytes;
+        private final long[] blockDigests;
+        private final String baseRevision;
+
+        private PreparedSnapshot(String revision, byte[] bytes, long[] blockDigests, String baseRevision) {
+            this.revision = revision;
+            this.bytes = bytes;
+            this.blockDigests = blockDigests;
+            this.baseRevision = baseRevision;
+        }
+
+        public String getRevision() {
+            return revision;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        public boolean isFullSnapshot() {
+            return baseRevision == null;
+        }
+    }
+
+    /**
+     * Snapshot chain of a Siddhi App. Each segment of the chain is a base revision followed by its deltas. The fields
+     * are guarded by the chain itself.
+     */
+    private static class SnapshotChain {
+
+        private String baseRevision;
+        private long[] baseDigests;
+        private int revisionsSinceBase;
+        private LinkedList<Integer> previousSegmentSizes = new LinkedList<>();
+        private boolean historyComplete = false;
+    }
+}
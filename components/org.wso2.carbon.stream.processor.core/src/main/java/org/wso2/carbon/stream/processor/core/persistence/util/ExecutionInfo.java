@@ -30,8 +30,15 @@ public class ExecutionInfo {
     private String preparedSelectLastStatement;
     private String preparedDeleteStatement;
     private String preparedCountStatement;
+    private String preparedInsertChunkedSnapshotStatement;
+    private String preparedCreateChunkTableStatement;
+    private String preparedChunkTableExistenceCheckStatement;
+    private String preparedInsertChunkStatement;
+    private String preparedSelectChunksStatement;
+    private String preparedDeleteChunksStatement;
 
     private boolean tableExist = false;
+    private boolean chunkTableExist = false;
 
     public String getPreparedInsertStatement() {
         return preparedInsertStatement;
@@ -96,4 +103,60 @@ public class ExecutionInfo {
     public void setTableExist(boolean tableExist) {
         this.tableExist = tableExist;
     }
+
+    public String getPreparedInsertChunkedSnapshotStatement() {
+        return preparedInsertChunkedSnapshotStatement;
+    }
+
+    public void setPreparedInsertChunkedSnapshotStatement(String preparedInsertChunkedSnapshotStatement) {
+        this.preparedInsertChunkedSnapshotStatement = preparedInsertChunkedSnapshotStatement;
+    }
+
+    public String getPreparedCreateChunkTableStatement() {
+        return preparedCreateChunkTableStatement;
+    }
+
+    public void setPreparedCreateChunkTableStatement(String preparedCreateChunkTableStatement) {
+        this.preparedCreateChunkTableStatement = preparedCreateChunkTableStatement;
+    }
+
+    public String getPreparedChunkTableExistenceCheckStatement() {
+        return preparedChunkTableExistenceCheckStatement;
+    }
+
+    public void setPreparedChunkTableExistenceCheckStatement(String preparedChunkTableExistenceCheckStatement) {
+        this.preparedChunkTableExistenceCheckStatement = preparedChunkTableExistenceCheckStatement;
+    }
+
+    public String getPreparedInsertChunkStatement() {
+        return preparedInsertChunkStatement;
+    }
+
+    public void setPreparedInsertChunkStatement(String preparedInsertChunkStatement) {
+        this.preparedInsertChunkStatement = preparedInsertChunkStatement;
+    }
+
+    public String getPreparedSelectChunksStatement() {
+        return preparedSelectChunksStatement;
+    }
+
+    public void setPreparedSelectChunksStatement(String preparedSelectChunksStatement) {
+        this.preparedSelectChunksStatement = preparedSelectChunksStatement;
+    }
+
+    public String getPreparedDeleteChunksStatement() {
+        return preparedDeleteChunksStatement;
+    }
+
+    public void setPreparedDeleteChunksStatement(String preparedDeleteChunksStatement) {
+        this.preparedDeleteChunksStatement = preparedDeleteChunksStatement;
+    }
+
+    public boolean isChunkTableExist() {
+        return chunkTableExist;
+    }
+
+    public void setChunkTableExist(boolean chunkTableExist) {
+        this.chunkTableExist = chunkTableExist;
+    }
 }
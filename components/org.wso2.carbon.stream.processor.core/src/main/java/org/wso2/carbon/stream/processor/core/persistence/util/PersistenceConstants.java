@@ -28,8 +28,30 @@ public class PersistenceConstants {
     public static final String STATE_PERSISTENCE_REVISIONS_TO_KEEP = "revisionsToKeep";
     public static final String STATE_PERSISTENCE_CLASS = "class";
     public static final String STATE_PERSISTENCE_CONFIGS = "config";
+    public static final String STATE_PERSISTENCE_WORKER_POOL_SIZE = "workerPoolSize";
+    public static final String STATE_PERSISTENCE_SIDDHI_APP_INTERVALS_IN_MIN = "siddhiAppIntervalsInMin";
+    public static final int DEFAULT_PERSISTENCE_WORKER_POOL_SIZE = 4;
     public static final String DEFAULT_FILE_PERSISTENCE_FOLDER = "siddhi-app-persistence";
     public static final String DEFAULT_DB_PERSISTENCE_DATASOURCE = "WSO2_ANALYTICS_DB";
     public static final String DEFAULT_DB_PERSISTENCE_TABLE_NAME = "PERSISTENCE_TABLE";
+    public static final String DELTA_SNAPSHOT_ENABLED = "deltaSnapshotEnabled";
+    public static final String DELTA_SNAPSHOT_FULL_SNAPSHOT_INTERVAL = "fullSnapshotInterval";
+    public static final String DELTA_SNAPSHOT_BLOCK_SIZE = "deltaBlockSize";
+    public static final int DEFAULT_FULL_SNAPSHOT_INTERVAL = 10;
+    public static final int DEFAULT_DELTA_BLOCK_SIZE = 4096;
+    public static final String CHUNKED_SNAPSHOT_ENABLED = "chunkedSnapshotEnabled";
+    public static final String CHUNK_SIZE_IN_KB = "chunkSizeInKB";
+    public static final int DEFAULT_CHUNK_SIZE_IN_KB = 1024;
+    public static final String COMPRESSION_CODEC = "compression";
+    public static final String DEFAULT_SEGMENT_PERSISTENCE_FOLDER = "siddhi-app-persistence-segments";
+    public static final String SEGMENT_SIZE_IN_MB = "segmentSizeInMB";
+    public static final String FSYNC_POLICY = "fsyncPolicy";
+    public static final String FSYNC_INTERVAL_IN_SEC = "fsyncIntervalInSec";
+    public static final String COMPACTION_THRESHOLD = "compactionThreshold";
+    public static final String COMPACTION_INTERVAL_IN_SEC = "compactionIntervalInSec";
+    public static final int DEFAULT_SEGMENT_SIZE_IN_MB = 64;
+    public static final int DEFAULT_FSYNC_INTERVAL_IN_SEC = 5;
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+    public static final int DEFAULT_COMPACTION_INTERVAL_IN_SEC = 60;
 
 }
@@ -75,6 +75,18 @@ public class RDBMSConfiguration {
                 replace(PersistenceConstants.PLACEHOLDER_TABLE_NAME, tableName));
         databaseQueryEntries.setCountQuery(databaseQueryEntries.getCountQuery().
                 replace(PersistenceConstants.PLACEHOLDER_TABLE_NAME, tableName));
+        databaseQueryEntries.setInsertChunkedSnapshotQuery(databaseQueryEntries.getInsertChunkedSnapshotQuery().
+                replace(PersistenceConstants.PLACEHOLDER_TABLE_NAME, tableName));
+        databaseQueryEntries.setCreateChunkTableQuery(databaseQueryEntries.getCreateChunkTableQuery().
+                replace(PersistenceConstants.PLACEHOLDER_TABLE_NAME, tableName));
+        databaseQueryEntries.setIsChunkTableExistQuery(databaseQueryEntries.getIsChunkTableExistQuery().
+                replace(PersistenceConstants.PLACEHOLDER_TABLE_NAME, tableName));
+        databaseQueryEntries.setInsertChunkQuery(databaseQueryEntries.getInsertChunkQuery().
+                replace(PersistenceConstants.PLACEHOLDER_TABLE_NAME, tableName));
+        databaseQueryEntries.setSelectChunksQuery(databaseQueryEntries.getSelectChunksQuery().
+                replace(PersistenceConstants.PLACEHOLDER_TABLE_NAME, tableName));
+        databaseQueryEntries.setDeleteChunksQuery(databaseQueryEntries.getDeleteChunksQuery().
+                replace(PersistenceConstants.PLACEHOLDER_TABLE_NAME, tableName));
 
         return databaseQueryEntries;
     }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.stream.processor.core.persistence.util;
+
+/**
+ * Util class used to create the revisions of persisted Siddhi Application snapshots. A revision is the time the
+ * snapshot was taken followed by the name of the Siddhi Application, which is the format of the revisions Siddhi
+ * creates. The persistence stores order revisions by name, hence restoreLastRevision restores the latest revision
+ * only as long as revisions are created in this format.
+ */
+public class RevisionUtil {
+
+    public static final String REVISION_SEPARATOR = "_";
+
+    private RevisionUtil() {
+    }
+
+    /**
+     * Create the revision of a snapshot
+     *
+     * @param timestamp     is the time the snapshot was taken
+     * @param siddhiAppName is the name of the Siddhi Application
+     * @return the revision
+     */
+    public static String createRevision(long timestamp, String siddhiAppName) {
+        return timestamp + REVISION_SEPARATOR + siddhiAppName;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.stream.processor.core.ha.util.CompressionCodec;
+import org.wso2.carbon.stream.processor.core.ha.util.CompressionUtil;
+
+import java.io.IOException;
+
+public class CompressionUtilTest {
+
+    private byte[] createSnapshot(int length) {
+        byte[] snapshot = new byte[length];
+        for (int i = 0; i < length; i++) {
+            snapshot[i] = (byte) (i % 7);
+        }
+        return snapshot;
+    }
+
+    @Test
+    public void testCodecRoundTrip() throws IOException {
+        byte[] snapshot = createSnapshot(100000);
+        for (String codecName : new String[]{CompressionUtil.CODEC_NONE, CompressionUtil.CODEC_GZIP,
+                CompressionUtil.CODEC_DEFLATE}) {
+            CompressionCodec codec = CompressionUtil.getCodec(codecName);
+            byte[] compressed = CompressionUtil.compress(snapshot, codec);
+            Assert.assertEquals(CompressionUtil.decompress(compressed), snapshot, codecName);
+        }
+        byte[] empty = new byte[0];
+        Assert.assertEquals(CompressionUtil.decompress(CompressionUtil.compress(empty,
+                CompressionUtil.getCodec(CompressionUtil.CODEC_DEFLATE))), empty);
+    }
+
+    @Test
+    public void testLegacyBytes() throws IOException {
+        byte[] snapshot = createSnapshot(5000);
+        Assert.assertEquals(CompressionUtil.decompress(CompressionUtil.compressGZIP(snapshot)), snapshot);
+        Assert.assertEquals(CompressionUtil.decompressGZIP(CompressionUtil.compressGZIP(snapshot)), snapshot);
+        Assert.assertSame(CompressionUtil.decompress(snapshot), snapshot);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidCodec() {
+        CompressionUtil.getCodec("org.wso2.UnknownCodec");
+    }
+}
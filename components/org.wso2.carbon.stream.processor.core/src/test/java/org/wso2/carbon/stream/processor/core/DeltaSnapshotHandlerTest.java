@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.stream.processor.core.persistence.util.DeltaSnapshotHandler;
+import org.wso2.carbon.stream.processor.core.persistence.util.PersistenceConstants;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class DeltaSnapshotHandlerTest {
+
+    private static final String SIDDHI_APP = "TestApp";
+
+    private DeltaSnapshotHandler createHandler(int fullSnapshotInterval) {
+        Map<String, Object> configurationMap = new HashMap<>();
+        configurationMap.put(PersistenceConstants.DELTA_SNAPSHOT_ENABLED, true);
+        configurationMap.put(PersistenceConstants.DELTA_SNAPSHOT_FULL_SNAPSHOT_INTERVAL, fullSnapshotInterval);
+        configurationMap.put(PersistenceConstants.DELTA_SNAPSHOT_BLOCK_SIZE, 16);
+        return new DeltaSnapshotHandler(configurationMap);
+    }
+
+    private byte[] createSnapshot(int length) {
+        byte[] snapshot = new byte[length];
+        for (int i = 0; i < length; i++) {
+            snapshot[i] = (byte) i;
+        }
+        return snapshot;
+    }
+
+    @Test
+    public void testDeltaReassembly() throws IOException {
+        DeltaSnapshotHandler handler = createHandler(10);
+        byte[] base = createSnapshot(256);
+        DeltaSnapshotHandler.PreparedSnapshot baseRevision = handler.prepare(SIDDHI_APP, "1_TestApp", base);
+        Assert.assertTrue(baseRevision.isFullSnapshot());
+        Assert.assertFalse(DeltaSnapshotHandler.isDelta(baseRevision.getBytes()));
+        handler.commit(SIDDHI_APP, baseRevision);
+
+        byte[] snapshot = createSnapshot(260);
+        snapshot[40] = 0;
+        DeltaSnapshotHandler.PreparedSnapshot deltaRevision = handler.prepare(SIDDHI_APP, "2_TestApp", snapshot);
+        Assert.assertFalse(deltaRevision.isFullSnapshot());
+        Assert.assertTrue(DeltaSnapshotHandler.isDelta(deltaRevision.getBytes()));
+        Assert.assertTrue(deltaRevision.getBytes().length < snapshot.length);
+        Assert.assertEquals(DeltaSnapshotHandler.getBaseRevision(deltaRevision.getBytes()), "1_TestApp");
+        Assert.assertEquals(DeltaSnapshotHandler.applyDelta(base, deltaRevision.getBytes()), snapshot);
+    }
+
+    @Test
+    public void testFullSnapshotWhenDeltaIsLarge() {
+        DeltaSnapshotHandler handler = createHandler(10);
+        handler.commit(SIDDHI_APP, handler.prepare(SIDDHI_APP, "1_TestApp", createSnapshot(256)));
+        byte[] snapshot = new byte[256];
+        Assert.assertTrue(handler.prepare(SIDDHI_APP, "2_TestApp", snapshot).isFullSnapshot());
+    }
+
+    @Test
+    public void testRevisionsToKeep() {
+        DeltaSnapshotHandler handler = createHandler(3);
+        for (int i = 1; i <= 5; i++) {
+            handler.commit(SIDDHI_APP, handler.prepare(SIDDHI_APP, i + "_TestApp", createSnapshot(256)));
+        }
+        // Chain is [1, 2, 3][4, 5]; keeping 3 revisions requires the base of revision 3
+        Assert.assertEquals(handler.getRevisionsToKeep(SIDDHI_APP, 3), 5);
+        Assert.assertEquals(handler.getRevisionsToKeep(SIDDHI_APP, 2), 2);
+        Assert.assertEquals(handler.getRevisionsToKeep("UnknownApp", 2), -1);
+    }
+
+    @Test
+    public void testDeltaOfReplacedBase() {
+        DeltaSnapshotHandler handler = createHandler(10);
+        handler.commit(SIDDHI_APP, handler.prepare(SIDDHI_APP, "1_TestApp", createSnapshot(256)));
+        byte[] snapshot = createSnapshot(256);
+        snapshot[40] = 0;
+        DeltaSnapshotHandler.PreparedSnapshot deltaRevision = handler.prepare(SIDDHI_APP, "2_TestApp", snapshot);
+        Assert.assertFalse(deltaRevision.isFullSnapshot());
+        // A full revision persisted concurrently replaces the base of the delta before the delta is committed
+        handler.commit(SIDDHI_APP, handler.prepare(SIDDHI_APP, "3_TestApp", new byte[256]));
+        handler.commit(SIDDHI_APP, deltaRevision);
+        Assert.assertEquals(handler.getRevisionsToKeep(SIDDHI_APP, 1), -1);
+        Assert.assertTrue(handler.prepare(SIDDHI_APP, "4_TestApp", snapshot).isFullSnapshot());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.stream.processor.core.ha.util.EventRingBuffer;
+import org.wso2.siddhi.core.event.Event;
+
+public class EventRingBufferTest {
+
+    private Event createEvent(long timestamp) {
+        Event event = new Event();
+        event.setTimestamp(timestamp);
+        return event;
+    }
+
+    @Test
+    public void testOverwriteOldest() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(3);
+        for (long i = 1; i <= 5; i++) {
+            ringBuffer.offer(createEvent(i));
+        }
+        Assert.assertEquals(ringBuffer.size(), 3);
+        Assert.assertEquals(ringBuffer.peek().getTimestamp(), 3L);
+
+        ringBuffer.offer(new Event[]{createEvent(6), createEvent(7)});
+        Assert.assertEquals(ringBuffer.size(), 3);
+        Assert.assertEquals(ringBuffer.poll().getTimestamp(), 5L);
+        Assert.assertEquals(ringBuffer.poll().getTimestamp(), 6L);
+        Assert.assertEquals(ringBuffer.poll().getTimestamp(), 7L);
+        Assert.assertNull(ringBuffer.poll());
+
+        ringBuffer.offer(new Event[]{createEvent(8), createEvent(9), createEvent(10), createEvent(11)});
+        Assert.assertEquals(ringBuffer.size(), 3);
+        Assert.assertEquals(ringBuffer.peek().getTimestamp(), 9L);
+    }
+
+    @Test
+    public void testTrim() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(10);
+        for (long i = 1; i <= 12; i++) {
+            ringBuffer.offer(createEvent(i));
+        }
+        Assert.assertEquals(ringBuffer.trim(1L), 0);
+        Assert.assertEquals(ringBuffer.trim(6L), 4);
+        Assert.assertEquals(ringBuffer.size(), 6);
+        Assert.assertEquals(ringBuffer.peek().getTimestamp(), 7L);
+
+        long expectedTimestamp = 7L;
+        for (Event event : ringBuffer) {
+            Assert.assertEquals(event.getTimestamp(), expectedTimestamp++);
+        }
+        Assert.assertEquals(ringBuffer.trim(20L), 6);
+        Assert.assertTrue(ringBuffer.isEmpty());
+    }
+
+    @Test
+    public void testTrimUnorderedEvents() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(10);
+        ringBuffer.offer(new Event[]{createEvent(1), createEvent(9), createEvent(2), createEvent(3)});
+        Assert.assertEquals(ringBuffer.trim(5L), 1);
+        Assert.assertEquals(ringBuffer.size(), 3);
+        Assert.assertEquals(ringBuffer.peek().getTimestamp(), 9L);
+    }
+
+    @Test
+    public void testConcurrentPollAndOverwrite() throws InterruptedException {
+        EventRingBuffer ringBuffer = new EventRingBuffer(64);
+        int eventCount = 200000;
+        Thread writer = new Thread(() -> {
+            for (long i = 1; i <= eventCount; i++) {
+                ringBuffer.offer(createEvent(i));
+            }
+        });
+        writer.start();
+        long lastTimestamp = 0;
+        while (writer.isAlive() || !ringBuffer.isEmpty()) {
+            Event event = ringBuffer.poll();
+            if (event != null) {
+                Assert.assertTrue(event.getTimestamp() > lastTimestamp);
+                lastTimestamp = event.getTimestamp();
+            }
+        }
+        writer.join();
+        Assert.assertEquals(lastTimestamp, eventCount);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.stream.processor.core.persistence.MemoryMappedPersistenceStore;
+import org.wso2.carbon.stream.processor.core.persistence.exception.PersistenceStoreException;
+import org.wso2.carbon.stream.processor.core.persistence.util.PersistenceConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class MemoryMappedPersistenceStoreTest {
+
+    private static final String SIDDHI_APP = "TestApp";
+    private final List<MemoryMappedPersistenceStore> stores = new ArrayList<>();
+    private final List<File> folders = new ArrayList<>();
+
+    @AfterMethod
+    public void cleanUp() throws IOException {
+        stores.forEach(MemoryMappedPersistenceStore::close);
+        stores.clear();
+        for (File folder : folders) {
+            try (Stream<Path> paths = Files.walk(folder.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+            Assert.assertFalse(folder.exists());
+        }
+        folders.clear();
+    }
+
+    private File createFolder() throws IOException {
+        File folder = Files.createTempDirectory("segment-store").toFile();
+        folders.add(folder);
+        return folder;
+    }
+
+    private MemoryMappedPersistenceStore createStore(File folder) {
+        Map<String, Object> configurationMap = new HashMap<>();
+        configurationMap.put("location", folder.getAbsolutePath());
+        configurationMap.put(PersistenceConstants.SEGMENT_SIZE_IN_MB, 1);
+        configurationMap.put(PersistenceConstants.FSYNC_POLICY, "always");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(PersistenceConstants.STATE_PERSISTENCE_REVISIONS_TO_KEEP, 2);
+        properties.put(PersistenceConstants.STATE_PERSISTENCE_CONFIGS, configurationMap);
+        MemoryMappedPersistenceStore persistenceStore = new MemoryMappedPersistenceStore();
+        persistenceStore.setProperties(properties);
+        stores.add(persistenceStore);
+        return persistenceStore;
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File folder = createFolder();
+        MemoryMappedPersistenceStore persistenceStore = createStore(folder);
+        Assert.assertNull(persistenceStore.getLastRevision(SIDDHI_APP));
+        for (int i = 1; i <= 5; i++) {
+            persistenceStore.save(SIDDHI_APP, i + "_" + SIDDHI_APP, new byte[]{(byte) i, 1, 2, 3});
+        }
+        Assert.assertEquals(persistenceStore.getLastRevision(SIDDHI_APP), "5_" + SIDDHI_APP);
+        Assert.assertEquals(persistenceStore.load(SIDDHI_APP, "4_" + SIDDHI_APP), new byte[]{4, 1, 2, 3});
+        Assert.assertNull(persistenceStore.load(SIDDHI_APP, "3_" + SIDDHI_APP));
+    }
+
+    @Test
+    public void testIndexRebuiltOnRestart() throws IOException {
+        File folder = createFolder();
+        MemoryMappedPersistenceStore persistenceStore = createStore(folder);
+        // Snapshots larger than a segment are written to a segment of their own
+        byte[] largeSnapshot = new byte[2 * 1024 * 1024];
+        largeSnapshot[largeSnapshot.length - 1] = 7;
+        persistenceStore.save(SIDDHI_APP, "1_" + SIDDHI_APP, new byte[]{1});
+        persistenceStore.save(SIDDHI_APP, "2_" + SIDDHI_APP, largeSnapshot);
+        persistenceStore.save(SIDDHI_APP, "3_" + SIDDHI_APP, new byte[]{3});
+
+        persistenceStore.close();
+        MemoryMappedPersistenceStore restartedStore = createStore(folder);
+        Assert.assertEquals(restartedStore.getLastRevision(SIDDHI_APP), "3_" + SIDDHI_APP);
+        Assert.assertEquals(restartedStore.load(SIDDHI_APP, "2_" + SIDDHI_APP), largeSnapshot);
+        Assert.assertNull(restartedStore.load(SIDDHI_APP, "1_" + SIDDHI_APP));
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        MemoryMappedPersistenceStore persistenceStore = createStore(createFolder());
+        persistenceStore.save(SIDDHI_APP, "1_" + SIDDHI_APP, new byte[]{1});
+        persistenceStore.close();
+        Assert.assertNull(persistenceStore.load(SIDDHI_APP, "1_" + SIDDHI_APP));
+        try {
+            persistenceStore.save(SIDDHI_APP, "2_" + SIDDHI_APP, new byte[]{2});
+            Assert.fail("Saving to a closed segment store must fail");
+        } catch (PersistenceStoreException e) {
+            Assert.assertNull(persistenceStore.getLastRevision(SIDDHI_APP));
+        }
+    }
+}
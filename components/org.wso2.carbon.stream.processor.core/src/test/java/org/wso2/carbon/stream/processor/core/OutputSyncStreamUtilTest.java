@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.stream.processor.core.ha.util.OutputSyncStreamUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class OutputSyncStreamUtilTest {
+
+    @Test
+    public void testOutputSyncStream() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        OutputSyncStreamUtil.OutputSyncStreamWriter writer =
+                new OutputSyncStreamUtil.OutputSyncStreamWriter(outputStream);
+        writer.writeBatch(Collections.singletonMap("sink1", 10L), Collections.singletonMap("table1", 20L));
+        writer.writeBatch(Collections.emptyMap(), Collections.emptyMap());
+        writer.writeBatch(Collections.singletonMap("sink1", 30L), Collections.emptyMap());
+
+        Map<String, Long> sinkTimestamps = new HashMap<>();
+        Map<String, Long> recordTableTimestamps = new HashMap<>();
+        OutputSyncStreamUtil.readBatches(new ByteArrayInputStream(outputStream.toByteArray()),
+                new OutputSyncStreamUtil.OutputSyncTimestampHandler() {
+                    @Override
+                    public void handleSinkTimestamp(String sinkHandlerElementId, long timestamp) {
+                        sinkTimestamps.put(sinkHandlerElementId, timestamp);
+                    }
+
+                    @Override
+                    public void handleRecordTableTimestamp(String recordTableHandlerElementId, long timestamp) {
+                        recordTableTimestamps.put(recordTableHandlerElementId, timestamp);
+                    }
+                });
+        Assert.assertEquals(sinkTimestamps.get("sink1"), Long.valueOf(30L));
+        Assert.assertEquals(recordTableTimestamps.get("table1"), Long.valueOf(20L));
+    }
+}
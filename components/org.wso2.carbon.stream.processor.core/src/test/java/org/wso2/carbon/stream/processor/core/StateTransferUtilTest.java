@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.stream.processor.core;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.stream.processor.core.ha.util.StateTransferUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class StateTransferUtilTest {
+
+    @Test
+    public void testStateStream() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        StateTransferUtil.StateStreamWriter writer = new StateTransferUtil.StateStreamWriter(outputStream);
+        writer.writeFrame("App1", new byte[]{1, 2, 3});
+        writer.writeFrame("App2", new byte[0]);
+        writer.close();
+
+        Map<String, byte[]> snapshotMap = new LinkedHashMap<>();
+        int frameCount = StateTransferUtil.readFrames(new ByteArrayInputStream(outputStream.toByteArray()),
+                snapshotMap::put);
+        Assert.assertEquals(frameCount, 2);
+        Assert.assertEquals(snapshotMap.get("App1"), new byte[]{1, 2, 3});
+        Assert.assertEquals(snapshotMap.get("App2"), new byte[0]);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testTruncatedStateStream() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        StateTransferUtil.StateStreamWriter writer = new StateTransferUtil.StateStreamWriter(outputStream);
+        writer.writeFrame("App1", new byte[]{1, 2, 3});
+        writer.close();
+        byte[] truncated = Arrays.copyOf(outputStream.toByteArray(), outputStream.size() - 4);
+        StateTransferUtil.readFrames(new ByteArrayInputStream(truncated), (siddhiAppName, snapshot) -> {
+        });
+    }
+}